@@ -0,0 +1,38 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.alg;
+
+import java.rmi.RemoteException;
+
+import net.hudup.core.data.Dataset;
+import net.hudup.core.data.RatingDelta;
+
+/**
+ * This interface represents algorithms which can learn incrementally from changes of ratings instead of being set up again from scratch.
+ * The algorithm which was set up is not modified when it learns incrementally, so it can keep serving while the new algorithm is learned.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public interface IncrementalAlg extends Alg {
+
+
+	/**
+	 * Creating new algorithm which is set up with the specified dataset by learning incrementally from this algorithm and the specified changes of ratings.
+	 * The specified dataset must be the dataset of this algorithm after the specified changes are applied, for example, the dataset produced by the method
+	 * {@link RatingDelta#apply(net.hudup.core.data.SnapshotImpl)}. This algorithm is not modified.
+	 * @param dataset specified dataset which is the dataset of this algorithm after the specified changes are applied.
+	 * @param delta specified changes of ratings.
+	 * @return new algorithm set up with the specified dataset, or null if this algorithm cannot learn incrementally and so it should be set up again from scratch.
+	 * @throws RemoteException if any error raises.
+	 */
+	Alg learnIncrementally(Dataset dataset, RatingDelta delta) throws RemoteException;
+
+
+}
@@ -8,7 +8,7 @@
 package net.hudup.core.alg;
 
 import java.rmi.RemoteException;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Set;
 
 import net.hudup.core.Constants;
@@ -17,6 +17,7 @@ import net.hudup.core.data.DataConfig;
 import net.hudup.core.data.Dataset;
 import net.hudup.core.data.Fetcher;
 import net.hudup.core.data.Pair;
+import net.hudup.core.data.PairHeap;
 import net.hudup.core.data.Profile;
 import net.hudup.core.data.RatingVector;
 import net.hudup.core.evaluate.recommend.Accuracy;
@@ -89,6 +90,18 @@ public abstract class RecommenderAbstract extends AlgAbstract implements Recomme
 	public static final boolean REVERSED_RECOMMEND_DEFAULT = false;
 
 	
+	/**
+	 * Number of items estimated together by one call of {@link #estimate(RecommendParam, Set)} when recommending.
+	 */
+	public static final String RECOMMEND_BATCH = "recommend_batch";
+
+	
+	/**
+	 * Default value for the number of items estimated together when recommending.
+	 */
+	public static final int RECOMMEND_BATCH_DEFAULT = 64;
+
+	
 	/**
 	 * The filter list contains of filters. Filter specifies tasks which be performed before any actual recommendation tasks.
 	 * Concretely, two methods {@link #estimate(RecommendParam, Set)} and {@link #recommend(RecommendParam, int)} require filtering tasks specified by filters of this list.
@@ -121,12 +134,71 @@ public abstract class RecommenderAbstract extends AlgAbstract implements Recomme
 		
 		filterList.prepare(param);
 		Dataset dataset = getDataset();
-		Fetcher<RatingVector> items = dataset.fetchItemRatings();
 		
-		List<Pair> pairs = Util.newList();
+		int[] candidates = fetchCandidates(dataset, param);
+		if (candidates.length == 0) return null;
+		
 		double maxRating = getMaxRating();
 		double minRating = getMinRating();
 		boolean reserved = getConfig().getAsBoolean(REVERSED_RECOMMEND);
+		boolean fast = getConfig().getAsBoolean(FAST_RECOMMEND);
+		int batch = Math.max(1, getConfig().getAsInt(RECOMMEND_BATCH));
+		
+		PairHeap heap = new PairHeap(maxRecommend, reserved);
+		try {
+			int start = 0;
+			boolean stop = false;
+			while (!stop && start < candidates.length) {
+				//Estimating a chunk of items by one call and merging it in the order of fetching items so that ties and early stopping are the same as estimating items one by one.
+				int end = Math.min(start + batch, candidates.length);
+				int[] chunk = Arrays.copyOfRange(candidates, start, end);
+				start = end;
+				RatingVector predict = estimate(param, toIdSet(chunk));
+				if (predict == null) continue;
+				
+				for (int j = 0; j < chunk.length; j++) {
+					int itemId = chunk[j];
+					if (!predict.isRated(itemId)) continue;
+					
+					double value = predict.get(itemId).value;
+					if (Accuracy.isRelevant(value, this) == reserved)
+						continue;
+					heap.offer(itemId, value);
+					
+					if (heap.isFull()) {
+						double last = heap.worstValue();
+						if (fast || (reserved ? last <= minRating : last >= maxRating)) {
+							stop = true;
+							break;
+						}
+					}
+				}
+			}
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		
+		if (heap.size() == 0) return null;
+		
+		RatingVector rec = param.ratingVector.newInstance(true);
+		Pair.fillRatingVector(rec, heap.toSortedList());
+		return rec;
+	}
+
+	
+	/**
+	 * Fetching identifiers of candidate items for recommendation. Candidate items are not rated by the specified recommendation parameter
+	 * and they pass the filter list {@link #filterList}. Identifiers are kept in the order of fetching items from the specified dataset.
+	 * @param dataset specified dataset.
+	 * @param param specified recommendation parameter.
+	 * @return array of identifiers of candidate items.
+	 */
+	protected int[] fetchCandidates(Dataset dataset, RecommendParam param) {
+		int[] candidates = new int[64];
+		int n = 0;
+		
+		Fetcher<RatingVector> items = dataset.fetchItemRatings();
 		try {
 			while (items.next()) {
 				RatingVector item = items.pick();
@@ -139,40 +211,9 @@ public abstract class RecommenderAbstract extends AlgAbstract implements Recomme
 				if(!filterList.filter(dataset, RecommendFilterParam.create(itemId)))
 					continue;
 				
-				Set<Integer> queryIds = Util.newSet();
-				queryIds.add(itemId);
-				RatingVector predict = estimate(param, queryIds);
-				if (predict == null || !predict.isRated(itemId))
-					continue;
-				
-				// Finding maximum rating
-				double value = predict.get(itemId).value;
-				if (Accuracy.isRelevant(value, this) == reserved)
-					continue;
-				int found = reserved ? Pair.findIndexOfGreaterThan(value, pairs) : Pair.findIndexOfLessThan(value, pairs);
-				Pair pair = new Pair(itemId, value);
-				if (found == -1)
-					pairs.add(pair);
-				else 
-					pairs.add(found, pair);
-				
-				int n = pairs.size();
-				if (maxRecommend > 0 && n >= maxRecommend) {
-					Pair last = pairs.get(n - 1);
-					if (getConfig().getAsBoolean(FAST_RECOMMEND)
-							|| (reserved ? last.value() <= minRating : last.value() >= maxRating)) {
-						if (n > maxRecommend) pairs.remove(n - 1);
-						
-						break;
-					}
-					else if (n > maxRecommend)
-						pairs.remove(n - 1);
-				}
-				
-			} // end while
-	
-			if (maxRecommend > 0 && pairs.size() > maxRecommend) {
-				pairs = pairs.subList(0, maxRecommend); //This code line is for safe in case that there are maxRecommend+1 items.
+				if (n == candidates.length)
+					candidates = Arrays.copyOf(candidates, n * 2);
+				candidates[n++] = itemId;
 			}
 		}
 		catch (Throwable e) {
@@ -185,13 +226,21 @@ public abstract class RecommenderAbstract extends AlgAbstract implements Recomme
 			catch (Throwable e) {LogUtil.trace(e);}
 		}
 		
-		if (pairs.size() == 0) return null;
-		
-		RatingVector rec = param.ratingVector.newInstance(true);
-		Pair.fillRatingVector(rec, pairs);
-		return rec;
+		return Arrays.copyOf(candidates, n);
 	}
-
+	
+	
+	/**
+	 * Converting the specified array of identifiers into a set of identifiers.
+	 * @param ids specified array of identifiers.
+	 * @return set of identifiers.
+	 */
+	private static Set<Integer> toIdSet(int[] ids) {
+		Set<Integer> idSet = Util.newSet(ids.length);
+		for (int id : ids) idSet.add(id);
+		return idSet;
+	}
+	
 	
 	/**
 	 * Pre-processing the specified recommendation parameter.
@@ -398,6 +447,7 @@ public abstract class RecommenderAbstract extends AlgAbstract implements Recomme
 		config.put(MINMAX_RATING_BOUND, MINMAX_RATING_BOUND_DEFAULT);
 		config.put(FAST_RECOMMEND, FAST_RECOMMEND_DEFAULT);
 		config.put(REVERSED_RECOMMEND, REVERSED_RECOMMEND_DEFAULT);
+		config.put(RECOMMEND_BATCH, RECOMMEND_BATCH_DEFAULT);
 		config.put(MINMAX_RATING_RECONFIG, MINMAX_RATING_RECONFIG_DEFAULT);
 		return config;
 	}
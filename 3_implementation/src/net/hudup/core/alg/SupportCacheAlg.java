@@ -35,6 +35,18 @@ public interface SupportCacheAlg extends Alg {
 	final static boolean SUPPORT_CACHE_DEFAULT = true;
 	
 	
+	/**
+	 * Cache capacity field name. It is the maximum number of results kept in every {@link TaskCache} of algorithm. Zero or negative value means unbounded cache.
+	 */
+	final static String CACHE_CAPACITY_FIELD = "alg_cache_capacity";
+
+	
+	/**
+	 * Default cache capacity.
+	 */
+	final static int CACHE_CAPACITY_DEFAULT = 1000000;
+	
+	
 	/**
 	 * Task interface for putting result into cache.
 	 * @author Loc Nguyen
@@ -176,6 +188,42 @@ public interface SupportCacheAlg extends Alg {
 	}
 
 	
+	/**
+	 * Doing some task and put the result into the specified thread-safe cache. This is static method.
+	 * If the quantity on the specified algorithm is symmetric, the result of (id1, id2) is shared with the result of (id2, id1).
+	 * @param alg specified algorithm that support to cache.
+	 * @param id1 first ID.
+	 * @param id2 second ID.
+	 * @param cache specified cache.
+	 * @param task specified task.
+	 * @param params specified parameters.
+	 * @return the result which is put into the specified cache.
+	 */
+	static Object cacheTask(SupportCacheAlg alg, int id1, int id2, TaskCache cache, Task task, Object...params) {
+		if (!alg.isCached() || id1 < 0 || id2 < 0) //Negative ID indicate unknown user/item that do not exist in dataset.
+			return task.perform(params);
+		else
+			return cache.perform(TaskCache.pairKey(id1, id2, alg.isSymmetric()), task, params);
+	}
+
+	
+	/**
+	 * Doing some task and put the result into the specified thread-safe cache. This is static method.
+	 * @param alg specified algorithm that support to cache.
+	 * @param id specified ID.
+	 * @param cache specified cache.
+	 * @param task specified task.
+	 * @param params specified parameters.
+	 * @return the result which is put into the specified cache.
+	 */
+	static Object cacheTask(SupportCacheAlg alg, int id, TaskCache cache, Task task, Object...params) {
+		if (!alg.isCached() || id < 0) //Negative ID indicate unknown user/item that do not exist in dataset.
+			return task.perform(params);
+		else
+			return cache.perform(id, task, params);
+	}
+
+	
 	/**
 	 * Getting cached mode.
 	 * @return true if cached mode is used.
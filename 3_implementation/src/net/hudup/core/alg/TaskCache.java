@@ -0,0 +1,477 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.alg;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.hudup.core.alg.SupportCacheAlg.Task;
+
+/**
+ * This class is a thread-safe and bounded cache of results of tasks, which is used by algorithms supporting cache ({@link SupportCacheAlg}).
+ * Results are identified by primitive long keys. A key of a pair of identifiers is created by the method {@link #pairKey(int, int, boolean)}.
+ * The cache is divided into stripes, each stripe is an open-addressing hash table guarded by its own lock so that many threads can use the cache at the same time.
+ * When a stripe is full, an old result is evicted by CLOCK algorithm, which approximates least recently used (LRU) eviction.
+ * Double results are stored as primitive values. The cache also counts hits and misses.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class TaskCache implements Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Default number of stripes.
+	 */
+	public final static int STRIPES_DEFAULT = 16;
+
+
+	/**
+	 * Stripes of this cache.
+	 */
+	private final Stripe[] stripes;
+
+
+	/**
+	 * Maximum number of results. If it is not positive, the cache is unbounded.
+	 */
+	private final int capacity;
+
+
+	/**
+	 * Number of hits.
+	 */
+	private final LongAdder hits = new LongAdder();
+
+
+	/**
+	 * Number of misses.
+	 */
+	private final LongAdder misses = new LongAdder();
+
+
+	/**
+	 * Constructor with specified capacity.
+	 * @param capacity maximum number of results. If it is not positive, the cache is unbounded.
+	 */
+	public TaskCache(int capacity) {
+		this(capacity, STRIPES_DEFAULT);
+	}
+
+
+	/**
+	 * Constructor with specified capacity and number of stripes.
+	 * @param capacity maximum number of results. If it is not positive, the cache is unbounded.
+	 * @param stripes number of stripes, which is rounded up to power of 2.
+	 */
+	public TaskCache(int capacity, int stripes) {
+		int n = 1;
+		while (n < stripes) n <<= 1;
+		if (capacity > 0) {
+			while (n > 1 && n > capacity) n >>= 1;
+		}
+
+		this.capacity = capacity;
+		this.stripes = new Stripe[n];
+		int stripeCapacity = capacity > 0 ? (capacity + n - 1) / n : 0;
+		for (int i = 0; i < n; i++) this.stripes[i] = new Stripe(stripeCapacity);
+	}
+
+
+	/**
+	 * Creating key of a pair of identifiers.
+	 * @param id1 first identifier.
+	 * @param id2 second identifier.
+	 * @param symmetric if true, the key of (id1, id2) is the same to the key of (id2, id1).
+	 * @return key of the pair of identifiers.
+	 */
+	public static long pairKey(int id1, int id2, boolean symmetric) {
+		if (symmetric && id1 > id2) {
+			int temp = id1;
+			id1 = id2;
+			id2 = temp;
+		}
+		return ((long)id1 << 32) | (id2 & 0xFFFFFFFFL);
+	}
+
+
+	/**
+	 * Mixing bits of the specified key.
+	 * @param key specified key.
+	 * @return mixed bits.
+	 */
+	private static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		key *= 0xC4CEB9FE1A85EC53L;
+		key ^= key >>> 33;
+		return key;
+	}
+
+
+	/**
+	 * Getting stripe of the specified mixed key.
+	 * @param mixed specified mixed key.
+	 * @return stripe of the specified mixed key.
+	 */
+	private Stripe stripeOf(long mixed) {
+		return stripes[(int)(mixed >>> 40) & (stripes.length - 1)];
+	}
+
+
+	/**
+	 * Getting the result of the specified key.
+	 * @param key specified key.
+	 * @return the result of the specified key, which is null if it is not cached.
+	 */
+	public Object get(long key) {
+		long mixed = mix(key);
+		Object result = stripeOf(mixed).get(key, (int)mixed);
+		if (result != null)
+			hits.increment();
+		else
+			misses.increment();
+		return result;
+	}
+
+
+	/**
+	 * Putting the result of the specified key. Null result is not cached.
+	 * @param key specified key.
+	 * @param result specified result.
+	 */
+	public void put(long key, Object result) {
+		if (result == null) return;
+		long mixed = mix(key);
+		stripeOf(mixed).put(key, (int)mixed, result);
+	}
+
+
+	/**
+	 * Getting the cached result of the specified key. If the result is not cached, the specified task is performed and its result is cached.
+	 * The task is performed outside of locks so that the same result may be computed twice by concurrent threads.
+	 * @param key specified key.
+	 * @param task specified task.
+	 * @param params parameters of the task.
+	 * @return the result of the specified key.
+	 */
+	public Object perform(long key, Task task, Object...params) {
+		long mixed = mix(key);
+		Stripe stripe = stripeOf(mixed);
+		Object result = stripe.get(key, (int)mixed);
+		if (result != null) {
+			hits.increment();
+			return result;
+		}
+
+		misses.increment();
+		result = task.perform(params);
+		if (result != null) stripe.put(key, (int)mixed, result);
+		return result;
+	}
+
+
+	/**
+	 * Getting the number of cached results.
+	 * @return the number of cached results.
+	 */
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) size += stripe.size();
+		return size;
+	}
+
+
+	/**
+	 * Getting capacity.
+	 * @return maximum number of results. If it is not positive, the cache is unbounded.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+
+	/**
+	 * Getting the number of hits.
+	 * @return the number of hits.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+
+	/**
+	 * Getting the number of misses.
+	 * @return the number of misses.
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+
+	/**
+	 * Getting hit rate.
+	 * @return ratio of hits to requests, which is 0 if there is no request.
+	 */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : (double)h / (double)total;
+	}
+
+
+	/**
+	 * Clearing all cached results. Numbers of hits and misses are also reset.
+	 */
+	public void clear() {
+		for (Stripe stripe : stripes) stripe.clear();
+		hits.reset();
+		misses.reset();
+	}
+
+
+	@Override
+	public String toString() {
+		return "size=" + size() + ", capacity=" + capacity + ", hits=" + getHitCount() + ", misses=" + getMissCount();
+	}
+
+
+	/**
+	 * This class is a stripe of the cache, which is an open-addressing hash table with linear probing and CLOCK eviction.
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 */
+	private static class Stripe implements Serializable {
+
+		/**
+		 * Serial version UID for serializable class.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Marker of primitive double result.
+		 */
+		private static final Object DOUBLE = Double.class;
+
+		/**
+		 * Initial table length.
+		 */
+		private static final int INITIAL_LENGTH = 16;
+
+		/**
+		 * Keys.
+		 */
+		private long[] keys;
+
+		/**
+		 * Primitive double results.
+		 */
+		private double[] values;
+
+		/**
+		 * Object results. Null element indicates empty slot.
+		 */
+		private Object[] objects;
+
+		/**
+		 * Reference bits of CLOCK algorithm.
+		 */
+		private boolean[] refs;
+
+		/**
+		 * Number of results.
+		 */
+		private int size = 0;
+
+		/**
+		 * Maximum number of results. If it is not positive, the stripe is unbounded.
+		 */
+		private final int maxSize;
+
+		/**
+		 * Hand of CLOCK algorithm.
+		 */
+		private int hand = 0;
+
+		/**
+		 * Constructor with maximum number of results.
+		 * @param maxSize maximum number of results. If it is not positive, the stripe is unbounded.
+		 */
+		Stripe(int maxSize) {
+			this.maxSize = maxSize;
+			allocate(INITIAL_LENGTH);
+		}
+
+		/**
+		 * Allocating table.
+		 * @param length table length which is power of 2.
+		 */
+		private void allocate(int length) {
+			keys = new long[length];
+			values = new double[length];
+			objects = new Object[length];
+			refs = new boolean[length];
+		}
+
+		/**
+		 * Finding slot of the specified key.
+		 * @param key specified key.
+		 * @param hash hash of the key.
+		 * @return slot of the key, or negative value (-slot - 1) of the empty slot where the key can be inserted.
+		 */
+		private int find(long key, int hash) {
+			int mask = keys.length - 1;
+			int i = hash & mask;
+			while (objects[i] != null) {
+				if (keys[i] == key) return i;
+				i = (i + 1) & mask;
+			}
+			return -i - 1;
+		}
+
+		/**
+		 * Getting result of the specified key.
+		 * @param key specified key.
+		 * @param hash hash of the key.
+		 * @return result of the specified key, which is null if the key is not cached.
+		 */
+		synchronized Object get(long key, int hash) {
+			int i = find(key, hash);
+			if (i < 0) return null;
+			refs[i] = true;
+			return objects[i] == DOUBLE ? (Object)values[i] : objects[i];
+		}
+
+		/**
+		 * Putting result of the specified key.
+		 * @param key specified key.
+		 * @param hash hash of the key.
+		 * @param result specified result which is not null.
+		 */
+		synchronized void put(long key, int hash, Object result) {
+			int i = find(key, hash);
+			if (i < 0) {
+				if (maxSize > 0 && size >= maxSize) evict();
+				if ((size + 1) * 2 > keys.length) resize(keys.length * 2);
+				i = -find(key, hash) - 1;
+				keys[i] = key;
+				size++;
+			}
+
+			if (result instanceof Double) {
+				values[i] = (Double)result;
+				objects[i] = DOUBLE;
+			}
+			else
+				objects[i] = result;
+			refs[i] = true;
+		}
+
+		/**
+		 * Evicting one result by CLOCK algorithm.
+		 */
+		private void evict() {
+			int mask = keys.length - 1;
+			while (true) {
+				if (objects[hand] != null) {
+					if (refs[hand])
+						refs[hand] = false;
+					else {
+						delete(hand);
+						return;
+					}
+				}
+				hand = (hand + 1) & mask;
+			}
+		}
+
+		/**
+		 * Deleting result at the specified slot by shifting following results backward.
+		 * @param i specified slot.
+		 */
+		private void delete(int i) {
+			int mask = keys.length - 1;
+			objects[i] = null;
+			refs[i] = false;
+			size--;
+
+			int j = i;
+			while (true) {
+				j = (j + 1) & mask;
+				if (objects[j] == null) return;
+				int home = (int)mix(keys[j]) & mask;
+				boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+				if (!movable) continue;
+
+				keys[i] = keys[j];
+				values[i] = values[j];
+				objects[i] = objects[j];
+				refs[i] = refs[j];
+				objects[j] = null;
+				refs[j] = false;
+				i = j;
+			}
+		}
+
+		/**
+		 * Resizing table.
+		 * @param length new table length which is power of 2.
+		 */
+		private void resize(int length) {
+			long[] oldKeys = keys;
+			double[] oldValues = values;
+			Object[] oldObjects = objects;
+			boolean[] oldRefs = refs;
+			allocate(length);
+			hand = 0;
+
+			for (int j = 0; j < oldKeys.length; j++) {
+				if (oldObjects[j] == null) continue;
+				int i = -find(oldKeys[j], (int)mix(oldKeys[j])) - 1;
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+				objects[i] = oldObjects[j];
+				refs[i] = oldRefs[j];
+			}
+		}
+
+		/**
+		 * Getting the number of results.
+		 * @return the number of results.
+		 */
+		synchronized int size() {
+			return size;
+		}
+
+		/**
+		 * Clearing all results.
+		 */
+		synchronized void clear() {
+			if (keys.length > INITIAL_LENGTH)
+				allocate(INITIAL_LENGTH);
+			else {
+				Arrays.fill(objects, null);
+				Arrays.fill(refs, false);
+			}
+			size = 0;
+			hand = 0;
+		}
+
+	}
+
+
+}
@@ -12,11 +12,15 @@ import java.rmi.RemoteException;
 import java.util.Set;
 
 import net.hudup.core.Util;
+import net.hudup.core.alg.Alg;
+import net.hudup.core.alg.IncrementalAlg;
 import net.hudup.core.alg.KBase;
 import net.hudup.core.alg.KBaseRecommendIntegrated;
 import net.hudup.core.alg.RecommendParam;
 import net.hudup.core.alg.cf.ModelBasedCFAbstract;
 import net.hudup.core.data.DataConfig;
+import net.hudup.core.data.Dataset;
+import net.hudup.core.data.RatingDelta;
 import net.hudup.core.data.RatingMatrix;
 import net.hudup.core.data.RatingVector;
 
@@ -28,7 +32,7 @@ import net.hudup.core.data.RatingVector;
  * @version 10.0
  *
  */
-public class SvdGradientCF extends ModelBasedCFAbstract {
+public class SvdGradientCF extends ModelBasedCFAbstract implements IncrementalAlg {
 
 	
 	/**
@@ -64,6 +68,33 @@ public class SvdGradientCF extends ModelBasedCFAbstract {
 	}
 
 	
+	@Override
+	public Alg learnIncrementally(Dataset dataset, RatingDelta delta) throws RemoteException {
+		SvdGradientKB source = (SvdGradientKB) getKBase();
+		if (source == null || source.isEmpty()) return null;
+		
+		SvdGradientCF cf = (SvdGradientCF)newInstance();
+		if (cf == null) return null;
+		cf.getConfig().putAll(getConfig());
+		cf.setupIncrementally(dataset, source, delta);
+		return cf;
+	}
+
+	
+	/**
+	 * Setting up this algorithm with the specified dataset by learning knowledge base incrementally from the specified source knowledge base.
+	 * The knowledge base is not saved here because it is learned whenever rating changes are published; its owner saves it later, for example, when service is closed.
+	 * @param dataset specified dataset which is the dataset of the source knowledge base after the specified changes are applied.
+	 * @param source source knowledge base.
+	 * @param delta specified changes of ratings.
+	 * @throws RemoteException if any error raises.
+	 */
+	protected synchronized void setupIncrementally(Dataset dataset, SvdGradientKB source, RatingDelta delta) throws RemoteException {
+		unsetup();
+		((SvdGradientKB)kb).learnIncrementally(dataset, this, source, delta);
+	}
+
+	
 	@Override
 	public synchronized RatingVector estimate(RecommendParam param, Set<Integer> queryIds) throws RemoteException {
 		SvdGradientKB kb = (SvdGradientKB) getKBase();
@@ -75,8 +106,13 @@ public class SvdGradientCF extends ModelBasedCFAbstract {
 		double maxRating = getMaxRating();
 		boolean isBoundedMinMax = isBoundedMinMaxRating();
 		int userId = result.id();
-		for (int queryId : queryIds) {
-			double ratingValue = kb.estimate(userId, queryId);
+		int[] queryIdArray = new int[queryIds.size()];
+		int j = 0;
+		for (int queryId : queryIds) queryIdArray[j++] = queryId;
+		double[] ratingValues = kb.estimate(userId, queryIdArray);
+		for (j = 0; j < queryIdArray.length; j++) {
+			int queryId = queryIdArray[j];
+			double ratingValue = ratingValues[j];
 			if (!Util.isUsed(ratingValue)) continue;
 			
 			if (isBoundedMinMax) {
@@ -12,11 +12,19 @@ import java.awt.Frame;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.FileChannel;
 import java.rmi.RemoteException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import javax.swing.JButton;
 import javax.swing.JDialog;
@@ -31,9 +39,13 @@ import net.hudup.core.alg.Alg;
 import net.hudup.core.alg.KBaseRecommendIntegrated;
 import net.hudup.core.data.DataConfig;
 import net.hudup.core.data.Dataset;
+import net.hudup.core.data.IntIndexMap;
 import net.hudup.core.data.PropList;
+import net.hudup.core.data.RatingDelta;
+import net.hudup.core.data.RatingDelta.Change;
 import net.hudup.core.data.RatingMatrix;
 import net.hudup.core.data.RatingMatrixMetadata;
+import net.hudup.core.data.RatingVector;
 import net.hudup.core.data.ui.RatingValueTable;
 import net.hudup.core.logistic.Inspector;
 import net.hudup.core.logistic.LogUtil;
@@ -94,6 +106,42 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 	public final static String GRADIENT_FACTORS = "gradient_info";
 	
 	
+	/**
+	 * Field of the number of threads to learn knowledge base by sparse gradient descent.
+	 */
+	public final static String LEARN_THREADS = "learn_threads";
+	
+	
+	/**
+	 * Field of binary format of knowledge base. If it is true, knowledge base is stored in binary file {@link #GRADIENT_FACTORS_BINARY}.
+	 */
+	public final static String BINARY_FORMAT = "binary_format";
+	
+	
+	/**
+	 * Binary file of gradient factors, which is versioned and stores contiguous little-endian arrays.
+	 */
+	public final static String GRADIENT_FACTORS_BINARY = "gradient_info.bin";
+	
+	
+	/**
+	 * Magic number of binary file of gradient factors.
+	 */
+	private final static int BINARY_MAGIC = 0x48534744;
+	
+	
+	/**
+	 * Version of binary file of gradient factors.
+	 */
+	private final static int BINARY_VERSION = 1;
+	
+	
+	/**
+	 * Size of header of binary file of gradient factors, which contains magic number, version, numbers of users, items, and factors, a reserved integer, and average rating.
+	 */
+	private final static int BINARY_HEADER_SIZE = 32;
+	
+	
 	/**
 	 * Default precision parameter.
 	 */
@@ -124,6 +172,18 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 	public final static int DEFAULT_MAX_FACTOR = 1000;
 
 	
+	/**
+	 * Default number of threads to learn knowledge base. With one thread, the learned knowledge base is the same to the one learned from dense rating matrix.
+	 */
+	public final static int DEFAULT_LEARN_THREADS = 1;
+
+	
+	/**
+	 * Default binary format of knowledge base.
+	 */
+	public final static boolean DEFAULT_BINARY_FORMAT = false;
+
+	
 	/**
 	 * List of user identifiers.
 	 */
@@ -166,6 +226,25 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 	protected List<Double> itemBias = Util.newList();
 	
 	
+	/**
+	 * Index for fast estimation, which is built from identifiers, biases, and factors when it is needed.
+	 * The index is never changed after it is built, so it is read without locking.
+	 */
+	protected transient volatile EstimateIndex estimateIndex = null;
+	
+	
+	/**
+	 * Source knowledge base from which this knowledge base learns incrementally, which is only set while the method {@link #learnIncrementally(Dataset, Alg, SvdGradientKB, RatingDelta)} runs.
+	 */
+	private transient SvdGradientKB incrementalSource = null;
+	
+	
+	/**
+	 * Changes of ratings from which this knowledge base learns incrementally, which is only set while the method {@link #learnIncrementally(Dataset, Alg, SvdGradientKB, RatingDelta)} runs.
+	 */
+	private transient RatingDelta incrementalDelta = null;
+	
+	
 	/**
 	 * Default constructor.
 	 */
@@ -176,17 +255,148 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 	
 	@Override
 	public double estimate(int userId, int itemId) {
-		int userIndex = userIds.indexOf(userId);
+		EstimateIndex index = getEstimateIndex();
+		int userIndex = index.userIndexes.get(userId);
 		if (userIndex == -1)
 			return Constants.UNUSED;
 		
-		int itemIndex = itemIds.indexOf(itemId);
+		int itemIndex = index.itemIndexes.get(itemId);
 		if (itemIndex == -1)
 			return Constants.UNUSED;
 		
 		return estimateByIndex(userIndex, itemIndex);
 	}
 	
+	
+	/**
+	 * Estimating ratings of the specified user on many items at once.
+	 * If batch estimation is supported, the user factor is multiplied with rows of the contiguous item factor matrix in one sweep.
+	 * @param userId specified user identifier.
+	 * @param itemIds specified item identifiers.
+	 * @return estimated rating values in the order of the specified item identifiers. Value of unknown user or unknown item is {@link Constants#UNUSED}.
+	 */
+	public double[] estimate(int userId, int[] itemIds) {
+		double[] values = new double[itemIds.length];
+		Arrays.fill(values, Constants.UNUSED);
+		EstimateIndex index = getEstimateIndex();
+		int userIndex = index.userIndexes.get(userId);
+		if (userIndex == -1)
+			return values;
+		
+		int F = index.factor;
+		Vector Pu = userFactors.get(userIndex);
+		if (!isBatchEstimateSupported() || index.itemMatrix == null || Pu.dim() != F)
+			return estimateByIndexes(userIndex, itemIds, values, index);
+		
+		double[] p = new double[F];
+		for (int f = 0; f < F; f++) p[f] = Pu.get(f);
+		double base = avgRating + userBias.get(userIndex);
+		double[] itemMatrix = index.itemMatrix;
+		double[] itemBiases = index.itemBiases;
+		for (int j = 0; j < itemIds.length; j++) {
+			int itemIndex = index.itemIndexes.get(itemIds[j]);
+			if (itemIndex == -1) continue;
+			
+			int offset = itemIndex * F;
+			double product = 0;
+			for (int f = 0; f < F; f++)
+				product += p[f] * itemMatrix[offset + f];
+			values[j] = base + itemBiases[itemIndex] + product;
+		}
+		
+		return values;
+	}
+	
+	
+	/**
+	 * Estimating ratings of the specified user index on many items one by one by the method {@link #estimateByIndex(int, int)}.
+	 * @param userIndex specified user index.
+	 * @param itemIds specified item identifiers.
+	 * @param values array to store estimated values.
+	 * @param index estimation index.
+	 * @return the array of estimated values.
+	 */
+	private double[] estimateByIndexes(int userIndex, int[] itemIds, double[] values, EstimateIndex index) {
+		for (int j = 0; j < itemIds.length; j++) {
+			int itemIndex = index.itemIndexes.get(itemIds[j]);
+			if (itemIndex != -1)
+				values[j] = estimateByIndex(userIndex, itemIndex);
+		}
+		return values;
+	}
+	
+	
+	/**
+	 * Checking whether the batch method {@link #estimate(int, int[])} uses the contiguous item factor matrix.
+	 * Derived class which overrides the method {@link #estimateByIndex(int, int)} should return false.
+	 * @return whether batch estimation uses the contiguous item factor matrix.
+	 */
+	protected boolean isBatchEstimateSupported() {
+		return true;
+	}
+	
+	
+	/**
+	 * Getting index for fast estimation. The index is built once if it does not exist or it is out of date, and then it is read without locking.
+	 * @return index for fast estimation.
+	 */
+	protected EstimateIndex getEstimateIndex() {
+		EstimateIndex index = estimateIndex;
+		if (index != null && index.userCount == userIds.size() && index.itemCount == itemIds.size())
+			return index;
+		
+		synchronized (this) {
+			index = estimateIndex;
+			if (index != null && index.userCount == userIds.size() && index.itemCount == itemIds.size())
+				return index;
+			
+			index = createEstimateIndex();
+			estimateIndex = index;
+			return index;
+		}
+	}
+	
+	
+	/**
+	 * Creating index for fast estimation from current identifiers, biases, and factors.
+	 * @return index for fast estimation.
+	 */
+	private EstimateIndex createEstimateIndex() {
+		EstimateIndex index = new EstimateIndex();
+		index.userCount = userIds.size();
+		index.itemCount = itemIds.size();
+		index.userIndexes = IntIndexMap.create(userIds);
+		index.itemIndexes = IntIndexMap.create(itemIds);
+		
+		int nItems = itemIds.size();
+		int F = itemFactors.size() > 0 ? itemFactors.get(0).dim() : 0;
+		boolean uniform = itemFactors.size() == nItems && itemBias.size() == nItems;
+		for (int i = 0; uniform && i < itemFactors.size(); i++) {
+			if (itemFactors.get(i).dim() != F) uniform = false;
+		}
+		
+		if (uniform && nItems > 0) {
+			index.factor = F;
+			index.itemMatrix = new double[nItems * F];
+			index.itemBiases = new double[nItems];
+			for (int i = 0; i < nItems; i++) {
+				Vector Qi = itemFactors.get(i);
+				for (int f = 0; f < F; f++) index.itemMatrix[i * F + f] = Qi.get(f);
+				index.itemBiases[i] = itemBias.get(i);
+			}
+		}
+		
+		return index;
+	}
+	
+	
+	/**
+	 * Clearing index for fast estimation, which should be called whenever identifiers, biases, or factors are changed.
+	 */
+	protected void clearEstimateIndex() {
+		estimateIndex = null;
+	}
+	
 
 	/**
 	 * Estimating rating by user index and item index.
@@ -216,17 +426,51 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 	}
 	
 	
+	/**
+	 * Learning knowledge base from the specified dataset by warm starting from the specified source knowledge base.
+	 * Only ratings of users touched by the specified changes are trained, starting from factors and biases of the source knowledge base,
+	 * and factors and biases of other users are copied from the source knowledge base. Factors and biases of items known by the source knowledge base are fixed
+	 * because they were learned from ratings of all users, and so only new items are trained with touched users. Deleted users and items are removed.
+	 * If this knowledge base does not support sparse learning or the source knowledge base is empty, it is learned fully from the specified dataset.
+	 * The source knowledge base is not modified.
+	 * @param dataset specified dataset which is the dataset of the source knowledge base after the specified changes are applied.
+	 * @param alg specified algorithm.
+	 * @param source source knowledge base.
+	 * @param delta specified changes of ratings.
+	 * @throws RemoteException if any error raises.
+	 */
+	public synchronized void learnIncrementally(Dataset dataset, Alg alg, SvdGradientKB source, RatingDelta delta) throws RemoteException {
+		incrementalSource = source;
+		incrementalDelta = delta;
+		try {
+			learn(dataset, alg);
+		}
+		finally {
+			incrementalSource = null;
+			incrementalDelta = null;
+		}
+	}
+	
+	
 	@Override
 	public void learn0(Dataset dataset, Alg alg) {
 		destroyDataStructure();
 		
-		RatingMatrix userMatrix = dataset.createUserMatrix();
-		if (learn_initialize(userMatrix))
-			learn_main(userMatrix);
-		else
-			destroyDataStructure();
+		if (isSparseLearnSupported() && incrementalSource != null && Util.isUsed(incrementalSource.avgRating) && incrementalDelta != null)
+			learn_incremental(dataset, incrementalSource, incrementalDelta);
+		else if (isSparseLearnSupported())
+			learn_sparse(SvdGradientTrainer.create(dataset));
+		else {
+			RatingMatrix userMatrix = dataset.createUserMatrix();
+			if (learn_initialize(userMatrix))
+				learn_main(userMatrix);
+			else
+				destroyDataStructure();
+			
+			userMatrix.clear();
+		}
 		
-		userMatrix.clear();
+		clearEstimateIndex();
 	}
 	
 	
@@ -243,10 +487,191 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 		
 		destroyDataStructure();
 		
-		if (learn_initialize(userRatingMatrix))
+		if (isSparseLearnSupported())
+			learn_sparse(SvdGradientTrainer.create(userRatingMatrix));
+		else if (learn_initialize(userRatingMatrix))
 			learn_main(userRatingMatrix);
 		else
 			destroyDataStructure();
+		
+		clearEstimateIndex();
+	}
+	
+	
+	/**
+	 * Checking whether this knowledge base is learned by sparse gradient descent ({@link SvdGradientTrainer}) instead of dense rating matrix.
+	 * Derived class which overrides the methods {@link #learn_initialize(RatingMatrix)} and {@link #learn_main(RatingMatrix)} should return false.
+	 * @return whether this knowledge base is learned by sparse gradient descent.
+	 */
+	protected boolean isSparseLearnSupported() {
+		return true;
+	}
+	
+	
+	/**
+	 * Learning knowledge base by the specified sparse trainer, which does not create dense rating matrix.
+	 * @param trainer specified sparse trainer. It can be null if there is no rating.
+	 */
+	protected void learn_sparse(SvdGradientTrainer trainer) {
+		if (trainer == null || !trainer.initialize(getConfig().getAsInt(MAX_FACTOR))) {
+			destroyDataStructure();
+			return;
+		}
+		
+		train(trainer);
+		
+		userIds.clear();
+		userIds.addAll(trainer.userIds);
+		itemIds.clear();
+		itemIds.addAll(trainer.itemIds);
+		avgRating = trainer.avgRating;
+		
+		int factor = trainer.factor;
+		userFactors.clear();
+		userBias.clear();
+		for (int u = 0; u < userIds.size(); u++) {
+			userFactors.add(new Vector(Arrays.copyOfRange(trainer.userFactors, u * factor, (u + 1) * factor)));
+			userBias.add(trainer.userBias[u]);
+		}
+		
+		itemFactors.clear();
+		itemBias.clear();
+		for (int i = 0; i < itemIds.size(); i++) {
+			itemFactors.add(new Vector(Arrays.copyOfRange(trainer.itemFactors, i * factor, (i + 1) * factor)));
+			itemBias.add(trainer.itemBias[i]);
+		}
+	}
+	
+	
+	/**
+	 * Training the specified sparse trainer which was initialized, according to configuration of this knowledge base.
+	 * @param trainer specified sparse trainer.
+	 */
+	private void train(SvdGradientTrainer trainer) {
+		double precision = getConfig().getAsReal(PRECISION);
+		if (precision == 0)
+			precision = 1;
+		precision = Math.min(precision, 1.0);
+		
+		double minRating = getConfig().getMetadata().minRating;
+		double maxRating = getConfig().getMetadata().maxRating;
+		double epsilon = Math.pow( (maxRating - minRating), 2) * (1.0 - precision);
+		int threads = getConfig().containsKey(LEARN_THREADS) ? getConfig().getAsInt(LEARN_THREADS) : DEFAULT_LEARN_THREADS;
+		
+		trainer.train(
+				getConfig().getAsReal(GAMMA),
+				getConfig().getAsReal(LAMDA),
+				epsilon,
+				getConfig().getAsInt(MAX_ITERATION),
+				threads);
+	}
+	
+	
+	/**
+	 * Learning knowledge base incrementally from the specified source knowledge base and changes of ratings.
+	 * The global average rating of the source knowledge base is kept and factors and biases of known items are fixed.
+	 * Users who rated a deleted item keep their factors and biases until their ratings change.
+	 * @param dataset specified dataset which is the dataset of the source knowledge base after the specified changes are applied.
+	 * @param source source knowledge base which is not empty.
+	 * @param delta specified changes of ratings.
+	 */
+	private void learn_incremental(Dataset dataset, SvdGradientKB source, RatingDelta delta) {
+		Set<Integer> touchedUserIds = Util.newSet();
+		Set<Integer> deletedUserIds = Util.newSet();
+		Set<Integer> deletedItemIds = Util.newSet();
+		for (Change change : delta.getChanges()) {
+			switch (change.type) {
+			case update:
+			case delete:
+				touchedUserIds.add(change.userId);
+				if (!isRated(dataset.getItemRating(change.itemId))) deletedItemIds.add(change.itemId);
+				break;
+			case delete_user:
+				deletedUserIds.add(change.userId);
+				break;
+			case delete_item:
+				deletedItemIds.add(change.itemId);
+				break;
+			}
+		}
+		for (int userId : touchedUserIds) {
+			if (!isRated(dataset.getUserRating(userId))) deletedUserIds.add(userId);
+		}
+		touchedUserIds.removeAll(deletedUserIds);
+		
+		for (int u = 0; u < source.userIds.size(); u++) {
+			int userId = source.userIds.get(u);
+			if (deletedUserIds.contains(userId)) continue;
+			userIds.add(userId);
+			userFactors.add(source.userFactors.get(u));
+			userBias.add(source.userBias.get(u));
+		}
+		for (int i = 0; i < source.itemIds.size(); i++) {
+			int itemId = source.itemIds.get(i);
+			if (deletedItemIds.contains(itemId)) continue;
+			itemIds.add(itemId);
+			itemFactors.add(source.itemFactors.get(i));
+			itemBias.add(source.itemBias.get(i));
+		}
+		avgRating = source.avgRating;
+		
+		int factor = source.userFactors.size() > 0 ? source.userFactors.get(0).dim() : 0;
+		SvdGradientTrainer trainer = SvdGradientTrainer.create(dataset, touchedUserIds);
+		if (trainer == null || !trainer.initialize(factor, avgRating))
+			return;
+		
+		//Factors and biases of known users and items are the starting point of training.
+		IntIndexMap userIndexes = IntIndexMap.create(userIds);
+		IntIndexMap itemIndexes = IntIndexMap.create(itemIds);
+		for (int u = 0; u < trainer.userIds.size(); u++) {
+			int index = userIndexes.get(trainer.userIds.get(u));
+			if (index < 0) continue;
+			Vector vector = userFactors.get(index);
+			for (int f = 0; f < factor; f++) trainer.userFactors[u * factor + f] = vector.get(f);
+			trainer.userBias[u] = userBias.get(index);
+		}
+		for (int i = 0; i < trainer.itemIds.size(); i++) {
+			int index = itemIndexes.get(trainer.itemIds.get(i));
+			if (index < 0) continue;
+			Vector vector = itemFactors.get(index);
+			for (int f = 0; f < factor; f++) trainer.itemFactors[i * factor + f] = vector.get(f);
+			trainer.itemBias[i] = itemBias.get(index);
+			trainer.freezeItem(i);
+		}
+		
+		train(trainer);
+		
+		//Trained factors replace shared vectors instead of modifying them because the source knowledge base is still used.
+		for (int u = 0; u < trainer.userIds.size(); u++) {
+			Vector vector = new Vector(Arrays.copyOfRange(trainer.userFactors, u * factor, (u + 1) * factor));
+			int index = userIndexes.get(trainer.userIds.get(u));
+			if (index >= 0) {
+				userFactors.set(index, vector);
+				userBias.set(index, trainer.userBias[u]);
+			}
+			else {
+				userIds.add(trainer.userIds.get(u));
+				userFactors.add(vector);
+				userBias.add(trainer.userBias[u]);
+			}
+		}
+		for (int i = 0; i < trainer.itemIds.size(); i++) {
+			if (itemIndexes.get(trainer.itemIds.get(i)) >= 0) continue; //Known items are fixed.
+			
+			itemIds.add(trainer.itemIds.get(i));
+			itemFactors.add(new Vector(Arrays.copyOfRange(trainer.itemFactors, i * factor, (i + 1) * factor)));
+			itemBias.add(trainer.itemBias[i]);
+		}
+	}
+	
+	
+	/**
+	 * Testing whether the specified rating vector has rated values.
+	 * @param vRating specified rating vector, which can be null.
+	 * @return whether the specified rating vector has rated values.
+	 */
+	private static boolean isRated(RatingVector vRating) {
+		return vRating != null && vRating.fieldIds(true).size() > 0;
 	}
 	
 	
@@ -454,8 +879,16 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 		UriAdapter adapter = null;
 		try {
 			xURI gradientFactorsUri = store.concat(GRADIENT_FACTORS);
+			xURI binaryUri = store.concat(GRADIENT_FACTORS_BINARY);
 			adapter = new UriAdapter(config);
-			if (adapter.exists(gradientFactorsUri)) {
+			boolean binary = adapter.exists(binaryUri) && (isBinaryFormat() || !adapter.exists(gradientFactorsUri));
+			if (binary) {
+				EstimateIndex index = loadBinary(adapter, binaryUri);
+				clearEstimateIndex();
+				estimateIndex = index;
+				return;
+			}
+			else if (adapter.exists(gradientFactorsUri)) {
 				Reader gradientFactorsReader = adapter.getReader(gradientFactorsUri);
 				buffer = new BufferedReader(gradientFactorsReader);
 
@@ -499,7 +932,7 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 			adapter.close();
 		}
 		
-		
+		clearEstimateIndex();
 	}
 	
 	
@@ -519,6 +952,13 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 			xURI store = storeConfig.getStoreUri();
 			adapter = new UriAdapter(storeConfig);
 			
+			if (isBinaryFormat()) {
+				if (exportBinary(adapter, store.concat(GRADIENT_FACTORS_BINARY)))
+					return;
+				else
+					LogUtil.error("Knowledge base is exported in text format because factors have different dimensions");
+			}
+			
 			xURI gradientFactorsUri = store.concat(GRADIENT_FACTORS);
 			Writer gradientFactorsWriter = adapter.getWriter(gradientFactorsUri, false);
 			printer = new PrintWriter(gradientFactorsWriter);
@@ -556,6 +996,249 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 	}
 	
 	
+	/**
+	 * Checking whether knowledge base is stored in binary format.
+	 * @return whether knowledge base is stored in binary format.
+	 */
+	protected boolean isBinaryFormat() {
+		return config.containsKey(BINARY_FORMAT) ? config.getAsBoolean(BINARY_FORMAT) : DEFAULT_BINARY_FORMAT;
+	}
+	
+	
+	/**
+	 * Exporting identifiers, biases, and factors into the specified binary file.
+	 * The file has a header of {@link #BINARY_HEADER_SIZE} bytes followed by contiguous little-endian arrays of
+	 * user biases, item biases, user factors, item factors, user identifiers, and item identifiers.
+	 * @param adapter URI adapter.
+	 * @param uri URI of binary file.
+	 * @return true if exporting is successful. Return false if factors have different dimensions.
+	 * @throws IOException if any error raises in writing.
+	 */
+	private boolean exportBinary(UriAdapter adapter, xURI uri) throws IOException {
+		int nUsers = userIds.size();
+		int nItems = itemIds.size();
+		int factor = nUsers > 0 ? userFactors.get(0).dim() : 0;
+		if (userFactors.size() != nUsers || itemFactors.size() != nItems || userBias.size() != nUsers || itemBias.size() != nItems)
+			return false;
+		for (Vector userFactor : userFactors) {
+			if (userFactor.dim() != factor) return false;
+		}
+		for (Vector itemFactor : itemFactors) {
+			if (itemFactor.dim() != factor) return false;
+		}
+		
+		ByteChannel channel = adapter.getWriteChannel(uri, false);
+		if (channel == null) throw new IOException("Cannot write binary knowledge base");
+		try {
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(BINARY_MAGIC);
+			buffer.putInt(BINARY_VERSION);
+			buffer.putInt(nUsers);
+			buffer.putInt(nItems);
+			buffer.putInt(factor);
+			buffer.putInt(0);
+			buffer.putDouble(avgRating);
+			
+			for (double bias : userBias) buffer = putDouble(channel, buffer, bias);
+			for (double bias : itemBias) buffer = putDouble(channel, buffer, bias);
+			for (Vector userFactor : userFactors) {
+				for (int f = 0; f < factor; f++) buffer = putDouble(channel, buffer, userFactor.get(f));
+			}
+			for (Vector itemFactor : itemFactors) {
+				for (int f = 0; f < factor; f++) buffer = putDouble(channel, buffer, itemFactor.get(f));
+			}
+			for (int userId : userIds) buffer = putInt(channel, buffer, userId);
+			for (int itemId : itemIds) buffer = putInt(channel, buffer, itemId);
+			
+			writeBuffer(channel, buffer);
+		}
+		finally {
+			channel.close();
+		}
+		
+		return true;
+	}
+	
+	
+	/**
+	 * Putting double value into the specified buffer, which is written to the specified channel when it is full.
+	 * @param channel specified channel.
+	 * @param buffer specified buffer.
+	 * @param value double value.
+	 * @return the buffer.
+	 * @throws IOException if any error raises in writing.
+	 */
+	private static ByteBuffer putDouble(ByteChannel channel, ByteBuffer buffer, double value) throws IOException {
+		if (buffer.remaining() < 8) writeBuffer(channel, buffer);
+		return buffer.putDouble(value);
+	}
+	
+	
+	/**
+	 * Putting integer value into the specified buffer, which is written to the specified channel when it is full.
+	 * @param channel specified channel.
+	 * @param buffer specified buffer.
+	 * @param value integer value.
+	 * @return the buffer.
+	 * @throws IOException if any error raises in writing.
+	 */
+	private static ByteBuffer putInt(ByteChannel channel, ByteBuffer buffer, int value) throws IOException {
+		if (buffer.remaining() < 4) writeBuffer(channel, buffer);
+		return buffer.putInt(value);
+	}
+	
+	
+	/**
+	 * Writing content of the specified buffer to the specified channel and then clearing the buffer.
+	 * @param channel specified channel.
+	 * @param buffer specified buffer.
+	 * @throws IOException if any error raises in writing.
+	 */
+	private static void writeBuffer(ByteChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) channel.write(buffer);
+		buffer.clear();
+	}
+	
+	
+	/**
+	 * Loading identifiers, biases, and factors from the specified binary file.
+	 * The file is read sequentially through the read channel of URI adapter into a small buffer, from which arrays are copied in bulk without parsing.
+	 * Neither the whole file nor a memory mapping of it is kept.
+	 * @param adapter URI adapter.
+	 * @param uri URI of binary file.
+	 * @return index for fast estimation which shares the loaded item factor matrix.
+	 * @throws IOException if any error raises in reading or the file is invalid.
+	 */
+	private EstimateIndex loadBinary(UriAdapter adapter, xURI uri) throws IOException {
+		ByteChannel channel = adapter.getReadChannel(uri);
+		if (channel == null) throw new IOException("Cannot read binary knowledge base");
+		try {
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.flip();
+			fillBuffer(channel, buffer, BINARY_HEADER_SIZE);
+			if (buffer.getInt() != BINARY_MAGIC || buffer.getInt() != BINARY_VERSION)
+				throw new IOException("Invalid binary knowledge base");
+			int nUsers = buffer.getInt();
+			int nItems = buffer.getInt();
+			int factor = buffer.getInt();
+			buffer.getInt();
+			double avgRating = buffer.getDouble();
+			
+			long size = BINARY_HEADER_SIZE + 8L * (nUsers + nItems) * (1 + factor) + 4L * (nUsers + nItems);
+			if (nUsers < 0 || nItems < 0 || factor < 0 || (long)nItems * factor > Integer.MAX_VALUE)
+				throw new IOException("Invalid binary knowledge base");
+			if (channel instanceof FileChannel && ((FileChannel)channel).size() < size)
+				throw new IOException("Invalid binary knowledge base");
+			
+			double[] userBiases = new double[nUsers];
+			double[] itemBiases = new double[nItems];
+			getDoubles(channel, buffer, userBiases);
+			getDoubles(channel, buffer, itemBiases);
+			
+			double[] userFactor = new double[factor];
+			for (int u = 0; u < nUsers; u++) {
+				getDoubles(channel, buffer, userFactor);
+				userFactors.add(new Vector(userFactor));
+			}
+			double[] itemMatrix = new double[nItems * factor];
+			getDoubles(channel, buffer, itemMatrix);
+			
+			int[] userIdArray = new int[nUsers];
+			int[] itemIdArray = new int[nItems];
+			getInts(channel, buffer, userIdArray);
+			getInts(channel, buffer, itemIdArray);
+			
+			this.avgRating = avgRating;
+			for (int u = 0; u < nUsers; u++) {
+				userIds.add(userIdArray[u]);
+				userBias.add(userBiases[u]);
+			}
+			double[] itemFactor = new double[factor];
+			for (int i = 0; i < nItems; i++) {
+				itemIds.add(itemIdArray[i]);
+				itemBias.add(itemBiases[i]);
+				System.arraycopy(itemMatrix, i * factor, itemFactor, 0, factor);
+				itemFactors.add(new Vector(itemFactor));
+			}
+			
+			EstimateIndex index = new EstimateIndex();
+			index.userCount = nUsers;
+			index.itemCount = nItems;
+			index.userIndexes = IntIndexMap.create(userIds);
+			index.itemIndexes = IntIndexMap.create(itemIds);
+			index.factor = factor;
+			index.itemMatrix = itemMatrix;
+			index.itemBiases = itemBiases;
+			return index;
+		}
+		finally {
+			channel.close();
+		}
+	}
+	
+	
+	/**
+	 * Filling the specified buffer from the specified channel so that the buffer has at least the specified number of remaining bytes.
+	 * The buffer is in reading mode before and after calling this method.
+	 * @param channel specified channel.
+	 * @param buffer specified buffer.
+	 * @param bytes number of bytes.
+	 * @throws IOException if any error raises in reading or the channel ends too early.
+	 */
+	private static void fillBuffer(ByteChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) return;
+		
+		buffer.compact();
+		try {
+			while (buffer.position() < bytes) {
+				if (channel.read(buffer) < 0) throw new EOFException("Binary knowledge base is truncated");
+			}
+		}
+		finally {
+			buffer.flip();
+		}
+	}
+	
+	
+	/**
+	 * Getting double values from the specified buffer, which is filled from the specified channel when it is exhausted.
+	 * @param channel specified channel.
+	 * @param buffer specified buffer.
+	 * @param array array to store double values.
+	 * @throws IOException if any error raises in reading.
+	 */
+	private static void getDoubles(ByteChannel channel, ByteBuffer buffer, double[] array) throws IOException {
+		int offset = 0;
+		while (offset < array.length) {
+			fillBuffer(channel, buffer, 8);
+			int count = Math.min(array.length - offset, buffer.remaining() / 8);
+			buffer.asDoubleBuffer().get(array, offset, count);
+			buffer.position(buffer.position() + 8 * count);
+			offset += count;
+		}
+	}
+	
+	
+	/**
+	 * Getting integer values from the specified buffer, which is filled from the specified channel when it is exhausted.
+	 * @param channel specified channel.
+	 * @param buffer specified buffer.
+	 * @param array array to store integer values.
+	 * @throws IOException if any error raises in reading.
+	 */
+	private static void getInts(ByteChannel channel, ByteBuffer buffer, int[] array) throws IOException {
+		int offset = 0;
+		while (offset < array.length) {
+			fillBuffer(channel, buffer, 4);
+			int count = Math.min(array.length - offset, buffer.remaining() / 4);
+			buffer.asIntBuffer().get(array, offset, count);
+			buffer.position(buffer.position() + 4 * count);
+			offset += count;
+		}
+	}
+	
+	
 	@Override
 	public boolean isEmpty() throws RemoteException {
 		return !Util.isUsed(avgRating);
@@ -564,6 +1247,7 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 	
 	@Override
 	protected void destroyDataStructure() {
+		clearEstimateIndex();
 		userIds.clear();
 		itemIds.clear();
 		
@@ -638,6 +1322,52 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 	
 	
 	
+	/**
+	 * This class is index for fast estimation, which maps identifiers to indices in constant time and stores item factors in a contiguous matrix.
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 */
+	protected static class EstimateIndex {
+		
+		/**
+		 * Number of users when this index is built.
+		 */
+		protected int userCount = 0;
+		
+		/**
+		 * Number of items when this index is built.
+		 */
+		protected int itemCount = 0;
+		
+		/**
+		 * Map of user identifiers to user indices.
+		 */
+		protected IntIndexMap userIndexes = null;
+		
+		/**
+		 * Map of item identifiers to item indices.
+		 */
+		protected IntIndexMap itemIndexes = null;
+		
+		/**
+		 * Number of factors of every item.
+		 */
+		protected int factor = 0;
+		
+		/**
+		 * Contiguous item factor matrix, in which factors of item index i are from i*factor to (i+1)*factor - 1.
+		 * It is null if items have different numbers of factors.
+		 */
+		protected double[] itemMatrix = null;
+		
+		/**
+		 * Item biases in the order of item indices.
+		 */
+		protected double[] itemBiases = null;
+		
+	}
+	
+	
 	/**
 	 * Create user rating matrix from this knowledge base.
 	 * @return user {@link RatingMatrix}.
@@ -688,6 +1418,8 @@ public abstract class SvdGradientKB extends KBaseRecommendIntegrated {
 		config.put(LAMDA, DEFAULT_LAMDA);
 		config.put(MAX_ITERATION, DEFAULT_MAX_ITERATION);
 		config.put(MAX_FACTOR, DEFAULT_MAX_FACTOR);
+		config.put(LEARN_THREADS, DEFAULT_LEARN_THREADS);
+		config.put(BINARY_FORMAT, DEFAULT_BINARY_FORMAT);
 		
 		return config;
 	}
@@ -103,6 +103,24 @@ public abstract class SvdGradientPlusKB extends SvdGradientKB {
 	}
 
 
+	/**
+	 * SVD+ knowledge base is learned from dense rating matrix because it uses implicit feedback of all items.
+	 */
+	@Override
+	protected boolean isSparseLearnSupported() {
+		return false;
+	}
+	
+	
+	/**
+	 * SVD+ estimation adds implicit feedback to user factor, so batch estimation calls {@link #estimateByIndex(int, int)} for every item.
+	 */
+	@Override
+	protected boolean isBatchEstimateSupported() {
+		return false;
+	}
+	
+	
 	@Override
 	protected boolean learn_initialize(RatingMatrix userMatrix) {
 		if (!super.learn_initialize(userMatrix))
@@ -0,0 +1,542 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.alg.cf.mf;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+import net.hudup.core.data.DatasetAssoc;
+import net.hudup.core.data.Dataset;
+import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.MemFetcher;
+import net.hudup.core.data.PackedRatingMap;
+import net.hudup.core.data.RatingMatrix;
+import net.hudup.core.data.RatingVector;
+import net.hudup.core.logistic.LogUtil;
+
+/**
+ * This class trains SVD model by stochastic gradient descent over sparse ratings.
+ * Ratings are stored in compressed sparse row (CSR) form in which rows are users and columns are items,
+ * and biases and factors are stored in flat arrays which are updated in place.
+ * With one thread, ratings are visited in the same order as the dense training of {@link SvdGradientKB} so that the learned model is the same.
+ * With many threads, users are divided into blocks which are trained in parallel without locks (Hogwild-style).
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class SvdGradientTrainer {
+
+
+	/**
+	 * List of user identifiers, in the order of rows.
+	 */
+	protected List<Integer> userIds = Util.newList();
+
+
+	/**
+	 * List of item identifiers, in the order of columns.
+	 */
+	protected List<Integer> itemIds = Util.newList();
+
+
+	/**
+	 * Start positions of rows in column and value arrays. Its length is the number of users plus 1.
+	 */
+	protected int[] rowStarts = new int[] {0};
+
+
+	/**
+	 * Column indices of ratings. Column indices of every row are in ascending order.
+	 */
+	protected int[] columns = new int[0];
+
+
+	/**
+	 * Rating values.
+	 */
+	protected double[] values = new double[0];
+
+
+	/**
+	 * Number of factors.
+	 */
+	protected int factor = 0;
+
+
+	/**
+	 * Average rating.
+	 */
+	protected double avgRating = Constants.UNUSED;
+
+
+	/**
+	 * User biases.
+	 */
+	protected double[] userBias = new double[0];
+
+
+	/**
+	 * Item biases.
+	 */
+	protected double[] itemBias = new double[0];
+
+
+	/**
+	 * User factors, in which factors of user index u are from u*factor to (u+1)*factor - 1.
+	 */
+	protected double[] userFactors = new double[0];
+
+
+	/**
+	 * Item factors, in which factors of item index i are from i*factor to (i+1)*factor - 1.
+	 */
+	protected double[] itemFactors = new double[0];
+
+
+	/**
+	 * Flags of items whose factors and biases are fixed in training. It is null if all items are trained.
+	 */
+	protected boolean[] frozenItems = null;
+
+
+	/**
+	 * Default constructor.
+	 */
+	protected SvdGradientTrainer() {
+
+	}
+
+
+	/**
+	 * Creating trainer from ratings of the specified dataset without creating dense rating matrix.
+	 * Users and items are ordered in the same way as {@link Dataset#createUserMatrix()}.
+	 * @param dataset specified dataset.
+	 * @return trainer created from the specified dataset. Return null if there is no rating.
+	 */
+	public static SvdGradientTrainer create(Dataset dataset) {
+		List<Integer> itemIds = new DatasetAssoc(dataset).getItemRatedIds();
+		if (itemIds.size() == 0) return null;
+		return create(itemIds, dataset.fetchUserRatings());
+	}
+
+
+	/**
+	 * Creating trainer from ratings of the specified users of the specified dataset. Items are the items rated by the specified users.
+	 * @param dataset specified dataset.
+	 * @param userIds specified user identifiers. Users who have no rating are ignored.
+	 * @return trainer created from ratings of the specified users. Return null if there is no rating.
+	 */
+	public static SvdGradientTrainer create(Dataset dataset, Collection<Integer> userIds) {
+		List<RatingVector> users = Util.newList(userIds.size());
+		Set<Integer> itemIdSet = Util.newSet();
+		for (int userId : userIds) {
+			RatingVector user = dataset.getUserRating(userId);
+			if (user == null) continue;
+			Set<Integer> fieldIds = user.fieldIds(true);
+			if (fieldIds.size() == 0) continue;
+
+			users.add(user);
+			itemIdSet.addAll(fieldIds);
+		}
+
+		if (itemIdSet.size() == 0) return null;
+		List<Integer> itemIds = Util.newList(itemIdSet.size());
+		itemIds.addAll(itemIdSet);
+		return create(itemIds, new MemFetcher<RatingVector>(users));
+	}
+
+
+	/**
+	 * Creating trainer from ratings of the specified users on the specified items.
+	 * @param itemIds specified item identifiers in the order of columns, which is not empty.
+	 * @param users fetcher of user rating vectors, which is closed by this method.
+	 * @return trainer created from the specified ratings. Return null if there is no rating.
+	 */
+	private static SvdGradientTrainer create(List<Integer> itemIds, Fetcher<RatingVector> users) {
+		Map<Integer, Integer> columnMap = Util.newMap(itemIds.size());
+		for (int i = 0; i < itemIds.size(); i++) columnMap.put(itemIds.get(i), i);
+
+		SvdGradientTrainer trainer = new SvdGradientTrainer();
+		trainer.itemIds.addAll(itemIds);
+		int[] rowStarts = new int[17];
+		int[] columns = new int[1024];
+		double[] values = new double[1024];
+		int nUsers = 0;
+		int n = 0;
+
+		try {
+			while (users.next()) {
+				RatingVector user = users.pick();
+				if (user == null) continue;
+
+				long[] entries = toEntries(user, columnMap);
+				if (entries.length == 0) continue;
+				Arrays.sort(entries);
+
+				if (n + entries.length > columns.length) {
+					int length = Math.max(n + entries.length, columns.length * 2);
+					columns = Arrays.copyOf(columns, length);
+					values = Arrays.copyOf(values, length);
+				}
+				for (long entry : entries) {
+					int index = (int)entry;
+					columns[n] = (int)(entry >>> 32);
+					values[n] = index >= 0 ? user.getPackedMap().valueAt(index) : user.get(-index - 1).value;
+					n++;
+				}
+
+				trainer.userIds.add(user.id());
+				nUsers++;
+				if (nUsers + 1 > rowStarts.length) rowStarts = Arrays.copyOf(rowStarts, rowStarts.length * 2);
+				rowStarts[nUsers] = n;
+			}
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		finally {
+			try {
+				users.close();
+			}
+			catch (Throwable e) {LogUtil.trace(e);}
+		}
+
+		if (nUsers == 0) return null;
+		trainer.rowStarts = Arrays.copyOf(rowStarts, nUsers + 1);
+		trainer.columns = Arrays.copyOf(columns, n);
+		trainer.values = Arrays.copyOf(values, n);
+		return trainer;
+	}
+
+
+	/**
+	 * Converting ratings of the specified rating vector into entries sorted by column indices.
+	 * Each entry contains column index in its high 32 bits. Its low 32 bits contain position in packed map if the vector is packed,
+	 * otherwise it contains (-itemId - 1).
+	 * @param user specified rating vector.
+	 * @param columnMap map of item identifiers to column indices.
+	 * @return entries of the specified rating vector.
+	 */
+	private static long[] toEntries(RatingVector user, Map<Integer, Integer> columnMap) {
+		PackedRatingMap packed = user.getPackedMap();
+		if (packed != null) {
+			long[] entries = new long[packed.size()];
+			int count = 0;
+			for (int j = 0; j < packed.size(); j++) {
+				Integer column = columnMap.get(packed.fieldIdAt(j));
+				if (column != null && Util.isUsed(packed.valueAt(j)))
+					entries[count++] = ((long)column << 32) | j;
+			}
+			return Arrays.copyOf(entries, count);
+		}
+
+		Set<Integer> itemIds = user.fieldIds(true);
+		long[] entries = new long[itemIds.size()];
+		int count = 0;
+		for (int itemId : itemIds) {
+			Integer column = columnMap.get(itemId);
+			if (column != null)
+				entries[count++] = ((long)column << 32) | ((-itemId - 1) & 0xFFFFFFFFL);
+		}
+		return Arrays.copyOf(entries, count);
+	}
+
+
+	/**
+	 * Creating trainer from the specified dense rating matrix.
+	 * @param userMatrix specified user rating matrix.
+	 * @return trainer created from the specified matrix. Return null if there is no rating.
+	 */
+	public static SvdGradientTrainer create(RatingMatrix userMatrix) {
+		int nUsers = userMatrix.rowIdList.size();
+		int nItems = userMatrix.columnIdList.size();
+		if (nUsers == 0 || nItems == 0) return null;
+
+		SvdGradientTrainer trainer = new SvdGradientTrainer();
+		trainer.userIds.addAll(userMatrix.rowIdList);
+		trainer.itemIds.addAll(userMatrix.columnIdList);
+		int[] rowStarts = new int[nUsers + 1];
+		int count = 0;
+		for (int u = 0; u < nUsers; u++) {
+			for (int i = 0; i < nItems; i++) {
+				if (Util.isUsed(userMatrix.matrix[u][i])) count++;
+			}
+		}
+
+		int[] columns = new int[count];
+		double[] values = new double[count];
+		int n = 0;
+		for (int u = 0; u < nUsers; u++) {
+			for (int i = 0; i < nItems; i++) {
+				double value = userMatrix.matrix[u][i];
+				if (!Util.isUsed(value)) continue;
+				columns[n] = i;
+				values[n] = value;
+				n++;
+			}
+			rowStarts[u + 1] = n;
+		}
+
+		trainer.rowStarts = rowStarts;
+		trainer.columns = columns;
+		trainer.values = values;
+		return trainer;
+	}
+
+
+	/**
+	 * Initializing average rating, biases, and factors in the same way as the method {@link SvdGradientKB#learn_initialize(RatingMatrix)}.
+	 * @param maxFactor maximum number of factors. If it is not positive, the number of factors is minimum of the numbers of users and items.
+	 * @return whether initialization is successful.
+	 */
+	public boolean initialize(int maxFactor) {
+		int nUsers = userIds.size();
+		int nItems = itemIds.size();
+		if (nUsers == 0 || nItems == 0 || values.length == 0) return false;
+
+		int factor = Math.min(nUsers, nItems);
+		if (maxFactor > 0) factor = Math.min(factor, maxFactor);
+		if (factor == 0) return false;
+
+		double sumRating = 0;
+		for (double value : values) sumRating += value;
+		return initialize(factor, sumRating / (double)values.length);
+	}
+
+
+	/**
+	 * Initializing biases and factors with the specified number of factors and average rating. Factors are zero and biases are calculated from ratings.
+	 * @param factor specified number of factors.
+	 * @param avgRating specified average rating.
+	 * @return whether initialization is successful.
+	 */
+	public boolean initialize(int factor, double avgRating) {
+		int nUsers = userIds.size();
+		int nItems = itemIds.size();
+		if (nUsers == 0 || nItems == 0 || values.length == 0 || factor <= 0 || !Util.isUsed(avgRating)) return false;
+
+		this.factor = factor;
+		this.avgRating = avgRating;
+
+		userFactors = new double[nUsers * factor];
+		itemFactors = new double[nItems * factor];
+
+		itemBias = new double[nItems];
+		int[] itemCounts = new int[nItems];
+		for (int k = 0; k < values.length; k++) {
+			itemBias[columns[k]] += values[k] - avgRating;
+			itemCounts[columns[k]]++;
+		}
+		for (int i = 0; i < nItems; i++)
+			itemBias[i] = itemBias[i] / (avgRating/nItems + itemCounts[i]);
+
+		userBias = new double[nUsers];
+		for (int u = 0; u < nUsers; u++) {
+			double sumOfErrors = 0;
+			for (int k = rowStarts[u]; k < rowStarts[u + 1]; k++)
+				sumOfErrors += values[k] - avgRating - itemBias[columns[k]];
+			userBias[u] = sumOfErrors / (avgRating/nUsers + (rowStarts[u + 1] - rowStarts[u]));
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * Fixing factors and biases of the item at the specified index so that they are not changed in training.
+	 * @param i specified item index.
+	 */
+	public void freezeItem(int i) {
+		if (frozenItems == null) frozenItems = new boolean[itemIds.size()];
+		frozenItems[i] = true;
+	}
+
+
+	/**
+	 * Training model by stochastic gradient descent.
+	 * @param gamma learning rate.
+	 * @param lamda regularization parameter.
+	 * @param epsilon threshold of change of objective function to stop training.
+	 * @param maxIteration maximum number of iterations. If it is 0, the number of iterations is not limited.
+	 * @param threads number of threads. If it is greater than 1, users are trained in parallel blocks.
+	 */
+	public void train(double gamma, double lamda, double epsilon, int maxIteration, int threads) {
+		maxIteration = maxIteration == 0 ? Integer.MAX_VALUE : maxIteration;
+		int nUsers = userIds.size();
+		threads = Math.max(1, Math.min(threads, nUsers));
+		int[] blockStarts = new int[threads + 1];
+		for (int b = 0; b <= threads; b++) blockStarts[b] = (int)((long)nUsers * b / threads);
+
+		ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+		try {
+			double sumOfSquare = 0;
+			int iteration = 0;
+			while (iteration < maxIteration) {
+				runBlocks(pool, blockStarts, false, gamma, lamda);
+				double newSumOfSquare = runBlocks(pool, blockStarts, true, gamma, lamda);
+
+				if (Math.abs(newSumOfSquare - sumOfSquare) < epsilon)
+					break;
+
+				sumOfSquare = newSumOfSquare;
+				iteration ++;
+			}
+		}
+		finally {
+			if (pool != null) pool.shutdown();
+		}
+	}
+
+
+	/**
+	 * Running blocks of users.
+	 * @param pool fork-join pool. If it is null, blocks are run sequentially.
+	 * @param blockStarts start user indices of blocks.
+	 * @param loss if true, objective function is calculated. Otherwise, one epoch of gradient descent is run.
+	 * @param gamma learning rate.
+	 * @param lamda regularization parameter.
+	 * @return objective function if calculating loss, otherwise 0.
+	 */
+	private double runBlocks(ForkJoinPool pool, int[] blockStarts, final boolean loss, final double gamma, final double lamda) {
+		int blocks = blockStarts.length - 1;
+		if (pool == null) {
+			double sum = 0;
+			for (int b = 0; b < blocks; b++)
+				sum += loss ? loss(blockStarts[b], blockStarts[b + 1], lamda) : epoch(blockStarts[b], blockStarts[b + 1], gamma, lamda);
+			return sum;
+		}
+
+		List<Callable<Double>> tasks = Util.newList(blocks);
+		for (int b = 0; b < blocks; b++) {
+			final int start = blockStarts[b];
+			final int end = blockStarts[b + 1];
+			tasks.add(new Callable<Double>() {
+
+				@Override
+				public Double call() throws Exception {
+					return loss ? loss(start, end, lamda) : epoch(start, end, gamma, lamda);
+				}
+
+			});
+		}
+
+		double sum = 0;
+		for (Future<Double> future : pool.invokeAll(tasks)) {
+			try {
+				sum += future.get();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+		}
+		return sum;
+	}
+
+
+	/**
+	 * Running one epoch of gradient descent over the specified range of users. Biases and factors are updated in place.
+	 * @param startUser start user index (inclusive).
+	 * @param endUser end user index (exclusive).
+	 * @param gamma learning rate.
+	 * @param lamda regularization parameter.
+	 * @return always 0.
+	 */
+	private double epoch(int startUser, int endUser, double gamma, double lamda) {
+		int F = factor;
+		for (int u = startUser; u < endUser; u++) {
+			int pu = u * F;
+			for (int k = rowStarts[u]; k < rowStarts[u + 1]; k++) {
+				int i = columns[k];
+				int qi = i * F;
+
+				double bu = userBias[u];
+				double bi = itemBias[i];
+				double product = 0;
+				for (int f = 0; f < F; f++) product += userFactors[pu + f] * itemFactors[qi + f];
+				double error = values[k] - (avgRating + bu + bi + product);
+
+				userBias[u] = bu + gamma * (error - lamda * bu);
+				if (frozenItems == null || !frozenItems[i]) {
+					itemBias[i] = bi + gamma * (error - lamda * bi);
+					for (int f = 0; f < F; f++) {
+						double q = itemFactors[qi + f];
+						itemFactors[qi + f] = q + (userFactors[pu + f] * error - q * lamda) * gamma;
+					}
+				}
+				for (int f = 0; f < F; f++) {
+					double p = userFactors[pu + f];
+					userFactors[pu + f] = p + (itemFactors[qi + f] * error - p * lamda) * gamma;
+				}
+			}
+		}
+
+		return 0;
+	}
+
+
+	/**
+	 * Calculating objective function over the specified range of users.
+	 * @param startUser start user index (inclusive).
+	 * @param endUser end user index (exclusive).
+	 * @param lamda regularization parameter.
+	 * @return objective function over the specified range of users.
+	 */
+	private double loss(int startUser, int endUser, double lamda) {
+		int F = factor;
+		double sum = 0;
+		for (int u = startUser; u < endUser; u++) {
+			int pu = u * F;
+			double userModule = 0;
+			for (int f = 0; f < F; f++) userModule += userFactors[pu + f] * userFactors[pu + f];
+			userModule = Math.sqrt(userModule);
+
+			for (int k = rowStarts[u]; k < rowStarts[u + 1]; k++) {
+				int i = columns[k];
+				int qi = i * F;
+				double product = 0;
+				double itemModule = 0;
+				for (int f = 0; f < F; f++) {
+					product += userFactors[pu + f] * itemFactors[qi + f];
+					itemModule += itemFactors[qi + f] * itemFactors[qi + f];
+				}
+				itemModule = Math.sqrt(itemModule);
+
+				double error = values[k] - (avgRating + userBias[u] + itemBias[i] + product);
+				sum += Math.pow(error, 2) +
+						lamda * (
+							Math.pow(userBias[u], 2) +
+							Math.pow(itemBias[i], 2) +
+							Math.pow(userModule, 2) +
+							Math.pow(itemModule, 2)
+						);
+			}
+		}
+
+		return sum;
+	}
+
+
+	/**
+	 * Getting the number of ratings.
+	 * @return the number of ratings.
+	 */
+	public int getRatingCount() {
+		return values.length;
+	}
+
+
+}
@@ -0,0 +1,430 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.alg.cf.nb;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+import net.hudup.core.data.PackedRatingMap;
+import net.hudup.core.data.RatingVector;
+import net.hudup.core.evaluate.recommend.Accuracy;
+
+/**
+ * This final class provides kernels of similarity measures for packed rating vectors (see {@link RatingVector#pack()}).
+ * Because field ID (s) of packed rating vectors are sorted, co-rated field ID (s) of two vectors are found by a single linear merge over their internal arrays
+ * without creating any set of field ID (s) and without looking up ratings by hashing.
+ * Each kernel follows exactly the formula of the respective measure in {@link NeighborCF}; only unweighted measures without entropy are supported here.
+ * Sums are accumulated in ascending order of field ID (s), so kernels may differ from measures in {@link NeighborCF} in the last bits of floating-point precision.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public final class MeasureKernel {
+
+
+	/**
+	 * Counting rated values of the specified packed map.
+	 * @param a specified packed map.
+	 * @return the number of rated values of the specified packed map.
+	 */
+	public static int countRated(PackedRatingMap a) {
+		double[] vs = a.getValueArray();
+		int n = a.size();
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			if (Util.isUsed(vs[i])) count++;
+		}
+
+		return count;
+	}
+
+
+	/**
+	 * Counting field ID (s) which are rated in both specified packed maps.
+	 * @param a first packed map.
+	 * @param b second packed map.
+	 * @return the number of co-rated field ID (s).
+	 */
+	public static int countCommon(PackedRatingMap a, PackedRatingMap b) {
+		int[] ids1 = a.getFieldIdArray(), ids2 = b.getFieldIdArray();
+		double[] vs1 = a.getValueArray(), vs2 = b.getValueArray();
+		int n1 = a.size(), n2 = b.size();
+		int i = 0, j = 0, count = 0;
+		while (i < n1 && j < n2) {
+			int id1 = ids1[i], id2 = ids2[j];
+			if (id1 < id2)
+				i++;
+			else if (id1 > id2)
+				j++;
+			else {
+				if (Util.isUsed(vs1[i]) && Util.isUsed(vs2[j])) count++;
+				i++;
+				j++;
+			}
+		}
+
+		return count;
+	}
+
+
+	/**
+	 * Calculating mean of rated values of the specified packed map.
+	 * @param a specified packed map.
+	 * @return mean of rated values of the specified packed map.
+	 */
+	public static double mean(PackedRatingMap a) {
+		double[] vs = a.getValueArray();
+		int n = a.size();
+		double accum = 0;
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			double v = vs[i];
+			if (!Util.isUsed(v)) continue;
+			accum += v;
+			count++;
+		}
+
+		return count == 0 ? Constants.UNUSED : accum / (double)count;
+	}
+
+
+	/**
+	 * Calculating module (length) of rated values of the specified packed map.
+	 * @param a specified packed map.
+	 * @return module of rated values of the specified packed map.
+	 */
+	public static double module(PackedRatingMap a) {
+		double[] vs = a.getValueArray();
+		int n = a.size();
+		double module = 0;
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			double v = vs[i];
+			if (!Util.isUsed(v)) continue;
+			module += v*v;
+			count++;
+		}
+
+		return count == 0 ? Constants.UNUSED : Math.sqrt(module);
+	}
+
+
+	/**
+	 * Calculating cosine measure of two packed maps, which is the kernel of {@link NeighborCF#cosine(RatingVector, RatingVector, double)}.
+	 * @param a first packed map.
+	 * @param b second packed map.
+	 * @param average averaged value subtracted from ratings.
+	 * @return cosine measure.
+	 */
+	public static double cosine(PackedRatingMap a, PackedRatingMap b, double average) {
+		int[] ids1 = a.getFieldIdArray(), ids2 = b.getFieldIdArray();
+		double[] vs1 = a.getValueArray(), vs2 = b.getValueArray();
+		int n1 = a.size(), n2 = b.size();
+		int i = 0, j = 0;
+		double VX = 0, VY = 0, VXY = 0;
+		while (i < n1 && j < n2) {
+			int id1 = ids1[i], id2 = ids2[j];
+			if (id1 < id2)
+				i++;
+			else if (id1 > id2)
+				j++;
+			else {
+				double v1 = vs1[i], v2 = vs2[j];
+				i++;
+				j++;
+				if (!Util.isUsed(v1) || !Util.isUsed(v2)) continue;
+
+				double dev1 = v1 - average;
+				double dev2 = v2 - average;
+				VX  += dev1 * dev1;
+				VY  += dev2 * dev2;
+				VXY += dev1 * dev2;
+			}
+		}
+
+		return VXY / Math.sqrt(VX * VY);
+	}
+
+
+	/**
+	 * Calculating Pearson correlation of two packed maps, which is the kernel of {@link NeighborCF#corr(RatingVector, RatingVector)}.
+	 * @param a first packed map.
+	 * @param b second packed map.
+	 * @param mean1 mean of the first vector.
+	 * @param mean2 mean of the second vector.
+	 * @return Pearson correlation.
+	 */
+	public static double corr(PackedRatingMap a, PackedRatingMap b, double mean1, double mean2) {
+		int[] ids1 = a.getFieldIdArray(), ids2 = b.getFieldIdArray();
+		double[] vs1 = a.getValueArray(), vs2 = b.getValueArray();
+		int n1 = a.size(), n2 = b.size();
+		int i = 0, j = 0;
+		double VX = 0, VY = 0, VXY = 0;
+		while (i < n1 && j < n2) {
+			int id1 = ids1[i], id2 = ids2[j];
+			if (id1 < id2)
+				i++;
+			else if (id1 > id2)
+				j++;
+			else {
+				double v1 = vs1[i], v2 = vs2[j];
+				i++;
+				j++;
+				if (!Util.isUsed(v1) || !Util.isUsed(v2)) continue;
+
+				double dev1 = v1 - mean1;
+				double dev2 = v2 - mean2;
+				VX  += dev1 * dev1;
+				VY  += dev2 * dev2;
+				VXY += dev1 * dev2;
+			}
+		}
+
+		return VXY / Math.sqrt(VX * VY);
+	}
+
+
+	/**
+	 * Calculating normal MSD measure of two packed maps, which is the kernel of {@link NeighborCF#msdNormal(RatingVector, RatingVector, net.hudup.core.data.Profile, net.hudup.core.data.Profile)}.
+	 * @param a first packed map.
+	 * @param b second packed map.
+	 * @param fraction fraction form of MSD.
+	 * @param range range of rating values.
+	 * @return normal MSD measure.
+	 */
+	public static double msd(PackedRatingMap a, PackedRatingMap b, boolean fraction, double range) {
+		int[] ids1 = a.getFieldIdArray(), ids2 = b.getFieldIdArray();
+		double[] vs1 = a.getValueArray(), vs2 = b.getValueArray();
+		int n1 = a.size(), n2 = b.size();
+		int i = 0, j = 0, count = 0;
+		double sum = 0;
+		while (i < n1 && j < n2) {
+			int id1 = ids1[i], id2 = ids2[j];
+			if (id1 < id2)
+				i++;
+			else if (id1 > id2)
+				j++;
+			else {
+				double v1 = vs1[i], v2 = vs2[j];
+				i++;
+				j++;
+				if (!Util.isUsed(v1) || !Util.isUsed(v2)) continue;
+
+				double d = v1 - v2;
+				sum += d*d;
+				count++;
+			}
+		}
+		if (count == 0) return Constants.UNUSED;
+
+		if (fraction)
+			return 1 / (1 + sum/count);
+		else
+			return 1.0 - sum/(count*range*range);
+	}
+
+
+	/**
+	 * Calculating normal Triangle measure of two packed maps, which is the kernel of {@link NeighborCF#triangleNormal(RatingVector, RatingVector, net.hudup.core.data.Profile, net.hudup.core.data.Profile)}.
+	 * @param a first packed map.
+	 * @param b second packed map.
+	 * @return normal Triangle measure.
+	 */
+	public static double triangle(PackedRatingMap a, PackedRatingMap b) {
+		int[] ids1 = a.getFieldIdArray(), ids2 = b.getFieldIdArray();
+		double[] vs1 = a.getValueArray(), vs2 = b.getValueArray();
+		int n1 = a.size(), n2 = b.size();
+		int i = 0, j = 0, count = 0;
+		double dis = 0;
+		while (i < n1 && j < n2) {
+			int id1 = ids1[i], id2 = ids2[j];
+			if (id1 < id2)
+				i++;
+			else if (id1 > id2)
+				j++;
+			else {
+				double v1 = vs1[i], v2 = vs2[j];
+				i++;
+				j++;
+				if (!Util.isUsed(v1) || !Util.isUsed(v2)) continue;
+
+				double deviate = v1 - v2;
+				dis += deviate * deviate;
+				count++;
+			}
+		}
+		if (count == 0) return Constants.UNUSED;
+
+		return 1 - Math.sqrt(dis) / (module(a) + module(b));
+	}
+
+
+	/**
+	 * Calculating SMC measure of two packed maps, which is the kernel of {@link NeighborCF#smc(RatingVector, RatingVector, net.hudup.core.data.Profile, net.hudup.core.data.Profile)}.
+	 * @param a first packed map.
+	 * @param b second packed map.
+	 * @param ratingMedian rating median.
+	 * @return SMC measure.
+	 */
+	public static double smc(PackedRatingMap a, PackedRatingMap b, double ratingMedian) {
+		int[] ids1 = a.getFieldIdArray(), ids2 = b.getFieldIdArray();
+		double[] vs1 = a.getValueArray(), vs2 = b.getValueArray();
+		int n1 = a.size(), n2 = b.size();
+		int i = 0, j = 0, common = 0, matchedCount = 0;
+		while (i < n1 && j < n2) {
+			int id1 = ids1[i], id2 = ids2[j];
+			if (id1 < id2)
+				i++;
+			else if (id1 > id2)
+				j++;
+			else {
+				double v1 = vs1[i], v2 = vs2[j];
+				i++;
+				j++;
+				if (!Util.isUsed(v1) || !Util.isUsed(v2)) continue;
+
+				common++;
+				boolean r1 = Accuracy.isRelevant(v1, ratingMedian);
+				boolean r2 = Accuracy.isRelevant(v2, ratingMedian);
+				if ((r1 && r2) || ((!r1) && (!r2)) || (v1 == ratingMedian && v2 == ratingMedian))
+					matchedCount++;
+			}
+		}
+		double N = countRated(a) + countRated(b) - common;
+		if (N == 0) return Constants.UNUSED;
+
+		return (double)matchedCount / N;
+	}
+
+
+	/**
+	 * Calculating ADR measure of two packed maps, which is the kernel of {@link NeighborCF#adr(RatingVector, RatingVector, net.hudup.core.data.Profile, net.hudup.core.data.Profile)}.
+	 * @param a first packed map.
+	 * @param b second packed map.
+	 * @param range range of rating values.
+	 * @return ADR measure.
+	 */
+	public static double adr(PackedRatingMap a, PackedRatingMap b, double range) {
+		int[] ids1 = a.getFieldIdArray(), ids2 = b.getFieldIdArray();
+		double[] vs1 = a.getValueArray(), vs2 = b.getValueArray();
+		int n1 = a.size(), n2 = b.size();
+		int i = 0, j = 0, count = 0;
+		double adr = 0;
+		while (i < n1 && j < n2) {
+			int id1 = ids1[i], id2 = ids2[j];
+			if (id1 < id2)
+				i++;
+			else if (id1 > id2)
+				j++;
+			else {
+				double v1 = vs1[i], v2 = vs2[j];
+				i++;
+				j++;
+				if (!Util.isUsed(v1) || !Util.isUsed(v2)) continue;
+
+				adr += Math.exp(-Math.abs(v1-v2)/range);
+				count++;
+			}
+		}
+		if (count == 0) return Constants.UNUSED;
+
+		return adr / (double)count;
+	}
+
+
+	/**
+	 * Calculating JacRA measure of two packed maps, which is the kernel of {@link NeighborCF#jaccardRA(RatingVector, RatingVector, net.hudup.core.data.Profile, net.hudup.core.data.Profile)}.
+	 * @param a first packed map.
+	 * @param b second packed map.
+	 * @return JacRA measure.
+	 */
+	public static double jaccardRA(PackedRatingMap a, PackedRatingMap b) {
+		int[] ids1 = a.getFieldIdArray(), ids2 = b.getFieldIdArray();
+		double[] vs1 = a.getValueArray(), vs2 = b.getValueArray();
+		int n1 = a.size(), n2 = b.size();
+		int i = 0, j = 0, common = 0;
+		double sum = 0;
+		while (i < n1 && j < n2) {
+			int id1 = ids1[i], id2 = ids2[j];
+			if (id1 < id2)
+				i++;
+			else if (id1 > id2)
+				j++;
+			else {
+				double v1 = vs1[i], v2 = vs2[j];
+				i++;
+				j++;
+				if (!Util.isUsed(v1) || !Util.isUsed(v2)) continue;
+
+				common++;
+				if (v1 == 0 && v2 == 0) {
+					sum += 1;
+					continue;
+				}
+				double min = Math.min(v1, v2);
+				double max = Math.max(v1, v2);
+				if (max != 0) sum += min/max;
+			}
+		}
+		double N = countRated(a) + countRated(b) - common;
+		if (N == 0) return Constants.UNUSED;
+
+		return sum / N;
+	}
+
+
+	/**
+	 * Calculating rating Jaccard measure of two packed maps, which is the kernel of {@link NeighborCF#jaccardRating(RatingVector, RatingVector, net.hudup.core.data.Profile, net.hudup.core.data.Profile)}.
+	 * @param a first packed map.
+	 * @param b second packed map.
+	 * @param threshold threshold of rating Jaccard measure.
+	 * @return rating Jaccard measure.
+	 */
+	public static double jaccardRating(PackedRatingMap a, PackedRatingMap b, double threshold) {
+		int[] ids1 = a.getFieldIdArray(), ids2 = b.getFieldIdArray();
+		double[] vs1 = a.getValueArray(), vs2 = b.getValueArray();
+		int n1 = a.size(), n2 = b.size();
+		int i = 0, j = 0, common = 0, nt = 0;
+		boolean equal = true;
+		while (i < n1 && j < n2) {
+			int id1 = ids1[i], id2 = ids2[j];
+			if (id1 < id2)
+				i++;
+			else if (id1 > id2)
+				j++;
+			else {
+				double v1 = vs1[i], v2 = vs2[j];
+				i++;
+				j++;
+				if (!Util.isUsed(v1) || !Util.isUsed(v2)) continue;
+
+				common++;
+				if (v1 == v2) nt++;
+				if (v1 != v2) equal = false;
+			}
+		}
+		double N = countRated(a) + countRated(b) - common;
+		if (N == 0) return Constants.UNUSED;
+		if (nt == 0) return 0;
+
+		if (equal)
+			nt++;
+		else {
+			//Both means are taken from the first vector as in NeighborCF.
+			double mean1 = mean(a), mean2 = mean1;
+			if (Util.isUsed(threshold)) {
+				double bias = Math.abs(mean2 - mean1);
+				if (bias <= threshold * Math.min(mean1, mean2)) nt++;
+			}
+		}
+
+		return (double)nt / N;
+	}
+
+
+}
@@ -10,16 +10,23 @@ package net.hudup.core.alg.cf.nb;
 import java.awt.Component;
 import java.io.Serializable;
 import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.JOptionPane;
 
 import net.hudup.core.Constants;
 import net.hudup.core.Util;
+import net.hudup.core.alg.Alg;
+import net.hudup.core.alg.IncrementalAlg;
 import net.hudup.core.alg.SupportCacheAlg;
+import net.hudup.core.alg.TaskCache;
 import net.hudup.core.alg.cf.MemoryBasedCF;
 import net.hudup.core.alg.cf.MemoryBasedCFAbstract;
 import net.hudup.core.data.Attribute;
@@ -28,12 +35,19 @@ import net.hudup.core.data.AttributeList;
 import net.hudup.core.data.DataConfig;
 import net.hudup.core.data.Dataset;
 import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.PackedRatingMap;
+import net.hudup.core.data.Pair;
+import net.hudup.core.data.PairHeap;
 import net.hudup.core.data.Profile;
+import net.hudup.core.data.RatingDelta;
+import net.hudup.core.data.RatingDelta.Change;
 import net.hudup.core.data.RatingVector;
 import net.hudup.core.data.ui.ImportantProperty;
 import net.hudup.core.evaluate.recommend.Accuracy;
 import net.hudup.core.logistic.LogUtil;
+import net.hudup.core.logistic.UriAdapter;
 import net.hudup.core.logistic.Vector;
+import net.hudup.core.logistic.xURI;
 
 /**
  * This class sets up the nearest neighbors collaborative filtering algorithm. It is memory-based CF because it extends directly {@link MemoryBasedCF} class.
@@ -71,7 +85,7 @@ import net.hudup.core.logistic.Vector;
  * @version 10.0
  *
  */
-public abstract class NeighborCF extends MemoryBasedCFAbstract implements SupportCacheAlg {
+public abstract class NeighborCF extends MemoryBasedCFAbstract implements SupportCacheAlg, IncrementalAlg {
 
 	
 	/**
@@ -422,6 +436,50 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	protected static final double IPWR_BETA_DEFAULT = 0.5;
 
 	
+	/**
+	 * Similarity kernel field. If it is true, similarity measures of packed rating vectors are calculated by {@link MeasureKernel}.
+	 */
+	protected static final String SIM_KERNEL_FIELD = "sim_kernel";
+
+	
+	/**
+	 * Default value of similarity kernel field.
+	 */
+	protected static final boolean SIM_KERNEL_DEFAULT = true;
+
+	
+	/**
+	 * Nearest neighbor index field. If it is true, top-K neighbors of every row are computed once when setting up and kept in {@link NeighborIndex}.
+	 * Note, with this index, item-based estimation uses top-K neighbors of the estimated item that are rated by the active user
+	 * instead of top-K neighbors among items rated by the active user.
+	 */
+	protected static final String KNN_INDEX_FIELD = "knn_index";
+
+	
+	/**
+	 * Default value of nearest neighbor index field.
+	 */
+	protected static final boolean KNN_INDEX_DEFAULT = false;
+
+	
+	/**
+	 * Stored nearest neighbor index field. If it is true, the nearest neighbor index is saved next to the dataset so that it is loaded instead of being rebuilt when setting up again.
+	 */
+	protected static final String KNN_INDEX_STORED_FIELD = "knn_index_stored";
+
+	
+	/**
+	 * Default value of stored nearest neighbor index field.
+	 */
+	protected static final boolean KNN_INDEX_STORED_DEFAULT = true;
+
+	
+	/**
+	 * Extension of nearest neighbor index file.
+	 */
+	protected static final String KNN_INDEX_EXT = "knnindex";
+
+	
 	/**
 	 * General rating median.
 	 */
@@ -449,13 +507,13 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	/**
 	 * Internal user means.
 	 */
-	private Map<Integer, Double> userMeans = Util.newMap();
+	private Map<Integer, Double> userMeans = new ConcurrentHashMap<Integer, Double>();
 
 	
 	/**
 	 * Internal user variances.
 	 */
-	private Map<Integer, Double> userVars = Util.newMap();
+	private Map<Integer, Double> userVars = new ConcurrentHashMap<Integer, Double>();
 
 	
 	/**
@@ -467,37 +525,43 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	/**
 	 * Internal item means.
 	 */
-	private Map<Integer, Double> itemMeans = Util.newMap();
+	private Map<Integer, Double> itemMeans = new ConcurrentHashMap<Integer, Double>();
 
 	
 	/**
 	 * Internal item variances.
 	 */
-	private Map<Integer, Double> itemVars = Util.newMap();
+	private Map<Integer, Double> itemVars = new ConcurrentHashMap<Integer, Double>();
 	
 	
 	/**
 	 * Row similarity cache.
 	 */
-	protected Map<Integer, Map<Integer, Object>> rowSimCache = Util.newMap();
+	protected TaskCache rowSimCache = new TaskCache(CACHE_CAPACITY_DEFAULT);
 
 
 	/**
 	 * Column similarity cache.
 	 */
-	protected Map<Integer, Map<Integer, Object>> columnSimCache = Util.newMap();
+	protected TaskCache columnSimCache = new TaskCache(CACHE_CAPACITY_DEFAULT);
 
 	
 	/**
 	 * Value cache.
 	 */
-	protected Map<Integer, Object> valueCache = Util.newMap();
+	protected TaskCache valueCache = new TaskCache(CACHE_CAPACITY_DEFAULT);
 
 	
 	/**
 	 * Dual value cache.
 	 */
-	protected Map<Integer, Object> dualValueCache = Util.newMap();
+	protected TaskCache dualValueCache = new TaskCache(CACHE_CAPACITY_DEFAULT);
+	
+	
+	/**
+	 * Nearest neighbor index. It is null if the index is not used.
+	 */
+	protected NeighborIndex knnIndex = null;
 	
 	
 	/**
@@ -512,8 +576,18 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	public synchronized void setup(Dataset dataset, Object...params) throws RemoteException {
 		super.setup(dataset, params);
 		
+		int capacity = getConfig().getAsInt(CACHE_CAPACITY_FIELD);
+		this.rowSimCache = new TaskCache(capacity);
+		this.columnSimCache = new TaskCache(capacity);
+		this.valueCache = new TaskCache(capacity);
+		this.dualValueCache = new TaskCache(capacity);
+		
 		this.ratingMedian = getRelevantRatingThreshold();
 		if (!Util.isUsed(this.ratingMedian)) this.ratingMedian = getRatingMean();
+		prepareStatistics();
+		
+		if (getConfig().getAsBoolean(KNN_INDEX_FIELD))
+			this.knnIndex = loadOrCreateKnnIndex();
 	}
 
 
@@ -522,7 +596,139 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 		super.unsetup();
 		
 		this.ratingMedian = DataConfig.RELEVANT_RATING_DEFAULT;
+		clearStatistics();
+		this.knnIndex = null;
+	}
+
+
+	@Override
+	public Alg learnIncrementally(Dataset dataset, RatingDelta delta) throws RemoteException {
+		if (this.dataset == null) return null;
+		
+		NeighborCF cf = (NeighborCF)newInstance();
+		if (cf == null) return null;
+		cf.getConfig().putAll(getConfig());
+		cf.setupIncrementally(dataset, this, delta);
+		return cf;
+	}
+	
+	
+	/**
+	 * Setting up this algorithm with the specified dataset by copying statistics and nearest neighbor index from the specified source algorithm.
+	 * Only statistics of users and items touched by the specified changes are calculated again, and only rows touched by the changes are refreshed in the nearest neighbor index.
+	 * The source algorithm is not modified.
+	 * @param dataset specified dataset which is the dataset of the source algorithm after the specified changes are applied.
+	 * @param source source algorithm which was set up.
+	 * @param delta specified changes of ratings.
+	 * @throws RemoteException if any error raises.
+	 */
+	protected synchronized void setupIncrementally(Dataset dataset, NeighborCF source, RatingDelta delta) throws RemoteException {
+		super.setup(dataset);
+		
+		int capacity = getConfig().getAsInt(CACHE_CAPACITY_FIELD);
+		this.rowSimCache = new TaskCache(capacity);
+		this.columnSimCache = new TaskCache(capacity);
+		this.valueCache = new TaskCache(capacity);
+		this.dualValueCache = new TaskCache(capacity);
+		
+		Set<Integer> changedUserIds = Util.newSet();
+		Set<Integer> changedItemIds = Util.newSet();
+		for (Change change : delta.getChanges()) {
+			switch (change.type) {
+			case update:
+			case delete:
+				changedUserIds.add(change.userId);
+				changedItemIds.add(change.itemId);
+				break;
+			case delete_user:
+				changedUserIds.add(change.userId);
+				RatingVector user = source.dataset.getUserRating(change.userId);
+				if (user != null) changedItemIds.addAll(user.fieldIds());
+				break;
+			case delete_item:
+				changedItemIds.add(change.itemId);
+				RatingVector item = source.dataset.getItemRating(change.itemId);
+				if (item != null) changedUserIds.addAll(item.fieldIds());
+				break;
+			}
+		}
+		
+		this.userIds.addAll(source.getUserIds());
+		this.userMeans.putAll(source.getUserMeans());
+		this.userVars.putAll(source.getUserVars());
+		for (int userId : changedUserIds)
+			updateStatistics(userId, dataset.getUserRating(userId), this.userIds, this.userMeans, this.userVars);
+		
+		this.itemIds.addAll(source.getItemIds());
+		this.itemMeans.putAll(source.getItemMeans());
+		this.itemVars.putAll(source.getItemVars());
+		for (int itemId : changedItemIds)
+			updateStatistics(itemId, dataset.getItemRating(itemId), this.itemIds, this.itemMeans, this.itemVars);
+		
+		//Global mean and variance are calculated again over all ratings, which is cheap in comparison with pairwise similarities.
+		getRatingVar();
+		this.ratingMedian = getRelevantRatingThreshold();
+		if (!Util.isUsed(this.ratingMedian)) this.ratingMedian = getRatingMean();
+		
+		if (!getConfig().getAsBoolean(KNN_INDEX_FIELD))
+			this.knnIndex = null;
+		else if (source.knnIndex != null && source.knnIndex.getK() == getConfig().getAsInt(KNN)) {
+			this.knnIndex = new NeighborIndex(source.knnIndex);
+			refreshKnnIndex0(selectRowIds(changedUserIds, changedItemIds));
+		}
+		else
+			this.knnIndex = loadOrCreateKnnIndex();
+	}
+	
+	
+	/**
+	 * Updating mean and variance of the specified rating vector in the specified statistics. If the rating vector has no rated value, its statistics are removed.
+	 * @param id identifier of the rating vector.
+	 * @param vRating specified rating vector, which can be null.
+	 * @param ids identifiers of rating vectors which have rated values.
+	 * @param means means of rating vectors.
+	 * @param vars variances of rating vectors.
+	 */
+	private static void updateStatistics(int id, RatingVector vRating, Set<Integer> ids, Map<Integer, Double> means, Map<Integer, Double> vars) {
+		Set<Integer> fieldIds = vRating != null ? vRating.fieldIds(true) : null;
+		if (fieldIds == null || fieldIds.size() == 0) {
+			ids.remove(id);
+			means.remove(id);
+			vars.remove(id);
+			return;
+		}
+		
+		double meanSum = 0;
+		for (int fieldId : fieldIds) meanSum += vRating.get(fieldId).value;
+		double mean = meanSum / (double)(fieldIds.size());
 		
+		double varSum = 0;
+		for (int fieldId : fieldIds) {
+			double d = vRating.get(fieldId).value - mean;
+			varSum += d*d;
+		}
+		
+		ids.add(id);
+		means.put(id, mean);
+		vars.put(id, varSum / (double)(fieldIds.size()));
+	}
+	
+	
+	/**
+	 * Calculating internal statistics in advance so that the similarity method {@link #sim(RatingVector, RatingVector, Profile, Profile, Object...)}
+	 * only reads them and thus it can be called by many threads at the same time.
+	 */
+	protected void prepareStatistics() {
+		getUserVars();
+		getItemVars();
+		getRatingVar();
+	}
+
+	
+	/**
+	 * Clearing internal statistics and caches so that they are calculated again from the dataset.
+	 */
+	protected void clearStatistics() {
 		this.ratingMean = Constants.UNUSED;
 		this.ratingVar = Constants.UNUSED;
 		this.userMeans.clear();
@@ -1019,7 +1225,7 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 * @param parameters extra parameters.
 	 * @return similarity between both two {@link RatingVector} (s) and two {@link Profile} (s).
 	 */
-	public synchronized double sim(RatingVector vRating1, RatingVector vRating2, Profile profile1, Profile profile2, Object...parameters) {
+	public double sim(RatingVector vRating1, RatingVector vRating2, Profile profile1, Profile profile2, Object...parameters) {
 		String measure = getMeasure();
 		if (!isCachedSim()) //In some case, the algorithm is cached but the similarity measure is not cached.
 			return sim0(measure, vRating1, vRating2, profile1, profile2, parameters);
@@ -1036,6 +1242,257 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	}
 	
 	
+	/**
+	 * Getting the nearest neighbor index.
+	 * @return the nearest neighbor index, which is null if the index is not used.
+	 */
+	public NeighborIndex getKnnIndex() {
+		return knnIndex;
+	}
+	
+	
+	/**
+	 * Checking whether the nearest neighbor index can be used for estimation. The index is not used in hybrid mode because neighbors depend on profiles.
+	 * @return whether the nearest neighbor index can be used for estimation.
+	 */
+	protected boolean isKnnIndexSupported() {
+		return knnIndex != null && !getConfig().getAsBoolean(HYBRID);
+	}
+	
+	
+	/**
+	 * Fetching rating vectors of rows. Rows are users in user-based algorithm and items in item-based algorithm.
+	 * @return fetcher of row rating vectors.
+	 */
+	protected abstract Fetcher<RatingVector> fetchRowRatings();
+	
+	
+	/**
+	 * Loading the nearest neighbor index stored next to the dataset. If it does not exist or it is out of date, the index is created and stored.
+	 * @return the nearest neighbor index, which is null if the index cannot be created.
+	 */
+	protected NeighborIndex loadOrCreateKnnIndex() {
+		int knn = getConfig().getAsInt(KNN);
+		if (knn <= 0 || getConfig().getAsBoolean(HYBRID)) return null;
+		
+		List<RatingVector> rows = getRowRatingList();
+		String signature = getKnnIndexSignature(rows);
+		boolean stored = getConfig().getAsBoolean(KNN_INDEX_STORED_FIELD);
+		xURI indexUri = stored ? getKnnIndexUri() : null;
+		
+		NeighborIndex index = indexUri != null ? NeighborIndex.load(indexUri, signature) : null;
+		if (index != null && index.getK() == knn) return index;
+		
+		index = new NeighborIndex(knn, signature);
+		int n = rows.size();
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) order[i] = i;
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Integer.compare(rows.get(o1).id(), rows.get(o2).id());
+			}
+			
+		});
+		
+		int[] rowIds = new int[n];
+		int[][] neighborIds = new int[n][];
+		double[][] neighborSims = new double[n][];
+		long[] stamps = new long[n];
+		for (int i = 0; i < n; i++) {
+			RatingVector row = rows.get(order[i]);
+			rowIds[i] = row.id();
+			stamps[i] = NeighborIndex.stamp(row);
+			PairHeap heap = new PairHeap(knn, false);
+			for (RatingVector thatRow : rows) offerNeighbor(heap, row, thatRow);
+			
+			List<Pair> pairs = heap.toSortedList();
+			neighborIds[i] = new int[pairs.size()];
+			neighborSims[i] = new double[pairs.size()];
+			for (int j = 0; j < pairs.size(); j++) {
+				neighborIds[i][j] = pairs.get(j).key();
+				neighborSims[i][j] = pairs.get(j).value();
+			}
+		}
+		index.assign(rowIds, neighborIds, neighborSims, stamps);
+		
+		if (indexUri != null) index.save(indexUri);
+		return index;
+	}
+	
+	
+	/**
+	 * Refreshing the nearest neighbor index after the specified rows are changed, added, or removed in the dataset.
+	 * Neighbors of changed rows are computed again. Neighbors of other rows are computed again if they contain changed rows, otherwise changed rows are offered to them.
+	 * Internal statistics and caches are cleared because they depend on the changed rows.
+	 * @param rowIds identifiers of changed rows.
+	 */
+	public synchronized void refreshKnnIndex(Collection<Integer> rowIds) {
+		if (knnIndex == null || rowIds == null || rowIds.size() == 0) return;
+		clearStatistics();
+		refreshKnnIndex0(rowIds);
+	}
+	
+	
+	/**
+	 * Refreshing the nearest neighbor index after the specified rows are changed, added, or removed in the dataset, given that internal statistics are up to date.
+	 * @param rowIds identifiers of changed rows.
+	 */
+	private void refreshKnnIndex0(Collection<Integer> rowIds) {
+		if (knnIndex == null || rowIds == null || rowIds.size() == 0) return;
+		
+		Set<Integer> changedIds = Util.newSet(rowIds.size());
+		changedIds.addAll(rowIds);
+		List<RatingVector> rows = getRowRatingList();
+		List<RatingVector> changedRows = Util.newList(changedIds.size());
+		Set<Integer> existingIds = Util.newSet(rows.size());
+		for (RatingVector row : rows) {
+			existingIds.add(row.id());
+			if (changedIds.contains(row.id())) changedRows.add(row);
+		}
+		Set<Integer> removedIds = Util.newSet(changedIds.size());
+		for (int changedId : changedIds) {
+			if (!existingIds.contains(changedId)) removedIds.add(changedId);
+		}
+		knnIndex.removeAll(removedIds);
+		
+		int knn = knnIndex.getK();
+		int[] putIds = new int[rows.size()];
+		int[][] putNeighborIds = new int[rows.size()][];
+		double[][] putNeighborSims = new double[rows.size()][];
+		long[] putStamps = new long[rows.size()];
+		int putCount = 0;
+		for (RatingVector row : rows) {
+			int rowId = row.id();
+			int[] ids = knnIndex.getNeighborIds(rowId);
+			double[] sims = knnIndex.getNeighborSims(rowId);
+			boolean recomputed = changedIds.contains(rowId) || !knnIndex.contains(rowId);
+			for (int i = 0; !recomputed && i < ids.length; i++) {
+				if (changedIds.contains(ids[i])) recomputed = true;
+			}
+			
+			PairHeap heap = new PairHeap(knn, false);
+			if (recomputed) {
+				for (RatingVector thatRow : rows) offerNeighbor(heap, row, thatRow);
+			}
+			else {
+				boolean kept = false;
+				for (int i = 0; i < ids.length; i++) heap.offer(ids[i], sims[i]);
+				for (RatingVector thatRow : changedRows) kept = offerNeighbor(heap, row, thatRow) || kept;
+				if (!kept) continue;
+			}
+			
+			List<Pair> pairs = heap.toSortedList();
+			int[] newIds = new int[pairs.size()];
+			double[] newSims = new double[pairs.size()];
+			for (int j = 0; j < pairs.size(); j++) {
+				newIds[j] = pairs.get(j).key();
+				newSims[j] = pairs.get(j).value();
+			}
+			putIds[putCount] = rowId;
+			putNeighborIds[putCount] = newIds;
+			putNeighborSims[putCount] = newSims;
+			putStamps[putCount] = NeighborIndex.stamp(row);
+			putCount++;
+		}
+		knnIndex.putAll(Arrays.copyOf(putIds, putCount), Arrays.copyOf(putNeighborIds, putCount), Arrays.copyOf(putNeighborSims, putCount), Arrays.copyOf(putStamps, putCount));
+		
+		knnIndex.setSignature(getKnnIndexSignature(rows));
+		xURI indexUri = getConfig().getAsBoolean(KNN_INDEX_STORED_FIELD) ? getKnnIndexUri() : null;
+		if (indexUri != null) knnIndex.save(indexUri);
+	}
+	
+	
+	/**
+	 * Offering the specified neighbor row to the specified heap of neighbors of the specified row.
+	 * @param heap heap of neighbors.
+	 * @param row specified row.
+	 * @param thatRow specified neighbor row.
+	 * @return true if the neighbor row is kept in the heap.
+	 */
+	private boolean offerNeighbor(PairHeap heap, RatingVector row, RatingVector thatRow) {
+		if (thatRow.id() == row.id()) return false;
+		double sim = sim0(getMeasure(), row, thatRow, null, null);
+		return Util.isUsed(sim) ? heap.offer(thatRow.id(), sim) : false;
+	}
+	
+	
+	/**
+	 * Getting list of row rating vectors in the order of fetching them.
+	 * @return list of row rating vectors.
+	 */
+	private List<RatingVector> getRowRatingList() {
+		List<RatingVector> rows = Util.newList();
+		Fetcher<RatingVector> fetcher = fetchRowRatings();
+		try {
+			while (fetcher.next()) {
+				RatingVector row = fetcher.pick();
+				if (row != null) rows.add(row);
+			}
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		finally {
+			try {
+				fetcher.close();
+			}
+			catch (Throwable e) {LogUtil.trace(e);}
+		}
+		
+		return rows;
+	}
+	
+	
+	/**
+	 * Calculating signature of the nearest neighbor index from the configuration and the specified rows.
+	 * @param rows specified rows.
+	 * @return signature of the nearest neighbor index.
+	 */
+	private String getKnnIndexSignature(List<RatingVector> rows) {
+		long hash = 1125899906842597L;
+		for (String key : getConfig().sortedKeyList()) {
+			if (key.equals(KNN_INDEX_FIELD) || key.equals(KNN_INDEX_STORED_FIELD)) continue;
+			Serializable value = getConfig().get(key);
+			if (!(value instanceof String || value instanceof Number || value instanceof Boolean)) continue;
+			hash = 31 * hash + (key + "=" + value).hashCode();
+		}
+		
+		long dataHash = 1125899906842597L;
+		for (RatingVector row : rows) {
+			dataHash = 31 * dataHash + row.id();
+			dataHash = 31 * dataHash + row.size();
+			dataHash = 31 * dataHash + Double.doubleToLongBits(row.mean());
+		}
+		
+		return getName() + ":" + Long.toHexString(hash) + ":" + Long.toHexString(dataHash) + ":" + rows.size();
+	}
+	
+	
+	/**
+	 * Getting URI of the nearest neighbor index file which is stored next to the dataset.
+	 * @return URI of the nearest neighbor index file. Return null if the dataset is not stored in a file store.
+	 */
+	private xURI getKnnIndexUri() {
+		UriAdapter adapter = null;
+		try {
+			xURI store = dataset != null && dataset.getConfig() != null ? dataset.getConfig().getStoreUri() : null;
+			if (store == null) return null;
+			
+			adapter = new UriAdapter(store);
+			if (!adapter.exists(store) || !adapter.isStore(store)) return null;
+			return store.concat(getName() + "." + KNN_INDEX_EXT);
+		}
+		catch (Throwable e) {
+			return null;
+		}
+		finally {
+			if (adapter != null) adapter.close();
+		}
+	}
+	
+	
 	/**
 	 * Calculating the similarity measure between two pairs as usual.
 	 * @param measure specified measure.
@@ -1472,8 +1929,7 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	protected double wpc(
 			RatingVector vRating1, RatingVector vRating2,
 			Profile profile1, Profile profile2) {
-		Set<Integer> common = commonFieldIds(vRating1, vRating2);
-		double N = common.size();
+		double N = countCommonFieldIds(vRating1, vRating2);
 		if (N <= WPC_THRESHOLD)
 			return corr(vRating1, vRating2) * (N/WPC_THRESHOLD);
 		else
@@ -1495,8 +1951,7 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	protected double spc(
 			RatingVector vRating1, RatingVector vRating2,
 			Profile profile1, Profile profile2) {
-		Set<Integer> common = commonFieldIds(vRating1, vRating2);
-		double N = common.size();
+		double N = countCommonFieldIds(vRating1, vRating2);
 		
 		return corr(vRating1, vRating2) / (1 + Math.exp(-N/2.0));
 	}
@@ -1632,6 +2087,13 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 */
 	protected double jaccardNormal(RatingVector vRating1, RatingVector vRating2,
 			Profile profile1, Profile profile2) {
+		if (isKernelSupported(vRating1, vRating2)) {
+			PackedRatingMap a = vRating1.getPackedMap(), b = vRating2.getPackedMap();
+			double n = MeasureKernel.countCommon(a, b);
+			double N = MeasureKernel.countRated(a) + MeasureKernel.countRated(b) - n;
+			return n/N;
+		}
+		
 		Set<Integer> set1 = vRating1.fieldIds(true);
 		Set<Integer> set2 = vRating2.fieldIds(true);
 		Set<Integer> common = Util.newSet();
@@ -1654,6 +2116,13 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 */
 	protected double jaccardMulti(RatingVector vRating1, RatingVector vRating2,
 			Profile profile1, Profile profile2) {
+		if (isKernelSupported(vRating1, vRating2)) {
+			PackedRatingMap a = vRating1.getPackedMap(), b = vRating2.getPackedMap();
+			double n = MeasureKernel.countCommon(a, b);
+			double N = MeasureKernel.countRated(a) * MeasureKernel.countRated(b);
+			return n/N;
+		}
+		
 		Set<Integer> set1 = vRating1.fieldIds(true);
 		Set<Integer> set2 = vRating2.fieldIds(true);
 		Set<Integer> common = Util.newSet();
@@ -1676,6 +2145,13 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 */
 	protected double jaccardDice(RatingVector vRating1, RatingVector vRating2,
 			Profile profile1, Profile profile2) {
+		if (isKernelSupported(vRating1, vRating2)) {
+			PackedRatingMap a = vRating1.getPackedMap(), b = vRating2.getPackedMap();
+			double n = 2 * MeasureKernel.countCommon(a, b);
+			double N = MeasureKernel.countRated(a) + MeasureKernel.countRated(b);
+			return n/N;
+		}
+		
 		Set<Integer> set1 = vRating1.fieldIds(true);
 		Set<Integer> set2 = vRating2.fieldIds(true);
 		Set<Integer> common = Util.newSet();
@@ -1699,6 +2175,17 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 * @author Sujoy Bag, Sri Krishna Kumar, Manoj Kumar Tiwari
 	 */
 	protected double jaccardRelevant(RatingVector vRating1, RatingVector vRating2, Profile profile1, Profile profile2) {
+		if (isKernelSupported(vRating1, vRating2)) {
+			PackedRatingMap a = vRating1.getPackedMap(), b = vRating2.getPackedMap();
+			double n = MeasureKernel.countCommon(a, b);
+			int size1 = MeasureKernel.countRated(a), size2 = MeasureKernel.countRated(b);
+			if (n == 0 && (size1 != 0 || size2 != 0)) return 0;
+			double n1 = size1 - n;
+			double n2 = size2 - n;
+			
+			return 1 / (1 + 1/n + n1/(1+n1) + 1/(1+n2));
+		}
+		
 		Set<Integer> set1 = vRating1.fieldIds(true);
 		Set<Integer> set2 = vRating2.fieldIds(true);
 		Set<Integer> common = Util.newSet();
@@ -1725,6 +2212,9 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 * @author Mubbashir Ayub1, Mustansar Ali Ghazanfar1, Tasawer Khan1, Asjad Saleem
 	 */
 	protected double jaccardRating(RatingVector vRating1, RatingVector vRating2, Profile profile1, Profile profile2) {
+		if (isKernelSupported(vRating1, vRating2))
+			return MeasureKernel.jaccardRating(vRating1.getPackedMap(), vRating2.getPackedMap(), config.getAsReal(RATINGJ_THRESHOLD_FIELD));
+		
 		Set<Integer> set1 = vRating1.fieldIds(true);
 		Set<Integer> set2 = vRating2.fieldIds(true);
 		Set<Integer> common = Util.newSet();
@@ -1962,6 +2452,9 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 */
 	protected double jaccardRA(RatingVector vRating1, RatingVector vRating2,
 			Profile profile1, Profile profile2) {
+		if (isKernelSupported(vRating1, vRating2))
+			return MeasureKernel.jaccardRA(vRating1.getPackedMap(), vRating2.getPackedMap());
+		
 		Set<Integer> set1 = vRating1.fieldIds(true);
 		Set<Integer> set2 = vRating2.fieldIds(true);
 		Set<Integer> common = Util.newSet();
@@ -2021,6 +2514,9 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 */
 	protected double msdNormal(RatingVector vRating1, RatingVector vRating2,
 			Profile profile1, Profile profile2) {
+		if (isKernelSupported(vRating1, vRating2))
+			return MeasureKernel.msd(vRating1.getPackedMap(), vRating2.getPackedMap(), config.getAsBoolean(MSD_FRACTION_FIELD), getMaxRating() - getMinRating());
+		
 		Set<Integer> common = commonFieldIds(vRating1, vRating2);
 		if (common.size() == 0) return Constants.UNUSED;
 		
@@ -2098,6 +2594,9 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 */
 	protected double triangleNormal(RatingVector vRating1, RatingVector vRating2,
 			Profile profile1, Profile profile2) {
+		if (isKernelSupported(vRating1, vRating2))
+			return MeasureKernel.triangle(vRating1.getPackedMap(), vRating2.getPackedMap());
+		
 		Set<Integer> common = commonFieldIds(vRating1, vRating2);
 		if (common.size() == 0) return Constants.UNUSED;
 		
@@ -2116,6 +2615,9 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 * @author Vijay Verma, Rajesh Kumar Aggarwal
 	 */
 	protected double smc(RatingVector vRating1, RatingVector vRating2, Profile profile1, Profile profile2) {
+		if (isKernelSupported(vRating1, vRating2))
+			return MeasureKernel.smc(vRating1.getPackedMap(), vRating2.getPackedMap(), ratingMedian);
+		
 		Set<Integer> set1 = vRating1.fieldIds(true);
 		Set<Integer> set2 = vRating2.fieldIds(true);
 		Set<Integer> common = Util.newSet();
@@ -2150,6 +2652,9 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 * @author Achraf Gazdar, Lotfi Hidri
 	 */
 	protected double adr(RatingVector vRating1, RatingVector vRating2, Profile profile1, Profile profile2) {
+		if (isKernelSupported(vRating1, vRating2))
+			return MeasureKernel.adr(vRating1.getPackedMap(), vRating2.getPackedMap(), getMaxRating() - getMinRating());
+		
 		Set<Integer> common = commonFieldIds(vRating1, vRating2);
 		if (common.size() == 0) return Constants.UNUSED;
 		
@@ -2186,7 +2691,7 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 * @param cachedMap cached map.
 	 * @return the entropy of rating vector of given column identifier.
 	 */
-	protected double calcEntropy(int columnId,  Map<Integer, Object> cachedMap) {
+	protected double calcEntropy(int columnId,  TaskCache cachedMap) {
 		Task task = new Task() {
 			
 			@Override
@@ -2285,13 +2790,16 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 * @return correlation coefficient between two rating vectors.
 	 */
 	protected double corr(RatingVector thisVector, RatingVector thatVector) {
-		Set<Integer> fieldIds = commonFieldIds(thisVector, thatVector);
 		boolean entropySupport = config.getAsBoolean(ENTROPY_SUPPORT_FIELD);
 		boolean isWeighted = config.getAsBoolean(PEARSON_WEIGHTED_FIELD);
 		boolean ra = config.getAsBoolean(PEARSON_RA_FIELD);
-		double VX = 0, VY = 0, VXY = 0;
 		double mean1 = thisVector.mean();
 		double mean2 = thatVector.mean();
+		if (!entropySupport && !isWeighted && !ra && isKernelSupported(thisVector, thatVector))
+			return MeasureKernel.corr(thisVector.getPackedMap(), thatVector.getPackedMap(), mean1, mean2);
+		
+		Set<Integer> fieldIds = commonFieldIds(thisVector, thatVector);
+		double VX = 0, VY = 0, VXY = 0;
 		for (int fieldId : fieldIds) {
 			double weight = 1;
 			if (isWeighted) {
@@ -2340,10 +2848,13 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 * @return correlation coefficient between two rating vectors.
 	 */
 	protected double cosine(RatingVector thisVector, RatingVector thatVector, double average) {
-		Set<Integer> fieldIds = commonFieldIds(thisVector, thatVector);
 		boolean entropySupport = config.getAsBoolean(ENTROPY_SUPPORT_FIELD);
 		boolean isWeighted = config.getAsBoolean(COSINE_WEIGHTED_FIELD);
 		boolean ra = config.getAsBoolean(COSINE_RA_FIELD);
+		if (!entropySupport && !isWeighted && !ra && isKernelSupported(thisVector, thatVector))
+			return MeasureKernel.cosine(thisVector.getPackedMap(), thatVector.getPackedMap(), average);
+		
+		Set<Integer> fieldIds = commonFieldIds(thisVector, thatVector);
 		double VX = 0, VY = 0, VXY = 0;
 		for (int fieldId : fieldIds) {
 			double weight = 1;
@@ -2386,6 +2897,33 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	}
 
 	
+	/**
+	 * Doing some task and put the result into the specified thread-safe cache.
+	 * @param id1 first ID.
+	 * @param id2 second ID.
+	 * @param cache specified cache.
+	 * @param task specified task.
+	 * @param params specified parameters.
+	 * @return the result which is put into the specified cache.
+	 */
+	public Object cacheTask(int id1, int id2, TaskCache cache, Task task, Object...params) {
+		return SupportCacheAlg.cacheTask(this, id1, id2, cache, task, params);
+	}
+
+	
+	/**
+	 * Doing some task and put the result into the specified thread-safe cache.
+	 * @param id specified ID.
+	 * @param cache specified cache.
+	 * @param task specified task.
+	 * @param params specified parameters.
+	 * @return the result which is put into the specified cache.
+	 */
+	public Object cacheTask(int id, TaskCache cache, Task task, Object... params) {
+		return SupportCacheAlg.cacheTask(this, id, cache, task, params);
+	}
+
+	
 	@Override
 	public boolean isCached() {
 		return getConfig().getAsBoolean(SupportCacheAlg.SUPPORT_CACHE_FIELD);
@@ -2405,6 +2943,15 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	protected abstract Set<Integer> getRowIds();
 
 	
+	/**
+	 * Selecting identifiers of rows from the specified user identifiers and item identifiers.
+	 * @param userIds specified user identifiers.
+	 * @param itemIds specified item identifiers.
+	 * @return user identifiers if rows are users, or item identifiers if rows are items.
+	 */
+	protected abstract Set<Integer> selectRowIds(Set<Integer> userIds, Set<Integer> itemIds);
+
+	
 	/**
 	 * Getting rating vector given row ID (item ID or user ID).
 	 * @param rowId specified row ID (item ID or user ID).
@@ -2427,7 +2974,7 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 * @param cachedMap cached map.
 	 * @return mean of row rating vector.
 	 */
-	protected double calcRowMean(RatingVector vRating,  Map<Integer, Object> cachedMap) {
+	protected double calcRowMean(RatingVector vRating,  TaskCache cachedMap) {
 		Task task = new Task() {
 			
 			@Override
@@ -2472,7 +3019,7 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 * @param cachedMap cached map.
 	 * @return mean of column rating vector.
 	 */
-	protected double calcColumnMean(RatingVector vRating,  Map<Integer, Object> cachedMap) {
+	protected double calcColumnMean(RatingVector vRating,  TaskCache cachedMap) {
 		Task task = new Task() {
 			
 			@Override
@@ -2494,7 +3041,7 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	 * @param cachedMap cached map.
 	 * @return mean of row rating vector.
 	 */
-	protected double calcModule(RatingVector vRating,  Map<Integer, Object> cachedMap) {
+	protected double calcModule(RatingVector vRating,  TaskCache cachedMap) {
 		Task task = new Task() {
 			
 			@Override
@@ -2524,6 +3071,33 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	}
 
 	
+	/**
+	 * Counting common field IDs of two rating vectors. If both vectors are packed, the counting is done by {@link MeasureKernel}.
+	 * @param vRating1 first rating vector.
+	 * @param vRating2 second rating vector.
+	 * @return the number of common field IDs of two rating vectors.
+	 */
+	protected int countCommonFieldIds(RatingVector vRating1, RatingVector vRating2) {
+		if (isKernelSupported(vRating1, vRating2))
+			return MeasureKernel.countCommon(vRating1.getPackedMap(), vRating2.getPackedMap());
+		else
+			return commonFieldIds(vRating1, vRating2).size();
+	}
+	
+	
+	/**
+	 * Checking whether similarity of two rating vectors can be calculated by {@link MeasureKernel}, which requires that both vectors are packed
+	 * and the field {@link #SIM_KERNEL_FIELD} is true.
+	 * @param vRating1 first rating vector.
+	 * @param vRating2 second rating vector.
+	 * @return whether similarity of two rating vectors can be calculated by {@link MeasureKernel}.
+	 */
+	protected boolean isKernelSupported(RatingVector vRating1, RatingVector vRating2) {
+		return vRating1 != null && vRating2 != null && vRating1.isPacked() && vRating2.isPacked() &&
+				config.getAsBoolean(SIM_KERNEL_FIELD);
+	}
+	
+	
 	/**
 	 * Computing union field IDs of two rating vectors.
 	 * @param vRating1 first rating vector.
@@ -2542,6 +3116,7 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 	public DataConfig createDefaultConfig() {
 		DataConfig tempConfig = super.createDefaultConfig();
 		tempConfig.put(SUPPORT_CACHE_FIELD, SUPPORT_CACHE_DEFAULT);
+		tempConfig.put(CACHE_CAPACITY_FIELD, CACHE_CAPACITY_DEFAULT);
 		tempConfig.put(KNN, KNN_DEFAULT);
 		tempConfig.put(MEASURE, getDefaultMeasure());
 		tempConfig.put(HYBRID, false); tempConfig.addInvisible(HYBRID);
@@ -2562,6 +3137,9 @@ public abstract class NeighborCF extends MemoryBasedCFAbstract implements Suppor
 		tempConfig.put(TRIANGLE_TYPE, TRIANGLE_TYPE_NORMAL);
 		tempConfig.put(IPWR_ALPHA_FIELD, IPWR_ALPHA_DEFAULT);
 		tempConfig.put(IPWR_BETA_FIELD, IPWR_BETA_DEFAULT);
+		tempConfig.put(SIM_KERNEL_FIELD, SIM_KERNEL_DEFAULT);
+		tempConfig.put(KNN_INDEX_FIELD, KNN_INDEX_DEFAULT);
+		tempConfig.put(KNN_INDEX_STORED_FIELD, KNN_INDEX_STORED_DEFAULT);
 
 		DataConfig config = new DataConfig() {
 
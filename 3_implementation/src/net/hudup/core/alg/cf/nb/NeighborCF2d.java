@@ -14,6 +14,7 @@ import net.hudup.core.Util;
 import net.hudup.core.alg.RecommendParam;
 import net.hudup.core.data.Dataset;
 import net.hudup.core.data.Fetcher;
+import net.hudup.core.data.RatingDelta;
 import net.hudup.core.data.RatingVector;
 import net.hudup.core.logistic.LogUtil;
 
@@ -54,6 +55,20 @@ public class NeighborCF2d extends NeighborCFUserBased {
 	}
 
 
+	/**
+	 * Setting up incrementally both user-based part and item-based part of this algorithm.
+	 * The item-based part is set up fully if the source algorithm is not 2-dimensional algorithm.
+	 */
+	@Override
+	protected synchronized void setupIncrementally(Dataset dataset, NeighborCF source, RatingDelta delta) throws RemoteException {
+		super.setupIncrementally(dataset, source, delta);
+		if (source instanceof NeighborCF2d)
+			this.itemBasedCF.setupIncrementally(dataset, ((NeighborCF2d)source).itemBasedCF, delta);
+		else
+			this.itemBasedCF.setup(dataset);
+	}
+
+
 	@Override
 	public synchronized void unsetup() throws RemoteException {
 		super.unsetup();
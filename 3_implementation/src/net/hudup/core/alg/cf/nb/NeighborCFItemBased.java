@@ -83,6 +83,7 @@ public class NeighborCFItemBased extends NeighborCF implements DuplicatableAlg {
 		Fetcher<RatingVector> itemRatings = cf.getDataset().fetchItemRatings();
 		int knn = cf.getConfig().getAsInt(KNN);
 		knn = knn < 0 ? 0 : knn;
+		boolean indexed = knn > 0 && cf.isKnnIndexSupported() && isIndexedUser(cf, thisUser);
 		for (int itemId : queryIds) {
 			RatingVector thisItem = cf.getDataset().getItemRating(itemId);
 			if (thisItem == null) continue; //This item is not empty and has no unrated if it is not null because it is retrieved from dataset.
@@ -101,7 +102,9 @@ public class NeighborCFItemBased extends NeighborCF implements DuplicatableAlg {
 			double simTotal = 0;
 			boolean calculated = false;
 			List<ObjectPair<RatingVector>> pairs = Util.newList();
-			try {
+			if (indexed && cf.knnIndex.isCurrent(thisItem))
+				pairs = getIndexedKnnList(cf, itemId, thisUser, simThreshold);
+			else try {
 				while (itemRatings.next()) {
 					RatingVector thatItem = itemRatings.pick();
 					if (thatItem == null || thatItem.id() == itemId)
@@ -180,6 +183,61 @@ public class NeighborCFItemBased extends NeighborCF implements DuplicatableAlg {
 	}
 	
 	
+	/**
+	 * Testing whether the nearest neighbor index of the specified algorithm can be used for the specified user.
+	 * This is the case when the user is stored in the dataset and all ratings of the user are the same to the stored ones,
+	 * because otherwise ratings of the user which are not stored change item rating vectors from which the index is built.
+	 * @param cf current neighbor algorithm whose nearest neighbor index is not null.
+	 * @param thisUser specified user rating vector.
+	 * @return whether the nearest neighbor index of the specified algorithm can be used for the specified user.
+	 * @throws RemoteException if any error raises.
+	 */
+	private static boolean isIndexedUser(NeighborCF cf, RatingVector thisUser) throws RemoteException {
+		RatingVector innerUser = cf.getDataset().getUserRating(thisUser.id());
+		if (innerUser == null) return false;
+		if (innerUser == thisUser) return true;
+		
+		for (int itemId : thisUser.fieldIds(true)) {
+			if (!innerUser.isRated(itemId) || innerUser.get(itemId).value != thisUser.get(itemId).value)
+				return false;
+		}
+		
+		return true;
+	}
+	
+	
+	/**
+	 * Getting list of nearest neighbors of the specified item from the nearest neighbor index of the specified algorithm.
+	 * Only neighbors rated by the specified user are kept.
+	 * @param cf current neighbor algorithm whose nearest neighbor index is not null.
+	 * @param itemId identifier of item stored in the index with its current ratings.
+	 * @param thisUser specified user rating vector whose ratings are stored in the dataset.
+	 * @param simThreshold similarity threshold.
+	 * @return list of nearest neighbors of the specified item rated by the specified user.
+	 * @throws RemoteException if any error raises.
+	 */
+	private static List<ObjectPair<RatingVector>> getIndexedKnnList(NeighborCF cf, int itemId, RatingVector thisUser, double simThreshold) throws RemoteException {
+		int[] neighborIds = cf.knnIndex.getNeighborIds(itemId);
+		double[] neighborSims = cf.knnIndex.getNeighborSims(itemId);
+		List<ObjectPair<RatingVector>> pairs = Util.newList(neighborIds.length);
+		for (int i = 0; i < neighborIds.length; i++) {
+			double sim = neighborSims[i];
+			if (Util.isUsed(simThreshold) && sim < simThreshold) continue;
+			
+			RatingVector thatItem = cf.getDataset().getItemRating(neighborIds[i]);
+			if (thatItem == null) continue;
+			if (thisUser.isRated(thatItem.id()) && !thatItem.isRated(thisUser.id())) {
+				thatItem = (RatingVector)thatItem.clone();
+				thatItem.put(thisUser.id(), thisUser.get(thatItem.id()));
+			}
+			if (thatItem.isRated(thisUser.id()))
+				pairs.add(new ObjectPair<RatingVector>(thatItem, sim));
+		}
+		
+		return pairs;
+	}
+	
+	
 	@Override
 	protected double cod(
 			RatingVector vRating1, RatingVector vRating2,
@@ -194,6 +252,18 @@ public class NeighborCFItemBased extends NeighborCF implements DuplicatableAlg {
 	}
 
 
+	@Override
+	protected Set<Integer> selectRowIds(Set<Integer> userIds, Set<Integer> itemIds) {
+		return itemIds;
+	}
+
+
+	@Override
+	protected Fetcher<RatingVector> fetchRowRatings() {
+		return dataset.fetchItemRatings();
+	}
+
+
 	@Override
 	protected RatingVector getRowRating(int rowId) {
 		return dataset.getItemRating(rowId);
@@ -251,12 +251,17 @@ public class NeighborCFUserBased extends NeighborCF implements DuplicatableAlg {
 		boolean hybrid = cf.getConfig().getAsBoolean(HYBRID);
 		Profile thisProfile = hybrid ? param.profile : null;
 		int knn = cf.getConfig().getAsInt(KNN);
-		Fetcher<RatingVector> userRatings = cf.getDataset().fetchUserRatings();
-		List<ObjectPair<RatingVector>> pairs = getKnnList(cf, knn, userRatings, thisUser, thisProfile);
-		try {
-			userRatings.close();
-		} 
-		catch (Throwable e) {LogUtil.trace(e);}
+		List<ObjectPair<RatingVector>> pairs = null;
+		if (innerUser != null && cf.isKnnIndexSupported() && cf.knnIndex.isCurrent(thisUser))
+			pairs = getIndexedKnnList(cf, thisUser.id());
+		else {
+			Fetcher<RatingVector> userRatings = cf.getDataset().fetchUserRatings();
+			pairs = getKnnList(cf, knn, userRatings, thisUser, thisProfile);
+			try {
+				userRatings.close();
+			} 
+			catch (Throwable e) {LogUtil.trace(e);}
+		}
 		if (pairs.size() == 0) return null;
 		
 		RatingVector result = thisUser.newInstance(true);
@@ -296,6 +301,26 @@ public class NeighborCFUserBased extends NeighborCF implements DuplicatableAlg {
 	}
 
 	
+	/**
+	 * Getting list of k nearest neighbors from the nearest neighbor index of the specified algorithm.
+	 * @param cf current neighbor algorithm whose nearest neighbor index is not null.
+	 * @param userId identifier of user stored in the index.
+	 * @return list of k nearest neighbors.
+	 * @throws RemoteException if any error raises.
+	 */
+	private static List<ObjectPair<RatingVector>> getIndexedKnnList(NeighborCF cf, int userId) throws RemoteException {
+		int[] neighborIds = cf.knnIndex.getNeighborIds(userId);
+		double[] neighborSims = cf.knnIndex.getNeighborSims(userId);
+		List<ObjectPair<RatingVector>> pairs = Util.newList(neighborIds.length);
+		for (int i = 0; i < neighborIds.length; i++) {
+			RatingVector thatUser = cf.getDataset().getUserRating(neighborIds[i]);
+			if (thatUser != null) pairs.add(new ObjectPair<RatingVector>(thatUser, neighborSims[i]));
+		}
+		
+		return pairs;
+	}
+	
+	
 	/**
 	 * Getting list of k nearest neighbors.
 	 * @param cf current neighbor algorithm.
@@ -369,6 +394,18 @@ public class NeighborCFUserBased extends NeighborCF implements DuplicatableAlg {
 	}
 
 
+	@Override
+	protected Set<Integer> selectRowIds(Set<Integer> userIds, Set<Integer> itemIds) {
+		return userIds;
+	}
+
+
+	@Override
+	protected Fetcher<RatingVector> fetchRowRatings() {
+		return dataset.fetchUserRatings();
+	}
+
+
 	@Override
 	protected RatingVector getRowRating(int rowId) {
 		return dataset.getUserRating(rowId);
@@ -0,0 +1,513 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.alg.cf.nb;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.PackedRatingMap;
+import net.hudup.core.data.RatingVector;
+import net.hudup.core.logistic.LogUtil;
+import net.hudup.core.logistic.UriAdapter;
+import net.hudup.core.logistic.xURI;
+
+/**
+ * This class is the offline index of nearest neighbors used by {@link NeighborCF}.
+ * For every row (user or item), it stores identifiers and similarities of its top-K neighbors in primitive arrays,
+ * sorted from the most similar neighbor to the least similar neighbor.
+ * Row identifiers are sorted so that looking up neighbors of a row costs logarithmic time in the number of rows.
+ * The index is identified by a signature which summarizes the configuration and the dataset from which the index is built.
+ * Every row also has a stamp which summarizes its ratings at the time it is indexed, so that an index entry is only used for a row whose ratings are not changed.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class NeighborIndex implements Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Magic number of index file.
+	 */
+	private static final int MAGIC = 0x4B4E4E49;
+
+
+	/**
+	 * Version of index file format.
+	 */
+	private static final int VERSION = 2;
+
+
+	/**
+	 * Empty identifiers.
+	 */
+	private static final int[] EMPTY_IDS = new int[0];
+
+
+	/**
+	 * Empty similarities.
+	 */
+	private static final double[] EMPTY_SIMS = new double[0];
+
+
+	/**
+	 * Number of nearest neighbors.
+	 */
+	protected int k = 0;
+
+
+	/**
+	 * Signature of this index.
+	 */
+	protected String signature = "";
+
+
+	/**
+	 * Sorted row identifiers.
+	 */
+	protected int[] rowIds = EMPTY_IDS;
+
+
+	/**
+	 * Neighbor identifiers of rows, in the order of row identifiers.
+	 */
+	protected int[][] neighborIds = new int[0][];
+
+
+	/**
+	 * Neighbor similarities of rows, in the order of row identifiers.
+	 */
+	protected double[][] neighborSims = new double[0][];
+
+
+	/**
+	 * Stamps of rows, in the order of row identifiers. See {@link #stamp(RatingVector)}.
+	 */
+	protected long[] stamps = new long[0];
+
+
+	/**
+	 * Constructor with specified number of nearest neighbors and signature.
+	 * @param k specified number of nearest neighbors.
+	 * @param signature specified signature.
+	 */
+	public NeighborIndex(int k, String signature) {
+		this.k = k;
+		this.signature = signature != null ? signature : "";
+	}
+
+
+	/**
+	 * Copy constructor. Neighbor arrays of rows are shared with the other index because they are replaced but not modified by the methods {@link #putAll(int[], int[][], double[][], long[])} and {@link #removeAll(Collection)}.
+	 * @param other other index.
+	 */
+	public NeighborIndex(NeighborIndex other) {
+		this.k = other.k;
+		this.signature = other.signature;
+		this.rowIds = other.rowIds.clone();
+		this.neighborIds = other.neighborIds.clone();
+		this.neighborSims = other.neighborSims.clone();
+		this.stamps = other.stamps.clone();
+	}
+
+
+	/**
+	 * Getting the number of nearest neighbors.
+	 * @return the number of nearest neighbors.
+	 */
+	public int getK() {
+		return k;
+	}
+
+
+	/**
+	 * Getting signature.
+	 * @return signature of this index.
+	 */
+	public String getSignature() {
+		return signature;
+	}
+
+
+	/**
+	 * Getting the number of indexed rows.
+	 * @return the number of indexed rows.
+	 */
+	public int size() {
+		return rowIds.length;
+	}
+
+
+	/**
+	 * Testing whether the specified row is indexed.
+	 * @param rowId specified row identifier.
+	 * @return whether the specified row is indexed.
+	 */
+	public boolean contains(int rowId) {
+		return Arrays.binarySearch(rowIds, rowId) >= 0;
+	}
+
+
+	/**
+	 * Testing whether the specified row is indexed with its current ratings, which means that the stamp of the row is the same to the stamp of the row when it was indexed.
+	 * @param row specified row.
+	 * @return whether the specified row is indexed with its current ratings.
+	 */
+	public boolean isCurrent(RatingVector row) {
+		int index = Arrays.binarySearch(rowIds, row.id());
+		return index >= 0 && stamps[index] == stamp(row);
+	}
+
+
+	/**
+	 * Calculating stamp of the specified row, which is a hash of identifiers and values of its rated ratings.
+	 * The stamp does not depend on the order of ratings, so a row and its copy have the same stamp whether they are packed or not.
+	 * @param row specified row.
+	 * @return stamp of the specified row.
+	 */
+	public static long stamp(RatingVector row) {
+		long stamp = 0;
+		PackedRatingMap packedMap = row.getPackedMap();
+		if (packedMap != null) {
+			int[] fieldIds = packedMap.getFieldIdArray();
+			double[] values = packedMap.getValueArray();
+			int n = packedMap.size();
+			for (int i = 0; i < n; i++) {
+				if (Util.isUsed(values[i])) stamp += mix(fieldIds[i], values[i]);
+			}
+		}
+		else {
+			for (int fieldId : row.fieldIds(true)) {
+				stamp += mix(fieldId, row.get(fieldId).value);
+			}
+		}
+
+		return stamp;
+	}
+
+
+	/**
+	 * Mixing the specified field identifier and rating value into a hash.
+	 * @param fieldId specified field identifier.
+	 * @param value specified rating value.
+	 * @return hash of the specified field identifier and rating value.
+	 */
+	private static long mix(int fieldId, double value) {
+		long h = fieldId * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(value);
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return h;
+	}
+
+
+	/**
+	 * Getting identifiers of indexed rows.
+	 * @return sorted identifiers of indexed rows. The returned array must not be modified.
+	 */
+	public int[] getRowIds() {
+		return rowIds;
+	}
+
+
+	/**
+	 * Getting neighbor identifiers of the specified row.
+	 * @param rowId specified row identifier.
+	 * @return neighbor identifiers of the specified row, sorted by descending similarity. Return empty array if the row is not indexed.
+	 * The returned array must not be modified.
+	 */
+	public int[] getNeighborIds(int rowId) {
+		int index = Arrays.binarySearch(rowIds, rowId);
+		return index >= 0 ? neighborIds[index] : EMPTY_IDS;
+	}
+
+
+	/**
+	 * Getting neighbor similarities of the specified row.
+	 * @param rowId specified row identifier.
+	 * @return neighbor similarities of the specified row in the order of {@link #getNeighborIds(int)}. Return empty array if the row is not indexed.
+	 * The returned array must not be modified.
+	 */
+	public double[] getNeighborSims(int rowId) {
+		int index = Arrays.binarySearch(rowIds, rowId);
+		return index >= 0 ? neighborSims[index] : EMPTY_SIMS;
+	}
+
+
+	/**
+	 * Assigning all rows of this index at once, which replaces current rows.
+	 * @param rowIds identifiers of rows which must be sorted in ascending order.
+	 * @param neighborIds neighbor identifiers of rows in the order of row identifiers.
+	 * @param neighborSims neighbor similarities of rows in the order of row identifiers.
+	 * @param stamps stamps of rows in the order of row identifiers.
+	 */
+	void assign(int[] rowIds, int[][] neighborIds, double[][] neighborSims, long[] stamps) {
+		this.rowIds = rowIds;
+		this.neighborIds = neighborIds;
+		this.neighborSims = neighborSims;
+		this.stamps = stamps;
+	}
+
+
+	/**
+	 * Setting signature.
+	 * @param signature specified signature.
+	 */
+	void setSignature(String signature) {
+		this.signature = signature != null ? signature : "";
+	}
+
+
+	/**
+	 * Putting neighbors of the specified row. If the row is indexed, its neighbors are replaced.
+	 * Adding a new row copies all rows, so that {@link #putAll(int[], int[][], double[][], long[])} should be used to put many rows.
+	 * @param rowId specified row identifier.
+	 * @param ids neighbor identifiers sorted by descending similarity.
+	 * @param sims neighbor similarities in the order of neighbor identifiers.
+	 * @param stamp stamp of the row, see {@link #stamp(RatingVector)}.
+	 */
+	public void put(int rowId, int[] ids, double[] sims, long stamp) {
+		putAll(new int[] {rowId}, new int[][] {ids}, new double[][] {sims}, new long[] {stamp});
+	}
+
+
+	/**
+	 * Putting neighbors of the specified rows at once. Indexed rows have their neighbors replaced and new rows are merged into this index by copying all rows only one time.
+	 * If a row identifier occurs many times, its last occurrence is used.
+	 * @param rowIds specified row identifiers in any order.
+	 * @param neighborIds neighbor identifiers of rows in the order of row identifiers, each of which is sorted by descending similarity.
+	 * @param neighborSims neighbor similarities of rows in the order of row identifiers.
+	 * @param stamps stamps of rows in the order of row identifiers, see {@link #stamp(RatingVector)}.
+	 */
+	public void putAll(int[] rowIds, int[][] neighborIds, double[][] neighborSims, long[] stamps) {
+		int m = rowIds.length;
+		if (m == 0) return;
+		
+		//Each key holds row identifier in high bits and position in low bits so that sorting keys sorts positions by row identifiers.
+		long[] keys = new long[m];
+		for (int i = 0; i < m; i++) keys[i] = ((long)rowIds[i] << 32) | i;
+		Arrays.sort(keys);
+		
+		int[] added = new int[m];
+		int addedCount = 0;
+		for (int j = 0; j < m; j++) {
+			int i = (int)keys[j];
+			if (j < m - 1 && rowIds[(int)keys[j + 1]] == rowIds[i]) continue;
+			
+			int index = Arrays.binarySearch(this.rowIds, rowIds[i]);
+			if (index >= 0) {
+				this.neighborIds[index] = neighborIds[i];
+				this.neighborSims[index] = neighborSims[i];
+				this.stamps[index] = stamps[i];
+			}
+			else
+				added[addedCount++] = i;
+		}
+		if (addedCount == 0) return;
+		
+		int n = this.rowIds.length;
+		int[] newRowIds = new int[n + addedCount];
+		int[][] newNeighborIds = new int[n + addedCount][];
+		double[][] newNeighborSims = new double[n + addedCount][];
+		long[] newStamps = new long[n + addedCount];
+		int k = 0, j = 0;
+		for (int index = 0; index < newRowIds.length; index++) {
+			if (j >= addedCount || (k < n && this.rowIds[k] < rowIds[added[j]])) {
+				newRowIds[index] = this.rowIds[k];
+				newNeighborIds[index] = this.neighborIds[k];
+				newNeighborSims[index] = this.neighborSims[k];
+				newStamps[index] = this.stamps[k];
+				k++;
+			}
+			else {
+				int i = added[j];
+				newRowIds[index] = rowIds[i];
+				newNeighborIds[index] = neighborIds[i];
+				newNeighborSims[index] = neighborSims[i];
+				newStamps[index] = stamps[i];
+				j++;
+			}
+		}
+
+		this.rowIds = newRowIds;
+		this.neighborIds = newNeighborIds;
+		this.neighborSims = newNeighborSims;
+		this.stamps = newStamps;
+	}
+
+
+	/**
+	 * Removing the specified row from this index.
+	 * @param rowId specified row identifier.
+	 * @return true if the row is removed.
+	 */
+	public boolean remove(int rowId) {
+		return removeAll(Arrays.asList(rowId)) > 0;
+	}
+
+
+	/**
+	 * Removing the specified rows from this index at once, which copies all rows only one time.
+	 * @param rowIds specified row identifiers.
+	 * @return the number of removed rows.
+	 */
+	public int removeAll(Collection<Integer> rowIds) {
+		int n = this.rowIds.length;
+		boolean[] removed = new boolean[n];
+		int removedCount = 0;
+		for (int rowId : rowIds) {
+			int index = Arrays.binarySearch(this.rowIds, rowId);
+			if (index >= 0 && !removed[index]) {
+				removed[index] = true;
+				removedCount++;
+			}
+		}
+		if (removedCount == 0) return 0;
+
+		int[] newRowIds = new int[n - removedCount];
+		int[][] newNeighborIds = new int[n - removedCount][];
+		double[][] newNeighborSims = new double[n - removedCount][];
+		long[] newStamps = new long[n - removedCount];
+		int k = 0;
+		for (int index = 0; index < n; index++) {
+			if (removed[index]) continue;
+			newRowIds[k] = this.rowIds[index];
+			newNeighborIds[k] = this.neighborIds[index];
+			newNeighborSims[k] = this.neighborSims[index];
+			newStamps[k] = this.stamps[index];
+			k++;
+		}
+
+		this.rowIds = newRowIds;
+		this.neighborIds = newNeighborIds;
+		this.neighborSims = newNeighborSims;
+		this.stamps = newStamps;
+		return removedCount;
+	}
+
+
+	/**
+	 * Saving this index to the specified URI.
+	 * @param uri specified URI.
+	 * @return true if saving is successful.
+	 */
+	public boolean save(xURI uri) {
+		UriAdapter adapter = null;
+		DataOutputStream output = null;
+		try {
+			adapter = new UriAdapter(uri);
+			output = new DataOutputStream(new BufferedOutputStream(adapter.getOutputStream(uri, false)));
+
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeUTF(signature);
+			output.writeInt(k);
+			output.writeInt(rowIds.length);
+			for (int i = 0; i < rowIds.length; i++) {
+				int[] ids = neighborIds[i];
+				double[] sims = neighborSims[i];
+				output.writeInt(rowIds[i]);
+				output.writeLong(stamps[i]);
+				output.writeInt(ids.length);
+				for (int j = 0; j < ids.length; j++) {
+					output.writeInt(ids[j]);
+					output.writeDouble(sims[j]);
+				}
+			}
+
+			return true;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			return false;
+		}
+		finally {
+			try {
+				if (output != null) output.close();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+
+			if (adapter != null) adapter.close();
+		}
+	}
+
+
+	/**
+	 * Loading index from the specified URI.
+	 * @param uri specified URI.
+	 * @param signature expected signature. If it is not null and it is different from the signature of the stored index, the stored index is ignored.
+	 * @return index loaded from the specified URI. Return null if the index does not exist, its signature is different from the expected signature, or loading is failed.
+	 */
+	public static NeighborIndex load(xURI uri, String signature) {
+		UriAdapter adapter = null;
+		DataInputStream input = null;
+		try {
+			adapter = new UriAdapter(uri);
+			if (!adapter.exists(uri)) return null;
+			input = new DataInputStream(new BufferedInputStream(adapter.getInputStream(uri)));
+
+			if (input.readInt() != MAGIC || input.readInt() != VERSION)
+				return null;
+			String storedSignature = input.readUTF();
+			if (signature != null && !signature.equals(storedSignature))
+				return null;
+
+			NeighborIndex index = new NeighborIndex(input.readInt(), storedSignature);
+			int n = input.readInt();
+			index.rowIds = new int[n];
+			index.neighborIds = new int[n][];
+			index.neighborSims = new double[n][];
+			index.stamps = new long[n];
+			for (int i = 0; i < n; i++) {
+				index.rowIds[i] = input.readInt();
+				index.stamps[i] = input.readLong();
+				int count = input.readInt();
+				int[] ids = new int[count];
+				double[] sims = new double[count];
+				for (int j = 0; j < count; j++) {
+					ids[j] = input.readInt();
+					sims[j] = input.readDouble();
+				}
+				index.neighborIds[i] = ids;
+				index.neighborSims[i] = sims;
+			}
+
+			return index;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			return null;
+		}
+		finally {
+			try {
+				if (input != null) input.close();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+
+			if (adapter != null) adapter.close();
+		}
+	}
+
+
+}
@@ -0,0 +1,829 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.BooleanWrapper;
+import net.hudup.core.data.ItemRating;
+import net.hudup.core.data.MemFetcher;
+import net.hudup.core.data.Rating;
+import net.hudup.core.data.RatingVector;
+import net.hudup.core.data.UserRating;
+
+/**
+ * This class implements the compact binary codec of {@link Request} and {@link Response} which is used alongside JSON format in client-server network.
+ * A binary message is a frame which consists of the magic byte {@link #MAGIC}, one byte of flags, the length of payload as four-byte integer, and the payload.
+ * Because the magic byte cannot start a JSON text line or HTTP request line, server can read binary frames and JSON text lines from the same connection.
+ * The payload lists public variables of request or response whose values are not default values. Primitive values, strings, sets and lists of identifiers,
+ * rating vectors, maps of rating vectors and sets of identifiers keyed by identifiers, and in-memory fetchers of identifiers and rating vectors are encoded as primitive numbers,
+ * and other values are encoded by Java serialization.
+ * The payload is compressed by {@link Deflater} if the sender is allowed to compress it and it is long enough.
+ * Client uses binary codec only after server accepts the request created by {@link ProtocolImpl#createNegotiateCodecRequest()}, so JSON format is kept for old servers.
+ * Server accepts such negotiation only after the account of client is validated, and it reads frames and text lines within {@link #MAX_FRAME_LENGTH} and {@link #MAX_LINE_LENGTH}.
+ * Values of requests are never encoded by Java serialization, so server does not deserialize objects sent by clients; such requests are sent as JSON text lines instead.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public final class BinaryCodec {
+
+
+	/**
+	 * Magic byte which starts every binary frame.
+	 */
+	public final static int MAGIC = 0xB5;
+
+
+	/**
+	 * Flag indicating that payload is compressed.
+	 */
+	public final static int COMPRESSED = 1;
+
+
+	/**
+	 * Flag indicating that the sender accepts compressed frames in reply.
+	 */
+	public final static int ACCEPT_COMPRESSED = 2;
+
+
+	/**
+	 * Length of frame header.
+	 */
+	public final static int HEADER_LENGTH = 6;
+
+
+	/**
+	 * Minimum length of payload which is compressed.
+	 */
+	public final static int COMPRESS_THRESHOLD = 1024;
+
+
+	/**
+	 * Maximum length of binary frame which server reads.
+	 */
+	public final static int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+
+	/**
+	 * Maximum length of text line which server reads.
+	 */
+	public final static int MAX_LINE_LENGTH = 64 * 1024 * 1024;
+
+
+	/**
+	 * Maximum length of decompressed payload.
+	 */
+	public final static int MAX_INFLATED_LENGTH = 256 * 1024 * 1024;
+
+
+	/**
+	 * Kind of payload of request.
+	 */
+	private final static int REQUEST_KIND = 0;
+
+
+	/**
+	 * Kind of payload of response.
+	 */
+	private final static int RESPONSE_KIND = 1;
+
+
+	/**
+	 * Tags of encoded values.
+	 */
+	private final static int BOOLEAN_TAG = 1, INT_TAG = 2, LONG_TAG = 3, DOUBLE_TAG = 4, STRING_TAG = 5, BOOLEAN_WRAPPER_TAG = 6,
+		ID_SET_TAG = 7, ID_LIST_TAG = 8, RATING_VECTOR_TAG = 9, ID_FETCHER_TAG = 10, RATING_VECTOR_FETCHER_TAG = 11, OBJECT_TAG = 12,
+		RATING_VECTOR_MAP_TAG = 13, ID_SET_MAP_TAG = 14;
+
+
+	/**
+	 * Kinds of rating vector.
+	 */
+	private final static int RATING_VECTOR_KIND = 0, USER_RATING_KIND = 1, ITEM_RATING_KIND = 2;
+
+
+	/**
+	 * Encoded variables of request.
+	 */
+	private final static Field[] REQUEST_FIELDS = fieldsOf(Request.class);
+
+
+	/**
+	 * Encoded variables of response.
+	 */
+	private final static Field[] RESPONSE_FIELDS = fieldsOf(Response.class);
+
+
+	/**
+	 * Request whose variables have default values.
+	 */
+	private final static Request DEFAULT_REQUEST = new Request();
+
+
+	/**
+	 * Response whose variables have default values.
+	 */
+	private final static Response DEFAULT_RESPONSE = new Response();
+
+
+	/**
+	 * Private constructor because this is utility class.
+	 */
+	private BinaryCodec() {
+
+	}
+
+
+	/**
+	 * Getting public variables of the specified class which are encoded.
+	 * @param paramClass specified class.
+	 * @return public variables which are neither static, final, nor transient.
+	 */
+	private static Field[] fieldsOf(Class<?> paramClass) {
+		List<Field> fields = Util.newList();
+		for (Field field : paramClass.getFields()) {
+			int modifiers = field.getModifiers();
+			if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && !Modifier.isTransient(modifiers))
+				fields.add(field);
+		}
+
+		return fields.toArray(new Field[0]);
+	}
+
+
+	/**
+	 * Creating binary frame of the specified request or response.
+	 * @param param specified request or response.
+	 * @param compress whether payload is compressed if it is long enough.
+	 * @param acceptCompressed whether compressed frames are accepted in reply.
+	 * @return binary frame of the specified request or response.
+	 * @throws IOException if the specified request or response cannot be encoded, for example, some of its variables are not serializable.
+	 */
+	public static byte[] toFrame(ProtocolParam param, boolean compress, boolean acceptCompressed) throws IOException {
+		byte[] payload = encode(param);
+		int flags = acceptCompressed ? ACCEPT_COMPRESSED : 0;
+		if (compress && payload.length >= COMPRESS_THRESHOLD) {
+			byte[] compressed = deflate(payload);
+			if (compressed.length < payload.length) {
+				payload = compressed;
+				flags |= COMPRESSED;
+			}
+		}
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(HEADER_LENGTH + payload.length);
+		DataOutputStream out = new DataOutputStream(buffer);
+		out.writeByte(MAGIC);
+		out.writeByte(flags);
+		out.writeInt(payload.length);
+		out.write(payload);
+		out.flush();
+		return buffer.toByteArray();
+	}
+
+
+	/**
+	 * Parsing the specified binary frame into request or response.
+	 * @param frame specified binary frame including its header.
+	 * @return request or response of the specified binary frame.
+	 * @throws IOException if the specified binary frame is invalid.
+	 */
+	public static ProtocolParam parseFrame(byte[] frame) throws IOException {
+		int length = frameLength(frame, 0, frame.length);
+		if (length < 0 || length > frame.length)
+			throw new IOException("Invalid binary frame");
+
+		int flags = getFlags(frame);
+		int payloadLength = length - HEADER_LENGTH;
+		if ((flags & COMPRESSED) != 0) {
+			byte[] payload = inflate(frame, HEADER_LENGTH, payloadLength);
+			return decode(payload, 0, payload.length);
+		}
+		else
+			return decode(frame, HEADER_LENGTH, payloadLength);
+	}
+
+
+	/**
+	 * Getting flags of the specified binary frame.
+	 * @param frame specified binary frame.
+	 * @return flags of the specified binary frame.
+	 */
+	public static int getFlags(byte[] frame) {
+		return frame[1] & 0xFF;
+	}
+
+
+	/**
+	 * Testing whether the sender of the specified binary frame accepts compressed frames in reply.
+	 * @param frame specified binary frame.
+	 * @return whether the sender of the specified binary frame accepts compressed frames in reply.
+	 */
+	public static boolean isAcceptCompressed(byte[] frame) {
+		return (getFlags(frame) & ACCEPT_COMPRESSED) != 0;
+	}
+
+
+	/**
+	 * Getting length of the binary frame which starts at the specified offset of the specified buffer.
+	 * @param buffer specified buffer.
+	 * @param offset specified offset.
+	 * @param count number of available bytes from the specified offset.
+	 * @return length of the binary frame including its header, or -1 if the header is not available yet.
+	 * @throws IOException if the header is invalid.
+	 */
+	public static int frameLength(byte[] buffer, int offset, int count) throws IOException {
+		if (count < HEADER_LENGTH) return -1;
+		if ((buffer[offset] & 0xFF) != MAGIC)
+			throw new IOException("Invalid magic byte of binary frame");
+
+		int payloadLength = ((buffer[offset + 2] & 0xFF) << 24) | ((buffer[offset + 3] & 0xFF) << 16) |
+				((buffer[offset + 4] & 0xFF) << 8) | (buffer[offset + 5] & 0xFF);
+		if (payloadLength < 0 || payloadLength > Integer.MAX_VALUE - HEADER_LENGTH)
+			throw new IOException("Invalid length of binary frame");
+
+		return HEADER_LENGTH + payloadLength;
+	}
+
+
+	/**
+	 * Reading the next message from the specified input stream, which is either binary frame or text line.
+	 * The specified input stream should be buffered because text line is read byte by byte.
+	 * This method does not limit the length of message and so it is used to read messages from trusted server.
+	 * @param in specified input stream.
+	 * @return binary frame as byte array, text line as string without line terminator, or null if the end of stream is reached.
+	 * @throws IOException if any error raises.
+	 */
+	public static Object read(InputStream in) throws IOException {
+		return read(in, Integer.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+
+	/**
+	 * Reading the next message from the specified input stream within the specified maximum lengths, which is either binary frame or text line.
+	 * The length of binary frame is checked before the frame is allocated.
+	 * @param in specified input stream.
+	 * @param maxFrameLength maximum length of binary frame including its header. If it is 0, binary frames are not accepted.
+	 * @param maxLineLength maximum length of text line.
+	 * @return binary frame as byte array, text line as string without line terminator, or null if the end of stream is reached.
+	 * @throws IOException if any error raises or the message is too long.
+	 */
+	public static Object read(InputStream in, int maxFrameLength, int maxLineLength) throws IOException {
+		int first = in.read();
+		if (first < 0)
+			return null;
+		else if (first == MAGIC) {
+			if (maxFrameLength <= 0)
+				throw new IOException("Binary frame is not accepted");
+			
+			byte[] header = new byte[HEADER_LENGTH];
+			header[0] = (byte)first;
+			DataInputStream dataIn = new DataInputStream(in);
+			dataIn.readFully(header, 1, HEADER_LENGTH - 1);
+
+			int length = frameLength(header, 0, HEADER_LENGTH);
+			if (length > maxFrameLength)
+				throw new IOException("Binary frame is too long");
+			
+			byte[] frame = new byte[length];
+			System.arraycopy(header, 0, frame, 0, HEADER_LENGTH);
+			dataIn.readFully(frame, HEADER_LENGTH, length - HEADER_LENGTH);
+			return frame;
+		}
+
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b = first;
+		while (b >= 0 && b != '\n') {
+			if (line.size() >= maxLineLength)
+				throw new IOException("Text line is too long");
+			line.write(b);
+			b = in.read();
+		}
+
+		String text = line.toString();
+		return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+	}
+
+
+	/**
+	 * Encoding the specified request or response into payload.
+	 * @param param specified request or response.
+	 * @return payload of the specified request or response.
+	 * @throws IOException if the specified request or response cannot be encoded.
+	 */
+	private static byte[] encode(ProtocolParam param) throws IOException {
+		Field[] fields = null;
+		ProtocolParam defaultParam = null;
+		int kind = 0;
+		if (param.getClass() == Request.class) {
+			fields = REQUEST_FIELDS;
+			defaultParam = DEFAULT_REQUEST;
+			kind = REQUEST_KIND;
+		}
+		else if (param.getClass() == Response.class) {
+			fields = RESPONSE_FIELDS;
+			defaultParam = DEFAULT_RESPONSE;
+			kind = RESPONSE_KIND;
+		}
+		else
+			throw new IOException("Binary codec does not support " + param.getClass());
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(buffer);
+		out.writeByte(kind);
+		try {
+			List<Field> encodedFields = Util.newList(fields.length);
+			List<Object> values = Util.newList(fields.length);
+			for (Field field : fields) {
+				Object value = field.get(param);
+				Object defaultValue = field.get(defaultParam);
+				if (value == null || (defaultValue != null && value.equals(defaultValue))) continue;
+				encodedFields.add(field);
+				values.add(value);
+			}
+
+			out.writeShort(encodedFields.size());
+			for (int i = 0; i < encodedFields.size(); i++) {
+				out.writeUTF(encodedFields.get(i).getName());
+				writeValue(out, values.get(i), kind == RESPONSE_KIND);
+			}
+		}
+		catch (IllegalAccessException e) {
+			throw new IOException(e);
+		}
+
+		out.flush();
+		return buffer.toByteArray();
+	}
+
+
+	/**
+	 * Decoding the specified payload into request or response.
+	 * Variables which are unknown to this version of request or response are ignored. Values encoded by Java serialization are accepted only in response.
+	 * @param payload buffer of payload.
+	 * @param offset offset of payload.
+	 * @param length length of payload.
+	 * @return request or response of the specified payload.
+	 * @throws IOException if the payload is invalid.
+	 */
+	private static ProtocolParam decode(byte[] payload, int offset, int length) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, offset, length));
+		int kind = in.readUnsignedByte();
+		ProtocolParam param = null;
+		if (kind == REQUEST_KIND)
+			param = new Request();
+		else if (kind == RESPONSE_KIND)
+			param = new Response();
+		else
+			throw new IOException("Invalid kind of binary payload");
+
+		int count = in.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			Object value = readValue(in, kind == RESPONSE_KIND);
+			try {
+				Field field = param.getClass().getField(name);
+				field.set(param, value);
+			}
+			catch (NoSuchFieldException e) {
+				continue;
+			}
+			catch (IllegalAccessException | IllegalArgumentException e) {
+				throw new IOException("Invalid value of variable " + name, e);
+			}
+		}
+
+		return param;
+	}
+
+
+	/**
+	 * Writing the specified value with its tag.
+	 * @param out data output stream.
+	 * @param value specified value which is not null.
+	 * @param objectAllowed whether the specified value can be encoded by Java serialization.
+	 * @throws IOException if any error raises.
+	 */
+	private static void writeValue(DataOutputStream out, Object value, boolean objectAllowed) throws IOException {
+		if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN_TAG);
+			out.writeBoolean((Boolean)value);
+		}
+		else if (value instanceof Integer) {
+			out.writeByte(INT_TAG);
+			out.writeInt((Integer)value);
+		}
+		else if (value instanceof Long) {
+			out.writeByte(LONG_TAG);
+			out.writeLong((Long)value);
+		}
+		else if (value instanceof Double) {
+			out.writeByte(DOUBLE_TAG);
+			out.writeDouble((Double)value);
+		}
+		else if (value instanceof String && ((String)value).length() <= 0xFFFF / 3) {
+			out.writeByte(STRING_TAG);
+			out.writeUTF((String)value);
+		}
+		else if (value.getClass() == BooleanWrapper.class) {
+			out.writeByte(BOOLEAN_WRAPPER_TAG);
+			out.writeBoolean(((BooleanWrapper)value).get());
+		}
+		else if (value instanceof Set<?> && isIds((Set<?>)value)) {
+			out.writeByte(ID_SET_TAG);
+			writeIds(out, (Set<?>)value);
+		}
+		else if (value instanceof List<?> && isIds((List<?>)value)) {
+			out.writeByte(ID_LIST_TAG);
+			writeIds(out, (List<?>)value);
+		}
+		else if (value instanceof RatingVector && isPrimitive((RatingVector)value)) {
+			out.writeByte(RATING_VECTOR_TAG);
+			writeRatingVector(out, (RatingVector)value);
+		}
+		else if (value instanceof Map<?, ?> && isIds(((Map<?, ?>)value).keySet()) && isRatingVectors(((Map<?, ?>)value).values())) {
+			out.writeByte(RATING_VECTOR_MAP_TAG);
+			out.writeInt(((Map<?, ?>)value).size());
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+				out.writeInt((Integer)entry.getKey());
+				writeRatingVector(out, (RatingVector)entry.getValue());
+			}
+		}
+		else if (value instanceof Map<?, ?> && isIds(((Map<?, ?>)value).keySet()) && isIdSets(((Map<?, ?>)value).values())) {
+			out.writeByte(ID_SET_MAP_TAG);
+			out.writeInt(((Map<?, ?>)value).size());
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+				out.writeInt((Integer)entry.getKey());
+				writeIds(out, (Set<?>)entry.getValue());
+			}
+		}
+		else if (value.getClass() == MemFetcher.class) {
+			List<Object> elements = elementsOf((MemFetcher<?>)value);
+			if (isIds(elements)) {
+				out.writeByte(ID_FETCHER_TAG);
+				writeIds(out, elements);
+			}
+			else if (isRatingVectors(elements)) {
+				out.writeByte(RATING_VECTOR_FETCHER_TAG);
+				out.writeInt(elements.size());
+				for (Object element : elements) writeRatingVector(out, (RatingVector)element);
+			}
+			else
+				writeObject(out, value, objectAllowed);
+		}
+		else
+			writeObject(out, value, objectAllowed);
+	}
+
+
+	/**
+	 * Reading a value with its tag.
+	 * @param in data input stream.
+	 * @param objectAllowed whether value encoded by Java serialization is accepted.
+	 * @return value read.
+	 * @throws IOException if any error raises.
+	 */
+	private static Object readValue(DataInputStream in, boolean objectAllowed) throws IOException {
+		int tag = in.readUnsignedByte();
+		switch (tag) {
+		case BOOLEAN_TAG:
+			return in.readBoolean();
+		case INT_TAG:
+			return in.readInt();
+		case LONG_TAG:
+			return in.readLong();
+		case DOUBLE_TAG:
+			return in.readDouble();
+		case STRING_TAG:
+			return in.readUTF();
+		case BOOLEAN_WRAPPER_TAG:
+			return new BooleanWrapper(in.readBoolean());
+		case ID_SET_TAG:
+			return readIds(in, Util.<Integer>newSet());
+		case ID_LIST_TAG:
+			return readIds(in, Util.<Integer>newList());
+		case RATING_VECTOR_TAG:
+			return readRatingVector(in);
+		case ID_FETCHER_TAG:
+			return new MemFetcher<Integer>(readIds(in, Util.<Integer>newList()));
+		case RATING_VECTOR_FETCHER_TAG:
+			int count = checkCount(in, in.readInt());
+			List<RatingVector> vRatings = Util.newList(count);
+			for (int i = 0; i < count; i++) vRatings.add(readRatingVector(in));
+			return new MemFetcher<RatingVector>(vRatings);
+		case RATING_VECTOR_MAP_TAG:
+			int size = checkCount(in, in.readInt());
+			Map<Integer, RatingVector> vRatingMap = Util.newMap(size);
+			for (int i = 0; i < size; i++) {
+				int key = in.readInt();
+				vRatingMap.put(key, readRatingVector(in));
+			}
+			return vRatingMap;
+		case ID_SET_MAP_TAG:
+			int length = checkCount(in, in.readInt());
+			Map<Integer, Set<Integer>> idSetMap = Util.newMap(length);
+			for (int i = 0; i < length; i++) {
+				int key = in.readInt();
+				idSetMap.put(key, readIds(in, Util.<Integer>newSet()));
+			}
+			return idSetMap;
+		case OBJECT_TAG:
+			if (!objectAllowed)
+				throw new IOException("Serialized object is not accepted in binary payload");
+			byte[] bytes = new byte[checkCount(in, in.readInt())];
+			in.readFully(bytes);
+			try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+				return objectIn.readObject();
+			}
+			catch (ClassNotFoundException e) {
+				throw new IOException(e);
+			}
+		default:
+			throw new IOException("Invalid tag of binary value");
+		}
+	}
+
+
+	/**
+	 * Writing the specified value by Java serialization.
+	 * @param out data output stream.
+	 * @param value specified value.
+	 * @param objectAllowed whether the specified value can be encoded by Java serialization.
+	 * @throws IOException if the specified value is not serializable or Java serialization is not allowed.
+	 */
+	private static void writeObject(DataOutputStream out, Object value, boolean objectAllowed) throws IOException {
+		if (!objectAllowed || !(value instanceof Serializable))
+			throw new IOException("Binary codec cannot encode " + value.getClass());
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		ObjectOutputStream objectOut = new ObjectOutputStream(buffer);
+		objectOut.writeObject(value);
+		objectOut.close();
+
+		out.writeByte(OBJECT_TAG);
+		out.writeInt(buffer.size());
+		buffer.writeTo(out);
+	}
+
+
+	/**
+	 * Testing whether the specified collection contains only identifiers.
+	 * @param collection specified collection.
+	 * @return whether the specified collection contains only integers.
+	 */
+	private static boolean isIds(Collection<?> collection) {
+		for (Object element : collection) {
+			if (!(element instanceof Integer)) return false;
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * Writing the specified identifiers.
+	 * @param out data output stream.
+	 * @param ids specified identifiers.
+	 * @throws IOException if any error raises.
+	 */
+	private static void writeIds(DataOutputStream out, Collection<?> ids) throws IOException {
+		out.writeInt(ids.size());
+		for (Object id : ids) out.writeInt((Integer)id);
+	}
+
+
+	/**
+	 * Reading identifiers into the specified collection.
+	 * @param in data input stream.
+	 * @param ids specified collection.
+	 * @return the specified collection.
+	 * @throws IOException if any error raises.
+	 */
+	private static <C extends Collection<Integer>> C readIds(DataInputStream in, C ids) throws IOException {
+		int count = checkCount(in, in.readInt());
+		for (int i = 0; i < count; i++) ids.add(in.readInt());
+		return ids;
+	}
+
+
+	/**
+	 * Testing whether the specified rating vector can be encoded as primitive numbers, which means that it is exactly rating vector, user rating vector,
+	 * or item rating vector and its ratings have no contexts.
+	 * @param vRating specified rating vector.
+	 * @return whether the specified rating vector can be encoded as primitive numbers.
+	 */
+	private static boolean isPrimitive(RatingVector vRating) {
+		Class<?> vClass = vRating.getClass();
+		if (vClass != RatingVector.class && vClass != UserRating.class && vClass != ItemRating.class)
+			return false;
+
+		for (int fieldId : vRating.fieldIds()) {
+			Rating rating = vRating.get(fieldId);
+			if (rating == null || rating.getClass() != Rating.class || (rating.contexts != null && rating.contexts.size() > 0))
+				return false;
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * Testing whether the specified collection contains only rating vectors which can be encoded as primitive numbers.
+	 * @param collection specified collection.
+	 * @return whether the specified collection contains only rating vectors which can be encoded as primitive numbers.
+	 */
+	private static boolean isRatingVectors(Collection<?> collection) {
+		for (Object element : collection) {
+			if (!(element instanceof RatingVector) || !isPrimitive((RatingVector)element)) return false;
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * Testing whether the specified collection contains only sets of identifiers.
+	 * @param collection specified collection.
+	 * @return whether the specified collection contains only sets of integers.
+	 */
+	private static boolean isIdSets(Collection<?> collection) {
+		for (Object element : collection) {
+			if (!(element instanceof Set<?>) || !isIds((Set<?>)element)) return false;
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * Writing the specified rating vector as primitive numbers.
+	 * @param out data output stream.
+	 * @param vRating specified rating vector.
+	 * @throws IOException if any error raises.
+	 */
+	private static void writeRatingVector(DataOutputStream out, RatingVector vRating) throws IOException {
+		if (vRating instanceof UserRating)
+			out.writeByte(USER_RATING_KIND);
+		else if (vRating instanceof ItemRating)
+			out.writeByte(ITEM_RATING_KIND);
+		else
+			out.writeByte(RATING_VECTOR_KIND);
+
+		Set<Integer> fieldIds = vRating.fieldIds();
+		out.writeInt(vRating.id());
+		out.writeInt(fieldIds.size());
+		for (int fieldId : fieldIds) {
+			Rating rating = vRating.get(fieldId);
+			out.writeInt(fieldId);
+			out.writeDouble(rating.value);
+			out.writeLong(rating.ratedDate);
+		}
+	}
+
+
+	/**
+	 * Reading rating vector from primitive numbers.
+	 * @param in data input stream.
+	 * @return rating vector.
+	 * @throws IOException if any error raises.
+	 */
+	private static RatingVector readRatingVector(DataInputStream in) throws IOException {
+		int kind = in.readUnsignedByte();
+		int id = in.readInt();
+		RatingVector vRating = null;
+		if (kind == USER_RATING_KIND)
+			vRating = new UserRating(id);
+		else if (kind == ITEM_RATING_KIND)
+			vRating = new ItemRating(id);
+		else
+			vRating = new RatingVector(id);
+
+		int count = checkCount(in, in.readInt());
+		for (int i = 0; i < count; i++) {
+			int fieldId = in.readInt();
+			Rating rating = new Rating(in.readDouble());
+			rating.ratedDate = in.readLong();
+			vRating.put(fieldId, rating);
+		}
+
+		return vRating;
+	}
+
+
+	/**
+	 * Getting elements of the specified in-memory fetcher. The fetcher is reset after its elements are read.
+	 * @param fetcher specified in-memory fetcher.
+	 * @return elements of the specified in-memory fetcher.
+	 * @throws IOException if any error raises.
+	 */
+	private static List<Object> elementsOf(MemFetcher<?> fetcher) throws IOException {
+		List<Object> elements = Util.newList();
+		try {
+			fetcher.reset();
+			while (fetcher.next()) elements.add(fetcher.pick());
+			fetcher.reset();
+		}
+		catch (Exception e) {
+			throw new IOException(e);
+		}
+
+		return elements;
+	}
+
+
+	/**
+	 * Checking the specified count read from stream. Every counted element takes at least one byte, so the count cannot exceed the remaining bytes.
+	 * @param in data input stream of payload.
+	 * @param count specified count.
+	 * @return the specified count.
+	 * @throws IOException if the specified count is negative or greater than the number of remaining bytes.
+	 */
+	private static int checkCount(DataInputStream in, int count) throws IOException {
+		if (count < 0 || count > in.available()) throw new IOException("Invalid count in binary payload");
+		return count;
+	}
+
+
+	/**
+	 * Compressing the specified data.
+	 * @param data specified data.
+	 * @return compressed data.
+	 */
+	private static byte[] deflate(byte[] data) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 2 + 64);
+			byte[] chunk = new byte[8192];
+			while (!deflater.finished()) {
+				int n = deflater.deflate(chunk);
+				buffer.write(chunk, 0, n);
+			}
+			return buffer.toByteArray();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+
+	/**
+	 * Decompressing the specified data.
+	 * @param data buffer of compressed data.
+	 * @param offset offset of compressed data.
+	 * @param length length of compressed data.
+	 * @return decompressed data.
+	 * @throws IOException if the compressed data is invalid or its decompressed length exceeds {@link #MAX_INFLATED_LENGTH}.
+	 */
+	private static byte[] inflate(byte[] data, int offset, int length) throws IOException {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data, offset, length);
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.min(length, MAX_INFLATED_LENGTH / 2) * 2 + 64);
+			byte[] chunk = new byte[8192];
+			while (!inflater.finished()) {
+				int n = inflater.inflate(chunk);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+					throw new EOFException("Truncated compressed payload");
+				if (buffer.size() + n > MAX_INFLATED_LENGTH)
+					throw new IOException("Decompressed payload is too long");
+				buffer.write(chunk, 0, n);
+			}
+			return buffer.toByteArray();
+		}
+		catch (DataFormatException e) {
+			throw new IOException(e);
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+
+}
@@ -8,6 +8,7 @@
 package net.hudup.core.client;
 
 import java.io.Serializable;
+import java.util.Map;
 import java.util.Set;
 
 import net.hudup.core.alg.RecommendParam;
@@ -125,6 +126,16 @@ public interface Protocol {
 	 */
 	static final String RECOMMEND_USER =                    "recommend_user";
 	
+	/**
+	 * Action of batch recommendation request for many users created by method {@link #createRecommendUsersRequest(Set, int)}.
+	 */
+	static final String RECOMMEND_USERS =                   "recommend_users";
+	
+	/**
+	 * Action of batch estimation request for many pairs of users and items created by method {@link #createEstimateUsersRequest(Map)}.
+	 */
+	static final String ESTIMATE_USERS =                    "estimate_users";
+	
 	/**
 	 * Action of recommendlet request created by method {@link #createRecommendletRequest(String, int, String, Serializable, Serializable, int, Rating)}.
 	 * Recommendlet represented by {@code Recommendlet} class is service or a small graphic user interface (GUI) that allows users to see and interact with a list of recommended items.
@@ -432,6 +443,11 @@ public interface Protocol {
 	 */
 	static final String GET_ALG_DESCS =                     "get_alg_descs";
 
+	/**
+	 * Action of request of negotiating binary codec. Such request is created by method {@link #createNegotiateCodecRequest()}.
+	 */
+	static final String NEGOTIATE_CODEC =                   "negotiate_codec";
+
 	
 	/**
 	 * Create control request.
@@ -485,6 +501,23 @@ public interface Protocol {
 	 * @return recommendation request for the specified user.
 	 */
 	Request createRecommendUserRequest(int userId, int maxRecommend);
+	
+	
+	/**
+	 * Creating batch recommendation request for many users. Server produces lists of recommended items for all specified users at once.
+	 * @param userIds identifiers (IDs) of specified users.
+	 * @param maxRecommend maximum number of recommended items of every user.
+	 * @return batch recommendation request for the specified users.
+	 */
+	Request createRecommendUsersRequest(Set<Integer> userIds, int maxRecommend);
+	
+	
+	/**
+	 * Creating batch estimation request for many pairs of users and items. Server estimates ratings of all specified pairs at once.
+	 * @param userQueryIds map of user identifiers (IDs) and identifiers of items whose ratings are estimated for such users.
+	 * @return batch estimation request for the specified pairs of users and items.
+	 */
+	Request createEstimateUsersRequest(Map<Integer, Set<Integer>> userQueryIds);
 
 	
 	/**
@@ -1077,4 +1110,12 @@ public interface Protocol {
 	Request createGetAlgDescsRequest();
 
 
+	/**
+	 * Creating a request for negotiating binary codec specified by {@link BinaryCodec}. Server which supports binary codec responds true.
+	 * This request is always sent as JSON text line and so server which does not support binary codec responds empty result.
+	 * @return a request for negotiating binary codec.
+	 */
+	Request createNegotiateCodecRequest();
+
+
 }
@@ -8,6 +8,7 @@
 package net.hudup.core.client;
 
 import java.io.Serializable;
+import java.util.Map;
 import java.util.Set;
 
 import net.hudup.core.alg.RecommendParam;
@@ -72,6 +73,27 @@ public class ProtocolImpl implements Protocol {
 		return request;
 	}
 	
+	
+	@Override
+	public Request createRecommendUsersRequest(Set<Integer> userIds, int maxRecommend) {
+		Request request = new Request();
+		request.action = RECOMMEND_USERS;
+		request.userids = userIds;
+		request.max_recommend = maxRecommend;
+		
+		return request;
+	}
+	
+	
+	@Override
+	public Request createEstimateUsersRequest(Map<Integer, Set<Integer>> userQueryIds) {
+		Request request = new Request();
+		request.action = ESTIMATE_USERS;
+		request.user_queryids = userQueryIds;
+		
+		return request;
+	}
+	
 
 	@Override
 	public Request createRecommendletRequest(String host, int port,
@@ -738,4 +760,13 @@ public class ProtocolImpl implements Protocol {
 	}
 
 
+	@Override
+	public Request createNegotiateCodecRequest() {
+		Request request = new Request();
+		request.action = NEGOTIATE_CODEC;
+		
+		return request;
+	}
+
+
 }
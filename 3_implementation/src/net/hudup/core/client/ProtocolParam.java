@@ -38,6 +38,12 @@ public abstract class ProtocolParam implements Serializable {
 	public int  protocol = net.hudup.core.client.Protocol.HDP_PROTOCOL;
 
 	
+	/**
+	 * Identifier of request which is echoed by its response, so that client can match responses of pipelined requests. Zero identifier means that request is not identified.
+	 */
+	public int  requestId = 0;
+
+	
 	/**
 	 * Default constructor.
 	 */
@@ -263,6 +263,16 @@ public class Request extends ProtocolParam {
 	 */
 	public int                              userid                        = -1;
 	
+	/**
+	 * User identifiers (user IDs) of batch request such as batch recommendation request.
+	 */
+	public Set<Integer>                     userids                       = null;
+	
+	/**
+	 * Map of user identifiers (user IDs) and identifiers of items whose ratings are estimated for such users, which is used for batch estimation request.
+	 */
+	public Map<Integer, Set<Integer>>       user_queryids                 = null;
+	
 	/**
 	 * Evaluator name. This field is effective only if the evaluation package is loaded.
 	 */
@@ -355,7 +365,7 @@ public class Request extends ProtocolParam {
 			String paramValue = params.get(name);
 			Object value = null;
 			try {
-				if (name.equals("queryids")) {
+				if (name.equals("queryids") || name.equals("userids")) {
 					List<Integer> list = TextParserUtil.parseListByClass(paramValue, Integer.class, ",");
 					Set<Integer> set = Util.newSet();
 					set.addAll(list);
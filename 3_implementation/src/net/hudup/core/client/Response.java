@@ -12,6 +12,7 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.util.Map;
 
 import net.hudup.core.Util;
 import net.hudup.core.alg.Alg;
@@ -159,6 +160,11 @@ public class Response extends ProtocolParam {
 	 */
 	public RatingVector              vRating             = null;
 	
+	/**
+	 * Result as map of rating vectors of batch request, whose keys are user identifiers (user IDs).
+	 */
+	public Map<Integer, RatingVector> vRatingMap         = null;
+	
 	/**
 	 * Result as external record.
 	 * Note, external record represented by {@link ExternalRecord} class is a record (a row in table) which is stored in other database (different from the framework database). It is opposite to internal record represented by {@code InternalRecord} class which is a record stored in the framework database.
@@ -182,9 +188,9 @@ public class Response extends ProtocolParam {
 	
 	
 	/**
-	 * Default constructor.
+	 * Default constructor, which is package-private so that {@link BinaryCodec} can create response.
 	 */
-	private Response() {
+	Response() {
 		
 	}
 	
@@ -233,6 +239,9 @@ public class Response extends ProtocolParam {
 		else if (vRating != null)
 			return vRating;
 		
+		else if (vRatingMap != null)
+			return vRatingMap;
+		
 		else if (externalRecord != null)
 			return externalRecord;
 
@@ -320,6 +329,19 @@ public class Response extends ProtocolParam {
 	}
 
 	
+	/**
+	 * Creating result (response) as map of rating vectors of batch request, please see variable {@link #vRatingMap}.
+	 * @param vRatingMap map of rating vectors whose keys are user identifiers (user IDs).
+	 * @return result (response) as map of rating vectors.
+	 */
+	public static Response createRatingVectorMap(Map<Integer, RatingVector> vRatingMap) {
+		Response response = new Response();
+		response.vRatingMap = vRatingMap;
+		
+		return response;
+	}
+
+	
 	/**
 	 * Creating result (response) as fetcher of many profiles, please see variable {@link #fProfile}.
 	 * @param fProfile specified fetcher of many profiles.
@@ -10,6 +10,7 @@ package net.hudup.core.client;
 import java.io.Serializable;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.Map;
 import java.util.Set;
 
 import net.hudup.core.alg.Alg;
@@ -100,6 +101,27 @@ public interface Service extends Remote {
 			throws RemoteException;
 	
 	
+	/**
+	 * Serve to produce lists of recommended items for many users at once, which is faster than calling {@link #recommend(int, int)} for every user.
+	 * @param userIds identifiers (IDs) of specified users.
+	 * @param maxRecommend specified maximum number of recommended items of every user.
+	 * @return map of rating vectors whose keys are user identifiers (user IDs). Users for whom recommendation fails are not in the map.
+	 * @throws RemoteException if any error raises.
+	 */
+	Map<Integer, RatingVector> recommendUsers(Set<Integer> userIds, int maxRecommend)
+			throws RemoteException;
+	
+	
+	/**
+	 * Serve to estimate ratings of many pairs of users and items at once, which is faster than calling {@link #estimate(RecommendParam, Set)} for every user.
+	 * @param userQueryIds map of user identifiers (user IDs) and identifiers of items whose ratings are estimated for such users.
+	 * @return map of rating vectors containing estimated ratings, whose keys are user identifiers (user IDs). Users for whom estimation fails are not in the map.
+	 * @throws RemoteException if any error raises.
+	 */
+	Map<Integer, RatingVector> estimateUsers(Map<Integer, Set<Integer>> userQueryIds)
+			throws RemoteException;
+	
+	
 	/**
 	 * Serve to generate a recommendlet, based on many input parameters.
 	 * Recommendlet represented by {@link Recommendlet} class is a service or a small graphic user interface (GUI) that allows users to see and interact with a list of recommended items.
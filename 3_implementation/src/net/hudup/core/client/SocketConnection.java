@@ -7,13 +7,15 @@
  */
 package net.hudup.core.client;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.util.List;
 
 import net.hudup.core.Constants;
+import net.hudup.core.Util;
 import net.hudup.core.data.AutoCloseable;
 import net.hudup.core.logistic.LogUtil;
 
@@ -36,17 +38,23 @@ public class SocketConnection extends SocketWrapper implements AutoCloseable {
 	
 	
 	/**
-	 * Writer for writing data to network socket.
+	 * Output stream for writing data to network socket.
 	 */
-	protected PrintWriter out = null;
+	protected OutputStream out = null;
 	
 	
 	/**
-	 * Input stream for reading data from network socket.
+	 * Buffered input stream for reading data from network socket.
 	 */
 	protected InputStream in = null;
 	
 	
+	/**
+	 * Flag to indicate whether the account was validated on the current connection.
+	 */
+	protected volatile boolean validated = false;
+	
+	
 	/**
 	 * Constructor with remote host and remote port.
 	 * @param host remote host.
@@ -70,10 +78,11 @@ public class SocketConnection extends SocketWrapper implements AutoCloseable {
 			close();
 			
 			socket = new Socket(host, port);
-			out = new PrintWriter(socket.getOutputStream(), true);
-			in = socket.getInputStream();
+			out = new BufferedOutputStream(socket.getOutputStream());
+			in = new BufferedInputStream(socket.getInputStream());
+			binaryAccepted = null;
 			
-			boolean validated = validateAccount(account, password, priv);
+			validated = validateAccount(account, password, priv);
 			if (!validated)
 				close();
 			return validated;
@@ -97,6 +106,15 @@ public class SocketConnection extends SocketWrapper implements AutoCloseable {
 	}
 	
 	
+	/**
+	 * Binary codec is allowed only after the account was validated on the current connection because server does not accept it before.
+	 */
+	@Override
+	protected boolean isCodecAllowed() {
+		return validated;
+	}
+	
+	
 	@Override
 	protected Response sendRequest(Request request) {
 		if (!isConnected()) {
@@ -104,21 +122,8 @@ public class SocketConnection extends SocketWrapper implements AutoCloseable {
 			return null;
 		}
 		
-		//String responseText = null;
 		try {
-			out.println(request.toJson());
-			
-			if (request.notJsonParsing) {
-				return Response.parse(in);
-			}
-			else {
-				BufferedReader reader = new BufferedReader(new InputStreamReader(in));
-				String responseText = reader.readLine();
-				if (responseText == null)
-					return null;
-				else
-					return Response.parse(responseText);
-			}
+			return exchange(request, out, in);
 		}
 		catch (Exception e) {
 			LogUtil.trace(e);
@@ -129,11 +134,33 @@ public class SocketConnection extends SocketWrapper implements AutoCloseable {
 	}
 	
 	
+	@Override
+	public List<Response> sendRequests(List<Request> requests, int window) {
+		if (!isConnected()) {
+			LogUtil.error("Socket not connected");
+		}
+		else {
+			try {
+				return exchange(requests, window, out, in);
+			}
+			catch (Exception e) {
+				LogUtil.trace(e);
+				LogUtil.error("Socket sends requests to server, causes error " + e.getMessage());
+			}
+		}
+		
+		List<Response> responses = Util.newList(requests.size());
+		for (int i = 0; i < requests.size(); i++) responses.add(null);
+		return responses;
+	}
+	
+	
 	/**
 	 * Closing this socket connection together its session.
 	 */
 	@Override
 	public void close() {
+		validated = false;
 		try {
 			if (in != null) {
 				in.close();
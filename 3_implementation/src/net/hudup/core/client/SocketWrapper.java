@@ -7,14 +7,23 @@
  */
 package net.hudup.core.client;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectStreamConstants;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.net.Socket;
 import java.rmi.RemoteException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import net.hudup.core.Util;
 import net.hudup.core.alg.Alg;
 import net.hudup.core.alg.AlgDesc2List;
 import net.hudup.core.alg.RecommendParam;
@@ -58,6 +67,49 @@ public class SocketWrapper extends ProtocolImpl implements Service {
 	protected int port = 0;
 	
 	
+	/**
+	 * Flag to indicate whether to use binary codec when server accepts it.
+	 */
+	protected boolean binaryCodec = false;
+	
+	
+	/**
+	 * Flag to indicate whether binary frames are compressed.
+	 */
+	protected boolean binaryCompressed = false;
+	
+	
+	/**
+	 * Result of negotiating binary codec with server, which is null if negotiation is not done yet.
+	 */
+	protected volatile Boolean binaryAccepted = null;
+	
+	
+	/**
+	 * Default maximum number of pipelined requests waiting for responses.
+	 */
+	public final static int PIPELINE_WINDOW = 64;
+	
+	
+	/**
+	 * Maximum number of bytes of pipelined requests waiting for responses. It is less than usual socket buffers so that writing pipelined requests never blocks
+	 * while server is blocked in writing responses which are not read yet. A request longer than this limit is sent only when no other request is waiting.
+	 */
+	public final static int PIPELINE_BYTES = 16 * 1024;
+	
+	
+	/**
+	 * The first byte of Java serialization stream.
+	 */
+	private final static int STREAM_MAGIC_BYTE = (ObjectStreamConstants.STREAM_MAGIC >> 8) & 0xFF;
+	
+	
+	/**
+	 * Counter of identifiers of pipelined requests.
+	 */
+	private final AtomicInteger requestIds = new AtomicInteger(0);
+	
+	
 	/**
 	 * Default constructor with remote host and remote port.
 	 * @param host remote host for socket connection.
@@ -120,6 +172,30 @@ public class SocketWrapper extends ProtocolImpl implements Service {
 	}
 
 
+	@Override
+	public Map<Integer, RatingVector> recommendUsers(Set<Integer> userIds, int maxRecommend)
+			throws RemoteException {
+		Request request = createRecommendUsersRequest(userIds, maxRecommend);
+		Response response = sendRequest(request);
+		if (response == null)
+			return null;
+		
+		return response.vRatingMap;
+	}
+
+
+	@Override
+	public Map<Integer, RatingVector> estimateUsers(Map<Integer, Set<Integer>> userQueryIds)
+			throws RemoteException {
+		Request request = createEstimateUsersRequest(userQueryIds);
+		Response response = sendRequest(request);
+		if (response == null)
+			return null;
+		
+		return response.vRatingMap;
+	}
+
+
 	@Override
 	@Deprecated
 	public Recommendlet recommend(
@@ -733,25 +809,21 @@ public class SocketWrapper extends ProtocolImpl implements Service {
 	 * @return {@link Response} received from server.
 	 */
 	protected Response sendRequest(Request request) {
-		String responseText = null;
-		PrintWriter out = null;
-		BufferedReader in = null;
+		Response response = null;
+		OutputStream out = null;
+		InputStream in = null;
 		Socket socket = null;
 		try {
 			socket = new Socket(host, port);
 			
-			out = new PrintWriter(socket.getOutputStream(), true);
-			in = new BufferedReader(
-					new InputStreamReader(socket.getInputStream()));
-			
-			out.println(request.toJson());
-			
-			responseText = in.readLine();
+			out = new BufferedOutputStream(socket.getOutputStream());
+			in = new BufferedInputStream(socket.getInputStream());
 			
+			response = exchange(request, out, in);
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
-			responseText = null;
+			response = null;
 			
 			LogUtil.error("Socket warapper fail to send request to server, caused by " + e.getMessage());
 			
@@ -789,10 +861,261 @@ public class SocketWrapper extends ProtocolImpl implements Service {
 			
 		} // end finally
 		
-		if (responseText == null)
+		return response;
+	}
+	
+	
+	/**
+	 * Sending many requests to server in pipeline with default window {@link #PIPELINE_WINDOW}, please see {@link #sendRequests(List, int)}.
+	 * @param requests specified requests.
+	 * @return responses in the order of the specified requests. Response is null if it is not received.
+	 */
+	public List<Response> sendRequests(List<Request> requests) {
+		return sendRequests(requests, PIPELINE_WINDOW);
+	}
+	
+	
+	/**
+	 * Sending many requests to server in pipeline, which means that requests are sent without waiting for responses of previous requests.
+	 * Every request is assigned an identifier which is echoed by its response, so responses are matched with requests even if server sends them out of order.
+	 * The specified window limits the number of requests waiting for responses, and the bytes of such requests are limited by {@link #PIPELINE_BYTES},
+	 * so that client and server do not block each other when socket buffers are full.
+	 * @param requests specified requests.
+	 * @param window maximum number of requests waiting for responses.
+	 * @return responses in the order of the specified requests. Response is null if it is not received.
+	 */
+	public List<Response> sendRequests(List<Request> requests, int window) {
+		OutputStream out = null;
+		InputStream in = null;
+		Socket socket = null;
+		try {
+			socket = new Socket(host, port);
+			out = new BufferedOutputStream(socket.getOutputStream());
+			in = new BufferedInputStream(socket.getInputStream());
+			
+			return exchange(requests, window, out, in);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Socket wrapper fail to send requests to server, caused by " + e.getMessage());
+		}
+		finally {
+			try {
+				if (socket != null && !socket.isClosed())
+					socket.close();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+				LogUtil.error("Socket wrapper fail to close socket, causes error " + e.getMessage());
+			}
+		}
+		
+		List<Response> responses = Util.newList(requests.size());
+		for (int i = 0; i < requests.size(); i++) responses.add(null);
+		return responses;
+	}
+	
+	
+	/**
+	 * Writing the specified requests to server in pipeline and then reading their responses from server.
+	 * @param requests specified requests.
+	 * @param window maximum number of requests waiting for responses.
+	 * @param out output stream to server.
+	 * @param in buffered input stream from server.
+	 * @return responses in the order of the specified requests. Response is null if it is not received.
+	 * @throws IOException if any error raises.
+	 */
+	protected List<Response> exchange(List<Request> requests, int window, OutputStream out, InputStream in) throws IOException {
+		boolean binary = binaryCodec && isCodecAllowed() && negotiateCodec(out, in);
+		window = Math.max(1, window);
+		
+		List<Response> responses = Util.newList(requests.size());
+		for (int i = 0; i < requests.size(); i++) responses.add(null);
+		
+		//Identifiers of requests waiting for responses in the order of sending.
+		Map<Integer, Integer> waiting = new LinkedHashMap<Integer, Integer>();
+		int[] lengths = new int[requests.size()];
+		int sent = 0;
+		int inFlight = 0; //Bytes of requests waiting for responses.
+		byte[] message = null; //Message of the next request which is not sent yet.
+		while (sent < requests.size() || waiting.size() > 0) {
+			if (sent < requests.size()) {
+				while (sent < requests.size() && waiting.size() < window) {
+					Request request = requests.get(sent);
+					if (message == null) {
+						request.requestId = nextRequestId();
+						message = toMessage(request, binary);
+					}
+					if (waiting.size() > 0 && inFlight + message.length > PIPELINE_BYTES) break;
+					
+					waiting.put(request.requestId, sent);
+					out.write(message);
+					lengths[sent] = message.length;
+					inFlight += message.length;
+					message = null;
+					sent++;
+				}
+				out.flush();
+			}
+			
+			Response response = readResponse(in);
+			if (response == null) break;
+			
+			//Server which does not echo identifiers responds in order.
+			Integer index = waiting.remove(response.requestId);
+			if (index == null) {
+				if (waiting.isEmpty())
+					throw new IOException("Server sent response which is not requested");
+				Iterator<Integer> oldest = waiting.values().iterator();
+				index = oldest.next();
+				oldest.remove();
+			}
+			responses.set(index, response);
+			inFlight -= lengths[index];
+		}
+		
+		return responses;
+	}
+	
+	
+	/**
+	 * Getting the next identifier of pipelined request, which is not zero.
+	 * @return the next identifier of pipelined request.
+	 */
+	private int nextRequestId() {
+		int id = requestIds.incrementAndGet();
+		while (id == 0) id = requestIds.incrementAndGet();
+		return id;
+	}
+	
+	
+	/**
+	 * Writing the specified request to server, which is binary frame if binary codec was accepted by server, otherwise it is JSON text line.
+	 * @param request specified request.
+	 * @param binary whether binary codec was accepted by server.
+	 * @param out output stream to server.
+	 * @throws IOException if any error raises.
+	 */
+	private void writeRequest(Request request, boolean binary, OutputStream out) throws IOException {
+		out.write(toMessage(request, binary));
+	}
+	
+	
+	/**
+	 * Converting the specified request into message, which is binary frame if binary codec was accepted by server, otherwise it is JSON text line.
+	 * @param request specified request.
+	 * @param binary whether binary codec was accepted by server.
+	 * @return message of the specified request.
+	 */
+	private byte[] toMessage(Request request, boolean binary) {
+		if (binary) {
+			try {
+				return BinaryCodec.toFrame(request, binaryCompressed, binaryCompressed);
+			}
+			catch (IOException e) {
+				LogUtil.trace(e);
+				LogUtil.error("Socket wrapper fail to encode binary request, JSON is used instead");
+			}
+		}
+		
+		return (request.toJson() + "\n").getBytes();
+	}
+	
+	
+	/**
+	 * Writing the specified request to server and then reading the response from server.
+	 * If binary codec is enabled and allowed, it is negotiated with server at the first time and the request is sent as binary frame when server accepts it.
+	 * Otherwise, the request is sent as JSON text line.
+	 * @param request specified request.
+	 * @param out output stream to server.
+	 * @param in buffered input stream from server.
+	 * @return {@link Response} received from server.
+	 * @throws IOException if any error raises.
+	 */
+	protected Response exchange(Request request, OutputStream out, InputStream in) throws IOException {
+		writeRequest(request, binaryCodec && isCodecAllowed() && negotiateCodec(out, in), out);
+		out.flush();
+		return readResponse(in);
+	}
+	
+	
+	/**
+	 * Testing whether binary codec can be negotiated with server. Server accepts binary codec only after the account of client is validated on the same connection,
+	 * so this method returns false by default because every request of this socket wrapper is sent on a new connection.
+	 * @return whether binary codec can be negotiated with server.
+	 */
+	protected boolean isCodecAllowed() {
+		return false;
+	}
+	
+	
+	/**
+	 * Negotiating binary codec with server. The result of negotiation is kept so that negotiation is done only once.
+	 * @param out output stream to server.
+	 * @param in buffered input stream from server.
+	 * @return whether server accepts binary codec.
+	 * @throws IOException if any error raises.
+	 */
+	protected boolean negotiateCodec(OutputStream out, InputStream in) throws IOException {
+		Boolean accepted = binaryAccepted;
+		if (accepted != null) return accepted;
+		
+		out.write((createNegotiateCodecRequest().toJson() + "\n").getBytes());
+		out.flush();
+		
+		Object message = BinaryCodec.read(in);
+		Response response = message instanceof String ? Response.parse((String)message) : null;
+		accepted = response != null && response.booleanResult != null && response.booleanResult.get();
+		binaryAccepted = accepted;
+		return accepted;
+	}
+	
+	
+	/**
+	 * Reading response from server, which is binary frame, JSON text line, or Java serialization stream in case that the flag {@link Request#notJsonParsing} of JSON request is true.
+	 * @param in buffered input stream from server, which must support marking.
+	 * @return {@link Response} received from server.
+	 * @throws IOException if any error raises.
+	 */
+	private static Response readResponse(InputStream in) throws IOException {
+		in.mark(1);
+		int first = in.read();
+		in.reset();
+		if (first < 0)
 			return null;
+		else if (first == STREAM_MAGIC_BYTE)
+			return Response.parse(in);
+		
+		Object message = BinaryCodec.read(in);
+		if (message == null)
+			return null;
+		else if (message instanceof byte[]) {
+			ProtocolParam param = BinaryCodec.parseFrame((byte[])message);
+			return param instanceof Response ? (Response)param : null;
+		}
 		else
-			return Response.parse(responseText);
+			return Response.parse((String)message);
+	}
+	
+	
+	/**
+	 * Enabling or disabling binary codec specified by {@link BinaryCodec}.
+	 * Binary codec is used only if it is allowed by {@link #isCodecAllowed()} and server accepts it in negotiation, otherwise, JSON format is used.
+	 * @param binaryCodec whether to use binary codec.
+	 * @param compressed whether binary frames are compressed when they are long enough.
+	 */
+	public void setBinaryCodec(boolean binaryCodec, boolean compressed) {
+		this.binaryCodec = binaryCodec;
+		this.binaryCompressed = compressed;
+	}
+	
+	
+	/**
+	 * Testing whether binary codec is enabled.
+	 * @return whether binary codec is enabled.
+	 */
+	public boolean isBinaryCodec() {
+		return binaryCodec;
 	}
 	
 	
@@ -0,0 +1,33 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.data;
+
+import java.rmi.RemoteException;
+import java.util.List;
+
+/**
+ * Block fetcher is the fetcher which can retrieve many elements at once, for example, by {@link FetcherUtil#fillCollection(java.util.Collection, Fetcher, boolean)}.
+ * Fetcher exported to remote clients by {@link PrefetchFetcher#export(Fetcher, int, int)} retrieves elements by blocks, which costs one remote call per block instead of two remote calls per element by {@link #next()} and {@link #pick()}.
+ * 
+ * @param <E> type of elements that the fetcher iterates over, which should be serializable.
+ * @author Loc Nguyen
+ * @version 13.0
+ */
+public interface BlockFetcher<E /*extends Serializable*/> extends Fetcher<E> {
+
+	
+	/**
+	 * Moving forward to retrieve next elements. After this method is called, the current element of the fetcher is the last element of the block.
+	 * @param blockSize maximum number of retrieved elements.
+	 * @return list of next elements, which can contain null elements. If the list has less elements than the block size, there is no more element.
+	 * @throws RemoteException if any remote exception raises.
+	 */
+	List<E> nextBlock(int blockSize) throws RemoteException;
+	
+	
+}
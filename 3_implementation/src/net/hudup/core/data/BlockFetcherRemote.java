@@ -0,0 +1,57 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.data;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+/**
+ * This interface is the remote cursor of a fetcher which is exported by {@link PrefetchFetcher#export(Fetcher, int, int)}.
+ * Elements are retrieved by blocks so that there is one remote call per block instead of two remote calls per element.
+ * Note that {@link Fetcher} itself cannot be exported as remote object because some of its methods do not throw {@link RemoteException}.
+ * 
+ * @param <E> type of elements, which should be serializable.
+ * @author Loc Nguyen
+ * @version 13.0
+ */
+public interface BlockFetcherRemote<E /*extends Serializable*/> extends Remote {
+
+	
+	/**
+	 * Moving forward to retrieve next elements.
+	 * @param blockSize maximum number of retrieved elements.
+	 * @return list of next elements, which can contain null elements. If the list has less elements than the block size, there is no more element.
+	 * @throws RemoteException if any remote exception raises.
+	 */
+	List<E> nextBlock(int blockSize) throws RemoteException;
+	
+	
+	/**
+	 * Resetting the cursor so that elements are retrieved again from the beginning.
+	 * @throws RemoteException if any remote exception raises.
+	 */
+	void reset() throws RemoteException;
+
+	
+	/**
+	 * Getting the meta-data of the fetcher.
+	 * @return meta-data of the fetcher.
+	 * @throws RemoteException if any remote exception raises.
+	 */
+	FetcherMetadata getMetadata() throws RemoteException;
+
+	
+	/**
+	 * Closing the fetcher and unexporting this cursor.
+	 * @throws RemoteException if any remote exception raises.
+	 */
+	void close() throws RemoteException;
+	
+	
+}
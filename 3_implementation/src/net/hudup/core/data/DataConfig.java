@@ -271,6 +271,86 @@ public class DataConfig extends PropList {
 	 */
 	public final static String CTS_MANAGER_NAME_FIELD          = changeCase("cts_manager_name");
 
+	/**
+	 * Flag field to indicate that flat (file) stores keep changes of units having key attributes in append-only logs and serve such units from memory indexed by key values.
+	 */
+	public final static String FLAT_LOG_MODE_FIELD             = changeCase("flat_log_mode");
+
+	/**
+	 * By default, flat log mode is disabled.
+	 */
+	public final static boolean FLAT_LOG_MODE_DEFAULT          = false;
+
+	/**
+	 * Flag field to indicate that context template schema manager caches contexts of all ratings in memory indexed by user and item identifiers.
+	 */
+	public final static String CTX_CACHE_FIELD                 = changeCase("ctx_cache");
+
+	/**
+	 * By default, contexts are cached.
+	 */
+	public final static boolean CTX_CACHE_DEFAULT              = true;
+
+	/**
+	 * Field of the maximum number of idle pooled connections of database stores. Zero means that a single connection is shared.
+	 */
+	public final static String DB_POOL_SIZE_FIELD              = changeCase("db_pool_size");
+
+	/**
+	 * By default, database stores share a single connection.
+	 */
+	public final static int DB_POOL_SIZE_DEFAULT               = 0;
+
+	/**
+	 * Field of the maximum number of open pooled connections of database stores. Borrowing a connection waits when this number is reached.
+	 */
+	public final static String DB_POOL_MAX_ACTIVE_FIELD        = changeCase("db_pool_max_active");
+
+	/**
+	 * Default maximum number of open pooled connections of database stores.
+	 */
+	public final static int DB_POOL_MAX_ACTIVE_DEFAULT         = 32;
+
+	/**
+	 * Field of the maximum number of cached prepared statements per pooled connection of database stores.
+	 */
+	public final static String DB_STATEMENT_CACHE_SIZE_FIELD   = changeCase("db_statement_cache_size");
+
+	/**
+	 * Default maximum number of cached prepared statements per pooled connection.
+	 */
+	public final static int DB_STATEMENT_CACHE_SIZE_DEFAULT    = 32;
+
+	/**
+	 * Field of fetch size of database fetchers. Positive fetch size makes database fetchers stream forward-only cursors.
+	 */
+	public final static String DB_FETCH_SIZE_FIELD             = changeCase("db_fetch_size");
+
+	/**
+	 * By default, database fetchers use scrollable cursors.
+	 */
+	public final static int DB_FETCH_SIZE_DEFAULT              = 0;
+
+	/**
+	 * Field of the number of records sent in one batch when database stores insert many records.
+	 */
+	public final static String DB_BATCH_SIZE_FIELD             = changeCase("db_batch_size");
+
+	/**
+	 * Default number of records sent in one batch.
+	 */
+	public final static int DB_BATCH_SIZE_DEFAULT              = 1000;
+
+	/**
+	 * Field of the number of elements retrieved in one remote call by fetchers returned to remote clients.
+	 */
+	public final static String FETCHER_BLOCK_SIZE_FIELD        = changeCase("fetcher_block_size");
+
+	/**
+	 * Default number of elements retrieved in one remote call by fetchers returned to remote clients.
+	 */
+	public final static int FETCHER_BLOCK_SIZE_DEFAULT         = PrefetchFetcher.BLOCK_SIZE_DEFAULT;
+
 	/**
 	 * Sample field name 1
 	 */
@@ -1086,6 +1166,156 @@ public class DataConfig extends PropList {
 	}
 
 	
+	/**
+	 * Setting flag to indicate flat log mode. In this mode, flat (file) stores append changes of units having key attributes to logs instead of rewriting such units,
+	 * and serve such units from memory indexed by key values. Logs are compacted into units in background.
+	 * @param flag flag to indicate flat log mode.
+	 */
+	public void setFlatLogMode(boolean flag) {
+		put(FLAT_LOG_MODE_FIELD, flag);
+	}
+
+	
+	/**
+	 * Getting flag to indicate flat log mode.
+	 * @return flag to indicate flat log mode.
+	 */
+	public boolean isFlatLogMode() {
+		return containsKey(FLAT_LOG_MODE_FIELD) ? getAsBoolean(FLAT_LOG_MODE_FIELD) : FLAT_LOG_MODE_DEFAULT;
+	}
+
+	
+	/**
+	 * Setting flag to indicate whether context template schema manager caches contexts. If it is true, contexts are read once when they are looked up at the first time,
+	 * and then contexts of every rating are looked up in memory.
+	 * @param flag flag to indicate whether contexts are cached.
+	 */
+	public void setContextCache(boolean flag) {
+		put(CTX_CACHE_FIELD, flag);
+	}
+
+	
+	/**
+	 * Getting flag to indicate whether context template schema manager caches contexts.
+	 * @return flag to indicate whether contexts are cached.
+	 */
+	public boolean isContextCache() {
+		return containsKey(CTX_CACHE_FIELD) ? getAsBoolean(CTX_CACHE_FIELD) : CTX_CACHE_DEFAULT;
+	}
+
+	
+	/**
+	 * Setting the maximum number of idle pooled connections of database stores. If it is positive, database stores borrow a connection from pool for each operation,
+	 * which allows concurrent operations. Otherwise, a single connection is shared.
+	 * @param poolSize maximum number of idle pooled connections.
+	 */
+	public void setDbPoolSize(int poolSize) {
+		put(DB_POOL_SIZE_FIELD, poolSize);
+	}
+
+	
+	/**
+	 * Getting the maximum number of idle pooled connections of database stores.
+	 * @return maximum number of idle pooled connections of database stores.
+	 */
+	public int getDbPoolSize() {
+		return containsKey(DB_POOL_SIZE_FIELD) ? getAsInt(DB_POOL_SIZE_FIELD) : DB_POOL_SIZE_DEFAULT;
+	}
+
+	
+	/**
+	 * Setting the maximum number of open pooled connections of database stores, which is not less than the pool size.
+	 * @param maxActive maximum number of open pooled connections.
+	 */
+	public void setDbPoolMaxActive(int maxActive) {
+		put(DB_POOL_MAX_ACTIVE_FIELD, maxActive);
+	}
+
+	
+	/**
+	 * Getting the maximum number of open pooled connections of database stores.
+	 * @return maximum number of open pooled connections of database stores.
+	 */
+	public int getDbPoolMaxActive() {
+		return containsKey(DB_POOL_MAX_ACTIVE_FIELD) ? getAsInt(DB_POOL_MAX_ACTIVE_FIELD) : DB_POOL_MAX_ACTIVE_DEFAULT;
+	}
+
+	
+	/**
+	 * Setting the maximum number of cached prepared statements per pooled connection of database stores.
+	 * @param cacheSize maximum number of cached prepared statements per pooled connection.
+	 */
+	public void setDbStatementCacheSize(int cacheSize) {
+		put(DB_STATEMENT_CACHE_SIZE_FIELD, cacheSize);
+	}
+
+	
+	/**
+	 * Getting the maximum number of cached prepared statements per pooled connection of database stores.
+	 * @return maximum number of cached prepared statements per pooled connection.
+	 */
+	public int getDbStatementCacheSize() {
+		return containsKey(DB_STATEMENT_CACHE_SIZE_FIELD) ? getAsInt(DB_STATEMENT_CACHE_SIZE_FIELD) : DB_STATEMENT_CACHE_SIZE_DEFAULT;
+	}
+
+	
+	/**
+	 * Setting fetch size of database fetchers. If it is positive, database fetchers stream forward-only cursors with such fetch size,
+	 * which keeps memory flat but resetting such fetchers executes their queries again and their sizes are counted by extra queries.
+	 * @param fetchSize fetch size of database fetchers.
+	 */
+	public void setDbFetchSize(int fetchSize) {
+		put(DB_FETCH_SIZE_FIELD, fetchSize);
+	}
+
+	
+	/**
+	 * Getting fetch size of database fetchers.
+	 * @return fetch size of database fetchers.
+	 */
+	public int getDbFetchSize() {
+		return containsKey(DB_FETCH_SIZE_FIELD) ? getAsInt(DB_FETCH_SIZE_FIELD) : DB_FETCH_SIZE_DEFAULT;
+	}
+
+	
+	/**
+	 * Setting the number of records sent in one batch when database stores insert many records.
+	 * @param batchSize number of records sent in one batch.
+	 */
+	public void setDbBatchSize(int batchSize) {
+		put(DB_BATCH_SIZE_FIELD, batchSize);
+	}
+
+	
+	/**
+	 * Getting the number of records sent in one batch when database stores insert many records.
+	 * @return number of records sent in one batch.
+	 */
+	public int getDbBatchSize() {
+		int batchSize = containsKey(DB_BATCH_SIZE_FIELD) ? getAsInt(DB_BATCH_SIZE_FIELD) : DB_BATCH_SIZE_DEFAULT;
+		return batchSize > 0 ? batchSize : DB_BATCH_SIZE_DEFAULT;
+	}
+
+	
+	/**
+	 * Setting the number of elements retrieved in one remote call by fetchers returned to remote clients.
+	 * @param blockSize number of elements retrieved in one remote call.
+	 */
+	public void setFetcherBlockSize(int blockSize) {
+		put(FETCHER_BLOCK_SIZE_FIELD, blockSize);
+	}
+
+	
+	/**
+	 * Getting the number of elements retrieved in one remote call by fetchers returned to remote clients.
+	 * @return number of elements retrieved in one remote call.
+	 */
+	public int getFetcherBlockSize() {
+		int blockSize = containsKey(FETCHER_BLOCK_SIZE_FIELD) ? getAsInt(FETCHER_BLOCK_SIZE_FIELD) : FETCHER_BLOCK_SIZE_DEFAULT;
+		return blockSize > 0 ? blockSize : FETCHER_BLOCK_SIZE_DEFAULT;
+	}
+
+	
 	/**
 	 * Getting the URI specifying the ID of this {@link DataConfig}.
 	 * This URI is the URI of store concatenated with the main unit returned by {@link #getMainUnit()}.
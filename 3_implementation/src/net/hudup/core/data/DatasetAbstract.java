@@ -84,6 +84,12 @@ public abstract class DatasetAbstract implements Dataset, DatasetRemote {
     protected DatasetRemote exportedStub = null;
 
     
+    /**
+     * Port at which this dataset is exported. Fetchers returned to remote clients are exported at this port too.
+     */
+    protected int exportedPort = 0;
+
+    
     @Override
 	public DataConfig getConfig() {
 		return config;
@@ -128,6 +134,7 @@ public abstract class DatasetAbstract implements Dataset, DatasetRemote {
 	public synchronized Remote export(int serverPort) throws RemoteException {
 		if (exportedStub == null)
 			exportedStub = (DatasetRemote) NetUtil.RegistryRemote.export(this, serverPort);
+		if (exportedStub != null) exportedPort = serverPort;
 	
 		return exportedStub;
 	}
@@ -138,6 +145,7 @@ public abstract class DatasetAbstract implements Dataset, DatasetRemote {
 		if (exportedStub != null) {
 			NetUtil.RegistryRemote.unexport(this);
 			exportedStub = null;
+			exportedPort = 0;
 		}
 	}
 
@@ -178,9 +186,22 @@ public abstract class DatasetAbstract implements Dataset, DatasetRemote {
 	}
 
 
+	/**
+	 * Preparing the specified fetcher to be returned to remote clients. Its block size is taken from configuration and it is exported at the port of this dataset.
+	 * @param <T> type of elements.
+	 * @param fetcher specified fetcher.
+	 * @return fetcher which is returned to remote clients.
+	 */
+	protected <T> Fetcher<T> toRemoteFetcher(Fetcher<T> fetcher) {
+		DataConfig config = getConfig();
+		int blockSize = config != null ? config.getFetcherBlockSize() : DataConfig.FETCHER_BLOCK_SIZE_DEFAULT;
+		return FetcherUtil.toRemoteFetcher(fetcher, blockSize, exportedPort);
+	}
+
+
 	@Override
 	public Fetcher<Integer> remoteFetchUserIds() throws RemoteException {
-		return FetcherUtil.fixFetcherSerialized(fetchUserIds());
+		return toRemoteFetcher(fetchUserIds());
 	}
 
 
@@ -204,7 +225,7 @@ public abstract class DatasetAbstract implements Dataset, DatasetRemote {
 
 	@Override
 	public Fetcher<Integer> remoteFetchItemIds() throws RemoteException {
-		return FetcherUtil.fixFetcherSerialized(fetchItemIds());
+		return toRemoteFetcher(fetchItemIds());
 	}
 
 
@@ -240,7 +261,7 @@ public abstract class DatasetAbstract implements Dataset, DatasetRemote {
 
 	@Override
 	public Fetcher<RatingVector> remoteFetchUserRatings() throws RemoteException {
-		return FetcherUtil.fixFetcherSerialized(fetchUserRatings());
+		return toRemoteFetcher(fetchUserRatings());
 	}
 
 
@@ -258,7 +279,7 @@ public abstract class DatasetAbstract implements Dataset, DatasetRemote {
 
 	@Override
 	public Fetcher<RatingVector> remoteFetchItemRatings() throws RemoteException {
-		return FetcherUtil.fixFetcherSerialized(fetchItemRatings());
+		return toRemoteFetcher(fetchItemRatings());
 	}
 
 
@@ -288,7 +309,7 @@ public abstract class DatasetAbstract implements Dataset, DatasetRemote {
 
 	@Override
 	public Fetcher<Profile> remoteFetchUserProfiles() throws RemoteException {
-		return FetcherUtil.fixFetcherSerialized(fetchUserProfiles());
+		return toRemoteFetcher(fetchUserProfiles());
 	}
 
 
@@ -312,7 +333,7 @@ public abstract class DatasetAbstract implements Dataset, DatasetRemote {
 
 	@Override
 	public Fetcher<Profile> remoteFetchItemProfiles() throws RemoteException {
-		return FetcherUtil.fixFetcherSerialized(fetchItemProfiles());
+		return toRemoteFetcher(fetchItemProfiles());
 	}
 
 
@@ -342,7 +363,7 @@ public abstract class DatasetAbstract implements Dataset, DatasetRemote {
 
 	@Override
 	public Fetcher<Profile> remoteFetchSample() throws RemoteException {
-		return FetcherUtil.fixFetcherSerialized(fetchSample());
+		return toRemoteFetcher(fetchSample());
 	}
 
 
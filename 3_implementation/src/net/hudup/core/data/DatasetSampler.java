@@ -7,8 +7,11 @@
  */
 package net.hudup.core.data;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.event.EventListenerList;
 
@@ -46,6 +49,12 @@ public class DatasetSampler implements AutoCloseable {
 	public final static String MISSING_SUFFIX = ".miss";
 	
 	
+	/**
+	 * Number of inserted profiles between two progress events.
+	 */
+	protected final static int PROGRESS_STEP = 1000;
+	
+	
 	/**
 	 * Source provider.
 	 */
@@ -82,80 +91,28 @@ public class DatasetSampler implements AutoCloseable {
 			return cfgList;
 		
 		int numFold = (int)(1.0 / testRatio);
-		List<List<Integer>> foldList = Util.newList();
-		for (int i = 0; i < numFold; i++) {
-			List<Integer> list = Util.newList();
-			foldList.add(list);
-		}
-		
-		// Retrieving source content
-		AttributeList attributes = provider.getProfileAttributes(srcUnit);
-		Fetcher<Profile> fetcher = provider.getProfiles(srcUnit, null);
-		List<Profile> content = Util.newList();
-		while (fetcher.next()) {
-			Profile profile = fetcher.pick();
-			if (profile != null)
-				content.add(profile);
-		}
-		fetcher.close();
-		
-		List<Pair> lineNumber = Util.newList();
-		for (int i = 0; i < content.size(); i++)
-			lineNumber.add(new Pair(i, 0));
+		int size = countProfiles(srcUnit);
 		
+		//Lines are dealt to testing folds in random order so that every line is tested by exactly one fold.
+		int[] lineNumber = new int[size];
+		for (int i = 0; i < size; i++)
+			lineNumber[i] = i;
 		Random rnd = new Random();
-		while (true) {
-			for (int i = 0; i < numFold; i++) {
-				int n = lineNumber.size();
-				if (n > 0) {
-					int k = rnd.nextInt(n);
-					Pair pair = lineNumber.get(k);
-					lineNumber.remove(k);
-					
-					List<Integer> list = foldList.get(i); 
-					list.add(pair.key());
-				}
-			}
-			
-			if (lineNumber.size() == 0)
-				break;
+		for (int i = size - 1; i > 0; i--) {
+			int k = rnd.nextInt(i + 1);
+			int tmp = lineNumber[i];
+			lineNumber[i] = lineNumber[k];
+			lineNumber[k] = tmp;
 		}
 		
-		String[] foldUnits = new String[numFold * 2];
-		for (int i = 0; i < numFold * 2; i += 2) {
-			String baseUnit = srcUnit + "-" + testRatio + "-" + (i/2+1) + TRAINING_SUFFIX;
-			foldUnits[i] = baseUnit;
-			if(doesExist(baseUnit))
-				provider.deleteUnitData(baseUnit);
-			else
-				provider.createUnit(baseUnit, attributes);
-			
-			String testUnit = srcUnit + "-" + testRatio + "-" + (i/2+1) + TESTING_SUFFIX;
-			foldUnits[i + 1] = testUnit;
-			if(doesExist(testUnit))
-				provider.deleteUnitData(testUnit);
-			else
-				provider.createUnit(testUnit, attributes);
-			
-			cfgList.add(new DataConfig[] {
-					makeConfigOfUnit(baseUnit),
-					makeConfigOfUnit(testUnit),
-				});
-		}
-
-		for (int i = 0; i < content.size(); i++) {
-			Profile line = content.get(i);
-			
-			for (int j = 0; j < numFold; j++) {
-				List<Integer> list = foldList.get(j);
-				if (list.contains(i))
-					provider.insertProfile(foldUnits[2*j + 1], line); // insert profile into test unit
-				else
-					provider.insertProfile(foldUnits[2*j], line); // insert profile into base unit
-			}
-			
-			fireProgressEvent(new ProgressEvent(this, content.size(), i + 1, "Inserted: " + line));
-		}
+		BitSet[] testLines = new BitSet[numFold];
+		for (int i = 0; i < numFold; i++)
+			testLines[i] = new BitSet(size);
+		for (int i = 0; i < size; i++)
+			testLines[i % numFold].set(lineNumber[i]);
+		
+		String[] foldUnits = createFoldUnits(srcUnit, testRatio, numFold, cfgList);
+		fillFoldUnits(srcUnit, foldUnits, testLines, size);
 		
 		return cfgList;
 	}
@@ -177,18 +134,69 @@ public class DatasetSampler implements AutoCloseable {
 		if (numFold == 0)
 			return split(srcUnit, testRatio);
 		
-		// Retrieving source content
-		AttributeList attributes = provider.getProfileAttributes(srcUnit);
-		Fetcher<Profile> fetcher = provider.getProfiles(srcUnit, null);
-		List<Profile> content = Util.newList();
-		while (fetcher.next()) {
-			Profile profile = fetcher.pick();
-			if (profile != null)
-				content.add(profile);
+		int size = countProfiles(srcUnit);
+		if (size == 0) return cfgList;
+		
+		//Each fold picks its testing lines independently by partial shuffle.
+		int eachTestSize = (int)(testRatio * size);
+		int[] lineNumber = new int[size];
+		for (int i = 0; i < size; i++)
+			lineNumber[i] = i;
+		Random rnd = new Random();
+		BitSet[] testLines = new BitSet[numFold];
+		for (int i = 0; i < numFold; i++) {
+			testLines[i] = new BitSet(size);
+			for (int j = 0; j < eachTestSize; j++) {
+				int k = j + rnd.nextInt(size - j);
+				int tmp = lineNumber[j];
+				lineNumber[j] = lineNumber[k];
+				lineNumber[k] = tmp;
+				testLines[i].set(lineNumber[j]);
+			}
 		}
-		fetcher.close();
-		if (content.size() == 0) return cfgList;
 		
+		String[] foldUnits = createFoldUnits(srcUnit, testRatio, numFold, cfgList);
+		fillFoldUnits(srcUnit, foldUnits, testLines, size);
+		
+		return cfgList;
+	}
+
+	
+	/**
+	 * Counting profiles of the specified unit.
+	 * @param srcUnit source unit.
+	 * @return the number of profiles of the specified unit.
+	 * @throws Exception if any error raises.
+	 */
+	private int countProfiles(String srcUnit) throws Exception {
+		Fetcher<Profile> fetcher = provider.getProfiles(srcUnit, null);
+		try {
+			int size = fetcher.getMetadata() != null ? fetcher.getMetadata().getSize() : 0;
+			if (size > 0) return size;
+			
+			size = 0;
+			while (fetcher.next()) {
+				if (fetcher.pick() != null)
+					size++;
+			}
+			return size;
+		}
+		finally {
+			fetcher.close();
+		}
+	}
+	
+	
+	/**
+	 * Creating or clearing training units and testing units of folds.
+	 * @param srcUnit source unit.
+	 * @param testRatio ratio of splitting.
+	 * @param numFold folder number.
+	 * @param cfgList list which receives configurations of training datasets and testing datasets.
+	 * @return array of fold units in which training unit and testing unit of the i-th fold are at indices 2i and 2i+1.
+	 */
+	private String[] createFoldUnits(String srcUnit, double testRatio, int numFold, List<DataConfig[]> cfgList) {
+		AttributeList attributes = provider.getProfileAttributes(srcUnit);
 		String[] foldUnits = new String[numFold * 2];
 		for (int i = 0; i < numFold * 2; i += 2) {
 			String baseUnit = srcUnit + "-" + testRatio + "-" + (i/2+1) + TRAINING_SUFFIX;
@@ -210,38 +218,60 @@ public class DatasetSampler implements AutoCloseable {
 					makeConfigOfUnit(testUnit),
 				});
 		}
-
-		int eachTestSize = (int)(testRatio * content.size());
-		int count = 0;
-		for (int i = 0; i < numFold; i++) {
-			List<Integer> lineNumber = Util.newList();
-			for (int j = 0; j < content.size(); j++) {
-				lineNumber.add(j);
-			}
-			
-			Random rnd = new Random();
-			for (int j = 0; j < eachTestSize; j++) {
-				int k = rnd.nextInt(lineNumber.size());
-				Profile line = content.get(lineNumber.get(k));
-				lineNumber.remove(k);
-				provider.insertProfile(foldUnits[2*i + 1], line); // insert profile into test unit
+		
+		return foldUnits;
+	}
+	
+	
+	/**
+	 * Filling training units and testing units of folds by one pass over source unit. Units are filled in parallel by bulk inserters, see {@link ProfileBulkInserter#getParallelism(Provider, int)}.
+	 * @param srcUnit source unit.
+	 * @param foldUnits array of fold units in which training unit and testing unit of the i-th fold are at indices 2i and 2i+1.
+	 * @param testLines testing line numbers of folds.
+	 * @param size the number of profiles of source unit.
+	 * @throws Exception if any error raises.
+	 */
+	private void fillFoldUnits(String srcUnit, String[] foldUnits, BitSet[] testLines, int size) throws Exception {
+		int numFold = testLines.length;
+		int nThreads = ProfileBulkInserter.getParallelism(provider, Math.min(2 * numFold, Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+		ProfileBulkInserter[] inserters = new ProfileBulkInserter[foldUnits.length];
+		for (int i = 0; i < foldUnits.length; i++)
+			inserters[i] = new ProfileBulkInserter(provider, foldUnits[i], ProfileBulkInserter.BATCH_SIZE_DEFAULT, executor);
+		
+		Fetcher<Profile> fetcher = provider.getProfiles(srcUnit, null);
+		try {
+			int i = 0;
+			while (fetcher.next()) {
+				Profile line = fetcher.pick();
+				if (line == null)
+					continue;
 				
-				count++;
-				fireProgressEvent(new ProgressEvent(this, content.size()*numFold, count, "Inserted: " + line));
-			}
-			
-			for (int j = 0; j < lineNumber.size(); j++) {
-				Profile line = content.get(lineNumber.get(j));
-				provider.insertProfile(foldUnits[2*i], line); // insert profile into base unit
+				for (int j = 0; j < numFold; j++) {
+					if (testLines[j].get(i))
+						inserters[2*j + 1].add(line); // insert profile into test unit
+					else
+						inserters[2*j].add(line); // insert profile into base unit
+				}
 				
-				count++;
-				fireProgressEvent(new ProgressEvent(this, content.size()*numFold, count, "Inserted: " + line));
+				i++;
+				if (i % PROGRESS_STEP == 0 || i == size)
+					fireProgressEvent(new ProgressEvent(this, size, Math.min(i, size), "Inserted: " + i + " profiles"));
 			}
 		}
-		
-		return cfgList;
+		finally {
+			fetcher.close();
+			
+			boolean result = true;
+			for (ProfileBulkInserter inserter : inserters)
+				result &= inserter.finish();
+			executor.shutdown();
+			
+			if (!result)
+				LogUtil.error("Some profiles of unit " + srcUnit + " were not inserted into folds");
+		}
 	}
-
+	
 	
 	/**
 	 * Making sparse the unit (table) specified by the specified source configuration and source unit.
@@ -287,6 +317,7 @@ public class DatasetSampler implements AutoCloseable {
 		else
 			provider.createUnit(dstUnit, attributes);
 		dstCfg =  makeConfigOfUnit(dstUnit);
+		ProfileBulkInserter inserter = new ProfileBulkInserter(provider, dstUnit);
 		int i = 0;
 		while (fetcher.next()) {
 			Profile profile = fetcher.pick();
@@ -304,12 +335,13 @@ public class DatasetSampler implements AutoCloseable {
 						sparseProfile.setMissing(j);
 				}
 			}
-			provider.insertProfile(dstUnit, sparseProfile);
+			inserter.add(sparseProfile);
 			
 			i++;
 			fireProgressEvent(new ProgressEvent(this, m, i, "Make sparse: " + sparseProfile));
 		}
 		fetcher.close();
+		inserter.finish();
 		
 		return dstCfg;
 	}
@@ -52,6 +52,14 @@ public class Datasource implements AutoCloseable, Serializable {
 	protected boolean autoClose = false;
 	
 	
+	/**
+	 * If {@code true} the dataset referred by variable {@link #dataset} was connected by the method {@link #connect(Dataset)}.
+	 * Such dataset is closed only if it is still exclusive when this data source is closed because its exclusive flag can be revoked after connecting,
+	 * for example, when the dataset shares its structures with other datasets.
+	 */
+	protected boolean connected = false;
+	
+	
 	/**
 	 * Default constructor.
 	 */
@@ -83,6 +91,7 @@ public class Datasource implements AutoCloseable, Serializable {
 		this.dataset = dataset;
 		this.uri = dataset.getConfig().toUri();
 		this.autoClose = dataset.isExclusive();
+		this.connected = true;
 		
 	}
 	
@@ -140,11 +149,12 @@ public class Datasource implements AutoCloseable, Serializable {
 	@Override
 	public void close() {
 		try {
-			if (autoClose && dataset != null)
+			if (autoClose && dataset != null && (!connected || dataset.isExclusive()))
 				dataset.clear();
 			
 			dataset = null;
 			autoClose = false;
+			connected = false;
 			uri = null;
 		}
 		catch (Throwable e) {
@@ -152,6 +162,7 @@ public class Datasource implements AutoCloseable, Serializable {
 			
 			dataset = null;
 			autoClose = false;
+			connected = false;
 			uri = null;
 		}
 	}
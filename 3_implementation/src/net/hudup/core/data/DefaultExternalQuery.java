@@ -8,10 +8,11 @@
 package net.hudup.core.data;
 
 import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import net.hudup.core.Util;
-import net.hudup.core.data.DataDriver.DataType;
-import net.hudup.core.data.ProviderAssoc.CsvWriter;
 import net.hudup.core.logistic.LogUtil;
 import net.hudup.core.logistic.ui.ProgressEvent;
 import net.hudup.core.logistic.ui.ProgressListener;
@@ -144,421 +145,210 @@ public class DefaultExternalQuery extends ExternalQueryAbstract {
 	
 	@Override
 	public void importData(ProgressListener registeredListener) throws RemoteException {
-		DataConfig internalConfig = internalProvider.getConfig();
-		ExternalConfig externalConfig = (ExternalConfig) externalProvider.getConfig();
-
-		DataDriver ddriver = DataDriver.create(internalConfig.getStoreUri());
-		if (ddriver != null && ddriver.getType() == DataType.file) {
-			fileImportData(registeredListener);
-			return;
-		}
-
 		preImportData();
 		
+		DataConfig internalConfig = internalProvider.getConfig();
+		ExternalConfig externalConfig = (ExternalConfig) externalProvider.getConfig();
 		int progressTotal = 3;
 		int progressStep = 0;
 
 		AttributeList userAttributes = internalProvider.getUserAttributes();
 		AttributeList itemAttributes = internalProvider.getItemAttributes();
+		AttributeList attMapAttributes = internalProvider.getProfileAttributes(internalConfig.getAttributeMapUnit());
+		AttributeList ratingAttributes = internalProvider.getProfileAttributes(internalConfig.getRatingUnit());
 		
-		// 2. Inserting users
-		Fetcher<Profile> userFetcher = null;
-		if (externalConfig.getUserSql() != null)
-			userFetcher = externalProvider.getProfiles(new ParamSql(externalConfig.getUserSql()), null);
-		else
-			userFetcher = externalProvider.getProfiles(externalConfig.getUserUnit(), null);
-		try {
-			
-			int userType = 0;
-			int userId = 0;
-			while (userFetcher.next()) {
-				Profile user = userFetcher.pick();
-				if (user == null)
-					continue;
-				
-				String externalUserId = user.getValueAsString(externalConfig.getUserIdField());
-				String externalUserType = user.getValueAsString(externalConfig.getUserTypeField());
-				if (externalUserId == null || externalUserType == null) //Fixing bug date: 2019.08.09 by Loc Nguyen
-					continue;
-				
-				ExternalRecord externalRecord = new ExternalRecord(
-						externalConfig.getUserUnit(), 
-						externalConfig.getUserIdField(), 
-						externalUserId);
-
-				userId++;
-				userType++;
-				Profile userProfile = new Profile(userAttributes);
-				userProfile.setIdValue(userId);
-				userProfile.setValue(DataConfig.USER_TYPE_FIELD, userType);
-				internalProvider.insertUserProfile(userProfile, externalRecord);
-				
-				InterchangeAttributeMap userMap = new InterchangeAttributeMap(
-						new InternalRecord(internalConfig.getUserUnit(), DataConfig.USER_TYPE_FIELD, userType), 
-						new ExternalRecord(externalConfig.getUserUnit(), externalConfig.getUserTypeField(), externalUserType));
-				internalProvider.insertAttributeMap(userMap);
-			}
-			
-		}
-		catch (Throwable e) {
-			LogUtil.trace(e);
-		}
-		finally {
-			try {
-				if (userFetcher != null)
-					userFetcher.close();
-			}
-			catch (Throwable e) {
-				LogUtil.trace(e);
-			}
-		}
-		if (registeredListener != null)
-			registeredListener.receiveProgress(
-				new ProgressEvent(this, progressTotal, ++progressStep, "Users are inserted"));
+		//Units are filled in parallel by bulk inserters while external data is read, unless the internal store shares one database connection.
+		ExecutorService executor = Executors.newFixedThreadPool(ProfileBulkInserter.getParallelism(internalProvider, 4));
+		ProfileBulkInserter userInserter = new ProfileBulkInserter(internalProvider, internalConfig.getUserUnit(), ProfileBulkInserter.BATCH_SIZE_DEFAULT, executor);
+		ProfileBulkInserter itemInserter = new ProfileBulkInserter(internalProvider, internalConfig.getItemUnit(), ProfileBulkInserter.BATCH_SIZE_DEFAULT, executor);
+		ProfileBulkInserter attMapInserter = new ProfileBulkInserter(internalProvider, internalConfig.getAttributeMapUnit(), ProfileBulkInserter.BATCH_SIZE_DEFAULT, executor);
+		ProfileBulkInserter ratingInserter = new ProfileBulkInserter(internalProvider, internalConfig.getRatingUnit(), ProfileBulkInserter.BATCH_SIZE_DEFAULT, executor);
 		
+		//Internal identifiers keyed by external identifiers, which replace looking up attribute map for every rating.
+		Map<String, Integer> userIds = Util.newMap();
+		Map<String, Integer> itemIds = Util.newMap();
 		
-		// 3. Inserting items
-		Fetcher<Profile> itemFetcher = null;
-		if (externalConfig.getItemSql() != null)
-			itemFetcher = externalProvider.getProfiles(new ParamSql(externalConfig.getItemSql()), null);
-		else
-			itemFetcher = externalProvider.getProfiles(externalConfig.getItemUnit(), null);
 		try {
-			
-			int itemType = 0;
-			int itemId = 0;
-			while (itemFetcher.next()) {
-				Profile item = itemFetcher.pick();
-				if (item == null)
-					continue;
-				
-				String externalItemId = item.getValueAsString(externalConfig.getItemIdField());
-				String externalItemType = item.getValueAsString(externalConfig.getItemTypeField());
-				if (externalItemId == null || externalItemType == null) //Fixing bug date: 2019.08.09 by Loc Nguyen
-					continue;
-				
-				ExternalRecord externalRecord = new ExternalRecord(
-						externalConfig.getItemUnit(), 
-						externalConfig.getItemIdField(), 
-						externalItemId);
+			// 2. Inserting users
+			Fetcher<Profile> userFetcher = null;
+			if (externalConfig.getUserSql() != null)
+				userFetcher = externalProvider.getProfiles(new ParamSql(externalConfig.getUserSql()), null);
+			else
+				userFetcher = externalProvider.getProfiles(externalConfig.getUserUnit(), null);
+			try {
 				
-				itemId++;
-				itemType++;
-				Profile itemProfile = new Profile(itemAttributes);
-				itemProfile.setIdValue(itemId);
-				itemProfile.setValue(DataConfig.ITEM_TYPE_FIELD, itemType);
-				internalProvider.insertItemProfile(itemProfile, externalRecord);
+				int userType = 0;
+				int userId = 0;
+				while (userFetcher.next()) {
+					Profile user = userFetcher.pick();
+					if (user == null)
+						continue;
+					
+					String externalUserId = user.getValueAsString(externalConfig.getUserIdField());
+					String externalUserType = user.getValueAsString(externalConfig.getUserTypeField());
+					if (externalUserId == null || externalUserType == null) //Fixing bug date: 2019.08.09 by Loc Nguyen
+						continue;
+					
+					ExternalRecord externalRecord = new ExternalRecord(
+							externalConfig.getUserUnit(), 
+							externalConfig.getUserIdField(), 
+							externalUserId);
+	
+					userId++;
+					userType++;
+					Profile userProfile = new Profile(userAttributes);
+					userProfile.setIdValue(userId);
+					userProfile.setValue(DataConfig.USER_TYPE_FIELD, userType);
+					userInserter.add(userProfile);
+					
+					if (!userIds.containsKey(externalUserId))
+						userIds.put(externalUserId, userId);
+					attMapInserter.add(createAttributeMap(attMapAttributes, new InterchangeAttributeMap(
+							new InternalRecord(internalConfig.getUserUnit(), DataConfig.USERID_FIELD, userId),
+							externalRecord)));
+					
+					InterchangeAttributeMap userMap = new InterchangeAttributeMap(
+							new InternalRecord(internalConfig.getUserUnit(), DataConfig.USER_TYPE_FIELD, userType), 
+							new ExternalRecord(externalConfig.getUserUnit(), externalConfig.getUserTypeField(), externalUserType));
+					attMapInserter.add(createAttributeMap(attMapAttributes, userMap));
+				}
 				
-				InterchangeAttributeMap itemMap = new InterchangeAttributeMap(
-						new InternalRecord(internalConfig.getItemUnit(), DataConfig.ITEM_TYPE_FIELD, itemType), 
-						new ExternalRecord(externalConfig.getItemUnit(), externalConfig.getItemTypeField(), externalItemType));
-				internalProvider.insertAttributeMap(itemMap);
-			}
-			
-		}
-		catch (Throwable e) {
-			LogUtil.trace(e);
-		}
-		finally {
-			try {
-				if (itemFetcher != null)
-					itemFetcher.close();
 			}
 			catch (Throwable e) {
 				LogUtil.trace(e);
 			}
-		}
-		if (registeredListener != null)
-			registeredListener.receiveProgress(
-				new ProgressEvent(this, progressTotal, ++progressStep, "Item are inserted"));
-		
-
-		// 4. Inserting ratings
-		Fetcher<Profile> ratingFetcher = null;
-		if (externalConfig.getRatingSql() != null)
-			ratingFetcher = externalProvider.getProfiles(new ParamSql(externalConfig.getRatingSql()), null);
-		else
-			ratingFetcher = externalProvider.getProfiles(externalConfig.getRatingUnit(), null);
-		try {
-			
-			while (ratingFetcher.next()) {
-				Profile rating = ratingFetcher.pick();
-				if (rating == null)
-					continue;
-				
-				String externalRatingUserId = rating.getValueAsString(externalConfig.getRatingUserIdField());
-				String externalRatingItemId = rating.getValueAsString(externalConfig.getRatingItemIdField());
-				double externalRating = rating.getValueAsReal(externalConfig.getRatingField());
-				if (externalRatingUserId == null || externalRatingItemId == null || !Util.isUsed(externalRating))
-					continue;
-				
-				InterchangeAttributeMap userMap = internalProvider.getAttributeMapByExternal(
-					new ExternalRecord(
-						externalConfig.getUserUnit(), 
-						externalConfig.getUserIdField(), 
-						externalRatingUserId));
-				
-				InterchangeAttributeMap itemMap = internalProvider.getAttributeMapByExternal(
-					new ExternalRecord(
-						externalConfig.getItemUnit(), 
-						externalConfig.getItemIdField(),
-						externalRatingItemId));
-				
-				if (userMap == null || itemMap == null)
-					continue;
-					
-				int internalUserId = -1;
-				int internalItemId = -1;
+			finally {
 				try {
-					internalUserId = Integer.parseInt(userMap.internalRecord.value.toString());
-					internalItemId = Integer.parseInt(itemMap.internalRecord.value.toString());
+					if (userFetcher != null)
+						userFetcher.close();
 				}
 				catch (Throwable e) {
 					LogUtil.trace(e);
-					continue;
 				}
-				if (internalUserId < 0 || internalItemId < 0)
-					continue;
-				
-				internalProvider.insertRating(internalUserId, internalItemId, new Rating(externalRating));
 			}
+			if (registeredListener != null)
+				registeredListener.receiveProgress(
+					new ProgressEvent(this, progressTotal, ++progressStep, "Users are inserted"));
 			
-		}
-		catch (Throwable e) {
-			LogUtil.trace(e);
-		}
-		finally {
+			
+			// 3. Inserting items
+			Fetcher<Profile> itemFetcher = null;
+			if (externalConfig.getItemSql() != null)
+				itemFetcher = externalProvider.getProfiles(new ParamSql(externalConfig.getItemSql()), null);
+			else
+				itemFetcher = externalProvider.getProfiles(externalConfig.getItemUnit(), null);
 			try {
-				if (ratingFetcher != null)
-					ratingFetcher.close();
-			}
-			catch (Throwable e) {
-				LogUtil.trace(e);
-			}
-		}
-		if (registeredListener != null)
-			registeredListener.receiveProgress(
-				new ProgressEvent(this, progressTotal, ++progressStep, "Ratings are inserted"));
-
-	
-	}
-
-	
-	/**
-	 * Fill in Hudup database by importing data from outside (external) database with note that Hudup database is a set of files.
-	 * @param registeredListener the registered listener to observe the importing process.
-	 * This listener can do some particular tasks such as showing the progress bar so that users know the progress of importing process.
-	 * @throws RemoteException if any error raises.
-	 */
-	private void fileImportData(ProgressListener registeredListener) throws RemoteException {
-		preImportData();
-		
-		DataConfig internalConfig = internalProvider.getConfig();
-		ExternalConfig externalConfig = (ExternalConfig) externalProvider.getConfig();
-		int progressTotal = 3;
-		int progressStep = 0;
-
-		AttributeList userAttributes = internalProvider.getUserAttributes();
-		AttributeList itemAttributes = internalProvider.getItemAttributes();
-		AttributeList attMapAttributes = internalProvider.getProfileAttributes(internalConfig.getAttributeMapUnit());
-		AttributeList ratingAttributes = internalProvider.getProfileAttributes(internalConfig.getRatingUnit());
-		
-		ProviderAssoc assoc = Util.getFactory().createProviderAssoc(internalConfig);
-		CsvWriter csvUserWriter = assoc.getWriter(internalConfig.getUserUnit(), true);
-		CsvWriter csvItemWriter = assoc.getWriter(internalConfig.getItemUnit(), true);
-		CsvWriter csvAttMapWriter = assoc.getWriter(internalConfig.getAttributeMapUnit(), true);
-		CsvWriter csvRatingWriter = assoc.getWriter(internalConfig.getRatingUnit(), true);
-
-		// 2. Inserting users
-		Fetcher<Profile> userFetcher = null;
-		if (externalConfig.getUserSql() != null)
-			userFetcher = externalProvider.getProfiles(new ParamSql(externalConfig.getUserSql()), null);
-		else
-			userFetcher = externalProvider.getProfiles(externalConfig.getUserUnit(), null);
-		try {
-
-			int userId = 0;
-			int userType = 0;
-			while (userFetcher.next()) {
-				Profile user = userFetcher.pick();
-				if (user == null)
-					continue;
-				
-				String externalUserId = user.getValueAsString(externalConfig.getUserIdField());
-				String externalUserType = user.getValueAsString(externalConfig.getUserTypeField());
-				if (externalUserId == null || externalUserType == null) //Fixing bug date: 2019.08.09 by Loc Nguyen
-					continue;
 				
-				ExternalRecord externalRecord = new ExternalRecord(
-						externalConfig.getUserUnit(), 
-						externalConfig.getUserIdField(), 
-						externalUserId);
-
-				userId++;
-				userType++;
-				Profile userProfile = new Profile(userAttributes);
-				userProfile.setIdValue(userId);
-				userProfile.setValue(DataConfig.USER_TYPE_FIELD, userType);
-				insertUserProfile(internalConfig, csvUserWriter, csvAttMapWriter, attMapAttributes, userProfile, externalRecord);
+				int itemType = 0;
+				int itemId = 0;
+				while (itemFetcher.next()) {
+					Profile item = itemFetcher.pick();
+					if (item == null)
+						continue;
+					
+					String externalItemId = item.getValueAsString(externalConfig.getItemIdField());
+					String externalItemType = item.getValueAsString(externalConfig.getItemTypeField());
+					if (externalItemId == null || externalItemType == null) //Fixing bug date: 2019.08.09 by Loc Nguyen
+						continue;
+					
+					ExternalRecord externalRecord = new ExternalRecord(
+							externalConfig.getItemUnit(), 
+							externalConfig.getItemIdField(), 
+							externalItemId);
+					
+					itemId++;
+					itemType++;
+					Profile itemProfile = new Profile(itemAttributes);
+					itemProfile.setIdValue(itemId);
+					itemProfile.setValue(DataConfig.ITEM_TYPE_FIELD, itemType);
+					itemInserter.add(itemProfile);
+					
+					if (!itemIds.containsKey(externalItemId))
+						itemIds.put(externalItemId, itemId);
+					attMapInserter.add(createAttributeMap(attMapAttributes, new InterchangeAttributeMap(
+							new InternalRecord(internalConfig.getItemUnit(), DataConfig.ITEMID_FIELD, itemId),
+							externalRecord)));
+					
+					InterchangeAttributeMap itemMap = new InterchangeAttributeMap(
+							new InternalRecord(internalConfig.getItemUnit(), DataConfig.ITEM_TYPE_FIELD, itemType), 
+							new ExternalRecord(externalConfig.getItemUnit(), externalConfig.getItemTypeField(), externalItemType));
+					attMapInserter.add(createAttributeMap(attMapAttributes, itemMap));
+				}
 				
-				InterchangeAttributeMap userMap = new InterchangeAttributeMap(
-						new InternalRecord(internalConfig.getUserUnit(), DataConfig.USER_TYPE_FIELD, userType), 
-						new ExternalRecord(externalConfig.getUserUnit(), externalConfig.getUserTypeField(), externalUserType));
-				insertAttributeMap(csvAttMapWriter, attMapAttributes, userMap);
-			}
-			
-		}
-		catch (Throwable e) {
-			LogUtil.trace(e);
-		}
-		finally {
-			try {
-				if (userFetcher != null)
-					userFetcher.close();
 			}
 			catch (Throwable e) {
 				LogUtil.trace(e);
 			}
-		}
-		if (registeredListener != null)
-			registeredListener.receiveProgress(
-				new ProgressEvent(this, progressTotal, ++progressStep, "Users are inserted"));
-		
-		
-		// 3. Inserting items
-		Fetcher<Profile> itemFetcher = null;
-		if (externalConfig.getItemSql() != null)
-			itemFetcher = externalProvider.getProfiles(new ParamSql(externalConfig.getItemSql()), null);
-		else
-			itemFetcher = externalProvider.getProfiles(externalConfig.getItemUnit(), null);
-		try {
-			
-			int itemId = 0;
-			int itemType = 0;
-			while (itemFetcher.next()) {
-				Profile item = itemFetcher.pick();
-				if (item == null)
-					continue;
-				
-				String externalItemId = item.getValueAsString(externalConfig.getItemIdField());
-				String externalItemType = item.getValueAsString(externalConfig.getItemTypeField());
-				if (externalItemId == null || externalItemType == null) //Fixing bug date: 2019.08.09 by Loc Nguyen
-					continue;
-				
-				ExternalRecord externalRecord = new ExternalRecord(
-						externalConfig.getItemUnit(), 
-						externalConfig.getItemIdField(), 
-						externalItemId);
-				
-				itemId++;
-				itemType++;
-				Profile itemProfile = new Profile(itemAttributes);
-				itemProfile.setIdValue(itemId);
-				itemProfile.setValue(DataConfig.ITEM_TYPE_FIELD, itemType);
-				insertItemProfile(internalConfig, csvItemWriter, csvAttMapWriter, attMapAttributes, itemProfile, externalRecord);
-				
-				InterchangeAttributeMap itemMap = new InterchangeAttributeMap(
-						new InternalRecord(internalConfig.getItemUnit(), DataConfig.ITEM_TYPE_FIELD, itemType), 
-						new ExternalRecord(externalConfig.getItemUnit(), externalConfig.getItemTypeField(), externalItemType));
-				insertAttributeMap(csvAttMapWriter, attMapAttributes, itemMap);
+			finally {
+				try {
+					if (itemFetcher != null)
+						itemFetcher.close();
+				}
+				catch (Throwable e) {
+					LogUtil.trace(e);
+				}
 			}
+			if (registeredListener != null)
+				registeredListener.receiveProgress(
+					new ProgressEvent(this, progressTotal, ++progressStep, "Item are inserted"));
 			
-		}
-		catch (Throwable e) {
-			LogUtil.trace(e);
-		}
-		finally {
+	
+			// 4. Inserting ratings
+			Fetcher<Profile> ratingFetcher = null;
+			if (externalConfig.getRatingSql() != null)
+				ratingFetcher = externalProvider.getProfiles(new ParamSql(externalConfig.getRatingSql()), null);
+			else
+				ratingFetcher = externalProvider.getProfiles(externalConfig.getRatingUnit(), null);
 			try {
-				if (itemFetcher != null)
-					itemFetcher.close();
+				
+				while (ratingFetcher.next()) {
+					Profile rating = ratingFetcher.pick();
+					if (rating == null)
+						continue;
+					
+					String externalRatingUserId = rating.getValueAsString(externalConfig.getRatingUserIdField());
+					String externalRatingItemId = rating.getValueAsString(externalConfig.getRatingItemIdField());
+					double externalRating = rating.getValueAsReal(externalConfig.getRatingField());
+					if (externalRatingUserId == null || externalRatingItemId == null || !Util.isUsed(externalRating))
+						continue;
+					
+					Integer internalUserId = userIds.get(externalRatingUserId);
+					Integer internalItemId = itemIds.get(externalRatingItemId);
+					if (internalUserId == null || internalItemId == null)
+						continue;
+					
+					ratingInserter.add(createRating(ratingAttributes, internalUserId, internalItemId, new Rating(externalRating)));
+				}
+				
 			}
 			catch (Throwable e) {
 				LogUtil.trace(e);
 			}
-		}
-		if (registeredListener != null)
-			registeredListener.receiveProgress(
-				new ProgressEvent(this, progressTotal, ++progressStep, "Item are inserted"));
-		
-
-		// 4. Inserting ratings
-		Fetcher<Profile> ratingFetcher = null;
-		if (externalConfig.getRatingSql() != null)
-			ratingFetcher = externalProvider.getProfiles(new ParamSql(externalConfig.getRatingSql()), null);
-		else
-			ratingFetcher = externalProvider.getProfiles(externalConfig.getRatingUnit(), null);
-		try {
-			
-			while (ratingFetcher.next()) {
-				Profile rating = ratingFetcher.pick();
-				if (rating == null)
-					continue;
-				
-				String externalRatingUserId = rating.getValueAsString(externalConfig.getRatingUserIdField());
-				String externalRatingItemId = rating.getValueAsString(externalConfig.getRatingItemIdField());
-				double externalRating = rating.getValueAsReal(externalConfig.getRatingField());
-				if (externalRatingUserId == null || externalRatingItemId == null || !Util.isUsed(externalRating))
-					continue;
-				
-				InterchangeAttributeMap userMap = internalProvider.getAttributeMapByExternal(
-					new ExternalRecord(
-						externalConfig.getUserUnit(), 
-						externalConfig.getUserIdField(), 
-						externalRatingUserId));
-				
-				InterchangeAttributeMap itemMap = internalProvider.getAttributeMapByExternal(
-					new ExternalRecord(
-						externalConfig.getItemUnit(), 
-						externalConfig.getItemIdField(),
-						externalRatingItemId));
-				
-				if (userMap == null || itemMap == null)
-					continue;
-					
-				int internalUserId = -1;
-				int internalItemId = -1;
+			finally {
 				try {
-					internalUserId = Integer.parseInt(userMap.internalRecord.value.toString());
-					internalItemId = Integer.parseInt(itemMap.internalRecord.value.toString());
+					if (ratingFetcher != null)
+						ratingFetcher.close();
 				}
 				catch (Throwable e) {
 					LogUtil.trace(e);
-					continue;
 				}
-				if (internalUserId < 0 || internalItemId < 0)
-					continue;
-				
-				insertRating(csvRatingWriter, ratingAttributes, internalUserId, internalItemId, new Rating(externalRating));
 			}
-			
-		}
-		catch (Throwable e) {
-			LogUtil.trace(e);
 		}
 		finally {
-			try {
-				if (ratingFetcher != null)
-					ratingFetcher.close();
-			}
-			catch (Throwable e) {
-				LogUtil.trace(e);
-			}
+			boolean result = userInserter.finish();
+			result &= itemInserter.finish();
+			result &= attMapInserter.finish();
+			result &= ratingInserter.finish();
+			executor.shutdown();
+			
+			if (!result)
+				LogUtil.error("Some external data were not imported");
 		}
+		
 		if (registeredListener != null)
 			registeredListener.receiveProgress(
 				new ProgressEvent(this, progressTotal, ++progressStep, "Ratings are inserted"));
 
-	
-		try {
-			csvUserWriter.close();
-			csvItemWriter.close();
-			csvAttMapWriter.close();
-			csvRatingWriter.close();
-		}
-		catch (Throwable e) {
-			LogUtil.trace(e);
-		}
-		
 	}
 
 	
@@ -661,73 +451,14 @@ public class DefaultExternalQuery extends ExternalQueryAbstract {
 
 	
 	/**
-	 * Inserting user profile.
-	 * @param internalConfig specified internal configuration.
-	 * @param userWriter CSV writer for user profile.
-	 * @param csvAttMapWriter CSV writer for attribute map.
-	 * @param attMapAttributes attribute list.
-	 * @param user user profile.
-	 * @param externalRecord external record.
-	 * @return whether insert profile successfully
-	 */
-	private static boolean insertUserProfile(DataConfig internalConfig, CsvWriter userWriter, CsvWriter csvAttMapWriter, AttributeList attMapAttributes, Profile user, ExternalRecord externalRecord) {
-		
-		boolean result = insertProfile(userWriter, user);
-		
-		if (externalRecord != null && externalRecord.isValid()) {
-
-			InternalRecord internalRecord = new InternalRecord(
-					internalConfig.getUserUnit(), 
-					DataConfig.USERID_FIELD, 
-					user.getIdValueAsInt());
-			
-			InterchangeAttributeMap attributeMap = new InterchangeAttributeMap(internalRecord, externalRecord);
-			result &= insertAttributeMap(csvAttMapWriter, attMapAttributes, attributeMap);
-		}
-
-		return result;
-	}
-
-	
-	/**
-	 * Inserting item profile.
-	 * @param internalConfig specified internal configuration.
-	 * @param itemWriter CSV writer for item profile.
-	 * @param csvAttMapWriter CSV writer for attribute map.
-	 * @param attMapAttributes attribute list.
-	 * @param item item profile.
-	 * @param externalRecord external record.
-	 * @return whether insert profile successfully
-	 */
-	private static boolean insertItemProfile(DataConfig internalConfig, CsvWriter itemWriter, CsvWriter csvAttMapWriter, AttributeList attMapAttributes, Profile item, ExternalRecord externalRecord) {
-		
-		boolean result = insertProfile(itemWriter, item);
-		
-		if (externalRecord != null && externalRecord.isValid()) {
-
-			InternalRecord internalRecord = new InternalRecord(
-					internalConfig.getItemUnit(), 
-					DataConfig.ITEMID_FIELD, 
-					item.getIdValueAsInt());
-			
-			InterchangeAttributeMap attributeMap = new InterchangeAttributeMap(internalRecord, externalRecord);
-			result &= insertAttributeMap(csvAttMapWriter, attMapAttributes, attributeMap);
-		}
-
-		return result;
-	}
-
-	
-	/**
-	 * Inserting rating.
-	 * @param ratingWriter rating writer.
+	 * Creating rating profile.
 	 * @param ratingAttributes rating attributes.
 	 * @param userId user identifier.
 	 * @param itemId item identifier.
 	 * @param rating specified rating.
-	 * @return whether insert profile successfully
+	 * @return rating profile.
 	 */
-	private boolean insertRating(CsvWriter ratingWriter, AttributeList ratingAttributes, int userId, int itemId, Rating rating) {
+	private static Profile createRating(AttributeList ratingAttributes, int userId, int itemId, Rating rating) {
 		
 		Profile profile = new Profile(ratingAttributes);
 		profile.setValue(DataConfig.USERID_FIELD, userId);
@@ -735,20 +466,19 @@ public class DefaultExternalQuery extends ExternalQueryAbstract {
 		profile.setValue(DataConfig.RATING_FIELD, rating.value);
 		profile.setValue(DataConfig.RATING_DATE_FIELD, rating.ratedDate);
 		
-		return insertProfile(ratingWriter, profile);
+		return profile;
 	}
 	
 	
 	/**
-	 * Inserting attributes.
-	 * @param attMapWriter writer for attribute.
+	 * Creating attribute map profile.
 	 * @param attMapAttributes attribute list.
 	 * @param attributeMap interchanged attribute map.
-	 * @return whether insert profile successfully.
+	 * @return attribute map profile, or null if the interchanged attribute map is invalid.
 	 */
-	private static boolean insertAttributeMap(CsvWriter attMapWriter, AttributeList attMapAttributes, InterchangeAttributeMap attributeMap) {
+	private static Profile createAttributeMap(AttributeList attMapAttributes, InterchangeAttributeMap attributeMap) {
 		if (!attributeMap.isValid())
-			return false;
+			return null;
 		
 		Profile profile = new Profile(attMapAttributes);
 		
@@ -760,29 +490,7 @@ public class DefaultExternalQuery extends ExternalQueryAbstract {
 		profile.setValue(DataConfig.EXTERNAL_ATTRIBUTE_NAME_FIELD, attributeMap.externalRecord.attribute);
 		profile.setValue(DataConfig.EXTERNAL_ATTRIBUTE_VALUE_FIELD, attributeMap.externalRecord.value);
 		
-		return insertProfile(attMapWriter, profile);
-	}
-	
-	
-	/**
-	 * Inserting profile to CSV file.
-	 * @param writer CSV writer.
-	 * @param profile specified profile.
-	 * @return whether insert profile successfully.
-	 */
-	private static boolean insertProfile(CsvWriter writer, Profile profile) {
-		if (profile == null || profile.getAttCount() == 0)
-			return false;
-		
-		try {
-			writer.writeRecord(profile.toStringArray());
-			return true;
-		}
-		catch (Throwable e) {
-			LogUtil.trace(e);
-		}
-		
-		return false;
+		return profile;
 	}
 	
 	
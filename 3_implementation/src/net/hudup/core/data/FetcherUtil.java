@@ -32,12 +32,27 @@ public class FetcherUtil {
 	 * @param fetcher specified fetcher which is iterated to retrieve its elements which are filled in the specified collection.
 	 * @param autoClose if {@code true}, the fetcher is automatically closed after the filling task is finished.
 	 */
+	@SuppressWarnings("unchecked")
 	public static <E /*extends Serializable*/> void fillCollection(Collection<E> collection, Fetcher<E> fetcher, boolean autoClose) {
 		try {
-			while (fetcher.next()) {
-				E el = fetcher.pick();
-				if (el != null)
-					collection.add(el);
+			if (fetcher instanceof BlockFetcher<?>) {
+				BlockFetcher<E> blockFetcher = (BlockFetcher<E>)fetcher;
+				int blockSize = fetcher instanceof PrefetchFetcher<?> ? ((PrefetchFetcher<E>)fetcher).getBlockSize() : PrefetchFetcher.BLOCK_SIZE_DEFAULT;
+				while (true) {
+					List<E> block = blockFetcher.nextBlock(blockSize);
+					for (E el : block) {
+						if (el != null)
+							collection.add(el);
+					}
+					if (block.size() < blockSize) break;
+				}
+			}
+			else {
+				while (fetcher.next()) {
+					E el = fetcher.pick();
+					if (el != null)
+						collection.add(el);
+				}
 			}
 			
 		}
@@ -80,4 +95,22 @@ public class FetcherUtil {
 	}
 	
 	
+	/**
+	 * Preparing the specified fetcher to be returned to remote clients.
+	 * Memory fetcher is returned by value. Other fetchers are exported by the method {@link PrefetchFetcher#export(Fetcher, int, int)} so that remote clients retrieve their elements by blocks instead of one remote call per element.
+	 * @param <T> type of elements.
+	 * @param fetcher specified fetcher.
+	 * @param blockSize number of elements retrieved in one remote call, see {@link DataConfig#getFetcherBlockSize()}.
+	 * @param port port to export the specified fetcher, which is often the server port.
+	 * @return fetcher which is returned to remote clients.
+	 */
+	public static <T> Fetcher<T> toRemoteFetcher(Fetcher<T> fetcher, int blockSize, int port) {
+		if ((fetcher == null) || (fetcher instanceof MemFetcher<?>) || (fetcher instanceof PrefetchFetcher<?>))
+			return fixFetcherSerialized(fetcher);
+		
+		PrefetchFetcher<T> prefetchFetcher = PrefetchFetcher.export(fetcher, blockSize, port);
+		return prefetchFetcher != null ? prefetchFetcher : fetcher;
+	}
+	
+	
 }
@@ -0,0 +1,185 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is a map of integer keys (often identifiers) to non-negative integer indices, which is stored in primitive arrays.
+ * It is an open-addressing hash table with linear probing so that looking up an index costs constant time without boxing,
+ * which replaces calling the method {@link List#indexOf(Object)} on list of identifiers.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class IntIndexMap implements Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Keys.
+	 */
+	protected int[] keys = null;
+
+
+	/**
+	 * Indices plus 1, in which 0 indicates empty slot.
+	 */
+	protected int[] slots = null;
+
+
+	/**
+	 * Number of keys.
+	 */
+	protected int size = 0;
+
+
+	/**
+	 * Constructor with expected number of keys.
+	 * @param expectedSize expected number of keys.
+	 */
+	public IntIndexMap(int expectedSize) {
+		int length = 16;
+		while (length < expectedSize * 2) length <<= 1;
+		keys = new int[length];
+		slots = new int[length];
+	}
+
+
+	/**
+	 * Creating map from the specified list of identifiers, in which each identifier is mapped to its position in the list.
+	 * If an identifier occurs many times, it is mapped to its first position, which is the same to {@link List#indexOf(Object)}.
+	 * @param ids specified list of identifiers.
+	 * @return map of identifiers to their positions.
+	 */
+	public static IntIndexMap create(List<Integer> ids) {
+		IntIndexMap map = new IntIndexMap(ids.size());
+		int index = 0;
+		for (int id : ids) {
+			if (map.get(id) < 0) map.put(id, index);
+			index++;
+		}
+		return map;
+	}
+
+
+	/**
+	 * Mixing bits of the specified key.
+	 * @param key specified key.
+	 * @return mixed bits.
+	 */
+	private static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+
+	/**
+	 * Finding slot of the specified key.
+	 * @param key specified key.
+	 * @return slot of the key, or negative value (-slot - 1) of the empty slot where the key can be inserted.
+	 */
+	private int find(int key) {
+		int mask = keys.length - 1;
+		int i = mix(key) & mask;
+		while (slots[i] != 0) {
+			if (keys[i] == key) return i;
+			i = (i + 1) & mask;
+		}
+		return -i - 1;
+	}
+
+
+	/**
+	 * Getting index of the specified key.
+	 * @param key specified key.
+	 * @return index of the specified key, or -1 if the key does not exist.
+	 */
+	public int get(int key) {
+		int i = find(key);
+		return i >= 0 ? slots[i] - 1 : -1;
+	}
+
+
+	/**
+	 * Testing whether the specified key exists.
+	 * @param key specified key.
+	 * @return whether the specified key exists.
+	 */
+	public boolean containsKey(int key) {
+		return find(key) >= 0;
+	}
+
+
+	/**
+	 * Putting the specified key and index. If the key exists, its index is replaced.
+	 * @param key specified key.
+	 * @param index specified index which must be non-negative.
+	 */
+	public void put(int key, int index) {
+		if (index < 0) throw new IllegalArgumentException("Index must be non-negative");
+
+		int i = find(key);
+		if (i < 0) {
+			if ((size + 1) * 2 > keys.length) {
+				resize(keys.length * 2);
+				i = find(key);
+			}
+			i = -i - 1;
+			keys[i] = key;
+			size++;
+		}
+		slots[i] = index + 1;
+	}
+
+
+	/**
+	 * Resizing table.
+	 * @param length new table length which is power of 2.
+	 */
+	private void resize(int length) {
+		int[] oldKeys = keys;
+		int[] oldSlots = slots;
+		keys = new int[length];
+		slots = new int[length];
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (oldSlots[j] == 0) continue;
+			int i = -find(oldKeys[j]) - 1;
+			keys[i] = oldKeys[j];
+			slots[i] = oldSlots[j];
+		}
+	}
+
+
+	/**
+	 * Getting the number of keys.
+	 * @return the number of keys.
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * Clearing this map.
+	 */
+	public void clear() {
+		Arrays.fill(slots, 0);
+		size = 0;
+	}
+
+
+}
@@ -22,12 +22,13 @@ import net.hudup.core.parser.TextParserUtil;
  * This class implements a fetcher {@link Fetcher} whose data elements are stored in memory.
  * Actually, these data elements are stored in its internal collection {@link #data}.
  * As a convention, it is called memory fetcher. 
+ * Memory fetcher is also block fetcher so that it serves blocks of elements when it is exported as remote object.
  *  
  * @param <E> type of data elements iterated by this memory fetcher, which should be serializable.
  * @author Loc Nguyen
  * @version 10.0
  */
-public class MemFetcher<E /*extends Serializable*/> implements Fetcher<E> {
+public class MemFetcher<E /*extends Serializable*/> implements BlockFetcher<E> {
 	
 	
 	/**
@@ -143,6 +144,16 @@ public class MemFetcher<E /*extends Serializable*/> implements Fetcher<E> {
 	}
 
 
+	@Override
+	public List<E> nextBlock(int blockSize) {
+		List<E> block = Util.newList();
+		while (block.size() < blockSize && next())
+			block.add(current);
+		
+		return block;
+	}
+
+
 	@Override
 	public void reset() {
 		current = null;
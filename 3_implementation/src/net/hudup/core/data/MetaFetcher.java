@@ -8,9 +8,13 @@
 package net.hudup.core.data;
 
 import java.rmi.RemoteException;
+import java.util.List;
+
+import net.hudup.core.Util;
 
 /**
  * This class implements the meta fetcher.
+ * It retrieves elements by blocks if its internal fetcher is a {@link BlockFetcher}.
  * 
  * @author Loc Nguyen
  * @version 10.0
@@ -18,7 +22,7 @@ import java.rmi.RemoteException;
  * @param <U> Key type.
  * @param <V> Value type.
  */
-public abstract class MetaFetcher<U /*extends Serializable*/, V /*extends Serializable*/> implements Fetcher<V> {
+public abstract class MetaFetcher<U /*extends Serializable*/, V /*extends Serializable*/> implements BlockFetcher<V> {
 
 	
 	/**
@@ -63,6 +67,24 @@ public abstract class MetaFetcher<U /*extends Serializable*/, V /*extends Serial
 	}
 
 
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<V> nextBlock(int blockSize) throws RemoteException {
+		List<V> block = Util.newList(blockSize);
+		if (fetcher instanceof BlockFetcher<?>) {
+			List<U> keys = ((BlockFetcher<U>)fetcher).nextBlock(blockSize);
+			for (U u : keys)
+				block.add(u != null ? create(u) : null);
+			return block;
+		}
+		
+		while (block.size() < blockSize && next())
+			block.add(pick());
+		
+		return block;
+	}
+
+
 	@Override
 	public void reset() throws RemoteException {
 		// TODO Auto-generated method stub
@@ -0,0 +1,575 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.data;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import net.hudup.core.Cloneable;
+import net.hudup.core.Constants;
+import net.hudup.core.data.ctx.ContextList;
+
+/**
+ * This class implements the {@link Map} interface of ratings in compact form, which is used as internal storage of {@link RatingVector}.
+ * Field ID (s) are stored in a sorted array of integers and rating values are stored in a parallel array of real numbers.
+ * Rated dates and context lists are stored in optional side arrays which are only created when at least one rating has rated date or non-empty context list.
+ * Because {@link Rating} objects are not stored, each {@link Rating} returned by this map is a new object and so changing such object does not change this map;
+ * rating must be put again into this map after it is changed. Therefore, reading this map never changes it and so this map can be read by many threads.
+ * Because field ID (s) are sorted, two packed maps can be intersected by merging their arrays linearly.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class PackedRatingMap extends AbstractMap<Integer, Rating> implements Cloneable, Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Default capacity of internal arrays.
+	 */
+	protected final static int DEFAULT_CAPACITY = 4;
+
+
+	/**
+	 * Sorted array of field ID (s). Only the first {@link #size} elements are valid.
+	 */
+	protected int[] fieldIds = null;
+
+
+	/**
+	 * Array of rating values parallel to {@link #fieldIds}.
+	 */
+	protected double[] values = null;
+
+
+	/**
+	 * Array of rated dates parallel to {@link #fieldIds}. It is null if no rating has rated date.
+	 */
+	protected long[] ratedDates = null;
+
+
+	/**
+	 * Array of context lists parallel to {@link #fieldIds}. It is null if no rating has non-empty context list.
+	 */
+	protected ContextList[] contexts = null;
+
+
+	/**
+	 * Number of ratings.
+	 */
+	protected int size = 0;
+
+
+	/**
+	 * Default constructor.
+	 */
+	public PackedRatingMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+
+	/**
+	 * Constructor with initial capacity.
+	 * @param capacity initial capacity.
+	 */
+	public PackedRatingMap(int capacity) {
+		super();
+		capacity = Math.max(capacity, 1);
+		this.fieldIds = new int[capacity];
+		this.values = new double[capacity];
+	}
+
+
+	/**
+	 * Constructor with specified map of ratings.
+	 * @param map specified map of ratings.
+	 */
+	public PackedRatingMap(Map<Integer, Rating> map) {
+		this(map.size());
+
+		int[] keys = new int[map.size()];
+		int n = 0;
+		for (int key : map.keySet()) {
+			keys[n] = key;
+			n++;
+		}
+		Arrays.sort(keys, 0, n);
+
+		for (int i = 0; i < n; i++) {
+			Rating rating = map.get(keys[i]);
+			fieldIds[i] = keys[i];
+			size = i + 1;
+			store(i, rating);
+		}
+	}
+
+
+	/**
+	 * Getting the index of the specified field ID in internal arrays.
+	 * @param fieldId specified field ID.
+	 * @return index of the specified field ID. It is negative if the field ID does not exist, as a convention of {@link Arrays#binarySearch(int[], int, int, int)}.
+	 */
+	public int indexOf(int fieldId) {
+		return Arrays.binarySearch(fieldIds, 0, size, fieldId);
+	}
+
+
+	/**
+	 * Getting the field ID at specified index.
+	 * @param index specified index.
+	 * @return field ID at specified index.
+	 */
+	public int fieldIdAt(int index) {
+		return fieldIds[index];
+	}
+
+
+	/**
+	 * Getting the rating value at specified index.
+	 * @param index specified index.
+	 * @return rating value at specified index.
+	 */
+	public double valueAt(int index) {
+		return values[index];
+	}
+
+
+	/**
+	 * Getting the internal sorted array of field ID (s). Only the first {@link #size()} elements are valid.
+	 * This array must not be changed.
+	 * @return internal sorted array of field ID (s).
+	 */
+	public int[] getFieldIdArray() {
+		return fieldIds;
+	}
+
+
+	/**
+	 * Getting the internal array of rating values. Only the first {@link #size()} elements are valid.
+	 * This array must not be changed.
+	 * @return internal array of rating values.
+	 */
+	public double[] getValueArray() {
+		return values;
+	}
+
+
+	/**
+	 * Getting rating value of the specified field ID.
+	 * @param fieldId specified field ID.
+	 * @return rating value of the specified field ID. It is {@link Constants#UNUSED} if the field ID does not exist.
+	 */
+	public double getValue(int fieldId) {
+		int index = indexOf(fieldId);
+		return index < 0 ? Constants.UNUSED : valueAt(index);
+	}
+
+
+	/**
+	 * Setting rating value of the specified field ID. If the field ID does not exist, new rating is added.
+	 * @param fieldId specified field ID.
+	 * @param value specified rating value.
+	 */
+	public void putValue(int fieldId, double value) {
+		int index = indexOf(fieldId);
+		if (index < 0) {
+			index = -(index + 1);
+			insert(index, fieldId);
+		}
+		values[index] = value;
+	}
+
+
+	/**
+	 * Creating rating at specified index, which is a new object.
+	 * @param index specified index.
+	 * @return rating at specified index.
+	 */
+	protected Rating ratingAt(int index) {
+		Rating rating = new Rating(values[index]);
+		if (ratedDates != null)
+			rating.ratedDate = ratedDates[index];
+		if (contexts != null && contexts[index] != null)
+			rating.contexts = contexts[index];
+
+		return rating;
+	}
+
+
+	/**
+	 * Writing values of the specified rating into internal arrays at specified index.
+	 * @param index specified index.
+	 * @param rating specified rating.
+	 */
+	protected void store(int index, Rating rating) {
+		if (rating == null) {
+			values[index] = Constants.UNUSED;
+			if (ratedDates != null)
+				ratedDates[index] = 0;
+			if (contexts != null)
+				contexts[index] = null;
+			return;
+		}
+
+		values[index] = rating.value;
+
+		if (rating.ratedDate != 0 && ratedDates == null)
+			ratedDates = new long[fieldIds.length];
+		if (ratedDates != null)
+			ratedDates[index] = rating.ratedDate;
+
+		boolean hasContexts = rating.contexts != null && rating.contexts.size() > 0;
+		if (hasContexts && contexts == null)
+			contexts = new ContextList[fieldIds.length];
+		if (contexts != null)
+			contexts[index] = hasContexts ? rating.contexts : null;
+	}
+
+
+	/**
+	 * Inserting new field ID at specified index, which shifts elements to the right.
+	 * @param index specified index.
+	 * @param fieldId specified field ID.
+	 */
+	protected void insert(int index, int fieldId) {
+		if (size == fieldIds.length)
+			ensureCapacity(size + (size >> 1) + 1);
+
+		int moved = size - index;
+		if (moved > 0) {
+			System.arraycopy(fieldIds, index, fieldIds, index + 1, moved);
+			System.arraycopy(values, index, values, index + 1, moved);
+			if (ratedDates != null)
+				System.arraycopy(ratedDates, index, ratedDates, index + 1, moved);
+			if (contexts != null)
+				System.arraycopy(contexts, index, contexts, index + 1, moved);
+		}
+
+		fieldIds[index] = fieldId;
+		values[index] = Constants.UNUSED;
+		if (ratedDates != null)
+			ratedDates[index] = 0;
+		if (contexts != null)
+			contexts[index] = null;
+		size++;
+	}
+
+
+	/**
+	 * Deleting element at specified index, which shifts elements to the left.
+	 * @param index specified index.
+	 */
+	protected void delete(int index) {
+		int moved = size - index - 1;
+		if (moved > 0) {
+			System.arraycopy(fieldIds, index + 1, fieldIds, index, moved);
+			System.arraycopy(values, index + 1, values, index, moved);
+			if (ratedDates != null)
+				System.arraycopy(ratedDates, index + 1, ratedDates, index, moved);
+			if (contexts != null)
+				System.arraycopy(contexts, index + 1, contexts, index, moved);
+		}
+
+		size--;
+		if (contexts != null)
+			contexts[size] = null;
+	}
+
+
+	/**
+	 * Ensuring that internal arrays can contain the specified number of ratings.
+	 * @param capacity specified capacity.
+	 */
+	protected void ensureCapacity(int capacity) {
+		if (capacity <= fieldIds.length)
+			return;
+
+		fieldIds = Arrays.copyOf(fieldIds, capacity);
+		values = Arrays.copyOf(values, capacity);
+		if (ratedDates != null)
+			ratedDates = Arrays.copyOf(ratedDates, capacity);
+		if (contexts != null)
+			contexts = Arrays.copyOf(contexts, capacity);
+	}
+
+
+	/**
+	 * Trimming internal arrays to the number of ratings so as to save memory.
+	 */
+	public void trim() {
+		int capacity = Math.max(size, 1);
+		if (capacity == fieldIds.length)
+			return;
+
+		fieldIds = Arrays.copyOf(fieldIds, capacity);
+		values = Arrays.copyOf(values, capacity);
+		if (ratedDates != null)
+			ratedDates = Arrays.copyOf(ratedDates, capacity);
+		if (contexts != null)
+			contexts = Arrays.copyOf(contexts, capacity);
+	}
+
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (!(key instanceof Integer))
+			return false;
+		else
+			return indexOf((Integer)key) >= 0;
+	}
+
+
+	@Override
+	public Rating get(Object key) {
+		if (!(key instanceof Integer))
+			return null;
+
+		int index = indexOf((Integer)key);
+		return index < 0 ? null : ratingAt(index);
+	}
+
+
+	@Override
+	public Rating put(Integer key, Rating value) {
+		int index = indexOf(key);
+		Rating old = null;
+		if (index < 0) {
+			index = -(index + 1);
+			insert(index, key);
+		}
+		else
+			old = ratingAt(index);
+
+		store(index, value);
+		return old;
+	}
+
+
+	@Override
+	public Rating remove(Object key) {
+		if (!(key instanceof Integer))
+			return null;
+
+		int index = indexOf((Integer)key);
+		if (index < 0)
+			return null;
+
+		Rating old = ratingAt(index);
+		delete(index);
+		return old;
+	}
+
+
+	@Override
+	public void clear() {
+		size = 0;
+		ratedDates = null;
+		contexts = null;
+	}
+
+
+	@Override
+	public Set<Integer> keySet() {
+		return new AbstractSet<Integer>() {
+
+			@Override
+			public Iterator<Integer> iterator() {
+				return new IndexIterator<Integer>() {
+
+					@Override
+					protected Integer element(int index) {
+						return fieldIds[index];
+					}
+
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return containsKey(o);
+			}
+
+			@Override
+			public boolean remove(Object o) {
+				return PackedRatingMap.this.remove(o) != null;
+			}
+
+			@Override
+			public void clear() {
+				PackedRatingMap.this.clear();
+			}
+
+		};
+	}
+
+
+	@Override
+	public Collection<Rating> values() {
+		return new AbstractCollection<Rating>() {
+
+			@Override
+			public Iterator<Rating> iterator() {
+				return new IndexIterator<Rating>() {
+
+					@Override
+					protected Rating element(int index) {
+						return ratingAt(index);
+					}
+
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+		};
+	}
+
+
+	@Override
+	public Set<Entry<Integer, Rating>> entrySet() {
+		return new AbstractSet<Entry<Integer, Rating>>() {
+
+			@Override
+			public Iterator<Entry<Integer, Rating>> iterator() {
+				return new IndexIterator<Entry<Integer, Rating>>() {
+
+					@Override
+					protected Entry<Integer, Rating> element(final int index) {
+						return new SimpleEntry<Integer, Rating>(fieldIds[index], ratingAt(index)) {
+
+							/**
+							 * Serial version UID for serializable class.
+							 */
+							private static final long serialVersionUID = 1L;
+
+							@Override
+							public Rating setValue(Rating value) {
+								Rating old = super.setValue(value);
+								store(index, value);
+								return old;
+							}
+
+						};
+					}
+
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+		};
+	}
+
+
+	@Override
+	public Object clone() {
+		PackedRatingMap map = new PackedRatingMap(Math.max(size, 1));
+		System.arraycopy(fieldIds, 0, map.fieldIds, 0, size);
+		System.arraycopy(values, 0, map.values, 0, size);
+		if (ratedDates != null)
+			map.ratedDates = Arrays.copyOf(ratedDates, map.fieldIds.length);
+		if (contexts != null) {
+			map.contexts = new ContextList[map.fieldIds.length];
+			for (int i = 0; i < size; i++) {
+				if (contexts[i] != null)
+					map.contexts[i] = (ContextList) contexts[i].clone();
+			}
+		}
+		map.size = size;
+
+		return map;
+	}
+
+
+	/**
+	 * This class is iterator over indices of internal arrays, which supports removal.
+	 *
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 *
+	 * @param <E> type of elements.
+	 */
+	private abstract class IndexIterator<E> implements Iterator<E> {
+
+		/**
+		 * Index of next element.
+		 */
+		private int next = 0;
+
+		/**
+		 * Index of last returned element.
+		 */
+		private int last = -1;
+
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		@Override
+		public E next() {
+			if (next >= size)
+				throw new NoSuchElementException();
+
+			last = next;
+			next++;
+			return element(last);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0)
+				throw new IllegalStateException();
+
+			delete(last);
+			next = last;
+			last = -1;
+		}
+
+		/**
+		 * Getting element at specified index.
+		 * @param index specified index.
+		 * @return element at specified index.
+		 */
+		protected abstract E element(int index);
+
+	}
+
+
+}
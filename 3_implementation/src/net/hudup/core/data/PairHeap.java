@@ -0,0 +1,256 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import net.hudup.core.Util;
+
+/**
+ * This class represents a bounded heap of pairs whose keys and values are stored in primitive arrays.
+ * It keeps the best pairs offered to it where best pairs have largest values (or smallest values if the heap is reversed).
+ * Among pairs having the same value, the pair offered earlier is better, which is the same tie rule of inserting pairs
+ * by the methods {@link Pair#findIndexOfLessThan(double, List)} and {@link Pair#findIndexOfGreaterThan(double, List)}.
+ * The root of the heap is always the worst pair so that replacing it costs logarithmic time.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class PairHeap implements Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Keys of pairs.
+	 */
+	protected int[] keys = null;
+
+
+	/**
+	 * Values of pairs.
+	 */
+	protected double[] values = null;
+
+
+	/**
+	 * Offering orders of pairs, which are used to break ties.
+	 */
+	protected long[] orders = null;
+
+
+	/**
+	 * Number of pairs in this heap.
+	 */
+	protected int size = 0;
+
+
+	/**
+	 * Maximum number of pairs. If it is not positive, the heap is unbounded.
+	 */
+	protected int capacity = 0;
+
+
+	/**
+	 * If true, smaller values are better.
+	 */
+	protected boolean reversed = false;
+
+
+	/**
+	 * Counter of offering order.
+	 */
+	protected long counter = 0;
+
+
+	/**
+	 * Constructor with specified capacity and reversed mode.
+	 * @param capacity maximum number of pairs. If it is not positive, the heap is unbounded.
+	 * @param reversed if true, smaller values are better.
+	 */
+	public PairHeap(int capacity, boolean reversed) {
+		this.capacity = capacity;
+		this.reversed = reversed;
+
+		int initial = capacity > 0 ? capacity : 16;
+		this.keys = new int[initial];
+		this.values = new double[initial];
+		this.orders = new long[initial];
+	}
+
+
+	/**
+	 * Getting the number of pairs.
+	 * @return the number of pairs.
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * Testing whether this heap reaches its capacity.
+	 * @return whether this heap reaches its capacity. Unbounded heap is never full.
+	 */
+	public boolean isFull() {
+		return capacity > 0 && size >= capacity;
+	}
+
+
+	/**
+	 * Getting the value of the worst pair.
+	 * @return the value of the worst pair, or {@link Double#NaN} if this heap is empty.
+	 */
+	public double worstValue() {
+		return size > 0 ? values[0] : Double.NaN;
+	}
+
+
+	/**
+	 * Offering the specified key and value. The pair is kept if this heap is not full or it is better than the worst pair.
+	 * Pairs offered later lose ties against pairs offered earlier.
+	 * @param key specified key.
+	 * @param value specified value.
+	 * @return true if the pair is kept.
+	 */
+	public boolean offer(int key, double value) {
+		long order = counter++;
+		if (!isFull()) {
+			if (size == keys.length) {
+				int newLength = keys.length * 2;
+				keys = Arrays.copyOf(keys, newLength);
+				values = Arrays.copyOf(values, newLength);
+				orders = Arrays.copyOf(orders, newLength);
+			}
+			keys[size] = key;
+			values[size] = value;
+			orders[size] = order;
+			siftUp(size);
+			size++;
+			return true;
+		}
+
+		if (!worse(values[0], orders[0], value, order))
+			return false;
+		keys[0] = key;
+		values[0] = value;
+		orders[0] = order;
+		siftDown(0);
+		return true;
+	}
+
+
+	/**
+	 * Testing whether the first pair is worse than the second pair.
+	 * @param value1 value of the first pair.
+	 * @param order1 order of the first pair.
+	 * @param value2 value of the second pair.
+	 * @param order2 order of the second pair.
+	 * @return whether the first pair is worse than the second pair.
+	 */
+	private boolean worse(double value1, long order1, double value2, long order2) {
+		if (value1 != value2)
+			return reversed ? value1 > value2 : value1 < value2;
+		else
+			return order1 > order2;
+	}
+
+
+	/**
+	 * Moving the pair at specified index up to its right position.
+	 * @param index specified index.
+	 */
+	private void siftUp(int index) {
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (!worse(values[index], orders[index], values[parent], orders[parent]))
+				break;
+			swap(index, parent);
+			index = parent;
+		}
+	}
+
+
+	/**
+	 * Moving the pair at specified index down to its right position.
+	 * @param index specified index.
+	 */
+	private void siftDown(int index) {
+		while (true) {
+			int left = 2 * index + 1;
+			if (left >= size) break;
+			int child = left;
+			int right = left + 1;
+			if (right < size && worse(values[right], orders[right], values[left], orders[left]))
+				child = right;
+			if (!worse(values[child], orders[child], values[index], orders[index]))
+				break;
+			swap(index, child);
+			index = child;
+		}
+	}
+
+
+	/**
+	 * Swapping two pairs.
+	 * @param i first index.
+	 * @param j second index.
+	 */
+	private void swap(int i, int j) {
+		int key = keys[i]; keys[i] = keys[j]; keys[j] = key;
+		double value = values[i]; values[i] = values[j]; values[j] = value;
+		long order = orders[i]; orders[i] = orders[j]; orders[j] = order;
+	}
+
+
+	/**
+	 * Getting pairs of this heap sorted from the best pair to the worst pair. This heap is not changed.
+	 * @return pairs sorted from the best pair to the worst pair.
+	 */
+	public List<Pair> toSortedList() {
+		Integer[] indices = new Integer[size];
+		for (int i = 0; i < size; i++) indices[i] = i;
+		Arrays.sort(indices, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer i, Integer j) {
+				if (worse(values[i], orders[i], values[j], orders[j]))
+					return 1;
+				else if (worse(values[j], orders[j], values[i], orders[i]))
+					return -1;
+				else
+					return 0;
+			}
+			
+		});
+
+		List<Pair> pairs = Util.newList(size);
+		for (int index : indices)
+			pairs.add(new Pair(keys[index], values[index]));
+		return pairs;
+	}
+
+
+	/**
+	 * Clearing this heap.
+	 */
+	public void clear() {
+		size = 0;
+		counter = 0;
+	}
+
+
+}
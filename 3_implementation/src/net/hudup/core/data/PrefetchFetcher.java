@@ -0,0 +1,400 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.data;
+
+import java.rmi.RemoteException;
+import java.rmi.server.Unreferenced;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import net.hudup.core.Util;
+import net.hudup.core.logistic.LogUtil;
+import net.hudup.core.logistic.NetUtil;
+
+/**
+ * This class is client side of a fetcher exported by the method {@link #export(Fetcher, int, int)}, which is returned by remote calls instead of the fetcher itself.
+ * It retrieves elements from the remote cursor {@link BlockFetcherRemote} by blocks and iterates elements of current block locally.
+ * If read-ahead is enabled, the next block is retrieved by a background thread while current block is iterated.
+ * This fetcher is not thread-safe, like other fetchers.
+ * 
+ * @param <E> type of elements that the fetcher iterates over, which should be serializable.
+ * @author Loc Nguyen
+ * @version 13.0
+ */
+public class PrefetchFetcher<E /*extends Serializable*/> implements BlockFetcher<E> {
+
+	
+	/**
+	 * Default serial version UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Default number of elements in a block.
+	 */
+	public final static int BLOCK_SIZE_DEFAULT = 1000;
+	
+	
+	/**
+	 * Executor retrieving blocks in background, whose threads are daemon.
+	 */
+	private final static ExecutorService readAheadExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+		
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "PrefetchFetcher");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	
+	/**
+	 * Remote cursor.
+	 */
+	protected BlockFetcherRemote<E> fetcher = null;
+	
+	
+	/**
+	 * Number of elements in a block.
+	 */
+	protected int blockSize = BLOCK_SIZE_DEFAULT;
+	
+	
+	/**
+	 * Whether to retrieve the next block in background.
+	 */
+	protected boolean readAhead = true;
+	
+	
+	/**
+	 * Current block.
+	 */
+	protected transient List<E> block = null;
+	
+	
+	/**
+	 * Index of the next element in current block.
+	 */
+	protected transient int index = 0;
+	
+	
+	/**
+	 * Current element.
+	 */
+	protected transient E current = null;
+	
+	
+	/**
+	 * Next block being retrieved in background.
+	 */
+	protected transient Future<List<E>> pending = null;
+	
+	
+	/**
+	 * Flag to indicate whether the remote cursor has no more element.
+	 */
+	protected transient boolean exhausted = false;
+	
+	
+	/**
+	 * Constructor with remote cursor, block size, and read-ahead flag.
+	 * @param fetcher remote cursor.
+	 * @param blockSize number of elements in a block. If it is not positive, the default block size {@link #BLOCK_SIZE_DEFAULT} is used.
+	 * @param readAhead whether to retrieve the next block in background.
+	 */
+	public PrefetchFetcher(BlockFetcherRemote<E> fetcher, int blockSize, boolean readAhead) {
+		this.fetcher = fetcher;
+		this.blockSize = blockSize > 0 ? blockSize : BLOCK_SIZE_DEFAULT;
+		this.readAhead = readAhead;
+	}
+
+	
+	/**
+	 * Constructor with remote cursor. Default block size is used and read-ahead is enabled.
+	 * @param fetcher remote cursor.
+	 */
+	public PrefetchFetcher(BlockFetcherRemote<E> fetcher) {
+		this(fetcher, BLOCK_SIZE_DEFAULT, true);
+	}
+
+	
+	@Override
+	public boolean next() throws RemoteException {
+		if ((block == null || index >= block.size()) && !fill()) {
+			current = null;
+			return false;
+		}
+		
+		current = block.get(index++);
+		return true;
+	}
+
+	
+	/**
+	 * Retrieving the next block from the remote cursor.
+	 * @return whether the next block has elements.
+	 * @throws RemoteException if any remote exception raises.
+	 */
+	private boolean fill() throws RemoteException {
+		block = null;
+		index = 0;
+		if (exhausted)
+			return false;
+		
+		List<E> nextBlock = pending != null ? waitPending() : fetcher.nextBlock(blockSize);
+		if (nextBlock == null || nextBlock.size() < blockSize)
+			exhausted = true;
+		if (nextBlock == null || nextBlock.size() == 0)
+			return false;
+		
+		block = nextBlock;
+		if (readAhead && !exhausted) {
+			final BlockFetcherRemote<E> blockFetcher = fetcher;
+			final int size = blockSize;
+			pending = readAheadExecutor.submit(new Callable<List<E>>() {
+
+				@Override
+				public List<E> call() throws Exception {
+					return blockFetcher.nextBlock(size);
+				}
+			});
+		}
+		
+		return true;
+	}
+	
+	
+	/**
+	 * Waiting for the block being retrieved in background.
+	 * @return the block retrieved in background.
+	 * @throws RemoteException if any remote exception raises.
+	 */
+	private List<E> waitPending() throws RemoteException {
+		if (pending == null) return null;
+		
+		try {
+			return pending.get();
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RemoteException)
+				throw (RemoteException)e.getCause();
+			else
+				throw new RemoteException("Prefetching block error", e.getCause());
+		}
+		catch (InterruptedException e) {
+			throw new RemoteException("Prefetching block interrupted", e);
+		}
+		finally {
+			pending = null;
+		}
+	}
+	
+	
+	@Override
+	public E pick() throws RemoteException {
+		return current;
+	}
+
+	
+	/**
+	 * Getting the number of elements in a block.
+	 * @return number of elements in a block.
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	
+	@Override
+	public List<E> nextBlock(int blockSize) throws RemoteException {
+		List<E> result = Util.newList(blockSize);
+		while (result.size() < blockSize && next())
+			result.add(current);
+		
+		return result;
+	}
+
+	
+	@Override
+	public void reset() throws RemoteException {
+		try {
+			waitPending();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		
+		block = null;
+		index = 0;
+		current = null;
+		exhausted = false;
+		fetcher.reset();
+	}
+
+	
+	@Override
+	public FetcherMetadata getMetadata() throws RemoteException {
+		return fetcher.getMetadata();
+	}
+
+	
+	@Override
+	public void close() throws RemoteException {
+		try {
+			waitPending();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		
+		block = null;
+		current = null;
+		if (fetcher != null)
+			fetcher.close();
+		fetcher = null;
+	}
+
+	
+	@Override
+	public String toText() {
+		throw new RuntimeException("Not support this method");
+	}
+
+	
+	@Override
+	public void parseText(String spec) {
+		throw new RuntimeException("Not support this method");
+	}
+
+	
+	/**
+	 * Exporting the specified fetcher as remote cursor at the specified port.
+	 * @param <E> type of elements.
+	 * @param fetcher specified fetcher.
+	 * @param blockSize number of elements in a block.
+	 * @param readAhead whether to retrieve the next block in background.
+	 * @param port specified port, which is often the server port.
+	 * @return prefetching fetcher which is returned to remote clients instead of the specified fetcher, or null if exporting fails.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> PrefetchFetcher<E> export(Fetcher<E> fetcher, int blockSize, boolean readAhead, int port) {
+		ExportedFetcher<E> exported = new ExportedFetcher<E>(fetcher);
+		BlockFetcherRemote<E> stub = (BlockFetcherRemote<E>) NetUtil.RegistryRemote.export(exported, port);
+		if (stub == null) {
+			LogUtil.error("Exporting fetcher error at port " + port);
+			return null;
+		}
+		
+		return new PrefetchFetcher<E>(stub, blockSize, readAhead);
+	}
+	
+	
+	/**
+	 * Exporting the specified fetcher as remote cursor at the specified port with read-ahead.
+	 * @param <E> type of elements.
+	 * @param fetcher specified fetcher.
+	 * @param blockSize number of elements in a block.
+	 * @param port specified port, which is often the server port.
+	 * @return prefetching fetcher which is returned to remote clients instead of the specified fetcher, or null if exporting fails.
+	 */
+	public static <E> PrefetchFetcher<E> export(Fetcher<E> fetcher, int blockSize, int port) {
+		return export(fetcher, blockSize, true, port);
+	}
+	
+	
+	/**
+	 * This class is remote cursor of a fetcher at server side.
+	 * When remote clients do not reference it any more, for example, they forget closing it or they are disconnected, it is closed so that the underlying fetcher does not leak.
+	 * 
+	 * @param <E> type of elements.
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 */
+	private static class ExportedFetcher<E> implements BlockFetcherRemote<E>, Unreferenced {
+		
+		/**
+		 * Exported fetcher.
+		 */
+		private Fetcher<E> fetcher = null;
+		
+		/**
+		 * Constructor with exported fetcher.
+		 * @param fetcher exported fetcher.
+		 */
+		private ExportedFetcher(Fetcher<E> fetcher) {
+			this.fetcher = fetcher;
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public synchronized List<E> nextBlock(int blockSize) throws RemoteException {
+			checkOpen();
+			if (fetcher instanceof BlockFetcher<?>)
+				return ((BlockFetcher<E>)fetcher).nextBlock(blockSize);
+			
+			List<E> block = Util.newList();
+			while (block.size() < blockSize && fetcher.next())
+				block.add(fetcher.pick());
+			
+			return block;
+		}
+		
+		@Override
+		public synchronized void reset() throws RemoteException {
+			checkOpen();
+			fetcher.reset();
+		}
+		
+		@Override
+		public synchronized FetcherMetadata getMetadata() throws RemoteException {
+			checkOpen();
+			return fetcher.getMetadata();
+		}
+		
+		/**
+		 * Checking whether this remote cursor is not closed yet.
+		 * @throws RemoteException if this remote cursor was closed.
+		 */
+		private void checkOpen() throws RemoteException {
+			if (fetcher == null) throw new RemoteException("Remote fetcher was closed");
+		}
+		
+		@Override
+		public synchronized void close() throws RemoteException {
+			if (fetcher == null) return;
+			
+			NetUtil.RegistryRemote.unexport(this);
+			try {
+				fetcher.close();
+			}
+			finally {
+				fetcher = null;
+			}
+		}
+		
+		@Override
+		public void unreferenced() {
+			try {
+				close();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+		}
+		
+	}
+	
+	
+}
@@ -0,0 +1,235 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.data;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.hudup.core.Util;
+import net.hudup.core.logistic.LogUtil;
+
+/**
+ * This class buffers profiles inserted into a unit and sends them to provider in batches by the method {@link Provider#insertProfiles(String, java.util.Collection)}.
+ * If an executor is specified, batches are inserted in background so that many units can be filled in parallel, but batches of the same unit are still inserted one by one in order.
+ * The number of threads of such executor should be taken from the method {@link #getParallelism(Provider, int)} because database stores whose connections are not pooled share one connection.
+ * This class is not thread-safe: profiles should be added to an inserter by one thread.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class ProfileBulkInserter implements AutoCloseable {
+
+
+	/**
+	 * Default number of profiles in a batch.
+	 */
+	public final static int BATCH_SIZE_DEFAULT = 10000;
+
+
+	/**
+	 * Provider.
+	 */
+	protected Provider provider = null;
+
+
+	/**
+	 * Unit into which profiles are inserted.
+	 */
+	protected String unit = null;
+
+
+	/**
+	 * Number of profiles in a batch.
+	 */
+	protected int batchSize = BATCH_SIZE_DEFAULT;
+
+
+	/**
+	 * Executor to insert batches in background, which can be null.
+	 */
+	protected ExecutorService executor = null;
+
+
+	/**
+	 * Buffer of profiles of current batch.
+	 */
+	protected List<Profile> buffer = Util.newList();
+
+
+	/**
+	 * Result of the batch being inserted in background.
+	 */
+	protected Future<Boolean> pending = null;
+
+
+	/**
+	 * Whether all batches were inserted successfully so far.
+	 */
+	protected boolean result = true;
+
+
+	/**
+	 * Number of added profiles.
+	 */
+	protected int count = 0;
+
+
+	/**
+	 * Constructor with provider, unit, batch size, and executor.
+	 * @param provider specified provider.
+	 * @param unit unit into which profiles are inserted.
+	 * @param batchSize number of profiles in a batch. If it is not positive, the default batch size {@link #BATCH_SIZE_DEFAULT} is used.
+	 * @param executor executor to insert batches in background. If it is null, batches are inserted by the caller thread.
+	 */
+	public ProfileBulkInserter(Provider provider, String unit, int batchSize, ExecutorService executor) {
+		this.provider = provider;
+		this.unit = unit;
+		this.batchSize = batchSize > 0 ? batchSize : BATCH_SIZE_DEFAULT;
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Constructor with provider and unit. Batches are inserted by the caller thread.
+	 * @param provider specified provider.
+	 * @param unit unit into which profiles are inserted.
+	 */
+	public ProfileBulkInserter(Provider provider, String unit) {
+		this(provider, unit, BATCH_SIZE_DEFAULT, null);
+	}
+
+
+	/**
+	 * Adding the specified profile. Current batch is sent to provider when it is full.
+	 * @param profile specified profile.
+	 */
+	public void add(Profile profile) {
+		if (profile == null) return;
+
+		buffer.add(profile);
+		count++;
+		if (buffer.size() >= batchSize) flush();
+	}
+
+
+	/**
+	 * Getting the number of added profiles.
+	 * @return the number of added profiles.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+
+	/**
+	 * Sending current batch to provider. If there is a batch being inserted in background, this method waits for it first so that batches are inserted in order.
+	 */
+	public void flush() {
+		if (buffer.size() == 0) return;
+
+		final List<Profile> batch = buffer;
+		buffer = Util.newList(batchSize);
+		waitPending();
+
+		if (executor == null) {
+			result &= insert(batch);
+			return;
+		}
+
+		try {
+			pending = executor.submit(new Callable<Boolean>() {
+
+				@Override
+				public Boolean call() throws Exception {
+					return insert(batch);
+				}
+			});
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			pending = null;
+			result &= insert(batch);
+		}
+	}
+
+
+	/**
+	 * Inserting the specified batch.
+	 * @param batch specified batch.
+	 * @return whether insert successfully.
+	 */
+	private boolean insert(List<Profile> batch) {
+		try {
+			return provider.insertProfiles(unit, batch);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Bulk insert into unit " + unit + " error: " + e.getMessage());
+		}
+
+		return false;
+	}
+
+
+	/**
+	 * Waiting for the batch being inserted in background.
+	 */
+	private void waitPending() {
+		if (pending == null) return;
+
+		try {
+			result &= pending.get();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			result = false;
+		}
+		pending = null;
+	}
+
+
+	/**
+	 * Sending the remaining batch and waiting for all batches inserted.
+	 * @return whether all batches were inserted successfully.
+	 */
+	public boolean finish() {
+		flush();
+		waitPending();
+		return result;
+	}
+
+
+	@Override
+	public void close() throws Exception {
+		finish();
+	}
+
+
+	/**
+	 * Getting the number of threads which insert batches into the specified provider in parallel.
+	 * If the provider is database store whose connections are not pooled, see {@link DataConfig#getDbPoolSize()}, batches are inserted one by one
+	 * because all operations of such store share one connection.
+	 * @param provider specified provider.
+	 * @param parallelism expected number of threads.
+	 * @return number of threads which insert batches into the specified provider in parallel.
+	 */
+	public static int getParallelism(Provider provider, int parallelism) {
+		parallelism = Math.max(1, parallelism);
+		DataConfig config = provider != null ? provider.getConfig() : null;
+		if (config == null || config.getDbPoolSize() > 0)
+			return parallelism;
+		
+		DataDriver ddriver = DataDriver.create(config.getStoreUri());
+		return ddriver != null && ddriver.isDbServer() ? 1 : parallelism;
+	}
+
+
+}
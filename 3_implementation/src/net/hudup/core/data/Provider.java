@@ -9,6 +9,7 @@ package net.hudup.core.data;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Map;
 
 import net.hudup.core.Cloneable;
 import net.hudup.core.alg.RecommendParam;
@@ -273,6 +274,25 @@ public interface Provider extends AutoCloseable, Cloneable, Serializable {
 	RatingVector getItemRatingVector(int itemId);
 	
 	
+	/**
+	 * Filling user rating vectors and item rating vectors by reading the rating unit once and reading contexts once, instead of querying ratings and contexts of every user or every item.
+	 * This method is used for retrieving all rating vectors in bulk, for example, when a scanner fetches all rating vectors.
+	 * @param userRatingMap map to receive user rating vectors whose keys are user identifications (user IDs). It can be null if user rating vectors are not needed.
+	 * @param itemRatingMap map to receive item rating vectors whose keys are item identifications (item IDs). It can be null if item rating vectors are not needed.
+	 * @return whether fill successfully
+	 */
+	boolean fillRatingVectors(Map<Integer, RatingVector> userRatingMap, Map<Integer, RatingVector> itemRatingMap);
+	
+	
+	/**
+	 * Fetching rating vectors of all users in user unit or all items in item unit. Identifiers of the user unit or item unit and the rating unit are read in ascending order of such identifiers,
+	 * so that every rating vector is built from the ratings streamed for it when it is fetched. The fetched element is null if the user or item has no rating.
+	 * @param userBased if true, user rating vectors are fetched. Otherwise, item rating vectors are fetched.
+	 * @return {@link Fetcher} of rating vectors in ascending order of identifiers.
+	 */
+	Fetcher<RatingVector> fetchRatingVectors(boolean userBased);
+	
+	
 	/**
 	 * Deleting all ratings of a specified item from framework database.
 	 * @param itemId specified item identification (item ID).
@@ -654,6 +674,16 @@ public interface Provider extends AutoCloseable, Cloneable, Serializable {
 	boolean insertProfile(String profileUnit, Profile profile);
 	
 	
+	/**
+	 * Inserting many profiles into specified unit at once, which is much faster than inserting profiles one by one.
+	 * This method is used to bulk-load units, for example, by importing external data or by splitting datasets. See {@link ProfileBulkInserter}.
+	 * @param profileUnit specified unit name.
+	 * @param profiles specified profiles.
+	 * @return whether insert successfully.
+	 */
+	boolean insertProfiles(String profileUnit, Collection<Profile> profiles);
+	
+	
 	/**
 	 * Updating specified profile in specified unit.
 	 * Note, {@code Profile} is one of important data structures, like record of table in database, has a list of values. Each value belongs to a particular attribute. Profile uses a attribute list to specify its data types. Every object can be modeled as profile to be stored in archive (file). 
@@ -156,6 +156,16 @@ public interface ProviderAssoc extends AutoCloseable {
 	Collection<Profile> getProfiles2(String profileUnit, Profile condition);
 	
 	
+	/**
+	 * Getting all profiles from specified unit in ascending order of the specified attributes. Such profiles are retrieved via fetcher.
+	 * Database associator orders profiles by ORDER BY clause so that they are streamed, and file associator sorts them in memory.
+	 * @param profileUnit specified unit name.
+	 * @param orderAttributes names of numeric attributes by which profiles are ordered.
+	 * @return {@link Fetcher} of profiles read from specified unit in ascending order of the specified attributes.
+	 */
+	Fetcher<Profile> getOrderedProfiles(String profileUnit, String...orderAttributes);
+	
+	
 	/**
 	 * Getting many profiles queried by specified select SQL statement with specified condition. Such profiles are retrieved via fetcher.
 	 * Note, {@code Profile} is one of important data structures, like record of table in database, has a list of values. Each value belongs to a particular attribute. Profile uses a attribute list to specify its data types. 
@@ -223,6 +233,16 @@ public interface ProviderAssoc extends AutoCloseable {
 	boolean insertProfile(String profileUnit, Profile profile);
 	
 	
+	/**
+	 * Inserting many profiles into specified unit at once, which is much faster than inserting profiles one by one.
+	 * Database associator sends profiles in JDBC batches and file associator appends profiles by one buffered writer.
+	 * @param profileUnit specified unit name.
+	 * @param profiles specified profiles.
+	 * @return whether insert successfully.
+	 */
+	boolean insertProfiles(String profileUnit, Collection<Profile> profiles);
+	
+	
 	/**
 	 * Updating specified profile in specified unit.
 	 * Note, {@code Profile} is one of important data structures, like record of table in database, has a list of values. Each value belongs to a particular attribute. Profile uses a attribute list to specify its data types. 
@@ -7,7 +7,13 @@
  */
 package net.hudup.core.data;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
 import net.hudup.core.Constants;
+import net.hudup.core.Util;
 import net.hudup.core.logistic.LogUtil;
 
 /**
@@ -43,6 +49,47 @@ public abstract class ProviderAssocAbstract implements ProviderAssoc {
 	}
 	
 
+	/**
+	 * Inserting profiles one by one. Associators which can insert many profiles faster should override this method.
+	 */
+	@Override
+	public boolean insertProfiles(String profileUnit, Collection<Profile> profiles) {
+		if (profiles == null || profiles.size() == 0)
+			return true;
+		
+		boolean result = true;
+		for (Profile profile : profiles)
+			result &= insertProfile(profileUnit, profile);
+		
+		return result;
+	}
+	
+	
+
+	/**
+	 * Getting all profiles and sorting them in memory. Associators which can read ordered profiles directly, for example, by ORDER BY clause, should override this method.
+	 */
+	@Override
+	public Fetcher<Profile> getOrderedProfiles(String profileUnit, final String...orderAttributes) {
+		List<Profile> profiles = Util.newList();
+		profiles.addAll(getProfiles2(profileUnit, null));
+		Collections.sort(profiles, new Comparator<Profile>() {
+
+			@Override
+			public int compare(Profile profile1, Profile profile2) {
+				for (String orderAttribute : orderAttributes) {
+					int result = Double.compare(profile1.getValueAsReal(orderAttribute), profile2.getValueAsReal(orderAttribute));
+					if (result != 0) return result;
+				}
+				return 0;
+			}
+			
+		});
+		
+		return new MemFetcher<Profile>(profiles);
+	}
+	
+	
 	@Override
 	protected void finalize() throws Throwable {
 		
@@ -8,8 +8,11 @@
 package net.hudup.core.data;
 
 import java.io.Serializable;
+import java.rmi.RemoteException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import net.hudup.core.Constants;
@@ -461,6 +464,7 @@ public class ProviderImpl implements Provider {
 				
 				result &= insertContext(userId, itemId, context, rating.ratedDate);
 			}
+			ctsManager.invalidateContexts(userId, itemId);
 			
 			return result;
 		}
@@ -526,6 +530,7 @@ public class ProviderImpl implements Provider {
 				
 				result &= insertContext(userId, itemId, context, rating.ratedDate);
 			}
+			ctsManager.invalidateContexts(userId, itemId);
 			
 			return result;
 		}
@@ -586,6 +591,7 @@ public class ProviderImpl implements Provider {
 	public RatingVector getUserRatingVector(int userId) {
 		
 		RatingVector user = new UserRating(userId);
+		Map<Integer, ContextList> itemContextMap = ctsManager.getContexts(Collections.singleton(userId), null).get(userId);
 		
 		Profile select = new Profile(assoc.getAttributes(getConfig().getRatingUnit()));
 		select.setValue(DataConfig.USERID_FIELD, userId);
@@ -608,7 +614,7 @@ public class ProviderImpl implements Provider {
 				
 				rating.ratedDate = profile.getValueAsTime(DataConfig.RATING_DATE_FIELD); 
 				
-				ContextList contexts = ctsManager.getContexts(userId, itemId);
+				ContextList contexts = itemContextMap != null ? itemContextMap.get(itemId) : null;
 				if (contexts != null && contexts.size() > 0)
 					rating.contexts = contexts;
 			}
@@ -733,6 +739,7 @@ public class ProviderImpl implements Provider {
 	@Override
 	public RatingVector getItemRatingVector(int itemId) {
 		RatingVector item = new ItemRating(itemId);
+		Map<Integer, Map<Integer, ContextList>> userContextMap = ctsManager.getContexts(null, Collections.singleton(itemId));
 		
 		Profile select = new Profile(assoc.getAttributes(getConfig().getRatingUnit()));
 		select.setValue(DataConfig.USERID_FIELD, itemId);
@@ -755,7 +762,8 @@ public class ProviderImpl implements Provider {
 				
 				rating.ratedDate = profile.getValueAsTime(DataConfig.RATING_DATE_FIELD); 
 				
-				ContextList contexts = ctsManager.getContexts(userId, itemId);
+				Map<Integer, ContextList> itemContextMap = userContextMap.get(userId);
+				ContextList contexts = itemContextMap != null ? itemContextMap.get(itemId) : null;
 				if (contexts != null && contexts.size() > 0)
 					rating.contexts = contexts;
 			}
@@ -780,6 +788,199 @@ public class ProviderImpl implements Provider {
 	}
 
 	
+	@Override
+	public boolean fillRatingVectors(Map<Integer, RatingVector> userRatingMap, Map<Integer, RatingVector> itemRatingMap) {
+		if (userRatingMap == null && itemRatingMap == null)
+			return false;
+		
+		Map<Integer, Map<Integer, ContextList>> contextMap = ctsManager != null ? ctsManager.getContexts() : null;
+		boolean result = true;
+		Fetcher<Profile> fetcher = assoc.getProfiles(getConfig().getRatingUnit(), null);
+		try {
+			
+			while (fetcher.next()) {
+				Profile profile = fetcher.pick();
+				if (profile == null)
+					continue;
+				
+				int userId = profile.getValueAsInt(DataConfig.USERID_FIELD);
+				int itemId = profile.getValueAsInt(DataConfig.ITEMID_FIELD);
+				double ratingValue = profile.getValueAsReal(DataConfig.RATING_FIELD);
+				if (userId < 0 || itemId < 0 || !Util.isUsed(ratingValue))
+					continue;
+				
+				long ratedDate = profile.getValueAsTime(DataConfig.RATING_DATE_FIELD);
+				Map<Integer, ContextList> itemContextMap = contextMap != null ? contextMap.get(userId) : null;
+				ContextList contexts = itemContextMap != null ? itemContextMap.get(itemId) : null;
+				
+				if (userRatingMap != null) {
+					Rating rating = new Rating(ratingValue);
+					rating.ratedDate = ratedDate;
+					if (contexts != null && contexts.size() > 0)
+						rating.contexts = contexts;
+					
+					RatingVector user = userRatingMap.get(userId);
+					if (user == null) {
+						user = new UserRating(userId);
+						userRatingMap.put(userId, user);
+					}
+					user.put(itemId, rating);
+				}
+				
+				if (itemRatingMap != null) {
+					Rating rating = new Rating(ratingValue);
+					rating.ratedDate = ratedDate;
+					if (contexts != null && contexts.size() > 0)
+						rating.contexts = userRatingMap != null ? (ContextList)contexts.clone() : contexts;
+					
+					RatingVector item = itemRatingMap.get(itemId);
+					if (item == null) {
+						item = new ItemRating(itemId);
+						itemRatingMap.put(itemId, item);
+					}
+					item.put(userId, rating);
+				}
+			}
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			result = false;
+		}
+		finally {
+			try {
+				if (fetcher != null)
+					fetcher.close();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+		}
+		
+		return result;
+	}
+
+	
+	@Override
+	public Fetcher<RatingVector> fetchRatingVectors(final boolean userBased) {
+		final String idField = userBased ? DataConfig.USERID_FIELD : DataConfig.ITEMID_FIELD;
+		final String fieldIdField = userBased ? DataConfig.ITEMID_FIELD : DataConfig.USERID_FIELD;
+		final String unit = userBased ? getConfig().getUserUnit() : getConfig().getItemUnit();
+		
+		return new MetaFetcher<Profile, RatingVector>(assoc.getOrderedProfiles(unit, idField)) {
+
+			/**
+			 * Default serial version UID.
+			 */
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * Ratings ordered by identifiers, which are opened when the first rating vector is created.
+			 */
+			private Fetcher<Profile> ratings = null;
+			
+			/**
+			 * The next rating which is not taken yet.
+			 */
+			private Profile nextRating = null;
+			
+			/**
+			 * Contexts of ratings, which are read when the first rating vector is created.
+			 */
+			private Map<Integer, Map<Integer, ContextList>> contextMap = null;
+			
+			@Override
+			public RatingVector create(Profile profile) {
+				int id = profile.getValueAsInt(idField);
+				if (id < 0) return null;
+				
+				RatingVector vRating = userBased ? new UserRating(id) : new ItemRating(id);
+				try {
+					if (ratings == null) {
+						ratings = assoc.getOrderedProfiles(getConfig().getRatingUnit(), idField, fieldIdField);
+						nextRating = takeRating();
+					}
+					if (contextMap == null)
+						contextMap = ctsManager != null ? ctsManager.getContexts() : Util.<Integer, Map<Integer, ContextList>>newMap();
+					
+					while (nextRating != null) {
+						int ratingId = nextRating.getValueAsInt(idField);
+						if (ratingId > id) break;
+						
+						int fieldId = nextRating.getValueAsInt(fieldIdField);
+						double ratingValue = nextRating.getValueAsReal(DataConfig.RATING_FIELD);
+						if (ratingId == id && fieldId >= 0 && Util.isUsed(ratingValue)) {
+							Rating rating = new Rating(ratingValue);
+							rating.ratedDate = nextRating.getValueAsTime(DataConfig.RATING_DATE_FIELD);
+							
+							Map<Integer, ContextList> itemContextMap = contextMap.get(userBased ? id : fieldId);
+							ContextList contexts = itemContextMap != null ? itemContextMap.get(userBased ? fieldId : id) : null;
+							if (contexts != null && contexts.size() > 0)
+								rating.contexts = (ContextList)contexts.clone();
+							
+							vRating.put(fieldId, rating);
+						}
+						
+						nextRating = takeRating();
+					}
+				}
+				catch (Throwable e) {
+					LogUtil.trace(e);
+				}
+				
+				return vRating.size() > 0 ? vRating : null;
+			}
+			
+			/**
+			 * Taking the next rating.
+			 * @return the next rating, or null if there is no more rating.
+			 * @throws RemoteException if any error raises.
+			 */
+			private Profile takeRating() throws RemoteException {
+				while (ratings.next()) {
+					Profile rating = ratings.pick();
+					if (rating != null) return rating;
+				}
+				
+				return null;
+			}
+			
+			/**
+			 * Closing ratings.
+			 */
+			private void closeRatings() {
+				try {
+					if (ratings != null)
+						ratings.close();
+				}
+				catch (Throwable e) {
+					LogUtil.trace(e);
+				}
+				
+				ratings = null;
+				nextRating = null;
+			}
+			
+			/**
+			 * Identifiers and ratings are read again from the beginning.
+			 */
+			@Override
+			public void reset() throws RemoteException {
+				if (fetcher != null) fetcher.close();
+				fetcher = assoc.getOrderedProfiles(unit, idField);
+				closeRatings();
+			}
+			
+			@Override
+			public void close() throws RemoteException {
+				super.close();
+				closeRatings();
+				contextMap = null;
+			}
+			
+		};
+	}
+
+	
 	@Override
 	public boolean deleteItemRating(int itemId) {
 		Profile profile = new Profile(assoc.getAttributes(getConfig().getRatingUnit()));
@@ -1223,19 +1424,43 @@ public class ProviderImpl implements Provider {
 
 	@Override
 	public boolean insertProfile(String profileUnit, Profile profile) {
-		return assoc.insertProfile(profileUnit, profile);
+		boolean result = assoc.insertProfile(profileUnit, profile);
+		invalidateContexts(profileUnit);
+		return result;
+	}
+
+	
+	@Override
+	public boolean insertProfiles(String profileUnit, Collection<Profile> profiles) {
+		boolean result = assoc.insertProfiles(profileUnit, profiles);
+		invalidateContexts(profileUnit);
+		return result;
 	}
 
 	
 	@Override
 	public boolean updateProfile(String profileUnit, Profile profile) {
-		return assoc.updateProfile(profileUnit, profile);
+		boolean result = assoc.updateProfile(profileUnit, profile);
+		invalidateContexts(profileUnit);
+		return result;
 	}
 
 	
 	@Override
 	public boolean deleteProfile(String profileUnit, Profile condition) {
-		return assoc.deleteProfile(profileUnit, condition);
+		boolean result = assoc.deleteProfile(profileUnit, condition);
+		invalidateContexts(profileUnit);
+		return result;
+	}
+
+	
+	/**
+	 * Invalidating contexts cached by context template schema manager if the specified unit is context unit.
+	 * @param unitName specified unit name.
+	 */
+	private void invalidateContexts(String unitName) {
+		if (ctsManager != null && unitName != null && unitName.equals(getConfig().getContextUnit()))
+			ctsManager.invalidateContexts();
 	}
 
 	
@@ -1253,13 +1478,17 @@ public class ProviderImpl implements Provider {
 	
 	@Override
 	public boolean deleteUnitData(String unitName) {
-		return assoc.deleteUnitData(unitName);
+		boolean result = assoc.deleteUnitData(unitName);
+		invalidateContexts(unitName);
+		return result;
 	}
 
 	
 	@Override
 	public boolean dropUnit(String unitName) {
-		return assoc.dropUnit(unitName);
+		boolean result = assoc.dropUnit(unitName);
+		invalidateContexts(unitName);
+		return result;
 	}
 
 	
@@ -0,0 +1,369 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.data;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.hudup.core.Util;
+
+/**
+ * This class records changes of ratings in order, which are applied later to a snapshot so as to produce the next version of such snapshot.
+ * The method {@link #apply(SnapshotImpl)} is copy-on-write: the specified snapshot is not modified and the produced snapshot shares all rating vectors,
+ * profiles, and other structures with the specified snapshot except rating vectors touched by the changes.
+ * Therefore, readers can keep reading the old snapshot while the next snapshot is built.
+ * This class is not thread-safe.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class RatingDelta implements Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Type of change.
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 */
+	public static enum Type {
+
+		/**
+		 * Updating a rating.
+		 */
+		update,
+
+		/**
+		 * Deleting a rating.
+		 */
+		delete,
+
+		/**
+		 * Deleting all ratings of a user.
+		 */
+		delete_user,
+
+		/**
+		 * Deleting all ratings of an item.
+		 */
+		delete_item
+
+	}
+
+
+	/**
+	 * List of changes in order.
+	 */
+	protected List<Change> changes = Util.newList();
+
+
+	/**
+	 * Default constructor.
+	 */
+	public RatingDelta() {
+
+	}
+
+
+	/**
+	 * Recording updating the rating of the specified user and item.
+	 * @param userId user identifier.
+	 * @param itemId item identifier.
+	 * @param rating specified rating.
+	 */
+	public void update(int userId, int itemId, Rating rating) {
+		if (rating == null || !rating.isRated()) return;
+		changes.add(new Change(Type.update, userId, itemId, (Rating)rating.clone()));
+	}
+
+
+	/**
+	 * Recording updating rated values of the specified rating vector, which can be user rating vector or item rating vector.
+	 * @param vRating specified rating vector.
+	 */
+	public void update(RatingVector vRating) {
+		if (vRating == null) return;
+
+		Set<Integer> fieldIds = vRating.fieldIds(true);
+		for (int fieldId : fieldIds) {
+			int userId = (vRating instanceof UserRating ? vRating.id() : fieldId);
+			int itemId = (vRating instanceof UserRating ? fieldId : vRating.id());
+			update(userId, itemId, vRating.get(fieldId));
+		}
+	}
+
+
+	/**
+	 * Recording deleting ratings of the specified rating vector, which can be user rating vector or item rating vector.
+	 * @param vRating specified rating vector.
+	 */
+	public void delete(RatingVector vRating) {
+		if (vRating == null) return;
+
+		Set<Integer> fieldIds = vRating.fieldIds();
+		for (int fieldId : fieldIds) {
+			int userId = (vRating instanceof UserRating ? vRating.id() : fieldId);
+			int itemId = (vRating instanceof UserRating ? fieldId : vRating.id());
+			changes.add(new Change(Type.delete, userId, itemId, null));
+		}
+	}
+
+
+	/**
+	 * Recording deleting all ratings of the specified user.
+	 * @param userId specified user identifier.
+	 */
+	public void deleteUser(int userId) {
+		changes.add(new Change(Type.delete_user, userId, -1, null));
+	}
+
+
+	/**
+	 * Recording deleting all ratings of the specified item.
+	 * @param itemId specified item identifier.
+	 */
+	public void deleteItem(int itemId) {
+		changes.add(new Change(Type.delete_item, -1, itemId, null));
+	}
+
+
+	/**
+	 * Appending all changes of the other delta after changes of this delta.
+	 * @param other other delta whose changes are later than changes of this delta.
+	 */
+	public void append(RatingDelta other) {
+		if (other != null) changes.addAll(other.changes);
+	}
+
+
+	/**
+	 * Testing whether there is no change.
+	 * @return whether there is no change.
+	 */
+	public boolean isEmpty() {
+		return changes.isEmpty();
+	}
+
+
+	/**
+	 * Getting the number of changes.
+	 * @return the number of changes.
+	 */
+	public int size() {
+		return changes.size();
+	}
+
+
+	/**
+	 * Getting changes in order.
+	 * @return changes in order.
+	 */
+	public List<Change> getChanges() {
+		return changes;
+	}
+
+
+	/**
+	 * Applying changes to the specified snapshot so as to produce the next snapshot. The specified snapshot is not modified.
+	 * Only rating vectors touched by changes are cloned, other rating vectors and structures are shared with the specified snapshot.
+	 * Profiles are cloned only if changes introduce new users or new items.
+	 * Because structures are shared, the produced snapshot and the specified snapshot should not be cleared while the other one is used.
+	 * @param base specified snapshot.
+	 * @return the next snapshot.
+	 */
+	public SnapshotImpl apply(SnapshotImpl base) {
+		SnapshotImpl snapshot = base instanceof SnapshotImplExt ? new SnapshotImplExt() : new SnapshotImpl();
+		snapshot.config = base.config != null ? (DataConfig)base.config.clone() : null;
+
+		snapshot.externalUserRecordMap = base.externalUserRecordMap;
+		snapshot.userRatingMap = copyMap(base.userRatingMap);
+		snapshot.userProfiles = base.userProfiles;
+
+		snapshot.externalItemRecordMap = base.externalItemRecordMap;
+		snapshot.itemRatingMap = copyMap(base.itemRatingMap);
+		snapshot.itemProfiles = base.itemProfiles;
+
+		snapshot.ctSchema = base.ctSchema;
+		snapshot.ctsProfiles = base.ctsProfiles;
+		snapshot.sampleProfiles = base.sampleProfiles;
+
+		Set<Integer> copiedUserIds = Util.newSet();
+		Set<Integer> copiedItemIds = Util.newSet();
+		Set<Integer> newUserIds = Util.newSet();
+		Set<Integer> newItemIds = Util.newSet();
+		for (Change change : changes) {
+			switch (change.type) {
+			case update:
+				if (!snapshot.userRatingMap.containsKey(change.userId)) newUserIds.add(change.userId);
+				if (!snapshot.itemRatingMap.containsKey(change.itemId)) newItemIds.add(change.itemId);
+
+				writable(snapshot.userRatingMap, change.userId, copiedUserIds, true).put(change.itemId, (Rating)change.rating.clone());
+				writable(snapshot.itemRatingMap, change.itemId, copiedItemIds, false).put(change.userId, (Rating)change.rating.clone());
+				break;
+			case delete:
+				remove(snapshot.userRatingMap, change.userId, change.itemId, copiedUserIds, true);
+				remove(snapshot.itemRatingMap, change.itemId, change.userId, copiedItemIds, false);
+				break;
+			case delete_user:
+				RatingVector user = snapshot.userRatingMap.remove(change.userId);
+				if (user == null) break;
+				for (int itemId : user.fieldIds())
+					remove(snapshot.itemRatingMap, itemId, change.userId, copiedItemIds, false);
+				break;
+			case delete_item:
+				RatingVector item = snapshot.itemRatingMap.remove(change.itemId);
+				if (item == null) break;
+				for (int userId : item.fieldIds())
+					remove(snapshot.userRatingMap, userId, change.itemId, copiedUserIds, true);
+				break;
+			}
+		}
+
+		pack(snapshot.userRatingMap, copiedUserIds);
+		pack(snapshot.itemRatingMap, copiedItemIds);
+
+		newUserIds.retainAll(snapshot.userRatingMap.keySet());
+		if (newUserIds.size() > 0 && snapshot.userProfiles != null) {
+			snapshot.userProfiles = (MemProfiles)snapshot.userProfiles.clone();
+			snapshot.userProfiles.fillUnion(newUserIds, DataConfig.USERID_FIELD);
+		}
+		newItemIds.retainAll(snapshot.itemRatingMap.keySet());
+		if (newItemIds.size() > 0 && snapshot.itemProfiles != null) {
+			snapshot.itemProfiles = (MemProfiles)snapshot.itemProfiles.clone();
+			snapshot.itemProfiles.fillUnion(newItemIds, DataConfig.ITEMID_FIELD);
+		}
+
+		return snapshot;
+	}
+
+
+	/**
+	 * Copying the specified map of rating vectors without cloning rating vectors.
+	 * @param map specified map of rating vectors.
+	 * @return copied map whose rating vectors are shared with the specified map.
+	 */
+	private static Map<Integer, RatingVector> copyMap(Map<Integer, RatingVector> map) {
+		Map<Integer, RatingVector> newMap = Util.newMap(map != null ? map.size() : 0);
+		if (map != null) newMap.putAll(map);
+		return newMap;
+	}
+
+
+	/**
+	 * Getting writable rating vector of the specified identifier. The rating vector is cloned at the first time it is written.
+	 * @param map map of rating vectors.
+	 * @param id specified identifier.
+	 * @param copiedIds identifiers of rating vectors which were cloned or created.
+	 * @param user whether the map is user rating map.
+	 * @return writable rating vector.
+	 */
+	private static RatingVector writable(Map<Integer, RatingVector> map, int id, Set<Integer> copiedIds, boolean user) {
+		RatingVector vRating = map.get(id);
+		if (vRating == null)
+			vRating = user ? new UserRating(id) : new ItemRating(id);
+		else if (!copiedIds.contains(id))
+			vRating = (RatingVector)vRating.clone();
+		else
+			return vRating;
+
+		map.put(id, vRating);
+		copiedIds.add(id);
+		return vRating;
+	}
+
+
+	/**
+	 * Removing rating at the specified field of the rating vector of the specified identifier. Empty rating vector is removed from the map.
+	 * @param map map of rating vectors.
+	 * @param id specified identifier.
+	 * @param fieldId specified field identifier.
+	 * @param copiedIds identifiers of rating vectors which were cloned or created.
+	 * @param user whether the map is user rating map.
+	 */
+	private static void remove(Map<Integer, RatingVector> map, int id, int fieldId, Set<Integer> copiedIds, boolean user) {
+		RatingVector vRating = map.get(id);
+		if (vRating == null || !vRating.contains(fieldId)) return;
+
+		vRating = writable(map, id, copiedIds, user);
+		vRating.remove(fieldId);
+		if (vRating.size() == 0) map.remove(id);
+	}
+
+
+	/**
+	 * Packing rating vectors of the specified identifiers.
+	 * @param map map of rating vectors.
+	 * @param ids specified identifiers.
+	 */
+	private static void pack(Map<Integer, RatingVector> map, Collection<Integer> ids) {
+		for (int id : ids) {
+			RatingVector vRating = map.get(id);
+			if (vRating != null) vRating.pack();
+		}
+	}
+
+
+	/**
+	 * This class represents a change of ratings.
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 */
+	public static class Change implements Serializable {
+
+		/**
+		 * Serial version UID for serializable class.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Type of change.
+		 */
+		public final Type type;
+
+		/**
+		 * User identifier, which is -1 if the change is deleting all ratings of an item.
+		 */
+		public final int userId;
+
+		/**
+		 * Item identifier, which is -1 if the change is deleting all ratings of a user.
+		 */
+		public final int itemId;
+
+		/**
+		 * Updated rating, which is null if the change is deletion.
+		 */
+		public final Rating rating;
+
+		/**
+		 * Constructor with type, user identifier, item identifier, and rating.
+		 * @param type type of change.
+		 * @param userId user identifier.
+		 * @param itemId item identifier.
+		 * @param rating updated rating.
+		 */
+		public Change(Type type, int userId, int itemId, Rating rating) {
+			this.type = type;
+			this.userId = userId;
+			this.itemId = itemId;
+			this.rating = rating;
+		}
+
+	}
+
+
+}
@@ -179,6 +179,9 @@ public class RatingVector implements Cloneable, TextParsable, Serializable {
 	 * @param rating specified rating that is put into this vector.
 	 */
 	public void put(int fieldId, Rating rating) {
+		if (rating != null && rating.getClass() != Rating.class && isPacked())
+			unpack();
+		
 		ratedMap.put(fieldId, rating);
 	}
 	
@@ -189,6 +192,11 @@ public class RatingVector implements Cloneable, TextParsable, Serializable {
 	 * @param ratingValue specified rating value.
 	 */
 	public void put(int fieldId, double ratingValue) {
+		if (isPacked()) {
+			((PackedRatingMap)ratedMap).putValue(fieldId, ratingValue);
+			return;
+		}
+		
 		Rating rating = null;
 		if (ratedMap.containsKey(fieldId)) {
 			rating = ratedMap.get(fieldId);
@@ -209,7 +217,7 @@ public class RatingVector implements Cloneable, TextParsable, Serializable {
 	public void put(RatingVector vRating) {
 		Set<Integer> fieldIds = vRating.fieldIds();
 		for (int fieldId : fieldIds) {
-			ratedMap.put(fieldId, vRating.get(fieldId));
+			put(fieldId, vRating.get(fieldId));
 		}
 		
 	}
@@ -222,6 +230,9 @@ public class RatingVector implements Cloneable, TextParsable, Serializable {
 	 * @return whether the rating associated with specified field ID is rated.
 	 */
 	public boolean isRated(int fieldId) {
+		if (isPacked())
+			return Util.isUsed(((PackedRatingMap)ratedMap).getValue(fieldId));
+		
 		if (!contains(fieldId)) 
 			return false;
 		
@@ -410,6 +421,19 @@ public class RatingVector implements Cloneable, TextParsable, Serializable {
 	 * @return module of this vector.
 	 */
 	public double module() {
+		if (isPacked()) {
+			PackedRatingMap packedMap = (PackedRatingMap)ratedMap;
+			double[] values = packedMap.getValueArray();
+			int n = packedMap.size(), count = 0;
+			double module = 0;
+			for (int i = 0; i < n; i++) {
+				if (!Util.isUsed(values[i])) continue;
+				module += values[i]*values[i];
+				count++;
+			}
+			return count == 0 ? Constants.UNUSED : Math.sqrt(module);
+		}
+		
 		Set<Integer> fieldIds = fieldIds(true);
 		if (fieldIds.size() == 0) return Constants.UNUSED;
 		
@@ -427,6 +451,19 @@ public class RatingVector implements Cloneable, TextParsable, Serializable {
 	 * @return mean value (average value) over all values of ratings.
 	 */
 	public double mean() {
+		if (isPacked()) {
+			PackedRatingMap packedMap = (PackedRatingMap)ratedMap;
+			double[] values = packedMap.getValueArray();
+			int n = packedMap.size(), count = 0;
+			double accum = 0;
+			for (int i = 0; i < n; i++) {
+				if (!Util.isUsed(values[i])) continue;
+				accum += values[i];
+				count++;
+			}
+			return count == 0 ? Constants.UNUSED : accum / (double)count;
+		}
+		
 		Set<Integer> fieldIds = fieldIds(true);
 		if (fieldIds.size() == 0) return Constants.UNUSED;
 		
@@ -644,7 +681,7 @@ public class RatingVector implements Cloneable, TextParsable, Serializable {
 			if (!ratedMap.containsKey(field))
 				continue;
 			
-			ratedMap.get(field).value = Constants.UNUSED;
+			setValue(field, Constants.UNUSED);
 		}
 	}
 	
@@ -684,7 +721,78 @@ public class RatingVector implements Cloneable, TextParsable, Serializable {
 		Set<Integer> fields = fieldIds(false);
 		
 		for (int field : fields)
-			ratedMap.get(field).value = fillValue;
+			setValue(field, fillValue);
+	}
+	
+	
+	/**
+	 * Setting value of the existing rating associated with specified field ID.
+	 * If this vector is packed, the value is set into the internal {@link PackedRatingMap}. Otherwise, the value is set into the internal rating object.
+	 * @param fieldId specified field ID. If this rating vector is user rating vector, the field ID is item ID. Otherwise, it is user ID.
+	 * @param value specified rating value.
+	 */
+	private void setValue(int fieldId, double value) {
+		if (isPacked())
+			((PackedRatingMap)ratedMap).putValue(fieldId, value);
+		else
+			ratedMap.get(fieldId).value = value;
+	}
+	
+	
+	/**
+	 * Checking whether this vector is packed, which means that the internal variable {@link #ratedMap} is {@link PackedRatingMap}.
+	 * Packed vector stores ratings in sorted arrays of field ID (s) and values instead of rating objects, which saves memory and allows merging two vectors linearly.
+	 * Note that ratings got from packed vector are new objects and so changing them does not change the vector.
+	 * @return whether this vector is packed.
+	 */
+	public boolean isPacked() {
+		return ratedMap instanceof PackedRatingMap;
+	}
+	
+	
+	/**
+	 * Packing this vector, which means that the internal variable {@link #ratedMap} is converted into {@link PackedRatingMap}.
+	 * Vector whose ratings are kept in sequence (see {@link ListMap}) or vector having special ratings such as {@link RatingMulti} is not packed.
+	 * @return whether this vector is packed.
+	 */
+	public boolean pack() {
+		if (isPacked())
+			return true;
+		if (ratedMap instanceof ListMap)
+			return false;
+		
+		Collection<Rating> ratings = ratedMap.values();
+		for (Rating rating : ratings) {
+			if (rating != null && rating.getClass() != Rating.class)
+				return false;
+		}
+		
+		PackedRatingMap packedMap = new PackedRatingMap(ratedMap);
+		packedMap.trim();
+		ratedMap = packedMap;
+		return true;
+	}
+	
+	
+	/**
+	 * Unpacking this vector, which means that the internal variable {@link #ratedMap} is converted back into normal map of rating objects.
+	 */
+	public void unpack() {
+		if (!isPacked())
+			return;
+		
+		Map<Integer, Rating> map = Util.newMap();
+		map.putAll(ratedMap);
+		ratedMap = map;
+	}
+	
+	
+	/**
+	 * Getting the internal {@link PackedRatingMap} if this vector is packed.
+	 * @return internal {@link PackedRatingMap} if this vector is packed. Otherwise, returning null.
+	 */
+	public PackedRatingMap getPackedMap() {
+		return isPacked() ? (PackedRatingMap)ratedMap : null;
 	}
 	
 	
@@ -903,6 +1011,9 @@ public class RatingVector implements Cloneable, TextParsable, Serializable {
 	 * @return cloned map of ratings.
 	 */
 	public final static Map<Integer, Rating> clone(Map<Integer, Rating> map) {
+		if (map instanceof PackedRatingMap)
+			return (PackedRatingMap) ((PackedRatingMap)map).clone();
+		
 		Map<Integer, Rating> newMap = null;
 		if (map instanceof ListMap)
 			newMap = new ListMap<Integer, Rating>();
@@ -989,6 +1100,22 @@ public class RatingVector implements Cloneable, TextParsable, Serializable {
 	}
 	
 	
+	/**
+	 * Packing all rating vectors in the specified map. Please see {@link #pack()} for more details about packed vector.
+	 * @param map specified map of rating vectors.
+	 */
+	public static void pack(Map<Integer, RatingVector> map) {
+		if (map == null)
+			return;
+		
+		Collection<RatingVector> vRatings = map.values();
+		for (RatingVector vRating : vRatings) {
+			if (vRating != null)
+				vRating.pack();
+		}
+	}
+	
+	
 	/**
 	 * Every rating specified by {@link Rating} has a context list. Context is additional information related to user's rating, for example, place that user makes a rating,
 	 * companion indicating the persons with whom user makes a rating such as alone, friends, girlfriend/boyfriend, family, co-workers.
@@ -21,6 +21,8 @@ import net.hudup.core.logistic.LogUtil;
 
 /**
  * This class is the default implementation of Scanner.
+ * Fetching all rating vectors streams the rating unit ordered by users or items by {@link Provider#fetchRatingVectors(boolean)} instead of querying ratings of every user or every item.
+ * Catching up reads the rating unit once in bulk by {@link Provider#fillRatingVectors(Map, Map)}.
  * 
  * @author Loc Nguyen
  * @version 10.0
@@ -208,34 +210,14 @@ public class ScannerImpl extends Scanner {
 	
 	@Override
 	public Fetcher<RatingVector> fetchUserRatings() {
-		Fetcher<Integer> userIds = fetchUserIds();
-		
-		return new MetaFetcher<Integer, RatingVector>(userIds) {
-
-			/**
-			 * Default serial version UID.
-			 */
-			private static final long serialVersionUID = 1L;
-
-			@Override
-			public RatingVector create(Integer u) {
-				return getUserRating(u);
-			}
-			
-		};
-		
+		return provider.fetchRatingVectors(true);
 	}
 
 	
 	@Override
 	public Collection<RatingVector> fetchUserRatings2() {
-		Collection<Integer> userIds = fetchUserIds2();
-		List<RatingVector> vRatings = Util.newList(userIds.size());
-		for (int userId : userIds) {
-			RatingVector vRating = getUserRating(userId);
-			if (vRating != null) vRatings.add(vRating);
-		}
-		
+		List<RatingVector> vRatings = Util.newList();
+		FetcherUtil.fillCollection(vRatings, fetchUserRatings(), true);
 		return vRatings;
 	}
 
@@ -248,34 +230,14 @@ public class ScannerImpl extends Scanner {
 	
 	@Override
 	public Fetcher<RatingVector> fetchItemRatings() {
-		Fetcher<Integer> itemIds = fetchItemIds();
-		
-		return new MetaFetcher<Integer, RatingVector>(itemIds) {
-
-			/**
-			 * Default serial version UID.
-			 */
-			private static final long serialVersionUID = 1L;
-
-			@Override
-			public RatingVector create(Integer u) {
-				return getItemRating(u);
-			}
-			
-		};
-
+		return provider.fetchRatingVectors(false);
 	}
 
 	
 	@Override
 	public Collection<RatingVector> fetchItemRatings2() {
-		Collection<Integer> itemIds = fetchItemIds2();
-		List<RatingVector> vRatings = Util.newList(itemIds.size());
-		for (int itemId : itemIds) {
-			RatingVector vRating = getItemRating(itemId);
-			if (vRating != null) vRatings.add(vRating);
-		}
-		
+		List<RatingVector> vRatings = Util.newList();
+		FetcherUtil.fillCollection(vRatings, fetchItemRatings(), true);
 		return vRatings;
 	}
 
@@ -399,13 +361,20 @@ public class ScannerImpl extends Scanner {
 		Fetcher<Profile> sampleFetcher = provider.getProfiles(config.getSampleUnit(), null);
 		FetcherUtil.fillCollection(sampleProfiles, sampleFetcher, true);
 		
+		//Reading ratings once for both user rating vectors and item rating vectors.
+		Map<Integer, RatingVector> userRatingMap = Util.newMap();
+		Map<Integer, RatingVector> itemRatingMap = Util.newMap();
+		provider.fillRatingVectors(userRatingMap, itemRatingMap);
+		userRatingMap.keySet().retainAll(userIds); //Keeping users and items of user unit and item unit.
+		itemRatingMap.keySet().retainAll(itemIds);
+		
 		snapshot.assign(
 				(DataConfig)config.clone(),
 				externalUserRecordMap,
-				RatingVector.transfer(fetchUserRatings(), false, true), 
+				userRatingMap, 
 				MemProfiles.create(fetchUserProfiles(), true),
 				externalItemRecordMap,
-				RatingVector.transfer(fetchItemRatings(), false, true), 
+				itemRatingMap, 
 				MemProfiles.create(fetchItemProfiles(), true),
 				(ContextTemplateSchema) provider.getCTSManager().getCTSchema().transfer(),
 				provider.getCTSManager().createCTSProfiles(),
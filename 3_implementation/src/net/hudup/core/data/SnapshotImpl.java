@@ -29,6 +29,7 @@ import net.hudup.core.data.ctx.ContextValue;
 import net.hudup.core.data.ctx.ContextValueImpl;
 import net.hudup.core.logistic.DSUtil;
 import net.hudup.core.logistic.LogUtil;
+import net.hudup.core.parser.RatingFileParser;
 
 /**
  * This class is the default implementation of {@link Snapshot}.
@@ -444,9 +445,12 @@ public class SnapshotImpl extends Snapshot {
 	
 	
 	/**
-	 * Enhancing internal structures.
+	 * Enhancing internal structures. Rating vectors are packed into compact arrays by {@link RatingVector#pack(Map)} so as to save memory.
 	 */
 	public void enhance() {
+		RatingVector.pack(userRatingMap);
+		RatingVector.pack(itemRatingMap);
+		
 		userRatingMap.keySet();
 		userRatingMap.values();
 		userRatingMap.entrySet();
@@ -935,49 +939,56 @@ public class SnapshotImpl extends Snapshot {
 		Map<Integer, RatingVector> itemRatingMap = Util.newMap();
 		CsvReader ratingReader = null;
 		try {	
-			ratingReader = assoc.getReader(config.getRatingUnit());
-			if (ratingReader != null) {
-				ratingReader.readHeader();
-				String[] header = ratingReader.getHeader();
-				AttributeList ratingAtts = new AttributeList();
-				ratingAtts.parseText(Arrays.asList(header));
-				while (ratingReader.readRecord()) {
-					String[] record  = ratingReader.getRecord(); 
-					Profile profile = Profile.create(record, ratingAtts);
-					if (profile == null)
-						continue;
+			if (RatingFileParser.parseUnit(config, config.getRatingUnit(), userRatingMap, itemRatingMap)) {
+				//Filling additional user profiles and item profiles which can be lacked.
+				userProfiles.fillUnion(userRatingMap.keySet(), DataConfig.USERID_FIELD);
+				itemProfiles.fillUnion(itemRatingMap.keySet(), DataConfig.ITEMID_FIELD);
+			}
+			else {
+				ratingReader = assoc.getReader(config.getRatingUnit());
+				if (ratingReader != null) {
+					ratingReader.readHeader();
+					String[] header = ratingReader.getHeader();
+					AttributeList ratingAtts = new AttributeList();
+					ratingAtts.parseText(Arrays.asList(header));
+					while (ratingReader.readRecord()) {
+						String[] record  = ratingReader.getRecord(); 
+						Profile profile = Profile.create(record, ratingAtts);
+						if (profile == null)
+							continue;
 					
-					int userId = profile.getValueAsInt(DataConfig.USERID_FIELD);
-					int itemId = profile.getValueAsInt(DataConfig.ITEMID_FIELD);
-					double ratingValue = profile.getValueAsReal(DataConfig.RATING_FIELD);
-					if (userId < 0 || itemId < 0 || !Util.isUsed(ratingValue))
-						continue;
+						int userId = profile.getValueAsInt(DataConfig.USERID_FIELD);
+						int itemId = profile.getValueAsInt(DataConfig.ITEMID_FIELD);
+						double ratingValue = profile.getValueAsReal(DataConfig.RATING_FIELD);
+						if (userId < 0 || itemId < 0 || !Util.isUsed(ratingValue))
+							continue;
 					
-					Rating rating = new Rating(ratingValue);
-					rating.ratedDate = profile.getValueAsTime(DataConfig.RATING_DATE_FIELD);
+						Rating rating = new Rating(ratingValue);
+						rating.ratedDate = profile.getValueAsTime(DataConfig.RATING_DATE_FIELD);
 					
-					RatingVector user = null;
-					if (userRatingMap.containsKey(userId))
-						user = userRatingMap.get(userId);
-					else {
-						user = new UserRating(userId);
-						userRatingMap.put(userId, user);
-					}
-					user.put(itemId, rating);
+						RatingVector user = null;
+						if (userRatingMap.containsKey(userId))
+							user = userRatingMap.get(userId);
+						else {
+							user = new UserRating(userId);
+							userRatingMap.put(userId, user);
+						}
+						user.put(itemId, rating);
 					
-					RatingVector item = null;
-					if (itemRatingMap.containsKey(itemId))
-						item = itemRatingMap.get(itemId);
-					else {
-						item = new ItemRating(itemId);
-						itemRatingMap.put(itemId, item);
+						RatingVector item = null;
+						if (itemRatingMap.containsKey(itemId))
+							item = itemRatingMap.get(itemId);
+						else {
+							item = new ItemRating(itemId);
+							itemRatingMap.put(itemId, item);
+						}
+						item.put(userId, rating);
 					}
-					item.put(userId, rating);
-				}
-				//Filling additional user profiles and item profiles which can be lacked.
-				userProfiles.fillUnion(userRatingMap.keySet(), DataConfig.USERID_FIELD);
-				itemProfiles.fillUnion(itemRatingMap.keySet(), DataConfig.ITEMID_FIELD);
-			}//End if
+					//Filling additional user profiles and item profiles which can be lacked.
+					userProfiles.fillUnion(userRatingMap.keySet(), DataConfig.USERID_FIELD);
+					itemProfiles.fillUnion(itemRatingMap.keySet(), DataConfig.ITEMID_FIELD);
+				}//End if
+			}
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -8,6 +8,8 @@
 package net.hudup.core.data.ctx;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
 
 import net.hudup.core.alg.Alg;
 import net.hudup.core.data.AutoCloseable;
@@ -96,6 +98,36 @@ public interface CTSManager extends Alg, Inspectable, AutoCloseable {
 	ContextList getContexts(int userId, int itemId, long ratedDate);
 
 	
+	/**
+	 * Retrieving all contexts by reading contexts once instead of retrieving contexts of every pair of user and item.
+	 * @return map of context lists, whose keys are user identifications (user IDs) and whose values are maps from item identifications (item IDs) to context lists.
+	 */
+	Map<Integer, Map<Integer, ContextList>> getContexts();
+
+	
+	/**
+	 * Retrieving contexts of the specified users and the specified items at once instead of retrieving contexts of every pair of user and item.
+	 * @param userIds specified user identifications (user IDs). If it is null, contexts of all users are retrieved.
+	 * @param itemIds specified item identifications (item IDs). If it is null, contexts of all items are retrieved.
+	 * @return map of context lists, whose keys are user identifications (user IDs) and whose values are maps from item identifications (item IDs) to context lists.
+	 */
+	Map<Integer, Map<Integer, ContextList>> getContexts(Collection<Integer> userIds, Collection<Integer> itemIds);
+
+	
+	/**
+	 * Invalidating contexts cached by this manager, which should be called when contexts are changed without this manager.
+	 */
+	void invalidateContexts();
+
+	
+	/**
+	 * Invalidating cached contexts of the specified user and the specified item, which should be called when contexts of such rating are changed without this manager.
+	 * @param userId specified user identification (user ID).
+	 * @param itemId specified item identification (item ID).
+	 */
+	void invalidateContexts(int userId, int itemId);
+
+	
 	/**
 	 * Getting {@link Profile} of each template with regard to its value {@link ContextValue}.
 	 * The specified context contains such template and such value.
@@ -9,6 +9,8 @@ package net.hudup.core.data.ctx;
 
 import java.io.Serializable;
 import java.rmi.RemoteException;
+import java.util.Collection;
+import java.util.Map;
 
 import net.hudup.core.Constants;
 import net.hudup.core.alg.AlgAbstract;
@@ -209,6 +211,30 @@ public abstract class CTSManagerAbstract extends AlgAbstract implements CTSManag
 	}
 
 
+	@Override
+	public Map<Integer, Map<Integer, ContextList>> remoteGetContexts() throws RemoteException {
+		return getContexts();
+	}
+
+
+	@Override
+	public Map<Integer, Map<Integer, ContextList>> remoteGetContexts(Collection<Integer> userIds, Collection<Integer> itemIds) throws RemoteException {
+		return getContexts(userIds, itemIds);
+	}
+
+
+	@Override
+	public void remoteInvalidateContexts() throws RemoteException {
+		invalidateContexts();
+	}
+
+
+	@Override
+	public void remoteInvalidateContexts(int userId, int itemId) throws RemoteException {
+		invalidateContexts(userId, itemId);
+	}
+
+
 	@Override
 	public Profile remoteProfileOf(Context context) throws RemoteException {
 		return profileOf(context);
@@ -9,6 +9,8 @@ package net.hudup.core.data.ctx;
 
 import java.io.Serializable;
 import java.rmi.RemoteException;
+import java.util.Collection;
+import java.util.Map;
 
 import net.hudup.core.alg.AlgRemote;
 import net.hudup.core.data.DataConfig;
@@ -56,6 +58,22 @@ public interface CTSManagerRemote extends CTSManagerRemoteTask, AlgRemote {
 	ContextList remoteGetContexts(int userId, int itemId, long ratedDate) throws RemoteException;
 
 	
+	@Override
+	Map<Integer, Map<Integer, ContextList>> remoteGetContexts() throws RemoteException;
+
+	
+	@Override
+	Map<Integer, Map<Integer, ContextList>> remoteGetContexts(Collection<Integer> userIds, Collection<Integer> itemIds) throws RemoteException;
+
+	
+	@Override
+	void remoteInvalidateContexts() throws RemoteException;
+
+	
+	@Override
+	void remoteInvalidateContexts(int userId, int itemId) throws RemoteException;
+
+	
 	@Override
 	Profile remoteProfileOf(Context context) throws RemoteException;
 
@@ -9,6 +9,8 @@ package net.hudup.core.data.ctx;
 
 import java.io.Serializable;
 import java.rmi.RemoteException;
+import java.util.Collection;
+import java.util.Map;
 
 import net.hudup.core.alg.AlgRemoteTask;
 import net.hudup.core.data.AutoCloseable;
@@ -80,6 +82,40 @@ public interface CTSManagerRemoteTask extends AlgRemoteTask, AutoCloseable {
 	ContextList remoteGetContexts(int userId, int itemId) throws RemoteException;
 
 	
+	/**
+	 * Retrieving remotely all contexts by reading contexts once instead of retrieving contexts of every pair of user and item.
+	 * @return map of context lists, whose keys are user identifications (user IDs) and whose values are maps from item identifications (item IDs) to context lists.
+	 * @throws RemoteException if any error raises.
+	 */
+	Map<Integer, Map<Integer, ContextList>> remoteGetContexts() throws RemoteException;
+
+	
+	/**
+	 * Retrieving remotely contexts of the specified users and the specified items at once instead of retrieving contexts of every pair of user and item.
+	 * @param userIds specified user identifications (user IDs). If it is null, contexts of all users are retrieved.
+	 * @param itemIds specified item identifications (item IDs). If it is null, contexts of all items are retrieved.
+	 * @return map of context lists, whose keys are user identifications (user IDs) and whose values are maps from item identifications (item IDs) to context lists.
+	 * @throws RemoteException if any error raises.
+	 */
+	Map<Integer, Map<Integer, ContextList>> remoteGetContexts(Collection<Integer> userIds, Collection<Integer> itemIds) throws RemoteException;
+
+	
+	/**
+	 * Invalidating remotely contexts cached by this manager.
+	 * @throws RemoteException if any error raises.
+	 */
+	void remoteInvalidateContexts() throws RemoteException;
+
+	
+	/**
+	 * Invalidating remotely cached contexts of the specified user and the specified item.
+	 * @param userId specified user identification (user ID).
+	 * @param itemId specified item identification (item ID).
+	 * @throws RemoteException if any error raises.
+	 */
+	void remoteInvalidateContexts(int userId, int itemId) throws RemoteException;
+
+	
 	/**
 	 * Retrieving remotely a list of contexts relevant to a specified user, a specified item, and rated date.
 	 * @param userId specified user identification (user ID).
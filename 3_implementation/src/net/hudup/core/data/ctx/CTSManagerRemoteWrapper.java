@@ -9,8 +9,11 @@ package net.hudup.core.data.ctx;
 
 import java.io.Serializable;
 import java.rmi.RemoteException;
+import java.util.Collection;
+import java.util.Map;
 
 import net.hudup.core.Constants;
+import net.hudup.core.Util;
 import net.hudup.core.alg.AlgRemoteWrapper;
 import net.hudup.core.data.DataConfig;
 import net.hudup.core.data.Dataset;
@@ -123,6 +126,42 @@ public class CTSManagerRemoteWrapper extends AlgRemoteWrapper implements CTSMana
 	}
 
 	
+	@Override
+	public Map<Integer, Map<Integer, ContextList>> getContexts() {
+		try {
+			return ((CTSManagerRemote)remoteAlg).remoteGetContexts();
+		} catch (Exception e) {LogUtil.trace(e);}
+		
+		return Util.newMap();
+	}
+
+	
+	@Override
+	public Map<Integer, Map<Integer, ContextList>> getContexts(Collection<Integer> userIds, Collection<Integer> itemIds) {
+		try {
+			return ((CTSManagerRemote)remoteAlg).remoteGetContexts(userIds, itemIds);
+		} catch (Exception e) {LogUtil.trace(e);}
+		
+		return Util.newMap();
+	}
+
+	
+	@Override
+	public void invalidateContexts() {
+		try {
+			((CTSManagerRemote)remoteAlg).remoteInvalidateContexts();
+		} catch (Exception e) {LogUtil.trace(e);}
+	}
+
+	
+	@Override
+	public void invalidateContexts(int userId, int itemId) {
+		try {
+			((CTSManagerRemote)remoteAlg).remoteInvalidateContexts(userId, itemId);
+		} catch (Exception e) {LogUtil.trace(e);}
+	}
+
+	
 	@Override
 	public Profile profileOf(Context context) {
 		try {
@@ -299,6 +338,30 @@ public class CTSManagerRemoteWrapper extends AlgRemoteWrapper implements CTSMana
 		return ((CTSManagerRemote)remoteAlg).remoteGetContexts(userId, itemId, ratedDate);
 	}
 
+
+	@Override
+	public Map<Integer, Map<Integer, ContextList>> remoteGetContexts() throws RemoteException {
+		return ((CTSManagerRemote)remoteAlg).remoteGetContexts();
+	}
+
+
+	@Override
+	public Map<Integer, Map<Integer, ContextList>> remoteGetContexts(Collection<Integer> userIds, Collection<Integer> itemIds) throws RemoteException {
+		return ((CTSManagerRemote)remoteAlg).remoteGetContexts(userIds, itemIds);
+	}
+
+
+	@Override
+	public void remoteInvalidateContexts() throws RemoteException {
+		((CTSManagerRemote)remoteAlg).remoteInvalidateContexts();
+	}
+
+
+	@Override
+	public void remoteInvalidateContexts(int userId, int itemId) throws RemoteException {
+		((CTSManagerRemote)remoteAlg).remoteInvalidateContexts(userId, itemId);
+	}
+
 	
 	@Override
 	public Profile remoteProfileOf(Context context) throws RemoteException {
@@ -9,7 +9,9 @@ package net.hudup.core.data.ctx;
 
 import java.io.Serializable;
 import java.rmi.RemoteException;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 
 import net.hudup.core.Util;
 import net.hudup.core.data.Attribute;
@@ -55,6 +57,19 @@ public class DefaultCTSManager extends CTSManagerAbstract {
 	 * Provider associator.
 	 */
 	protected ProviderAssoc assoc = null;
+	
+	
+	/**
+	 * Index of all contexts, whose keys are user identifications and whose values are maps from item identifications to context lists.
+	 * It is null if contexts are not cached yet.
+	 */
+	protected transient Map<Integer, Map<Integer, ContextList>> contextIndex = null;
+	
+	
+	/**
+	 * Keys of ratings whose cached contexts are invalidated. Each key is composed of user identification in high bits and item identification in low bits.
+	 */
+	protected Set<Long> staleContexts = Util.newSet();
 
 	
 	/**
@@ -104,6 +119,7 @@ public class DefaultCTSManager extends CTSManagerAbstract {
 	
 	@Override
 	public void reload() {
+		invalidateContexts(); // Cached contexts refer to old templates.
 		ctSchema.clear();
 		
 		DataConfig config = getConfig();
@@ -216,69 +232,203 @@ public class DefaultCTSManager extends CTSManagerAbstract {
 	
 	@Override
 	public ContextList getContexts(int userId, int itemId) {
-		ContextList contexts = new ContextList();
-		
-		AttributeList attributes = new AttributeList();
-		
-		Attribute userIdAtt = new Attribute(DataConfig.USERID_FIELD, Type.integer);
-		userIdAtt.setKey(true);
-		attributes.add(userIdAtt);
+		synchronized (this) {
+			Map<Integer, Map<Integer, ContextList>> index = getContextIndex();
+			if (index != null) {
+				Map<Integer, ContextList> itemMap = index.get(userId);
+				ContextList contexts = itemMap != null ? itemMap.get(itemId) : null;
+				return contexts != null ? copyOf(contexts) : new ContextList();
+			}
+		}
 		
-		Attribute itemIdAtt = new Attribute(DataConfig.ITEMID_FIELD, Type.integer);
-		itemIdAtt.setKey(true);
-		attributes.add(itemIdAtt);
+		Profile condition = new Profile(assoc.getAttributes(getConfig().getContextUnit()));
+		condition.setValue(DataConfig.USERID_FIELD, userId);
+		condition.setValue(DataConfig.ITEMID_FIELD, itemId);
+		return readContexts(condition, userId, itemId);
+	}
 
+	
+	@Override
+	public ContextList getContexts(int userId, int itemId, long ratedDate) {
+		if (ratedDate <= 0) return getContexts(userId, itemId);
+		
 		Profile condition = new Profile(assoc.getAttributes(getConfig().getContextUnit()));
 		condition.setValue(DataConfig.USERID_FIELD, userId);
 		condition.setValue(DataConfig.ITEMID_FIELD, itemId);
+		condition.setValue(DataConfig.RATING_DATE_FIELD, ratedDate);
+		return readContexts(condition, userId, itemId);
+	}
+
+	
+	@Override
+	public Map<Integer, Map<Integer, ContextList>> getContexts() {
+		return getContexts(null, null);
+	}
+
+	
+	@Override
+	public Map<Integer, Map<Integer, ContextList>> getContexts(Collection<Integer> userIds, Collection<Integer> itemIds) {
+		synchronized (this) {
+			Map<Integer, Map<Integer, ContextList>> index = getContextIndex();
+			if (index != null)
+				return copyContexts(index, userIds, itemIds);
+		}
 		
-		Fetcher<Profile> fetcher = assoc.getProfiles(getConfig().getContextUnit(), condition);
-		try {
-			while (fetcher.next()) {
-				Profile profile = fetcher.pick();
-				if (profile == null)
-					continue;
-				
-				int ctxTemplateId = profile.getValueAsInt(DataConfig.CTX_TEMPLATEID_FIELD);
-				if (ctxTemplateId < 0)
+		if (userIds == null && itemIds == null)
+			return readContexts(null);
+		
+		// Reading contexts of every specified user or every specified item, whichever has fewer reads.
+		boolean byUser = userIds != null && (itemIds == null || userIds.size() <= itemIds.size());
+		Collection<Integer> ids = byUser ? userIds : itemIds;
+		String idField = byUser ? DataConfig.USERID_FIELD : DataConfig.ITEMID_FIELD;
+		AttributeList attributes = assoc.getAttributes(getConfig().getContextUnit());
+		
+		Map<Integer, Map<Integer, ContextList>> contextMap = Util.newMap();
+		for (int id : ids) {
+			Profile condition = new Profile(attributes);
+			condition.setValue(idField, id);
+			Map<Integer, Map<Integer, ContextList>> idContextMap = readContexts(condition);
+			
+			for (int userId : idContextMap.keySet()) {
+				if (userIds != null && !userIds.contains(userId))
 					continue;
 				
-				Object value = profile.getValue(DataConfig.CTX_VALUE_FIELD);
-				if (value == null || !(value instanceof Serializable))
-					value = null;
-				
-				Context context = createContext(ctxTemplateId, (Serializable) value);
-				if (context != null)
-					contexts.add(context);
+				Map<Integer, ContextList> itemMap = contextMap.get(userId);
+				for (Map.Entry<Integer, ContextList> entry : idContextMap.get(userId).entrySet()) {
+					if (itemIds != null && !itemIds.contains(entry.getKey()))
+						continue;
+					
+					if (itemMap == null) {
+						itemMap = Util.newMap();
+						contextMap.put(userId, itemMap);
+					}
+					itemMap.put(entry.getKey(), entry.getValue());
+				}
 			}
 		}
-		catch (Throwable e) {
-			LogUtil.trace(e);
+		
+		return contextMap;
+	}
+
+	
+	/**
+	 * Getting index of all contexts, which is read once and then kept in memory if contexts are cached.
+	 * Contexts of invalidated ratings are read again when the index is retrieved.
+	 * This method must be called in synchronized block of this manager.
+	 * @return index of all contexts, or null if contexts are not cached.
+	 */
+	private Map<Integer, Map<Integer, ContextList>> getContextIndex() {
+		if (assoc == null || !getConfig().isContextCache())
+			return null;
+		
+		if (contextIndex == null) {
+			contextIndex = readContexts(null);
+			staleContexts.clear();
+			return contextIndex;
 		}
-		finally {
-			try {
-				if (fetcher != null)
-					fetcher.close();
+		if (staleContexts.size() == 0)
+			return contextIndex;
+		
+		AttributeList attributes = assoc.getAttributes(getConfig().getContextUnit());
+		for (long key : staleContexts) {
+			int userId = (int)(key >>> 32);
+			int itemId = (int)key;
+			
+			Profile condition = new Profile(attributes);
+			condition.setValue(DataConfig.USERID_FIELD, userId);
+			condition.setValue(DataConfig.ITEMID_FIELD, itemId);
+			ContextList contexts = readContexts(condition, userId, itemId);
+			
+			Map<Integer, ContextList> itemMap = contextIndex.get(userId);
+			if (contexts.size() > 0) {
+				if (itemMap == null) {
+					itemMap = Util.newMap();
+					contextIndex.put(userId, itemMap);
+				}
+				itemMap.put(itemId, contexts);
 			}
-			catch (Throwable e) {
-				LogUtil.trace(e);
+			else if (itemMap != null) {
+				itemMap.remove(itemId);
+				if (itemMap.size() == 0) contextIndex.remove(userId);
 			}
 		}
+		staleContexts.clear();
 		
-		return contexts;
+		return contextIndex;
 	}
-
 	
-	@Override
-	public ContextList getContexts(int userId, int itemId, long ratedDate) {
-		if (ratedDate <= 0) return getContexts(userId, itemId);
+	
+	/**
+	 * Copying contexts of the specified users and the specified items from the specified index.
+	 * @param index specified index of contexts.
+	 * @param userIds specified user identifications. If it is null, contexts of all users are copied.
+	 * @param itemIds specified item identifications. If it is null, contexts of all items are copied.
+	 * @return copied map of context lists.
+	 */
+	private static Map<Integer, Map<Integer, ContextList>> copyContexts(Map<Integer, Map<Integer, ContextList>> index, Collection<Integer> userIds, Collection<Integer> itemIds) {
+		Map<Integer, Map<Integer, ContextList>> contextMap = Util.newMap();
+		Collection<Integer> users = userIds != null ? userIds : index.keySet();
+		for (int userId : users) {
+			Map<Integer, ContextList> indexItemMap = index.get(userId);
+			if (indexItemMap == null)
+				continue;
+			
+			Map<Integer, ContextList> itemMap = Util.newMap();
+			if (itemIds == null) {
+				for (Map.Entry<Integer, ContextList> entry : indexItemMap.entrySet())
+					itemMap.put(entry.getKey(), copyOf(entry.getValue()));
+			}
+			else {
+				for (int itemId : itemIds) {
+					ContextList contexts = indexItemMap.get(itemId);
+					if (contexts != null)
+						itemMap.put(itemId, copyOf(contexts));
+				}
+			}
+			
+			if (itemMap.size() > 0)
+				contextMap.put(userId, itemMap);
+		}
 		
-		ContextList contexts = new ContextList();
+		return contextMap;
+	}
+	
+	
+	/**
+	 * Copying the specified context list so that cached lists are not changed by callers. Contexts themselves are shared.
+	 * @param contexts specified context list.
+	 * @return copied context list.
+	 */
+	private static ContextList copyOf(ContextList contexts) {
+		ContextList copy = new ContextList();
+		for (int i = 0; i < contexts.size(); i++)
+			copy.add(contexts.get(i));
 		
-		Profile condition = new Profile(assoc.getAttributes(getConfig().getContextUnit()));
-		condition.setValue(DataConfig.USERID_FIELD, userId);
-		condition.setValue(DataConfig.ITEMID_FIELD, itemId);
-		condition.setValue(DataConfig.RATING_DATE_FIELD, ratedDate);
+		return copy;
+	}
+	
+	
+	/**
+	 * Reading contexts of the specified user and the specified item which satisfy the specified condition.
+	 * @param condition specified condition.
+	 * @param userId specified user identification.
+	 * @param itemId specified item identification.
+	 * @return list of contexts.
+	 */
+	private ContextList readContexts(Profile condition, int userId, int itemId) {
+		Map<Integer, ContextList> itemMap = readContexts(condition).get(userId);
+		ContextList contexts = itemMap != null ? itemMap.get(itemId) : null;
+		return contexts != null ? contexts : new ContextList();
+	}
+	
+	
+	/**
+	 * Reading contexts which satisfy the specified condition from context unit.
+	 * @param condition specified condition. If it is null, all contexts are read.
+	 * @return map of context lists, whose keys are user identifications (user IDs) and whose values are maps from item identifications (item IDs) to context lists.
+	 */
+	private Map<Integer, Map<Integer, ContextList>> readContexts(Profile condition) {
+		Map<Integer, Map<Integer, ContextList>> contextMap = Util.newMap();
 		
 		Fetcher<Profile> fetcher = assoc.getProfiles(getConfig().getContextUnit(), condition);
 		try {
@@ -287,8 +437,10 @@ public class DefaultCTSManager extends CTSManagerAbstract {
 				if (profile == null)
 					continue;
 				
+				int userId = profile.getValueAsInt(DataConfig.USERID_FIELD);
+				int itemId = profile.getValueAsInt(DataConfig.ITEMID_FIELD);
 				int ctxTemplateId = profile.getValueAsInt(DataConfig.CTX_TEMPLATEID_FIELD);
-				if (ctxTemplateId < 0)
+				if (userId < 0 || itemId < 0 || ctxTemplateId < 0)
 					continue;
 				
 				Object value = profile.getValue(DataConfig.CTX_VALUE_FIELD);
@@ -296,8 +448,20 @@ public class DefaultCTSManager extends CTSManagerAbstract {
 					value = null;
 				
 				Context context = createContext(ctxTemplateId, (Serializable) value);
-				if (context != null)
-					contexts.add(context);
+				if (context == null)
+					continue;
+				
+				Map<Integer, ContextList> itemMap = contextMap.get(userId);
+				if (itemMap == null) {
+					itemMap = Util.newMap();
+					contextMap.put(userId, itemMap);
+				}
+				ContextList contexts = itemMap.get(itemId);
+				if (contexts == null) {
+					contexts = new ContextList();
+					itemMap.put(itemId, contexts);
+				}
+				contexts.add(context);
 			}
 		}
 		catch (Throwable e) {
@@ -313,7 +477,21 @@ public class DefaultCTSManager extends CTSManagerAbstract {
 			}
 		}
 		
-		return contexts;
+		return contextMap;
+	}
+
+	
+	@Override
+	public synchronized void invalidateContexts() {
+		contextIndex = null;
+		staleContexts.clear();
+	}
+
+	
+	@Override
+	public synchronized void invalidateContexts(int userId, int itemId) {
+		if (contextIndex != null)
+			staleContexts.add(((long)userId << 32) | (itemId & 0xFFFFFFFFL));
 	}
 
 	
@@ -398,6 +576,8 @@ public class DefaultCTSManager extends CTSManagerAbstract {
 	
 	@Override
 	public boolean commitCTSchema() {
+		invalidateContexts(); // Cached contexts refer to old templates.
+		
 		final String templateUnit = getConfig().getContextTemplateUnit();
 		if (templateUnit == null)
 			return false;
@@ -633,6 +813,7 @@ public class DefaultCTSManager extends CTSManagerAbstract {
 			} catch (Throwable e) {LogUtil.trace(e);}
 		}
 		assoc = null;
+		invalidateContexts();
 		
 		if (ctSchema != null)
 			ctSchema.clear();
@@ -0,0 +1,222 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.evaluate;
+
+import java.util.List;
+import java.util.Map;
+
+import net.hudup.core.Util;
+import net.hudup.core.evaluate.EvaluateEvent.Type;
+
+/**
+ * This class coalesces evaluation events fired for every testing profile into compact summary events.
+ * Doing events ({@link Type#doing}) are merged into one summary event whose metrics are the union of metrics of merged events.
+ * Progress events ({@link EvaluateProgressEvent}) are coalesced so that only the latest progress event of every pair of algorithm and dataset is kept.
+ * The batch is full when the time window since its first pending event elapses or when the number of pending events reaches the batch size.
+ * Evaluator flushes the batch when it is full and before firing other events such as done-one event and done event,
+ * so that listeners always receive final events of every dataset after summary events.
+ * This class is not thread-safe and so evaluator accesses it under its own lock.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class EvaluateEventBatch {
+
+
+	/**
+	 * Time window in milliseconds. If it is not positive, time window is not used.
+	 */
+	protected long period = 0;
+
+
+	/**
+	 * Maximum number of pending events. If it is not greater than 1, the number of pending events is not used.
+	 */
+	protected int size = 1;
+
+
+	/**
+	 * Evaluator which fires summary events.
+	 */
+	protected Evaluator evaluator = null;
+
+
+	/**
+	 * Merged metrics of pending doing events, in which metric wrappers of a newer event replace the ones of older events.
+	 */
+	protected Metrics metrics = null;
+
+
+	/**
+	 * Latest pending progress events of pairs of algorithm and dataset.
+	 */
+	protected List<EvaluateProgressEvent> progressEvts = Util.newList();
+
+
+	/**
+	 * Positions of latest pending progress events, keyed by algorithm name and dataset identifier.
+	 */
+	protected Map<String, Integer> progressIndices = Util.newMap();
+
+
+	/**
+	 * Number of pending events.
+	 */
+	protected int count = 0;
+
+
+	/**
+	 * Time in milliseconds of the first pending event.
+	 */
+	protected long firstTime = 0;
+
+
+	/**
+	 * Constructor with evaluator, time window, and batch size.
+	 * @param evaluator evaluator which fires summary events.
+	 * @param period time window in milliseconds. If it is not positive, time window is not used.
+	 * @param size maximum number of pending events. If it is not greater than 1, the number of pending events is not used.
+	 */
+	public EvaluateEventBatch(Evaluator evaluator, long period, int size) {
+		this.evaluator = evaluator;
+		this.period = period;
+		this.size = size;
+	}
+
+
+	/**
+	 * Creating event batch from configuration of the specified evaluator.
+	 * @param evaluator specified evaluator.
+	 * @param config configuration of the specified evaluator.
+	 * @return event batch, or null if events are not batched according to the configuration.
+	 */
+	public static EvaluateEventBatch create(Evaluator evaluator, EvaluatorConfig config) {
+		if (config == null) return null;
+
+		long period = config.getEventBatchPeriod();
+		int size = config.getEventBatchSize();
+		if (period <= 0 && size <= 1)
+			return null;
+		else
+			return new EvaluateEventBatch(evaluator, period, size);
+	}
+
+
+	/**
+	 * Testing whether the specified evaluation event can be coalesced.
+	 * @param evt specified evaluation event.
+	 * @return whether the specified evaluation event can be coalesced, which is true for doing event.
+	 */
+	public static boolean isCoalescable(EvaluateEvent evt) {
+		return evt != null && evt.getType() == Type.doing;
+	}
+
+
+	/**
+	 * Adding the specified doing event to this batch.
+	 * @param evt specified doing event.
+	 * @return true if this batch is full after adding and so it should be flushed.
+	 */
+	public boolean add(EvaluateEvent evt) {
+		Metrics evtMetrics = evt.getMetrics();
+		if (evtMetrics != null) {
+			if (metrics == null) metrics = new Metrics();
+			metrics.put(evtMetrics);
+
+			metrics.datasetUriMap.putAll(evtMetrics.datasetUriMap);
+			for (String algName : evtMetrics.algDatasetDescMap.keySet()) {
+				Map<Integer, String> descMap = metrics.algDatasetDescMap.get(algName);
+				if (descMap == null) {
+					descMap = Util.newMap();
+					metrics.algDatasetDescMap.put(algName, descMap);
+				}
+				descMap.putAll(evtMetrics.algDatasetDescMap.get(algName));
+			}
+		}
+
+		return pending();
+	}
+
+
+	/**
+	 * Adding the specified progress event to this batch.
+	 * @param evt specified progress event.
+	 * @return true if this batch is full after adding and so it should be flushed.
+	 */
+	public boolean add(EvaluateProgressEvent evt) {
+		String key = evt.getAlgName() + "#" + evt.getDatasetId();
+		Integer index = progressIndices.get(key);
+		if (index != null)
+			progressEvts.set(index, evt);
+		else {
+			progressIndices.put(key, progressEvts.size());
+			progressEvts.add(evt);
+		}
+
+		return pending();
+	}
+
+
+	/**
+	 * Counting one more pending event.
+	 * @return true if this batch is full.
+	 */
+	private boolean pending() {
+		long now = System.currentTimeMillis();
+		if (count == 0) firstTime = now;
+		count++;
+
+		return (size > 1 && count >= size) || (period > 0 && now - firstTime >= period);
+	}
+
+
+	/**
+	 * Testing whether this batch is empty.
+	 * @return whether this batch is empty.
+	 */
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+
+	/**
+	 * Taking the summary doing event of pending doing events.
+	 * @return summary doing event of pending doing events, or null if there is no pending doing event.
+	 */
+	public EvaluateEvent takeEvent() {
+		if (metrics == null) return null;
+
+		EvaluateEvent evt = new EvaluateEvent(evaluator, Type.doing, metrics);
+		metrics = null;
+		return evt;
+	}
+
+
+	/**
+	 * Taking latest pending progress events.
+	 * @return latest pending progress events in the order of their pairs of algorithm and dataset.
+	 */
+	public List<EvaluateProgressEvent> takeProgressEvents() {
+		List<EvaluateProgressEvent> evts = progressEvts;
+		progressEvts = Util.newList();
+		progressIndices.clear();
+		return evts;
+	}
+
+
+	/**
+	 * Resetting the counter of pending events. This method is called after all pending events are taken.
+	 */
+	public void reset() {
+		count = 0;
+		firstTime = 0;
+	}
+
+
+}
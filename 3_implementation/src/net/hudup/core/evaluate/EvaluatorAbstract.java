@@ -16,6 +16,9 @@ import java.util.EventListener;
 import java.util.EventObject;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.JOptionPane;
 
@@ -52,6 +55,7 @@ import net.hudup.core.data.DatasetPool;
 import net.hudup.core.data.DatasetPoolExchanged;
 import net.hudup.core.data.DatasetPoolExchangedItem;
 import net.hudup.core.data.DatasetPoolsService;
+import net.hudup.core.data.DatasetRemote;
 import net.hudup.core.data.DatasetRemoteWrapper;
 import net.hudup.core.data.DatasetUtil;
 import net.hudup.core.data.Fetcher;
@@ -266,6 +270,19 @@ public abstract class EvaluatorAbstract extends AbstractRunner implements Evalua
     protected Service referredService = null;
     
     
+    /**
+     * Algorithms which are being set up. There are many such algorithms when algorithms are evaluated concurrently.
+     * This list is guarded by {@link #otherResult}.
+     */
+    protected final List<Alg> inSetupAlgs = Util.newList();
+
+	
+	/**
+	 * Batch to coalesce evaluation events fired for every testing profile. It is null if evaluation events are not coalesced.
+	 */
+	protected transient EvaluateEventBatch evEventBatch = null;
+    
+    
     /**
      * Timer to purging.
      */
@@ -355,6 +372,7 @@ public abstract class EvaluatorAbstract extends AbstractRunner implements Evalua
 			this.otherResult.algNames.add(alg.getName());
 		}
 		this.otherResult.algName = this.otherResult.algNames.get(0);
+		this.evEventBatch = EvaluateEventBatch.create(this, config);
 		
 		if (!start()) {
 			clear();
@@ -410,158 +428,7 @@ public abstract class EvaluatorAbstract extends AbstractRunner implements Evalua
 		
 		result = new Metrics();
 		
-		Thread current = Thread.currentThread();
-		for (int i = 0; current == thread && evAlgList != null && i < evAlgList.size(); i++) {
-			evAlg = evAlgList.get(i);
-			otherResult.algName = evAlg.getName();
-			
-			for (int j = 0; current == thread && evPool != null && j < evPool.size(); j++) {
-				
-				Fetcher<Profile> testingFetcher = null;
-				try {
-					DatasetPair dsPair = evPool.get(j);
-					Dataset     training = dsPair.getTraining();
-					Dataset     testing = dsPair.getTesting();
-					int         datasetId = j + 1;
-					xURI        datasetUri = testing.getConfig() != null ? testing.getConfig().getUriId() : null;
-					
-					otherResult.datasetId = datasetId;
-					DatasetUtil.setDatasetId(training, datasetId);
-					DatasetUtil.setDatasetId(testing, datasetId);
-					
-					// Adding default metrics to metric result. Pay attention to cloning metrics list.
-					result.add( evAlg.getName(), datasetId, datasetUri, ((NoneWrapperMetricList)evMetricList.clone()).sort().list() );
-					
-					otherResult.inAlgSetup = true;
-					if (evAlg instanceof AlgRemote) {
-						((AlgRemote)evAlg).addSetupListener(this);
-						SetupAlgEvent setupEvt = new SetupAlgEvent(evAlg, SetupAlgEvent.Type.doing, evAlg.getName(), datasetId, "fired");
-						otherResult.statuses = extractSetupInfo(setupEvt);
-						fireSetupAlgEvent(setupEvt);
-					}
-					
-					long beginSetupTime = System.currentTimeMillis();
-					// 
-					setupAlg(evAlg, training);
-					//
-					long endSetupTime = System.currentTimeMillis();
-					long setupElapsed = endSetupTime - beginSetupTime;
-					Metrics setupMetrics = result.recalc(
-							evAlg, 
-							datasetId, 
-							SetupTimeMetric.class, 
-							new Object[] { setupElapsed / 1000.0f }
-						); // calculating setup time metric
-					fireEvaluateEvent(new EvaluateEvent(this, Type.doing, setupMetrics)); // firing setup time metric
-					
-					if (evAlg instanceof AlgRemote) {
-						SetupAlgEvent setupEvt = new SetupAlgEvent(evAlg, SetupAlgEvent.Type.done, evAlg.getName(), datasetId, "fired");
-						otherResult.statuses = extractSetupInfo(setupEvt);
-						fireSetupAlgEvent(setupEvt);
-						((AlgRemote)evAlg).removeSetupListener(this);
-					}
-					otherResult.inAlgSetup = false;
-					
-					//Auto enhancement after setting up algorithm.
-					SystemUtil.enhanceAuto();
-
-					testingFetcher = fetchTesting(testing);
-					otherResult.vCurrentTotal = testingFetcher.getMetadata().getSize();
-					otherResult.vCurrentCount = 0;
-					int vExecutedCount = 0;
-					while (current == thread && testingFetcher.next()) {
-						otherResult.progressStep++;
-						otherResult.vCurrentCount++;
-						EvaluateProgressEvent progressEvt = new EvaluateProgressEvent(this, otherResult.progressTotal, otherResult.progressStep);
-						progressEvt.setAlgName(evAlg.getName());
-						progressEvt.setDatasetId(datasetId);
-						progressEvt.setCurrentCount(otherResult.vCurrentCount);
-						progressEvt.setCurrentTotal(otherResult.vCurrentTotal);
-						progressEvt.setElapsedTime(otherResult.elapsedTime);
-						otherResult.statuses = extractEvaluateProgressInfo(progressEvt);
-						fireEvaluateProgressEvent(progressEvt);
-						
-						Profile testingProfile = testingFetcher.pick();
-						if (testingProfile == null)
-							continue;
-						
-						Profile param = prepareExecuteAlg(evAlg, testingProfile);
-						//
-						long beginRecommendTime = System.currentTimeMillis();
-						Serializable executedResult = executeAlg(evAlg, param);
-						long endRecommendTime = System.currentTimeMillis();
-						//
-						long recommendElapsed = endRecommendTime - beginRecommendTime;
-						Metrics speedMetrics = result.recalc(
-								evAlg, 
-								datasetId, 
-								SpeedMetric.class, 
-								new Object[] { recommendElapsed / 1000.0f }
-							); // calculating time speed metric
-						fireEvaluateEvent(new EvaluateEvent(
-								this, 
-								Type.doing, 
-								speedMetrics)); // firing time speed metric
-						
-						if (executedResult != null) { // successful recommendation
-							Metrics executedMetrics = result.recalc(
-									evAlg, 
-									datasetId,
-									new Object[] { executedResult, extractTestValue(evAlg, testingProfile) }
-								); // calculating execution metric
-							
-							vExecutedCount++;
-							
-							fireEvaluateEvent(new EvaluateEvent(
-									this, 
-									Type.doing, 
-									executedMetrics, 
-									executedResult, 
-									extractTestValue(evAlg, testingProfile))); // firing execution metric
-						}
-						
-						
-						synchronized (this) {
-							while (paused) {
-								notifyAll();
-								wait();
-							}
-						}
-						
-					} // User id iterate
-					
-					Metrics hudupRecallMetrics = result.recalc(
-							evAlg, 
-							datasetId, 
-							HudupRecallMetric.class, 
-							new Object[] { new FractionMetricValue(vExecutedCount, otherResult.vCurrentTotal) }
-						);
-					fireEvaluateEvent(new EvaluateEvent(this, Type.doing, hudupRecallMetrics));
-					
-					Metrics doneOneMetrics = result.gets(evAlg.getName(), datasetId);
-					fireEvaluateEvent(new EvaluateEvent(this, Type.done_one, doneOneMetrics));
-					
-				} // end try
-				catch (Throwable e) {
-					LogUtil.trace(e);
-				}
-				finally {
-					try {
-						if (testingFetcher != null)
-							testingFetcher.close();
-						testingFetcher = null;
-					} catch (Throwable e) {LogUtil.trace(e);}
-					
-					try {
-						unsetupAlgSupportDelay(evAlg);
-					} catch (Throwable e) {LogUtil.trace(e);}
-				}
-				
-				SystemUtil.enhanceAuto();
-
-			} // dataset iterate
-			
-		} // algorithm iterate
+		runCells(Thread.currentThread());
 		
 		otherResult.endDate = System.currentTimeMillis();
 		
@@ -580,6 +447,370 @@ public abstract class EvaluatorAbstract extends AbstractRunner implements Evalua
 	}
 	
 	
+	/**
+	 * Evaluating all algorithms on all datasets of the dataset pool. A cell is a pair of an algorithm and a dataset pair, which is evaluated by the method {@link #evaluateCell(Alg, int, Thread)}.
+	 * If evaluator pool size ({@link EvaluatorConfig#getPoolSize()}) is greater than 1, algorithms are evaluated concurrently by a bounded thread pool.
+	 * Datasets of the same algorithm are always evaluated in order because an algorithm is set up with only one training dataset at a time.
+	 * Testing profiles of a cell are executed one by one, because methods of an algorithm are often synchronized and so concurrent executions would not run faster and their elapsed time would include waiting time.
+	 * @param current current thread which runs the evaluation. Evaluation stops when the runner thread is changed.
+	 */
+	protected void runCells(final Thread current) {
+		List<Alg> algList = Util.newList();
+		if (evAlgList != null) algList.addAll(evAlgList);
+		int poolSize = config.getPoolSize();
+		if (poolSize <= 1 || algList.size() == 0) {
+			for (int i = 0; current == thread && i < algList.size(); i++)
+				runCells(algList.get(i), current);
+			return;
+		}
+		
+		//Dataset identifiers are assigned in advance because dataset pairs are shared by algorithms evaluated concurrently.
+		for (int j = 0; evPool != null && j < evPool.size(); j++) {
+			DatasetUtil.setDatasetId(evPool.get(j).getTraining(), j + 1);
+			DatasetUtil.setDatasetId(evPool.get(j).getTesting(), j + 1);
+		}
+		
+		ExecutorService lanes = Executors.newFixedThreadPool(Math.min(poolSize, algList.size()));
+		try {
+			List<Callable<Object>> tasks = Util.newList(algList.size());
+			for (final Alg alg : algList) {
+				tasks.add(Executors.callable(new Runnable() {
+					
+					@Override
+					public void run() {
+						runCells(alg, current);
+					}
+					
+				}));
+			}
+			
+			lanes.invokeAll(tasks);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		finally {
+			lanes.shutdownNow();
+		}
+	}
+	
+	
+	/**
+	 * Evaluating the specified algorithm on all datasets of the dataset pool in order.
+	 * @param alg specified algorithm.
+	 * @param current current thread which runs the evaluation.
+	 */
+	private void runCells(Alg alg, Thread current) {
+		for (int j = 0; current == thread && evPool != null && j < evPool.size(); j++) {
+			try {
+				evaluateCell(alg, j, current);
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+			
+			SystemUtil.enhanceAuto();
+		}
+	}
+	
+	
+	/**
+	 * Evaluating the specified algorithm on the dataset pair at the specified index of the dataset pool.
+	 * This method can be called concurrently for different algorithms and so it must not change shared states except the resulted metrics which are thread-safe.
+	 * Evaluation information is updated by the methods {@link #beginSetupAlg(Alg, int)}, {@link #endSetupAlg(Alg)}, and {@link #updateSetupInfo(SetupAlgEvent)}.
+	 * @param alg specified algorithm.
+	 * @param datasetIndex index of dataset pair in the dataset pool. Dataset identifier is this index plus 1.
+	 * @param current current thread which runs the evaluation.
+	 */
+	protected void evaluateCell(final Alg alg, int datasetIndex, Thread current) {
+		Fetcher<Profile> testingFetcher = null;
+		try {
+			DatasetPair dsPair = evPool.get(datasetIndex);
+			Dataset     training = dsPair.getTraining();
+			Dataset     testing = dsPair.getTesting();
+			final int   datasetId = datasetIndex + 1;
+			xURI        datasetUri = testing.getConfig() != null ? testing.getConfig().getUriId() : null;
+			
+			DatasetUtil.setDatasetId(training, datasetId);
+			DatasetUtil.setDatasetId(testing, datasetId);
+			
+			// Adding default metrics to metric result. Pay attention to cloning metrics list.
+			result.add( alg.getName(), datasetId, datasetUri, ((NoneWrapperMetricList)evMetricList.clone()).sort().list() );
+			
+			beginSetupAlg(alg, datasetId);
+			if (alg instanceof AlgRemote) {
+				((AlgRemote)alg).addSetupListener(this);
+				SetupAlgEvent setupEvt = new SetupAlgEvent(alg, SetupAlgEvent.Type.doing, alg.getName(), datasetId, "fired");
+				updateSetupInfo(setupEvt);
+				fireSetupAlgEvent(setupEvt);
+			}
+			
+			long beginSetupTime = System.nanoTime();
+			// 
+			setupAlg(alg, training);
+			//
+			long endSetupTime = System.nanoTime();
+			long setupElapsed = endSetupTime - beginSetupTime;
+			Metrics setupMetrics = result.recalc(
+					alg, 
+					datasetId, 
+					SetupTimeMetric.class, 
+					new Object[] { setupElapsed / 1000000000.0 }
+				); // calculating setup time metric
+			fireEvaluateEvent(new EvaluateEvent(this, Type.doing, setupMetrics)); // firing setup time metric
+			
+			if (alg instanceof AlgRemote) {
+				SetupAlgEvent setupEvt = new SetupAlgEvent(alg, SetupAlgEvent.Type.done, alg.getName(), datasetId, "fired");
+				updateSetupInfo(setupEvt);
+				fireSetupAlgEvent(setupEvt);
+				((AlgRemote)alg).removeSetupListener(this);
+			}
+			endSetupAlg(alg);
+			
+			//Auto enhancement after setting up algorithm.
+			SystemUtil.enhanceAuto();
+
+			testingFetcher = fetchTesting(testing);
+			int vCurrentTotal = testingFetcher.getMetadata().getSize();
+			int vCurrentCount = 0;
+			int vExecutedCount = 0;
+			while (current == thread && testingFetcher.next()) {
+				fireProgress(alg.getName(), datasetId, ++vCurrentCount, vCurrentTotal);
+				
+				Profile testingProfile = testingFetcher.pick();
+				if (testingProfile == null) continue;
+				
+				Profile param = prepareExecuteAlg(alg, testingProfile);
+				//
+				long beginRecommendTime = System.nanoTime();
+				Serializable executedResult = executeAlg(alg, param);
+				long endRecommendTime = System.nanoTime();
+				//
+				
+				long recommendElapsed = endRecommendTime - beginRecommendTime;
+				Metrics speedMetrics = result.recalc(
+						alg, 
+						datasetId, 
+						SpeedMetric.class,
+						true,
+						new Object[] { recommendElapsed / 1000000000.0 }
+					); // calculating time speed metric and latency metrics
+				fireEvaluateEvent(new EvaluateEvent(this, Type.doing, speedMetrics)); // firing time speed metric
+				
+				if (executedResult != null) { // successful recommendation
+					Metrics executedMetrics = result.recalc(
+							alg, 
+							datasetId,
+							new Object[] { executedResult, extractTestValue(alg, testingProfile) }
+						); // calculating execution metric
+					
+					vExecutedCount++;
+					
+					fireEvaluateEvent(new EvaluateEvent(
+							this, 
+							Type.doing, 
+							executedMetrics, 
+							executedResult, 
+							extractTestValue(alg, testingProfile))); // firing execution metric
+				}
+				
+				waitIfPaused();
+			}
+			
+			Metrics hudupRecallMetrics = result.recalc(
+					alg, 
+					datasetId, 
+					HudupRecallMetric.class, 
+					new Object[] { new FractionMetricValue(vExecutedCount, vCurrentTotal) }
+				);
+			fireEvaluateEvent(new EvaluateEvent(this, Type.doing, hudupRecallMetrics));
+			
+			Metrics doneOneMetrics = result.gets(alg.getName(), datasetId);
+			fireEvaluateEvent(new EvaluateEvent(this, Type.done_one, doneOneMetrics));
+			
+		} // end try
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		finally {
+			endSetupAlg(alg);
+			
+			try {
+				if (testingFetcher != null)
+					testingFetcher.close();
+				testingFetcher = null;
+			} catch (Throwable e) {LogUtil.trace(e);}
+			
+			try {
+				unsetupAlgSupportDelay(alg);
+			} catch (Throwable e) {LogUtil.trace(e);}
+		}
+	}
+	
+	
+	/**
+	 * Marking that the specified algorithm begins to be set up with the dataset having the specified identifier.
+	 * @param alg specified algorithm.
+	 * @param datasetId dataset identifier.
+	 */
+	protected void beginSetupAlg(Alg alg, int datasetId) {
+		synchronized (otherResult) {
+			if (!inSetupAlgs.contains(alg)) inSetupAlgs.add(alg);
+			evAlg = alg;
+			otherResult.algName = alg.getName();
+			otherResult.datasetId = datasetId;
+			otherResult.inAlgSetup = true;
+		}
+	}
+	
+	
+	/**
+	 * Marking that the specified algorithm finishes being set up. Calling this method many times is harmless.
+	 * @param alg specified algorithm.
+	 */
+	protected void endSetupAlg(Alg alg) {
+		synchronized (otherResult) {
+			inSetupAlgs.remove(alg);
+			otherResult.inAlgSetup = inSetupAlgs.size() > 0;
+		}
+	}
+	
+	
+	/**
+	 * Updating evaluation information with the specified setup event.
+	 * @param evt specified setup event.
+	 */
+	protected void updateSetupInfo(SetupAlgEvent evt) {
+		synchronized (otherResult) {
+			otherResult.statuses = extractSetupInfo(evt);
+		}
+	}
+	
+	
+	/**
+	 * Getting remote algorithms which are being set up.
+	 * @return remote algorithms which are being set up.
+	 */
+	private List<AlgRemote> getInSetupAlgs() {
+		List<AlgRemote> algs = Util.newList();
+		synchronized (otherResult) {
+			for (Alg alg : inSetupAlgs) {
+				if (alg instanceof AlgRemote) algs.add((AlgRemote)alg);
+			}
+		}
+		
+		return algs;
+	}
+	
+	
+	/**
+	 * Creating testing dataset whose configuration takes minimum rating and maximum rating of the specified algorithm.
+	 * The configuration of the specified testing dataset is not changed because this dataset is shared by algorithms which can be evaluated concurrently.
+	 * Other methods of the returned dataset are delegated to the specified testing dataset.
+	 * @param alg specified algorithm.
+	 * @param testing specified testing dataset.
+	 * @return testing dataset whose configuration takes minimum rating and maximum rating of the specified algorithm.
+	 */
+	protected static Dataset adjustTesting(Alg alg, Dataset testing) {
+		DataConfig testingConfig = testing.getConfig();
+		if (testingConfig == null || !(testing instanceof DatasetRemote)) return testing;
+		
+		double testingMinRating = testingConfig.getMinRating();
+		double testingMaxRating = testingConfig.getMaxRating();
+		double algMinRating = alg.getConfig().getMinRating();
+		double algMaxRating = alg.getConfig().getMaxRating();
+		boolean adjustMin = Util.isUsed(algMinRating) && testingMinRating != algMinRating;
+		boolean adjustMax = Util.isUsed(algMaxRating) && testingMaxRating != algMaxRating;
+		if (!adjustMin && !adjustMax) return testing;
+		
+		DataConfig config = (DataConfig)testingConfig.clone();
+		if (adjustMin) config.put(DataConfig.MIN_RATING_FIELD, algMinRating);
+		if (adjustMax) config.put(DataConfig.MAX_RATING_FIELD, algMaxRating);
+		return new AdjustedTesting((DatasetRemote)testing, config);
+	}
+	
+	
+	/**
+	 * This class represents testing dataset having its own configuration.
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 */
+	private static class AdjustedTesting extends DatasetRemoteWrapper {
+
+		/**
+		 * Serial version UID for serializable class.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Own configuration.
+		 */
+		protected DataConfig config = null;
+		
+		/**
+		 * Constructor with specified testing dataset and configuration.
+		 * @param testing specified testing dataset.
+		 * @param config own configuration.
+		 */
+		public AdjustedTesting(DatasetRemote testing, DataConfig config) {
+			super(testing, false);
+			this.config = config;
+		}
+
+		@Override
+		public DataConfig getConfig() {
+			return config;
+		}
+
+		@Override
+		public void setConfig(DataConfig config) {
+			this.config = config;
+		}
+		
+	}
+	
+	
+	/**
+	 * Updating progress information and firing evaluation progress event.
+	 * @param algName algorithm name.
+	 * @param datasetId dataset identifier.
+	 * @param vCurrentCount the number of fetched profiles of current dataset.
+	 * @param vCurrentTotal the total number of profiles of current dataset.
+	 */
+	protected void fireProgress(String algName, int datasetId, int vCurrentCount, int vCurrentTotal) {
+		EvaluateProgressEvent progressEvt = null;
+		synchronized (otherResult) {
+			otherResult.progressStep++;
+			otherResult.vCurrentCount = vCurrentCount;
+			otherResult.vCurrentTotal = vCurrentTotal;
+			progressEvt = new EvaluateProgressEvent(this, otherResult.progressTotal, otherResult.progressStep);
+			progressEvt.setAlgName(algName);
+			progressEvt.setDatasetId(datasetId);
+			progressEvt.setCurrentCount(vCurrentCount);
+			progressEvt.setCurrentTotal(vCurrentTotal);
+			progressEvt.setElapsedTime(otherResult.elapsedTime);
+			otherResult.statuses = extractEvaluateProgressInfo(progressEvt);
+		}
+		
+		fireEvaluateProgressEvent(progressEvt);
+	}
+	
+	
+	/**
+	 * Waiting while this evaluator is paused.
+	 * @throws InterruptedException if waiting is interrupted.
+	 */
+	protected void waitIfPaused() throws InterruptedException {
+		if (paused) flushEvents(); //Listeners receive pending events while this evaluator is paused.
+		synchronized (this) {
+			while (paused) {
+				notifyAll();
+				wait();
+			}
+		}
+	}
+	
+	
 	/**
 	 * Setting up specified algorithm based on training dataset and additional parameters.
 	 * This method is always called by another method and so it is not synchronozed.
@@ -702,7 +933,7 @@ public abstract class EvaluatorAbstract extends AbstractRunner implements Evalua
 	@Override
 	public void receivedSetup(SetupAlgEvent evt) throws RemoteException {
 		fireSetupAlgEvent(evt.transferForRemote());
-		otherResult.statuses = extractSetupInfo(evt);
+		updateSetupInfo(evt);
 	}
 	
 	
@@ -1624,6 +1855,57 @@ public abstract class EvaluatorAbstract extends AbstractRunner implements Evalua
      * @param evt event from this evaluator.
      */
     protected void fireEvaluateEvent(EvaluateEvent evt) {
+    	if (evt.getType() == Type.doing && evt.getMetrics() != null)
+    		evt.setMetrics(evt.getMetrics().summarizeLatencies()); //Latency histograms are only sent in done-one event and done event.
+    	
+    	synchronized (otherResult) {
+    		if (evEventBatch != null) {
+    			if (EvaluateEventBatch.isCoalescable(evt)) {
+    				if (evEventBatch.add(evt)) flushEvents0();
+    				return;
+    			}
+    			
+    			flushEvents0(); //Pending events are fired before other events such as done-one event and done event.
+    		}
+    		
+    		fireEvaluateEvent0(evt);
+    	}
+    }
+    
+    
+    /**
+     * Firing all pending events coalesced by the event batch.
+     */
+    protected void flushEvents() {
+    	synchronized (otherResult) {
+    		flushEvents0();
+    	}
+    }
+    
+    
+    /**
+     * Actually firing all pending events coalesced by the event batch. The caller must hold the lock of evaluation information.
+     */
+    private void flushEvents0() {
+    	EvaluateEventBatch batch = evEventBatch;
+    	if (batch == null || batch.isEmpty()) return;
+    	
+    	for (EvaluateProgressEvent progressEvt : batch.takeProgressEvents()) {
+    		fireEvaluateProgressEvent0(progressEvt);
+    	}
+    	
+    	EvaluateEvent evt = batch.takeEvent();
+    	if (evt != null) fireEvaluateEvent0(evt);
+    	
+    	batch.reset();
+    }
+    
+    
+    /**
+     * Actually firing an evaluation event from this evaluator to all evaluation listeners.
+     * @param evt event from this evaluator.
+     */
+    private void fireEvaluateEvent0(EvaluateEvent evt) {
 		evTaskQueue.addTask(evt);
     	
 		EvaluateListener[] listeners = getEvaluateListeners();
@@ -1733,6 +2015,24 @@ public abstract class EvaluatorAbstract extends AbstractRunner implements Evalua
      * @param evt the specified for evaluation progress.
      */
     protected void fireEvaluateProgressEvent(EvaluateProgressEvent evt) {
+    	if (evEventBatch != null) {
+	    	synchronized (otherResult) {
+	    		if (evEventBatch != null) {
+	    			if (evEventBatch.add(evt)) flushEvents0();
+	    			return;
+	    		}
+	    	}
+    	}
+    	
+    	fireEvaluateProgressEvent0(evt);
+    }
+    
+    
+    /**
+     * Actually firing evaluation progress event.
+     * @param evt the specified for evaluation progress.
+     */
+    private void fireEvaluateProgressEvent0(EvaluateProgressEvent evt) {
 		evTaskQueue.addTask(evt);
 
     	EvaluateProgressListener[] listeners = getEvaluateProgressListeners();
@@ -2222,13 +2522,15 @@ public abstract class EvaluatorAbstract extends AbstractRunner implements Evalua
 
 	@Override
 	public synchronized boolean remotePause() throws RemoteException {
-		if (otherResult.inAlgSetup && evAlg != null && evAlg instanceof AlgRemote) {
-			if (!((AlgRemote)evAlg).learnPause()) {
-				if (!pause()) return false;
-			}
-			else
-				paused = true;
+		//All algorithms being set up are paused because there are many such algorithms when algorithms are evaluated concurrently.
+		List<AlgRemote> setupAlgs = getInSetupAlgs();
+		boolean learnPaused = setupAlgs.size() > 0;
+		for (AlgRemote alg : setupAlgs) {
+			if (!alg.learnPause()) learnPaused = false;
 		}
+		
+		if (learnPaused)
+			paused = true;
 		else {
 			if (!pause()) return false;
 		}
@@ -2246,12 +2548,15 @@ public abstract class EvaluatorAbstract extends AbstractRunner implements Evalua
 	
 	@Override
 	public synchronized boolean remoteResume() throws RemoteException {
-		if (otherResult.inAlgSetup && evAlg != null && evAlg instanceof AlgRemote) {
-			if (!((AlgRemote)evAlg).learnResume()) {
-				if (!resume()) return false;
-			}
-			else
-				paused = false;
+		List<AlgRemote> setupAlgs = getInSetupAlgs();
+		boolean learnResumed = setupAlgs.size() > 0;
+		for (AlgRemote alg : setupAlgs) {
+			if (!alg.learnResume()) learnResumed = false;
+		}
+		
+		if (learnResumed) {
+			paused = false;
+			notifyAll(); //Other algorithms evaluated concurrently may wait for resuming.
 		}
 		else {
 			if (!resume()) return false;
@@ -2270,8 +2575,8 @@ public abstract class EvaluatorAbstract extends AbstractRunner implements Evalua
 	
 	@Override
 	public synchronized boolean remoteStop() throws RemoteException {
-		if (otherResult.inAlgSetup && evAlg != null && evAlg instanceof AlgRemote) {
-			((AlgRemote)evAlg).learnStop();
+		for (AlgRemote alg : getInSetupAlgs()) {
+			alg.learnStop();
 		}
 		
 		if (!stop()) return false;
@@ -134,6 +134,43 @@ public class EvaluatorConfig extends SysConfig {
 	public final static boolean EVALUATOR_DUPLICATE_ALGORITHM_DEFAULT = false;
 
 	
+	/**
+	 * Field of evaluator pool size, which is the maximum number of threads to evaluate algorithms.
+	 * If it is greater than 1, algorithms are evaluated concurrently. Testing profiles of every pair of algorithm and dataset are still executed one by one because methods of an algorithm are often synchronized.
+	 */
+	public final static String EVALUATOR_POOL_SIZE_FIELD = "evaluator_pool_size";
+
+	
+	/**
+	 * By default, evaluator pool size is 1, which means that algorithms are evaluated sequentially.
+	 */
+	public final static int EVALUATOR_POOL_SIZE_DEFAULT = 1;
+
+	
+	/**
+	 * Field of time window in milliseconds to coalesce evaluation events fired for every testing profile into summary events.
+	 */
+	public final static String EVALUATOR_EVENT_BATCH_PERIOD_FIELD = "evaluator_event_batch_period";
+
+	
+	/**
+	 * By default, time window to coalesce evaluation events is 0, which means that time window is not used.
+	 */
+	public final static long EVALUATOR_EVENT_BATCH_PERIOD_DEFAULT = 0;
+
+	
+	/**
+	 * Field of maximum number of evaluation events coalesced into summary events.
+	 */
+	public final static String EVALUATOR_EVENT_BATCH_SIZE_FIELD = "evaluator_event_batch_size";
+
+	
+	/**
+	 * By default, maximum number of coalesced evaluation events is 1, which means that every evaluation event is fired without coalescing if time window is not used.
+	 */
+	public final static int EVALUATOR_EVENT_BATCH_SIZE_DEFAULT = 1;
+
+	
 	/**
 	 * Default constructor.
 	 */
@@ -163,6 +200,9 @@ public class EvaluatorConfig extends SysConfig {
 		setTiedSync(EVALUATOR_TIED_SYNC_DEFAULT);
 		setPullModeRequired(Constants.PULL_MODE_ADVICE);
 		setDuplicateAlgorithm(EVALUATOR_DUPLICATE_ALGORITHM_DEFAULT);
+		setPoolSize(EVALUATOR_POOL_SIZE_DEFAULT);
+		setEventBatchPeriod(EVALUATOR_EVENT_BATCH_PERIOD_DEFAULT);
+		setEventBatchSize(EVALUATOR_EVENT_BATCH_SIZE_DEFAULT);
 		
 		addReadOnly(EVALUATOR_REPRODUCED_VERSION_FIELD);
 	}
@@ -365,4 +405,67 @@ public class EvaluatorConfig extends SysConfig {
 	public void setDuplicateAlgorithm(boolean duplicated) {
 		put(EVALUATOR_DUPLICATE_ALGORITHM_FIELD, duplicated);
 	}
+
+
+	/**
+	 * Getting evaluator pool size, which is the maximum number of threads to evaluate algorithms.
+	 * @return evaluator pool size. It is 1 if algorithms are evaluated sequentially.
+	 */
+	public int getPoolSize() {
+		if (!containsKey(EVALUATOR_POOL_SIZE_FIELD))
+			return EVALUATOR_POOL_SIZE_DEFAULT;
+		else
+			return Math.max(1, getAsInt(EVALUATOR_POOL_SIZE_FIELD));
+	}
+	
+	
+	/**
+	 * Setting evaluator pool size, which is the maximum number of threads to evaluate algorithms.
+	 * @param poolSize evaluator pool size. If it is 1, algorithms are evaluated sequentially.
+	 */
+	public void setPoolSize(int poolSize) {
+		put(EVALUATOR_POOL_SIZE_FIELD, poolSize);
+	}
+
+
+	/**
+	 * Getting time window in milliseconds to coalesce evaluation events.
+	 * @return time window in milliseconds to coalesce evaluation events. It is not positive if time window is not used.
+	 */
+	public long getEventBatchPeriod() {
+		if (!containsKey(EVALUATOR_EVENT_BATCH_PERIOD_FIELD))
+			return EVALUATOR_EVENT_BATCH_PERIOD_DEFAULT;
+		else
+			return getAsLong(EVALUATOR_EVENT_BATCH_PERIOD_FIELD);
+	}
+	
+	
+	/**
+	 * Setting time window in milliseconds to coalesce evaluation events.
+	 * @param period time window in milliseconds. If it is not positive, time window is not used.
+	 */
+	public void setEventBatchPeriod(long period) {
+		put(EVALUATOR_EVENT_BATCH_PERIOD_FIELD, period);
+	}
+
+
+	/**
+	 * Getting maximum number of evaluation events coalesced into summary events.
+	 * @return maximum number of coalesced evaluation events. It is 1 if the number of events is not used.
+	 */
+	public int getEventBatchSize() {
+		if (!containsKey(EVALUATOR_EVENT_BATCH_SIZE_FIELD))
+			return EVALUATOR_EVENT_BATCH_SIZE_DEFAULT;
+		else
+			return Math.max(1, getAsInt(EVALUATOR_EVENT_BATCH_SIZE_FIELD));
+	}
+	
+	
+	/**
+	 * Setting maximum number of evaluation events coalesced into summary events.
+	 * @param size maximum number of coalesced evaluation events. If it is 1, the number of events is not used.
+	 */
+	public void setEventBatchSize(int size) {
+		put(EVALUATOR_EVENT_BATCH_SIZE_FIELD, size);
+	}
 }
@@ -0,0 +1,96 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.evaluate;
+
+import java.rmi.RemoteException;
+
+import net.hudup.core.logistic.LatencyHistogram;
+
+/**
+ * This abstract class represents a tail latency metric which is a kind of {@link SpeedMetric}.
+ * Instead of averaging execution times like {@link SpeedMetric}, it records every execution time into a latency histogram
+ * and its accumulative value is the execution time at a percentile given by {@link #getPercentile()}.
+ * Its input parameter is the same to the input parameter of {@link SpeedMetric}, which is execution time in seconds, measured by {@link System#nanoTime()}.
+ * Its current value is the execution time of the last execution.
+ * Latency metrics of the same algorithm and dataset share one histogram which is recorded once by {@link Metrics} and passed as the second input parameter.
+ * 
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public abstract class LatencyMetric extends SpeedMetric {
+
+	
+	/**
+	 * Serial version UID for serializable class. 
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Default constructor.
+	 */
+	public LatencyMetric() {
+
+	}
+
+	
+	/**
+	 * Getting percentile whose execution time is the value of this metric.
+	 * @return percentile from 0 to 100. The percentile 100 refers to maximum execution time.
+	 */
+	public abstract double getPercentile();
+	
+	
+	/**
+	 * Re-calculating this metric with execution time in seconds. If the second parameter is a latency histogram, this histogram is shared
+	 * and it was recorded with the execution time already. Otherwise, the execution time is recorded into the histogram of this metric.
+	 */
+	@Override
+	public boolean recalc(Object... params) throws RemoteException {
+		if (params == null || params.length < 1 || params.length > 2 || !(params[0] instanceof Number))
+			return false;
+		
+		double time = ((Number)params[0]).doubleValue();
+		if (params.length == 2 && params[1] instanceof LatencyHistogram) {
+			LatencyHistogram histogram = (LatencyHistogram)params[1];
+			if (!(accumValue instanceof LatencyMetricValue) || ((LatencyMetricValue)accumValue).getHistogram() != histogram)
+				accumValue = new LatencyMetricValue(getPercentile(), histogram);
+		}
+		else {
+			if (accumValue == null || !(accumValue instanceof LatencyMetricValue))
+				accumValue = new LatencyMetricValue(getPercentile());
+			((LatencyMetricValue)accumValue).record(Math.round(time * 1000000000.0));
+		}
+		
+		currentValue = new RealMeanMetricValue(time);
+		return true;
+	}
+
+	
+	/**
+	 * Creating summarized metric whose accumulative value keeps only latency without histogram.
+	 * @return summarized metric.
+	 */
+	public LatencyMetric summarize() {
+		LatencyMetric metric = (LatencyMetric)newInstance();
+		if (metric == null) return this;
+		
+		metric.currentValue = currentValue;
+		metric.accumValue = accumValue instanceof LatencyMetricValue ? ((LatencyMetricValue)accumValue).summarize() : accumValue;
+		return metric;
+	}
+
+	
+	@Override
+	public String getTypeName() throws RemoteException {
+		return "Time";
+	}
+
+
+}
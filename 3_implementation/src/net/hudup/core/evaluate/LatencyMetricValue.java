@@ -0,0 +1,173 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.evaluate;
+
+import java.rmi.RemoteException;
+
+import net.hudup.core.logistic.LatencyHistogram;
+import net.hudup.core.logistic.MathUtil;
+
+/**
+ * This class represents a latency histogram as a {@link MetricValue}.
+ * Its value is the latency in seconds at a percentile of the histogram, for example, the 99th percentile.
+ * Accumulating another latency metric value merges its histogram into the histogram of this value.
+ * Latency metric values of the same algorithm and dataset can share one histogram because they record the same latencies.
+ * A summarized latency metric value keeps only its value without histogram, which is used to send in evaluation events fired for every testing profile.
+ * 
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class LatencyMetricValue implements MetricValue {
+
+	
+	/**
+	 * Serial version UID for serializable class. 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	
+	/**
+	 * Percentile from 0 to 100 whose latency is the value of this metric value. The percentile 100 refers to maximum latency.
+	 */
+	protected double percentile = 50;
+	
+	
+	/**
+	 * Histogram of latencies. It is null if this metric value is summarized.
+	 */
+	protected LatencyHistogram histogram = new LatencyHistogram();
+	
+	
+	/**
+	 * Latency in seconds at the percentile when this metric value is summarized.
+	 */
+	protected double summary = 0;
+	
+	
+	/**
+	 * The number of recorded latencies when this metric value is summarized.
+	 */
+	protected long summaryCount = 0;
+	
+	
+	/**
+	 * Constructor with percentile.
+	 * @param percentile percentile from 0 to 100 whose latency is the value of this metric value.
+	 */
+	public LatencyMetricValue(double percentile) {
+		this.percentile = percentile;
+	}
+	
+	
+	/**
+	 * Constructor with percentile and histogram. The histogram is shared and so it is not copied.
+	 * @param percentile percentile from 0 to 100 whose latency is the value of this metric value.
+	 * @param histogram shared histogram of latencies.
+	 */
+	public LatencyMetricValue(double percentile, LatencyHistogram histogram) {
+		this.percentile = percentile;
+		this.histogram = histogram;
+	}
+	
+	
+	/**
+	 * Recording the specified latency.
+	 * @param nanos specified latency in nanoseconds.
+	 */
+	public void record(long nanos) {
+		if (histogram != null) histogram.record(nanos);
+	}
+	
+	
+	/**
+	 * Getting histogram of latencies.
+	 * @return histogram of latencies, which is null if this metric value is summarized.
+	 */
+	public LatencyHistogram getHistogram() {
+		return histogram;
+	}
+	
+	
+	/**
+	 * Getting percentile whose latency is the value of this metric value.
+	 * @return percentile from 0 to 100.
+	 */
+	public double getPercentile() {
+		return percentile;
+	}
+	
+	
+	/**
+	 * Creating summarized metric value which keeps only the value of this metric value without histogram.
+	 * @return summarized metric value.
+	 */
+	public LatencyMetricValue summarize() {
+		LatencyMetricValue value = new LatencyMetricValue(percentile, null);
+		value.summary = (Double)value();
+		value.summaryCount = histogram != null ? histogram.getCount() : summaryCount;
+		return value;
+	}
+	
+	
+	@Override
+	public Object value() {
+		if (histogram != null)
+			return histogram.getValueAtPercentile(percentile) / 1000000000.0;
+		else
+			return summary;
+	}
+
+	
+	@Override
+	public boolean isUsed() {
+		return histogram != null ? histogram.getCount() > 0 : summaryCount > 0;
+	}
+
+	
+	/**
+	 * Accumulating the specified metric value. Summarized metric values are not accumulated because they have no histogram.
+	 */
+	@Override
+	public void accum(MetricValue metricValue) throws RemoteException {
+		if (metricValue == null || !metricValue.isUsed() || !(metricValue instanceof LatencyMetricValue))
+			return;
+		
+		LatencyHistogram other = ((LatencyMetricValue)metricValue).histogram;
+		if (histogram != null && other != null && histogram != other)
+			histogram.add(other);
+	}
+
+	
+	@Override
+	public void reset() {
+		if (histogram != null) histogram.reset();
+		summary = 0;
+		summaryCount = 0;
+	}
+
+	
+	@Override
+	public Object clone() {
+		LatencyMetricValue value = new LatencyMetricValue(percentile, histogram != null ? new LatencyHistogram(histogram) : null);
+		value.summary = summary;
+		value.summaryCount = summaryCount;
+		return value;
+	}
+
+	
+	@Override
+	public String toString() {
+		if (!isUsed())
+			return "";
+		else
+			return MathUtil.format((Double)value());
+	}
+
+	
+}
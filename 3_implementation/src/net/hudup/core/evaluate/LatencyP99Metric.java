@@ -0,0 +1,54 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.evaluate;
+
+import java.rmi.RemoteException;
+
+/**
+ * This class represents the 99th percentile of execution time as a {@link LatencyMetric}.
+ * 
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class LatencyP99Metric extends LatencyMetric {
+
+	
+	/**
+	 * Serial version UID for serializable class. 
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Default constructor.
+	 */
+	public LatencyP99Metric() {
+
+	}
+
+	
+	@Override
+	public double getPercentile() {
+		return 99;
+	}
+
+	
+	@Override
+	public String getName() {
+		return "Latency p99";
+	}
+
+	
+	@Override
+	public String getDescription() throws RemoteException {
+		return "99th percentile of execution time (in seconds)";
+	}
+
+
+}
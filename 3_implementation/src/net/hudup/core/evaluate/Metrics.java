@@ -20,6 +20,7 @@ import net.hudup.core.alg.Alg;
 import net.hudup.core.alg.AlgDesc2;
 import net.hudup.core.alg.AlgDesc2.FunctionType;
 import net.hudup.core.alg.AlgRemote;
+import net.hudup.core.logistic.LatencyHistogram;
 import net.hudup.core.logistic.LogUtil;
 import net.hudup.core.logistic.xURI;
 
@@ -27,6 +28,8 @@ import net.hudup.core.logistic.xURI;
  * This {@code Metrics} class manages a list of {@code Metric} (s). It uses @{@code metric wrapper} represented by {@link MetricWrapper} for sophisticated management tasks.
  * The most important method of {@code Metrics} is {@link #recalc(String, int, Class, Object[])} method which is responsible for re-calculating all metrics in metric wrappers of this {@code Metrics}.
  * {@code Evaluator} often calls {@link #recalc(String, int, Class, Object[])} method to re-calculate all metrics after each iteration of algorithm execution.
+ * Methods to add, re-calculate, and get metrics of an algorithm on a dataset are synchronized so that many algorithms can be evaluated concurrently.
+ * Metric wrappers are indexed by algorithm name and dataset identifier so that re-calculating metrics of an algorithm on a dataset only touches its own metric wrappers.
  * 
  * @author Loc Nguyen
  * @version 10.0
@@ -63,6 +66,12 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 	protected Map<String, Map<Integer, String>> algDatasetDescMap = Util.newMap();
 
 	
+	/**
+	 * Index of metric wrappers by algorithm name and dataset identifier. It is built lazily from metric wrapper list and it is discarded whenever metric wrappers are removed.
+	 */
+	private transient Map<String, Map<Integer, MetricCell>> cellIndex = null;
+	
+	
 	/**
 	 * Default constructor.
 	 */
@@ -79,6 +88,36 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 		for (MetricWrapper metricWrapper : metricWrapperList) {
 			metricWrapper.reset();
 		}
+		
+		cellIndex = null; //Shared latency histograms are discarded.
+	}
+	
+	
+	/**
+	 * Creating a copy of this {@link Metrics} in which latency metrics keep only their values without latency histograms.
+	 * Other metric wrappers are not copied. This copy is sent in evaluation events fired for every testing profile because latency histograms are large.
+	 * @return copy of this {@link Metrics} in which latency metrics keep only their values.
+	 */
+	public synchronized Metrics summarizeLatencies() {
+		Metrics result = new Metrics();
+		for (MetricWrapper wrapper : metricWrapperList) {
+			Metric metric = wrapper.getMetric();
+			if (metric instanceof LatencyMetric) {
+				try {
+					MetricWrapper summarized = MetricWrapper.create(((LatencyMetric)metric).summarize(), wrapper.getAlgName(), wrapper.getDatasetId(), wrapper.getDatasetUri());
+					if (summarized != null) wrapper = summarized;
+				}
+				catch (Throwable e) {
+					LogUtil.trace(e);
+				}
+			}
+			
+			result.metricWrapperList.add(wrapper);
+		}
+		
+		result.datasetUriMap.putAll(this.datasetUriMap);
+		result.algDatasetDescMap.putAll(this.algDatasetDescMap);
+		return result;
 	}
 	
 	
@@ -96,33 +135,46 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 			int datasetId, 
 			Class<? extends Metric> metricClass, 
 			Object[] params) {
+		return recalc(algName, datasetId, metricClass, false, params);
+	}
+	
+	
+	/**
+	 * Re-calculating all metrics in metric wrappers of this {@link Metrics}, which is the same to the method {@link #recalc(String, int, Class, Object[])}
+	 * except that metric wrappers whose metric classes inherit the specified class can also be calculated.
+	 * @param algName only metric wrappers (of this {@link Metrics}) having the same algorithm specified by this input parameter are calculated.
+	 * @param datasetId only metric wrappers (of this {@link Metrics}) having the same dataset identifier specified by this input parameter are calculated.
+	 * @param metricClass if {@code not null}, only metric wrappers (of this {@link Metrics}) having the same class specified by the input parameter {@code metricClass} are calculated.
+	 * @param inherited if true, metric wrappers whose metric classes inherit the class specified by the input parameter {@code metricClass} are also calculated.
+	 * @param params input parameters of method {@link MetricWrapper#recalc(Object...)} for re-calculating metrics.
+	 * @return current computed {@link Metrics}.
+	 */
+	public synchronized Metrics recalc(
+			String algName, 
+			int datasetId, 
+			Class<? extends Metric> metricClass,
+			boolean inherited,
+			Object[] params) {
 		
 		Metrics result = new Metrics();
+		MetricCell cell = getCell(algName, datasetId);
+		if (cell == null) return result;
 		
-		List<MetricWrapper> metaWrapperList = Util.newList();
-		List<MetricWrapper> wrapperList = Util.newList();
-		for (MetricWrapper wrapper : this.metricWrapperList) {
-			if (wrapper.getMetric() == null)
-				continue;
-			
+		boolean[] calculated = new boolean[cell.normals.size()];
+		Object[] latencyParams = null;
+		for (int index : cell.getNormalIndices(metricClass, inherited)) {
+			MetricWrapper wrapper = cell.normals.get(index);
 			try {
-				if  (  
-						( wrapper.getAlgName().equals(algName) ) &&
-						( metricClass ==  null ? true : wrapper.getMetric().getClass().equals(metricClass) ) &&
-						( wrapper.getDatasetId() == datasetId )
-					) 
-				{
-					Metric metric = wrapper.getMetric();
-					
-					if (metric instanceof MetaMetric) {
-						metaWrapperList.add(wrapper); // Meta metrics are calculated later based on normal metrics 
-					}
-					else {
-						if (wrapper.recalc(params)) {
-							result.add(wrapper);
-							wrapperList.add(wrapper); // normal metric list
-						}
-					}
+				Object[] wrapperParams = params;
+				if (wrapper.getMetric() instanceof LatencyMetric) {
+					//Latency metrics share one histogram which is recorded only once.
+					if (latencyParams == null) latencyParams = cell.recordLatency(params);
+					wrapperParams = latencyParams;
+				}
+				
+				if (wrapper.recalc(wrapperParams)) {
+					result.append(wrapper);
+					calculated[index] = true;
 				}
 			}
 			catch (Throwable e) {
@@ -132,31 +184,27 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 		
 		
 		// Calculating meta metric
-		for (MetricWrapper metaWrapper : metaWrapperList) { // for each meta metric
-			MetaMetric metaMetric = (MetaMetric) metaWrapper.getMetric();
-			
-			boolean requireCalc = true;
-			Metric[] meta = metaMetric.getMeta();
-			for (Metric m : meta) { // for each normal metric of meta metric
-				
-				boolean found = false;
-				for (MetricWrapper wrapper : wrapperList) { // checking whether normal metric exists
-					if (wrapper.getName().equals(m.getName())) { // if (wrapper == m) 
-						found = true;
+		int[] metaIndices = cell.getMetaIndices(metricClass, inherited);
+		if (metaIndices.length == 0) return result;
+		
+		int[][] dependencies = cell.getDependencies();
+		for (int metaIndex : metaIndices) { // for each meta metric
+			MetricWrapper metaWrapper = cell.metas.get(metaIndex);
+			int[] dependency = dependencies[metaIndex];
+			boolean requireCalc = dependency != null;
+			if (requireCalc) {
+				for (int index : dependency) { // for each normal metric of meta metric
+					if (!calculated[index]) { // if normal metric not calculated
+						requireCalc = false;
 						break;
 					}
 				}
-				
-				if (!found)  { // if normal metric not exists
-					requireCalc = false;
-					break;
-				}
 			}
 			
 			if (requireCalc) { // if normal metric exists
 				try {
 					if (metaWrapper.recalc( new Object[] { })) // now calculating meta metric based on normal metric determined
-						result.add(metaWrapper);
+						result.append(metaWrapper);
 				} 
 				catch (Throwable e) {
 					LogUtil.trace(e);
@@ -183,7 +231,27 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 			int datasetId, 
 			Class<? extends Metric> metricClass, 
 			Object[] params) {
-		Metrics result = recalc(alg.getName(), datasetId, metricClass, params);
+		return recalc(alg, datasetId, metricClass, false, params);
+	}
+	
+	
+	/**
+	 * Re-calculating all metrics in metric wrappers of this metrics, which is the same to the method {@link #recalc(Alg, int, Class, Object[])}
+	 * except that metric wrappers whose metric classes inherit the specified class can also be calculated.
+	 * @param alg only metric wrappers (of this metrics) having the same algorithm specified by this input parameter are calculated.
+	 * @param datasetId only metric wrappers (of this metrics) having the same dataset identifier specified by this input parameter are calculated.
+	 * @param metricClass if {@code not null}, only metric wrappers (of this metrics) having the same class specified by the input parameter {@code metricClass} are calculated.
+	 * @param inherited if true, metric wrappers whose metric classes inherit the class specified by the input parameter {@code metricClass} are also calculated.
+	 * @param params input parameters of method {@link MetricWrapper#recalc(Object...)} for re-calculating metrics.
+	 * @return current computed metrics.
+	 */
+	public synchronized Metrics recalc(
+			Alg alg, 
+			int datasetId, 
+			Class<? extends Metric> metricClass,
+			boolean inherited,
+			Object[] params) {
+		Metrics result = recalc(alg.getName(), datasetId, metricClass, inherited, params);
 
 		//Following code snippet stores algorithm description.
 		FunctionType type = AlgDesc2.functionTypeOf(alg);
@@ -571,21 +639,12 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 	 * @param datasetId specified dataset identifier.
 	 * @return {@link Metrics} as metric wrappers that associate with specified algorithm name and dataset identifier.
 	 */
-	public Metrics gets(String algName, int datasetId) {
+	public synchronized Metrics gets(String algName, int datasetId) {
 		Metrics result = new Metrics();
 		
-		for (int i = 0; i < metricWrapperList.size(); i++) {
-			try {
-				MetricWrapper wrapper = metricWrapperList.get(i);
-				if (wrapper.getAlgName().equals(algName) &&
-						wrapper.getDatasetId() == datasetId) {
-					
-					result.add(wrapper);
-				}
-			}
-			catch (Throwable e) {
-				LogUtil.trace(e);
-			}
+		MetricCell cell = getCell(algName, datasetId);
+		if (cell != null) {
+			for (MetricWrapper wrapper : cell.wrappers) result.append(wrapper);
 		}
 		
 		return result;
@@ -677,11 +736,11 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 	 * @param metricWrapper specified metric wrapper.
 	 * @return whether adding successfully
 	 */
-	public boolean add(MetricWrapper metricWrapper) {
+	public synchronized boolean add(MetricWrapper metricWrapper) {
 		try {
-			int index = indexOf(metricWrapper); 
-			if (index == -1)
-				return metricWrapperList.add(metricWrapper);
+			MetricCell cell = getCell(metricWrapper.getAlgName(), metricWrapper.getDatasetId());
+			if (cell == null || !cell.contains(metricWrapper))
+				return append(metricWrapper);
 			else
 				return false;
 		}
@@ -693,12 +752,65 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 	}
 	
 	
+	/**
+	 * Appending the specified metric wrapper to the metric wrapper list without checking duplication.
+	 * @param metricWrapper specified metric wrapper.
+	 * @return whether appending successfully.
+	 */
+	private boolean append(MetricWrapper metricWrapper) {
+		if (!metricWrapperList.add(metricWrapper)) return false;
+		
+		if (cellIndex != null) indexCell(cellIndex, metricWrapper);
+		return true;
+	}
+	
+	
+	/**
+	 * Getting the cell of metric wrappers associated with specified algorithm name and dataset identifier, in which the index is built if it does not exist.
+	 * @param algName specified algorithm name.
+	 * @param datasetId specified dataset identifier.
+	 * @return the cell of metric wrappers associated with specified algorithm name and dataset identifier, which is null if there is no such metric wrapper.
+	 */
+	private MetricCell getCell(String algName, int datasetId) {
+		if (cellIndex == null) {
+			Map<String, Map<Integer, MetricCell>> index = Util.newMap();
+			for (MetricWrapper wrapper : metricWrapperList) indexCell(index, wrapper);
+			cellIndex = index;
+		}
+		
+		Map<Integer, MetricCell> cells = cellIndex.get(algName);
+		return cells != null ? cells.get(datasetId) : null;
+	}
+	
+	
+	/**
+	 * Putting the specified metric wrapper into the specified index.
+	 * @param index specified index.
+	 * @param wrapper specified metric wrapper.
+	 */
+	private static void indexCell(Map<String, Map<Integer, MetricCell>> index, MetricWrapper wrapper) {
+		Map<Integer, MetricCell> cells = index.get(wrapper.getAlgName());
+		if (cells == null) {
+			cells = Util.newMap();
+			index.put(wrapper.getAlgName(), cells);
+		}
+		
+		MetricCell cell = cells.get(wrapper.getDatasetId());
+		if (cell == null) {
+			cell = new MetricCell();
+			cells.put(wrapper.getDatasetId(), cell);
+		}
+		
+		cell.put(wrapper);
+	}
+	
+	
 	/**
 	 * Adding a specified list of metric wrappers.
 	 * @param metrics specified list of metric wrappers.
 	 * @return whether adding successfully.
 	 */
-	public boolean add(Metrics metrics) {
+	public synchronized boolean add(Metrics metrics) {
 		for (int i = 0; i < metrics.size(); i++) {
 			MetricWrapper wrapper = metrics.get(i);
 			add(wrapper);
@@ -708,6 +820,45 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 	}
 	
 	
+	/**
+	 * Putting a specified list of metric wrappers. Unlike {@link #add(Metrics)}, which keeps existing metric wrappers,
+	 * an existing metric wrapper of the same metric name, algorithm name, and dataset identifier is replaced by the specified one at the same position.
+	 * @param metrics specified list of metric wrappers.
+	 * @return whether putting successfully.
+	 */
+	public synchronized boolean put(Metrics metrics) {
+		Map<String, Integer> indices = Util.newMap(metricWrapperList.size());
+		for (int i = 0; i < metricWrapperList.size(); i++) {
+			indices.put(keyOf(metricWrapperList.get(i)), i);
+		}
+		
+		for (int i = 0; i < metrics.size(); i++) {
+			MetricWrapper wrapper = metrics.get(i);
+			String key = keyOf(wrapper);
+			Integer index = indices.get(key);
+			if (index != null)
+				metricWrapperList.set(index, wrapper);
+			else {
+				indices.put(key, metricWrapperList.size());
+				metricWrapperList.add(wrapper);
+			}
+		}
+		
+		cellIndex = null;
+		return true;
+	}
+	
+	
+	/**
+	 * Getting the key of the specified metric wrapper, which consists of its metric name, algorithm name, and dataset identifier.
+	 * @param wrapper specified metric wrapper.
+	 * @return key of the specified metric wrapper.
+	 */
+	private static String keyOf(MetricWrapper wrapper) {
+		return wrapper.getName() + "\n" + wrapper.getAlgName() + "\n" + wrapper.getDatasetId();
+	}
+	
+	
 	/**
 	 * Adding a specified metric associated with specified algorithm name, dataset identifier, dataset URI.
 	 * @param algName specified algorithm name.
@@ -717,7 +868,7 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 	 * @return whether adding successfully.
 	 * @throws RemoteException if any error raises.
 	 */
-	public boolean add(String algName, int datasetId, xURI datasetUri, Metric metric) throws RemoteException {
+	public synchronized boolean add(String algName, int datasetId, xURI datasetUri, Metric metric) throws RemoteException {
 		MetricWrapper wrapper = MetricWrapper.create(metric, algName, datasetId, datasetUri);
 		if (wrapper == null)
 			return false;
@@ -752,7 +903,7 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 	 * @return whether adding successfully.
 	 * @throws RemoteException if any error raises.
 	 */
-	public boolean add(String algName, int datasetId, xURI datasetUri, List<Metric> defaultMetricList) throws RemoteException {
+	public synchronized boolean add(String algName, int datasetId, xURI datasetUri, List<Metric> defaultMetricList) throws RemoteException {
 		for (Metric metric : defaultMetricList) {
 			add(algName, datasetId, datasetUri, metric);
 		}
@@ -788,7 +939,8 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 	 * @param index specified index.
 	 * @return removed {@link MetricWrapper}.
 	 */
-	public MetricWrapper removeByIndex(int index) {
+	public synchronized MetricWrapper removeByIndex(int index) {
+		cellIndex = null;
 		return metricWrapperList.remove(index);
 	}
 	
@@ -882,9 +1034,10 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 	/**
 	 * Clearing this metrics.
 	 */
-	public void clear() {
+	public synchronized void clear() {
 		metricWrapperList.clear();
 		datasetUriMap.clear();
+		cellIndex = null;
 	}
 	
 	
@@ -1047,4 +1200,212 @@ public class Metrics implements Serializable/*, Cloneable , Exportable*/ {
 //	}
 
 
+	/**
+	 * This class is a cell of metric wrappers associated with the same algorithm name and the same dataset identifier.
+	 * Normal metrics and meta metrics are kept separately and indices of metric wrappers are cached according to metric class.
+	 * The cell also keeps the dependency graph of meta metrics, in which each meta metric points to normal metrics it is calculated from.
+	 * 
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 *
+	 */
+	private static class MetricCell {
+		
+		/**
+		 * All metric wrappers of this cell in the order of metric wrapper list.
+		 */
+		List<MetricWrapper> wrappers = Util.newList();
+		
+		/**
+		 * Metric wrappers of normal metrics.
+		 */
+		List<MetricWrapper> normals = Util.newList();
+		
+		/**
+		 * Metric wrappers of meta metrics.
+		 */
+		List<MetricWrapper> metas = Util.newList();
+		
+		/**
+		 * Names of all metrics of this cell.
+		 */
+		Set<String> names = Util.newSet();
+		
+		/**
+		 * Map of normal metric names to their indices in normal metric wrappers.
+		 */
+		Map<String, Integer> normalNames = Util.newMap();
+		
+		/**
+		 * Cache of normal metric indices according to metric class. Indices of all normal metrics are cached with the key {@link Metric}.
+		 */
+		Map<Class<?>, int[]> normalIndices = Util.newMap();
+		
+		/**
+		 * Cache of normal metric indices according to base metric class.
+		 */
+		Map<Class<?>, int[]> inheritedNormalIndices = Util.newMap();
+		
+		/**
+		 * Cache of meta metric indices according to metric class. Indices of all meta metrics are cached with the key {@link Metric}.
+		 */
+		Map<Class<?>, int[]> metaIndices = Util.newMap();
+		
+		/**
+		 * Cache of meta metric indices according to base metric class.
+		 */
+		Map<Class<?>, int[]> inheritedMetaIndices = Util.newMap();
+		
+		/**
+		 * Dependency graph of meta metrics. Each element is the array of indices of normal metrics which a meta metric depends on.
+		 * The element is null if some normal metric does not exist in this cell.
+		 */
+		int[][] dependencies = null;
+		
+		/**
+		 * Histogram of latencies shared by latency metrics of this cell.
+		 */
+		LatencyHistogram latencies = null;
+		
+		/**
+		 * Recording the execution time of the specified parameters into the histogram shared by latency metrics of this cell.
+		 * If latency metrics already have a histogram, for example, when metrics are deserialized, such histogram is shared.
+		 * @param params parameters whose first element is execution time in seconds.
+		 * @return parameters for latency metrics, which contains the execution time and the shared histogram.
+		 * The specified parameters are returned if they are not execution time.
+		 */
+		Object[] recordLatency(Object[] params) {
+			if (params == null || params.length != 1 || !(params[0] instanceof Number)) return params;
+			
+			if (latencies == null) {
+				for (MetricWrapper wrapper : normals) {
+					try {
+						MetricValue value = wrapper.getMetric() instanceof LatencyMetric ? wrapper.getAccumValue() : null;
+						if (value instanceof LatencyMetricValue && ((LatencyMetricValue)value).getHistogram() != null) {
+							latencies = ((LatencyMetricValue)value).getHistogram();
+							break;
+						}
+					}
+					catch (Throwable e) {
+						LogUtil.trace(e);
+					}
+				}
+				
+				if (latencies == null) latencies = new LatencyHistogram();
+			}
+			
+			latencies.record(Math.round(((Number)params[0]).doubleValue() * 1000000000.0));
+			return new Object[] { params[0], latencies };
+		}
+		
+		/**
+		 * Putting the specified metric wrapper into this cell.
+		 * @param wrapper specified metric wrapper.
+		 */
+		void put(MetricWrapper wrapper) {
+			wrappers.add(wrapper);
+			Metric metric = wrapper.getMetric();
+			if (metric == null) return;
+			
+			names.add(metric.getName());
+			if (metric instanceof MetaMetric)
+				metas.add(wrapper);
+			else {
+				if (!normalNames.containsKey(metric.getName()))
+					normalNames.put(metric.getName(), normals.size());
+				normals.add(wrapper);
+			}
+			
+			normalIndices.clear();
+			inheritedNormalIndices.clear();
+			metaIndices.clear();
+			inheritedMetaIndices.clear();
+			dependencies = null;
+		}
+		
+		/**
+		 * Testing whether this cell contains a metric having the same name to the metric of the specified metric wrapper.
+		 * @param wrapper specified metric wrapper.
+		 * @return whether this cell contains a metric having the same name to the metric of the specified metric wrapper.
+		 */
+		boolean contains(MetricWrapper wrapper) {
+			Metric metric = wrapper.getMetric();
+			return metric != null && names.contains(metric.getName());
+		}
+		
+		/**
+		 * Getting indices of normal metrics having the specified class.
+		 * @param metricClass specified metric class. If it is null, indices of all normal metrics are returned.
+		 * @param inherited if true, indices of normal metrics whose classes inherit the specified class are also returned.
+		 * @return indices of normal metrics having the specified class.
+		 */
+		int[] getNormalIndices(Class<? extends Metric> metricClass, boolean inherited) {
+			return getIndices(normals, inherited ? inheritedNormalIndices : normalIndices, metricClass, inherited);
+		}
+		
+		/**
+		 * Getting indices of meta metrics having the specified class.
+		 * @param metricClass specified metric class. If it is null, indices of all meta metrics are returned.
+		 * @param inherited if true, indices of meta metrics whose classes inherit the specified class are also returned.
+		 * @return indices of meta metrics having the specified class.
+		 */
+		int[] getMetaIndices(Class<? extends Metric> metricClass, boolean inherited) {
+			return getIndices(metas, inherited ? inheritedMetaIndices : metaIndices, metricClass, inherited);
+		}
+		
+		/**
+		 * Getting indices of metric wrappers having the specified class from the specified cache.
+		 * @param list specified list of metric wrappers.
+		 * @param cache specified cache of indices.
+		 * @param metricClass specified metric class. If it is null, indices of all metric wrappers are returned.
+		 * @param inherited if true, indices of metric wrappers whose classes inherit the specified class are also returned.
+		 * @return indices of metric wrappers having the specified class.
+		 */
+		private static int[] getIndices(List<MetricWrapper> list, Map<Class<?>, int[]> cache, Class<? extends Metric> metricClass, boolean inherited) {
+			Class<?> key = metricClass != null ? metricClass : Metric.class;
+			int[] indices = cache.get(key);
+			if (indices != null) return indices;
+			
+			List<Integer> found = Util.newList(list.size());
+			for (int i = 0; i < list.size(); i++) {
+				Class<?> cls = list.get(i).getMetric().getClass();
+				if (metricClass == null || cls.equals(metricClass) || (inherited && metricClass.isAssignableFrom(cls)))
+					found.add(i);
+			}
+			indices = new int[found.size()];
+			for (int i = 0; i < indices.length; i++) indices[i] = found.get(i);
+			
+			cache.put(key, indices);
+			return indices;
+		}
+		
+		/**
+		 * Getting dependency graph of meta metrics, which is built if it does not exist.
+		 * @return dependency graph of meta metrics.
+		 */
+		int[][] getDependencies() {
+			if (dependencies != null) return dependencies;
+			
+			int[][] graph = new int[metas.size()][];
+			for (int i = 0; i < metas.size(); i++) {
+				Metric[] meta = ((MetaMetric)metas.get(i).getMetric()).getMeta();
+				int[] dependency = new int[meta.length];
+				for (int j = 0; j < meta.length; j++) {
+					Integer index = normalNames.get(meta[j].getName());
+					if (index == null) {
+						dependency = null;
+						break;
+					}
+					dependency[j] = index;
+				}
+				graph[i] = dependency;
+			}
+			
+			dependencies = graph;
+			return dependencies;
+		}
+		
+	}
+	
+	
 }
@@ -17,6 +17,10 @@ import net.hudup.core.data.Fetcher;
 import net.hudup.core.data.Profile;
 import net.hudup.core.evaluate.EvaluatorAbstract;
 import net.hudup.core.evaluate.HudupRecallMetric;
+import net.hudup.core.evaluate.LatencyMaxMetric;
+import net.hudup.core.evaluate.LatencyP50Metric;
+import net.hudup.core.evaluate.LatencyP95Metric;
+import net.hudup.core.evaluate.LatencyP99Metric;
 import net.hudup.core.evaluate.NoneWrapperMetricList;
 import net.hudup.core.evaluate.SetupTimeMetric;
 import net.hudup.core.evaluate.SpeedMetric;
@@ -88,6 +92,11 @@ public abstract class SampleEvaluator extends EvaluatorAbstract {
 		SpeedMetric speed = new SpeedMetric();
 		metricList.add(speed);
 		
+		metricList.add(new LatencyP50Metric());
+		metricList.add(new LatencyP95Metric());
+		metricList.add(new LatencyP99Metric());
+		metricList.add(new LatencyMaxMetric());
+		
 		HudupRecallMetric hudupRecall = new HudupRecallMetric();
 		metricList.add(hudupRecall);
 		
@@ -0,0 +1,431 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.factory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import net.hudup.core.Util;
+import net.hudup.core.data.DataConfig;
+import net.hudup.core.logistic.LogUtil;
+
+/**
+ * This class is pool of database connections used by {@link DbProviderAssoc}. Each pooled connection caches its prepared statements.
+ * A connection is borrowed for each operation and given back when the operation finishes or when the result set of the operation is closed.
+ * If there is no idle connection, a new connection is created unless the number of open connections reaches the maximum number of active connections,
+ * in which case borrowing waits until a connection is given back or closed. However, a thread which already holds a borrowed connection never waits:
+ * its nested borrowing takes an idle connection or opens a new connection beyond the maximum, so that nested operations cannot deadlock.
+ * Nested borrowing gets another connection instead of the held one, so that cursors, cached statements, and transactions of the outer operation are not disturbed.
+ * Borrowing gives up after {@link #BORROW_TIMEOUT}.
+ * The number of idle connections kept by the pool is limited by the pool size.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+class DbConnectionPool {
+
+
+	/**
+	 * Pooled connections of all pools keyed by JDBC connections, which are used to give back connections from result sets.
+	 */
+	private final static Map<Connection, PooledConnection> pooled = Util.newMap();
+
+
+	/**
+	 * Maximum time in milliseconds to wait for a connection when the maximum number of active connections is reached.
+	 */
+	public final static long BORROW_TIMEOUT = 30000;
+
+
+	/**
+	 * Configuration to create connections.
+	 */
+	protected DataConfig config = null;
+
+
+	/**
+	 * Maximum number of idle connections.
+	 */
+	protected int poolSize = 0;
+
+
+	/**
+	 * Maximum number of cached prepared statements per connection.
+	 */
+	protected int statementCacheSize = 0;
+
+
+	/**
+	 * Maximum number of open connections, including idle connections and borrowed connections.
+	 */
+	protected int maxActive = 0;
+
+
+	/**
+	 * Number of open connections, including idle connections and borrowed connections.
+	 */
+	protected int active = 0;
+
+
+	/**
+	 * Numbers of borrowed connections keyed by threads which hold them.
+	 */
+	protected Map<Thread, Integer> holders = Util.newMap();
+
+
+	/**
+	 * Idle connections.
+	 */
+	protected LinkedList<PooledConnection> idle = new LinkedList<PooledConnection>();
+
+
+	/**
+	 * Flag to indicate whether this pool is closed.
+	 */
+	protected boolean closed = false;
+
+
+	/**
+	 * Constructor with configuration, pool size, statement cache size, and maximum number of active connections.
+	 * @param config configuration to create connections.
+	 * @param poolSize maximum number of idle connections.
+	 * @param statementCacheSize maximum number of cached prepared statements per connection.
+	 * @param maxActive maximum number of open connections, which is not less than pool size.
+	 */
+	public DbConnectionPool(DataConfig config, int poolSize, int statementCacheSize, int maxActive) {
+		this.config = config;
+		this.poolSize = poolSize;
+		this.statementCacheSize = statementCacheSize;
+		this.maxActive = Math.max(poolSize, maxActive);
+	}
+
+
+	/**
+	 * Borrowing a connection. A new connection is created if there is no idle connection and the maximum number of active connections is not reached
+	 * or the current thread already holds a borrowed connection. Otherwise, this method waits until a connection is given back or closed.
+	 * @return borrowed connection, or null if connection cannot be created or waiting time is out.
+	 */
+	public PooledConnection borrow() {
+		Thread thread = Thread.currentThread();
+		synchronized (this) {
+			long deadline = System.currentTimeMillis() + BORROW_TIMEOUT;
+			boolean nested = holders.containsKey(thread);
+			while (true) {
+				while (!closed && idle.size() > 0) {
+					PooledConnection pc = idle.removeFirst();
+					if (pc.isValid()) {
+						hold(pc, thread);
+						return pc;
+					}
+					else
+						pc.close();
+				}
+				if (closed) return null;
+				if (active < maxActive || nested) break;
+
+				long remain = deadline - System.currentTimeMillis();
+				if (remain <= 0) {
+					LogUtil.error("Database connection pool waits for free connection too long, maximum active connections is " + maxActive);
+					return null;
+				}
+				try {
+					wait(remain);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return null;
+				}
+			}
+			active++;
+		}
+
+		Connection conn = DbProviderAssoc.createConnection(config);
+		if (conn == null) {
+			closed();
+			return null;
+		}
+
+		PooledConnection pc = new PooledConnection(this, conn);
+		synchronized (pooled) {
+			pooled.put(conn, pc);
+		}
+		synchronized (this) {
+			hold(pc, thread);
+		}
+		return pc;
+	}
+
+
+	/**
+	 * Recording that the specified connection is borrowed by the specified thread. This method is called when the pool is locked.
+	 * @param pc specified connection.
+	 * @param thread specified thread.
+	 */
+	private void hold(PooledConnection pc, Thread thread) {
+		pc.holder = thread;
+		Integer count = holders.get(thread);
+		holders.put(thread, count != null ? count + 1 : 1);
+	}
+
+
+	/**
+	 * Recording that the specified connection is not borrowed any more, which is called when the connection is given back or closed.
+	 * The connection may be given back by another thread than the one which borrowed it, for example, when result set is closed.
+	 * @param pc specified connection.
+	 */
+	private synchronized void unhold(PooledConnection pc) {
+		Thread thread = pc.holder;
+		if (thread == null) return;
+		pc.holder = null;
+
+		Integer count = holders.get(thread);
+		if (count == null || count <= 1)
+			holders.remove(thread);
+		else
+			holders.put(thread, count - 1);
+	}
+
+
+	/**
+	 * Giving back the specified connection to this pool. The connection is closed if this pool is closed or full.
+	 * @param pc specified connection.
+	 */
+	public void giveBack(PooledConnection pc) {
+		if (pc == null) return;
+		unhold(pc);
+
+		try {
+			if (!pc.conn.getAutoCommit()) {
+				pc.conn.rollback();
+				pc.conn.setAutoCommit(true);
+			}
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			pc.close();
+			return;
+		}
+
+		synchronized (this) {
+			if (!closed && idle.size() < poolSize) {
+				idle.addFirst(pc);
+				notifyAll();
+				return;
+			}
+		}
+		pc.close();
+	}
+
+
+	/**
+	 * Giving back the pooled connection of the specified statement after its result set was closed.
+	 * The statement is kept open if it is cached, otherwise it is closed.
+	 * @param stm specified statement.
+	 * @return whether the statement belongs to a pooled connection.
+	 */
+	public static boolean release(Statement stm) {
+		if (stm == null) return false;
+
+		PooledConnection pc = null;
+		try {
+			synchronized (pooled) {
+				pc = pooled.get(stm.getConnection());
+			}
+			if (pc == null) return false;
+
+			if (!pc.isCached(stm)) stm.close();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			if (pc == null) return false;
+		}
+
+		pc.pool.giveBack(pc);
+		return true;
+	}
+
+
+	/**
+	 * Notifying that a connection was closed or failed to be created so that waiting borrowers can open another connection.
+	 */
+	private synchronized void closed() {
+		if (active > 0) active--;
+		notifyAll();
+	}
+
+
+	/**
+	 * Closing this pool and all idle connections. Borrowed connections are closed when they are given back.
+	 */
+	public void close() {
+		LinkedList<PooledConnection> connections = null;
+		synchronized (this) {
+			closed = true;
+			connections = idle;
+			idle = new LinkedList<PooledConnection>();
+			notifyAll();
+		}
+
+		for (PooledConnection pc : connections) pc.close();
+	}
+
+
+	/**
+	 * This class is pooled connection which caches its prepared statements.
+	 *
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 *
+	 */
+	static class PooledConnection {
+
+		/**
+		 * Pool of this connection.
+		 */
+		protected DbConnectionPool pool = null;
+
+		/**
+		 * JDBC connection.
+		 */
+		protected Connection conn = null;
+
+		/**
+		 * Thread which borrowed this connection, which is null if this connection is idle.
+		 */
+		protected Thread holder = null;
+
+		/**
+		 * Cached prepared statements keyed by cursor types and SQL statements, in access order.
+		 */
+		protected Map<String, PreparedStatement> statements = null;
+
+		/**
+		 * Constructor with pool and JDBC connection.
+		 * @param pool pool of this connection.
+		 * @param conn JDBC connection.
+		 */
+		private PooledConnection(final DbConnectionPool pool, Connection conn) {
+			this.pool = pool;
+			this.conn = conn;
+			this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+
+				/**
+				 * Serial version UID for serializable class.
+				 */
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+					if (size() <= pool.statementCacheSize) return false;
+
+					closeStatement(eldest.getValue());
+					return true;
+				}
+			};
+		}
+
+		/**
+		 * Getting JDBC connection.
+		 * @return JDBC connection.
+		 */
+		public Connection getConnection() {
+			return conn;
+		}
+
+		/**
+		 * Preparing the specified SQL statement, which is taken from cache if possible.
+		 * @param sql specified SQL statement.
+		 * @param resultSetType type of result set, for example, {@link ResultSet#TYPE_FORWARD_ONLY}.
+		 * @return prepared statement.
+		 * @throws SQLException if any error raises.
+		 */
+		public PreparedStatement prepare(String sql, int resultSetType) throws SQLException {
+			String key = resultSetType + ":" + sql;
+			PreparedStatement stm = statements.get(key);
+			if (stm != null && !stm.isClosed()) {
+				stm.clearParameters();
+				return stm;
+			}
+
+			stm = conn.prepareStatement(sql, resultSetType, ResultSet.CONCUR_READ_ONLY);
+			if (pool.statementCacheSize > 0) statements.put(key, stm);
+			return stm;
+		}
+
+		/**
+		 * Testing whether the specified statement is cached.
+		 * @param stm specified statement.
+		 * @return whether the specified statement is cached.
+		 */
+		public boolean isCached(Statement stm) {
+			return statements.containsValue(stm);
+		}
+
+		/**
+		 * Testing whether this connection is still valid.
+		 * @return whether this connection is still valid.
+		 */
+		private boolean isValid() {
+			try {
+				return !conn.isClosed();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+				return false;
+			}
+		}
+
+		/**
+		 * Closing cached statements and JDBC connection.
+		 */
+		private void close() {
+			synchronized (pooled) {
+				pooled.remove(conn);
+			}
+
+			Iterator<PreparedStatement> it = statements.values().iterator();
+			while (it.hasNext()) {
+				closeStatement(it.next());
+				it.remove();
+			}
+
+			try {
+				conn.close();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+			pool.unhold(this);
+			pool.closed();
+		}
+
+		/**
+		 * Closing the specified statement.
+		 * @param stm specified statement.
+		 */
+		private static void closeStatement(Statement stm) {
+			try {
+				stm.close();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+		}
+
+	}
+
+
+}
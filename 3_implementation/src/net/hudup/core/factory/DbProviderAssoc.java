@@ -10,12 +10,14 @@ package net.hudup.core.factory;
 import java.rmi.NoSuchObjectException;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.Collection;
@@ -29,6 +31,7 @@ import net.hudup.core.Util;
 import net.hudup.core.data.Attribute;
 import net.hudup.core.data.Attribute.Type;
 import net.hudup.core.data.AttributeList;
+import net.hudup.core.data.BlockFetcher;
 import net.hudup.core.data.DataConfig;
 import net.hudup.core.data.DataDriver;
 import net.hudup.core.data.Fetcher;
@@ -43,6 +46,7 @@ import net.hudup.core.data.Profile;
 import net.hudup.core.data.ProviderAssocAbstract;
 import net.hudup.core.data.Unit;
 import net.hudup.core.data.UnitList;
+import net.hudup.core.factory.DbConnectionPool.PooledConnection;
 import net.hudup.core.logistic.LogUtil;
 import net.hudup.core.logistic.xURI;
 import net.hudup.core.parser.TextParsable;
@@ -64,6 +68,12 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	protected Connection conn = null;
 	
 	
+	/**
+	 * Pool of connections for queries and updates, which is null if the internal connection is shared, see {@link DataConfig#getDbPoolSize()}.
+	 */
+	protected DbConnectionPool pool = null;
+	
+	
 	/**
 	 * Constructor with specified configuration.
 	 * 
@@ -72,6 +82,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	public DbProviderAssoc(DataConfig config) {
 		super(config);
 		this.conn = createConnection(config);
+		
+		int poolSize = config.getDbPoolSize();
+		if (poolSize > 0)
+			this.pool = new DbConnectionPool(config, poolSize, config.getDbStatementCacheSize(), config.getDbPoolMaxActive());
 	}
 
 	
@@ -1928,10 +1942,12 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	@Override
 	public UnitList getUnitList() {
 		UnitList tblList = new UnitList();
+		PooledConnection pc = null;
 		try {
 			UnitList defaultUnitList = DataConfig.getDefaultUnitList();
 
-			DatabaseMetaData meta = conn.getMetaData();
+			pc = borrow();
+			DatabaseMetaData meta = connectionOf(pc).getMetaData();
 			ResultSet rs = meta.getTables(null, null, null, null);
 			while (rs.next()) {
 				String unitName = rs.getString("TABLE_NAME");
@@ -1948,6 +1964,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 			LogUtil.trace(e);
 			LogUtil.error("Get database metadata error: " + e.getMessage());
 		}
+		finally {
+			if (pc != null)
+				pool.giveBack(pc);
+		}
 		
 		return tblList;
 	}
@@ -1995,8 +2015,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	 */
 	private List<String> getPrimaryKeys(String unitName) {
 		List<String> keys = Util.newList();
+		PooledConnection pc = null;
 		try {
-			DatabaseMetaData metadata = conn.getMetaData();
+			pc = borrow();
+			DatabaseMetaData metadata = connectionOf(pc).getMetaData();
 			ResultSet rs = metadata.getPrimaryKeys(null, null, unitName);
 			while (rs.next()) {
 				String key = rs.getString("COLUMN_NAME"); 
@@ -2007,6 +2029,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 		catch (Exception e) {
 			LogUtil.trace(e);
 		}
+		finally {
+			if (pc != null)
+				pool.giveBack(pc);
+		}
 		
 		return keys;
 	}
@@ -2057,10 +2083,12 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	public AttributeList getAttributes(String profileUnit) {
 		AttributeList attList = new AttributeList();
 		
+		PooledConnection pc = null;
 		try {
 			List<String> keys = getPrimaryKeys(profileUnit);
 			
-			DatabaseMetaData metadata = conn.getMetaData();
+			pc = borrow();
+			DatabaseMetaData metadata = connectionOf(pc).getMetaData();
 			ResultSet rs = metadata.getColumns(null, null, profileUnit, null);
 			while (rs.next()) {
 				String name = rs.getString("COLUMN_NAME"); 
@@ -2083,6 +2111,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 		catch (Throwable e) {
 			LogUtil.trace(e);
 		}
+		finally {
+			if (pc != null)
+				pool.giveBack(pc);
+		}
 		
 		return attList;
 	}
@@ -2149,8 +2181,17 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	 * @return profile created from result set.
 	 */
 	private Profile getProfile(ResultSet rs) {
-		AttributeList attRef = getAttributes(rs);
-		
+		return getProfile(rs, getAttributes(rs));
+	}
+
+	
+	/**
+	 * Creating profile from result set with specified attributes of such result set.
+	 * @param rs result set.
+	 * @param attRef attributes of result set.
+	 * @return profile created from result set.
+	 */
+	private Profile getProfile(ResultSet rs, AttributeList attRef) {
 		Profile profile = new Profile(attRef);
 		
 		for (int i = 0; i < attRef.size(); i++) {
@@ -2191,26 +2232,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	
 	@Override
 	public Fetcher<Profile> getProfiles(String profileUnit, Profile condition) {
-		ResultSet rs = null;
 		if (condition != null)
-			rs = executeQuery(genProfileSelectSql2(profileUnit, condition), condition);
+			return createProfileFetcher(genProfileSelectSql2(profileUnit, condition), condition);
 		else
-			rs = executeQuery(genProfileSelectSql(profileUnit));
-		if (rs == null) return new MemFetcher<Profile>();
-		
-		return new DbFetcher<Profile>(rs) {
-
-			/**
-			 * Default serial version UID.
-			 */
-			private static final long serialVersionUID = 1L;
-
-			@Override
-			public Profile create(ResultSet rs) {
-				return getProfile(rs);
-			}
-			
-		};
+			return createProfileFetcher(new ParamSql(genProfileSelectSql(profileUnit)), null);
 	}
 	
 	
@@ -2226,22 +2251,51 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 		if (rs == null) return profiles;
 
 		try {
+			AttributeList attRef = getAttributes(rs);
 			while (rs.next()) {
-				Profile profile = getProfile(rs);
+				Profile profile = getProfile(rs, attRef);
 				if (profile != null) profiles.add(profile);
 			}
 		}
 		catch (Exception e) {
 			LogUtil.trace(e);
 		}
+		finally {
+			closeResultSet(rs);
+		}
 		
 		return profiles;
 	}
 
 
+	/**
+	 * Profiles are ordered by ORDER BY clause so that they are streamed by the database.
+	 */
+	@Override
+	public Fetcher<Profile> getOrderedProfiles(String profileUnit, String...orderAttributes) {
+		StringBuffer sql = new StringBuffer(genProfileSelectSql(profileUnit));
+		for (int i = 0; i < orderAttributes.length; i++)
+			sql.append(i == 0 ? " order by " : ", ").append(norm(orderAttributes[i]));
+		
+		return createProfileFetcher(new ParamSql(sql.toString()), null);
+	}
+
+
 	@Override
 	public Fetcher<Profile> getProfiles(ParamSql selectSql, Profile condition) {
-		ResultSet rs = executeQuery(selectSql, condition);
+		return createProfileFetcher(selectSql, condition);
+	}
+
+
+	/**
+	 * Creating fetcher of profiles queried by specified select SQL statement with specified condition. Attributes of the result set are retrieved once for all profiles.
+	 * The query is executed again when the fetcher of forward-only result set is reset.
+	 * @param selectSql specified select SQL statement.
+	 * @param condition specified condition.
+	 * @return fetcher of profiles queried by specified select SQL statement.
+	 */
+	private Fetcher<Profile> createProfileFetcher(final ParamSql selectSql, final Profile condition) {
+		ResultSet rs = executeQuery(selectSql, condition, true);
 		if (rs == null) return new MemFetcher<Profile>();
 		
 		return new DbFetcher<Profile>(rs) {
@@ -2251,15 +2305,56 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 			 */
 			private static final long serialVersionUID = 1L;
 
+			/**
+			 * Attributes of result set.
+			 */
+			private AttributeList attRef = null;
+			
 			@Override
 			public Profile create(ResultSet rs) {
-				return getProfile(rs);
+				if (attRef == null) attRef = getAttributes(rs);
+				return getProfile(rs, attRef);
+			}
+			
+			@Override
+			protected ResultSet executeAgain() {
+				return executeQuery(selectSql, condition, true);
+			}
+			
+			@Override
+			protected int countRows() {
+				return countQuery(selectSql, condition);
 			}
 			
 		};
 	}
 
 
+	/**
+	 * Counting rows queried by specified select SQL statement with specified condition.
+	 * @param selectSql specified select SQL statement.
+	 * @param condition specified condition.
+	 * @return number of rows queried by specified select SQL statement.
+	 */
+	private int countQuery(ParamSql selectSql, Profile condition) {
+		ParamSql countSql = new ParamSql("select count(*) from (" + selectSql.getSql() + ") " + norm("counted"), selectSql.getIndexes());
+		ResultSet rs = executeQuery(countSql, condition);
+		if (rs == null) return 0;
+		
+		try {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		finally {
+			closeResultSet(rs);
+		}
+		
+		return 0;
+	}
+
+
 	@Override
 	public Collection<Profile> getProfiles2(ParamSql selectSql, Profile condition) {
 		List<Profile> profiles = Util.newList();
@@ -2267,12 +2362,16 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 		if (rs == null) return profiles;
 		
 		try {
+			AttributeList attRef = getAttributes(rs);
 			while (rs.next()) {
-				Profile profile = getProfile(rs);
+				Profile profile = getProfile(rs, attRef);
 				if (profile != null) profiles.add(profile);
 			}
 		}
 		catch (Exception e) {LogUtil.trace(e);}
+		finally {
+			closeResultSet(rs);
+		}
 
 		return profiles;
 	}
@@ -2285,7 +2384,8 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 		if (idAtt == null || idAtt.getType() != Type.integer)
 			return new MemFetcher<Integer>();
 		
-		ResultSet rs = executeQuery(genProfileIdsSelectSql(profileUnit, idAtt.getName()));
+		final ParamSql selectSql = new ParamSql(genProfileIdsSelectSql(profileUnit, idAtt.getName()));
+		ResultSet rs = executeQuery(selectSql, null, true);
 		if (rs == null) return new MemFetcher<Integer>();
 		
 		return new DbFetcher<Integer>(rs) {
@@ -2295,6 +2395,16 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 			 */
 			private static final long serialVersionUID = 1L;
 
+			@Override
+			protected ResultSet executeAgain() {
+				return executeQuery(selectSql, null, true);
+			}
+			
+			@Override
+			protected int countRows() {
+				return countQuery(selectSql, null);
+			}
+
 			@Override
 			public Integer create(ResultSet rs) {
 				try {
@@ -2334,6 +2444,9 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 			}
 		}
 		catch (Exception e) {LogUtil.trace(e);}
+		finally {
+			closeResultSet(rs);
+		}
 
 		return ids;
 	}
@@ -2382,19 +2495,7 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	 * @return result set.
 	 */
 	private ResultSet executeQuery(String selectSql) {
-		try {
-			Statement stm = conn.createStatement(
-					ResultSet.TYPE_SCROLL_INSENSITIVE, 
-					ResultSet.CONCUR_READ_ONLY);
-			ResultSet rs = stm.executeQuery(selectSql);
-			
-			return rs;
-		}
-		catch (Throwable e) {
-			LogUtil.trace(e);
-		}
-		
-		return null;
+		return executeQuery(new ParamSql(selectSql), null, false);
 	}
 	
 	
@@ -2405,63 +2506,40 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	 * @return result set.
 	 */
 	private ResultSet executeQuery(ParamSql selectSql, Profile condition) {
+		return executeQuery(selectSql, condition, false);
+	}
+	
+	
+	/**
+	 * Executing select SQL statement with specified condition. Result set must be closed by {@link #closeResultSet(ResultSet)} so that pooled connection is given back.
+	 * @param selectSql select SQL statement.
+	 * @param condition profile as specified condition.
+	 * @param fetcher whether result set is browsed by fetcher. Such result set is scrollable unless fetch size is positive, see {@link DataConfig#getDbFetchSize()}.
+	 * Other result sets are forward-only.
+	 * @return result set.
+	 */
+	private ResultSet executeQuery(ParamSql selectSql, Profile condition, boolean fetcher) {
+		int fetchSize = fetcher && config != null ? config.getDbFetchSize() : 0;
+		int resultSetType = fetcher && fetchSize <= 0 ? ResultSet.TYPE_SCROLL_INSENSITIVE : ResultSet.TYPE_FORWARD_ONLY;
 		
-		if (selectSql.getIndexes().size() == 0 || condition == null)
-			return executeQuery(selectSql.getSql());
-		
+		PooledConnection pc = null;
+		PreparedStatement stm = null;
 		try {
-			AttributeList attList = condition.getAttRef();
-			
-			PreparedStatement stm = conn.prepareStatement(selectSql.getSql(), 
-					ResultSet.TYPE_SCROLL_INSENSITIVE, 
-					ResultSet.CONCUR_READ_ONLY );
-			
-			List<Integer> indexes = selectSql.getIndexes();
-			for (int i = 0; i < indexes.size(); i++) {
-				int index = indexes.get(i);
-				Attribute att = attList.get(index);
-				Type type = att.getType();
-				
-				if (condition.isMissing(index)) {
-					stm.setNull(i + 1, toSqlType(type));
-					continue;
-				}
-				
-				switch (type) {
-				case bit:
-					stm.setByte(i + 1, (byte)condition.getValueAsInt(index));
-					break;
-				case nominal:
-					stm.setInt(i + 1, condition.getValueAsInt(index));
-					break;
-				case integer:
-					stm.setInt(i + 1, condition.getValueAsInt(index));
-					break;
-				case real:
-					stm.setDouble(i + 1, condition.getValueAsReal(index));
-					break;
-				case string:
-					stm.setString(i + 1, condition.getValueAsString(index));
-					break;
-				case date:
-					Date date =  (Date)condition.getValue(index);
-					stm.setDate(i + 1, new java.sql.Date(date.getTime()));
-					break;
-				case object:
-					stm.setObject(i + 1, condition.getValue(index));
-					break;
-				default:
-					stm.setObject(i + 1, condition.getValue(index));
-				}
-			}
+			pc = borrow();
+			stm = prepare(pc, selectSql.getSql(), resultSetType);
+			if (fetchSize > 0)
+				stm.setFetchSize(fetchSize);
+			setParameters(stm, selectSql, condition);
 			
 			return stm.executeQuery();
-			
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
 		}
 		
+		closeStatement(pc, stm);
+		if (pc != null)
+			pool.giveBack(pc);
 		return null;
 	}
 	
@@ -2472,8 +2550,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	 * @return whether update successfully.
 	 */
 	private boolean executeUpdate(String updateSql) {
+		PooledConnection pc = null;
 		try {
-			Statement stm = conn.createStatement();
+			pc = borrow();
+			Statement stm = connectionOf(pc).createStatement();
 			stm.executeUpdate(updateSql);
 			stm.close();
 			
@@ -2482,6 +2562,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 		catch (Throwable e) {
 			LogUtil.trace(e);
 		}
+		finally {
+			if (pc != null)
+				pool.giveBack(pc);
+		}
 		
 		return false;
 	}
@@ -2498,63 +2582,301 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 		if (updateSql.getIndexes().size() == 0 || profile == null)
 			return executeUpdate(updateSql.getSql());
 		
+		PooledConnection pc = null;
+		PreparedStatement stm = null;
 		try {
-			AttributeList attList = profile.getAttRef();
+			pc = borrow();
+			stm = prepare(pc, updateSql.getSql(), ResultSet.TYPE_FORWARD_ONLY);
+			setParameters(stm, updateSql, profile);
+			stm.executeUpdate();
 			
-			PreparedStatement stm = conn.prepareStatement(updateSql.getSql());
+			return true;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		finally {
+			closeStatement(pc, stm);
+			if (pc != null)
+				pool.giveBack(pc);
+		}
+		
+		return false;
+	}
+	
+	
+	/**
+	 * Inserting many profiles into specified unit by JDBC batches. Consecutive profiles having the same attributes are sent in batches
+	 * whose size is specified by {@link DataConfig#getDbBatchSize()}. If connections are pooled, each batch is inserted in one transaction.
+	 * If a batch fails, for example, because of a duplicated key, its profiles are inserted one by one so that only bad profiles fail.
+	 * Attribute maps which exist already are updated instead, like the method {@link net.hudup.core.data.Provider#updateAttributeMap(net.hudup.core.data.InterchangeAttributeMap)}.
+	 * @param profileUnit specified unit.
+	 * @param profiles specified profiles.
+	 * @return whether all profiles are inserted successfully.
+	 */
+	@Override
+	public boolean insertProfiles(String profileUnit, Collection<Profile> profiles) {
+		if (profiles == null || profiles.size() == 0)
+			return true;
+		
+		int batchSize = config.getDbBatchSize();
+		boolean result = true;
+		PooledConnection pc = null;
+		PreparedStatement stm = null;
+		try {
+			pc = borrow();
+			if (pc != null)
+				pc.getConnection().setAutoCommit(false);
 			
-			List<Integer> indexes = updateSql.getIndexes();
-			for (int i = 0; i < indexes.size(); i++) {
+			ParamSql insertSql = null;
+			List<Profile> batch = Util.newList(batchSize);
+			for (Profile profile : profiles) {
+				if (profile == null)
+					continue;
 				
-				int index = indexes.get(i);
-				Attribute att = attList.get(index);
-				Type type = att.getType();
+				ParamSql sql = genProfileInsertSql(profileUnit, profile.getAttRef());
+				if (stm == null || !sql.getSql().equals(insertSql.getSql())) {
+					if (stm != null)
+						result &= executeBatch(pc, stm, profileUnit, insertSql, batch);
+					closeStatement(pc, stm);
+					
+					insertSql = sql;
+					stm = prepare(pc, insertSql.getSql(), ResultSet.TYPE_FORWARD_ONLY);
+				}
 				
-				if (profile.isMissing(index)) {
-					stm.setNull(i + 1, toSqlType(type));
+				setParameters(stm, insertSql, profile);
+				stm.addBatch();
+				batch.add(profile);
+				if (batch.size() >= batchSize)
+					result &= executeBatch(pc, stm, profileUnit, insertSql, batch);
+			}
+			if (stm != null)
+				result &= executeBatch(pc, stm, profileUnit, insertSql, batch);
+			
+			return result;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Batch insert into unit " + profileUnit + " error: " + e.getMessage());
+		}
+		finally {
+			closeStatement(pc, stm);
+			if (pc != null)
+				pool.giveBack(pc); //Pool rolls back uncommitted transaction.
+		}
+		
+		return false;
+	}
+	
+	
+	/**
+	 * Executing the batch of specified statement and then clearing the specified batch profiles. If connection is pooled, the batch is committed.
+	 * If the batch fails, its profiles which are not inserted yet are inserted one by one, and attribute maps which exist already are updated.
+	 * @param pc pooled connection, which is null if the internal connection is shared.
+	 * @param stm statement having the batch.
+	 * @param profileUnit unit into which profiles are inserted.
+	 * @param insertSql insert SQL statement of the batch.
+	 * @param batch profiles of the batch.
+	 * @return whether all profiles of the batch are inserted.
+	 * @throws SQLException if any error other than the batch error raises.
+	 */
+	private boolean executeBatch(PooledConnection pc, PreparedStatement stm, String profileUnit, ParamSql insertSql, List<Profile> batch) throws SQLException {
+		if (batch.size() == 0)
+			return true;
+		
+		int[] counts = null;
+		try {
+			stm.executeBatch();
+			if (pc != null)
+				pc.getConnection().commit();
+			batch.clear();
+			return true;
+		}
+		catch (BatchUpdateException e) {
+			LogUtil.trace(e);
+			stm.clearBatch();
+			if (pc != null)
+				pc.getConnection().rollback(); //All profiles of the batch are rolled back.
+			else
+				counts = e.getUpdateCounts(); //Profiles executed successfully are committed already.
+		}
+		
+		Connection connection = connectionOf(pc);
+		boolean autoCommit = connection.getAutoCommit();
+		if (!autoCommit)
+			connection.setAutoCommit(true);
+		
+		boolean result = true;
+		PreparedStatement updateStm = null;
+		ParamSql updateSql = null;
+		boolean upsert = profileUnit.equals(config.getAttributeMapUnit());
+		try {
+			for (int i = 0; i < batch.size(); i++) {
+				if (counts != null && i < counts.length && counts[i] != Statement.EXECUTE_FAILED)
 					continue;
-				}
 				
-				switch (type) {
-				case bit:
-					stm.setByte(i + 1, (byte)profile.getValueAsInt(index));
-					break;
-				case nominal:
-					stm.setInt(i + 1, profile.getValueAsInt(index));
-					break;
-				case integer:
-					stm.setInt(i + 1, profile.getValueAsInt(index));
-					break;
-				case real:
-					stm.setDouble(i + 1, profile.getValueAsReal(index));
-					break;
-				case string:
-					stm.setString(i + 1, profile.getValueAsString(index));
-					break;
-				case date:
-					Date date =  (Date)profile.getValue(index);
-					stm.setDate(i + 1, new java.sql.Date(date.getTime()));
-					break;
-				case object:
-					stm.setObject(i + 1, profile.getValue(index));
-					break;
-				default:
-					stm.setObject(i + 1, profile.getValue(index));
+				Profile profile = batch.get(i);
+				if (executeRow(stm, insertSql, profile))
+					continue;
+				
+				if (upsert) {
+					if (updateStm == null) {
+						updateSql = genProfileUpdateSql(profileUnit, profile.getAttRef());
+						updateStm = prepare(pc, updateSql.getSql(), ResultSet.TYPE_FORWARD_ONLY);
+					}
+					if (executeRow(updateStm, updateSql, profile))
+						continue;
 				}
+				
+				result = false;
 			}
-			
+		}
+		finally {
+			closeStatement(pc, updateStm);
+			if (!autoCommit)
+				connection.setAutoCommit(false);
+			batch.clear();
+		}
+		
+		if (!result)
+			LogUtil.error("Some profiles cannot be inserted into unit " + profileUnit);
+		return result;
+	}
+	
+	
+	/**
+	 * Executing specified statement for one profile.
+	 * @param stm specified statement.
+	 * @param sql SQL statement of the specified statement.
+	 * @param profile specified profile.
+	 * @return whether execute successfully.
+	 */
+	private boolean executeRow(PreparedStatement stm, ParamSql sql, Profile profile) {
+		try {
+			setParameters(stm, sql, profile);
 			stm.executeUpdate();
-			stm.close();
-			
 			return true;
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
-			
 		}
+		
 		return false;
+	}
+	
 	
+	/**
+	 * Borrowing connection from pool.
+	 * @return borrowed connection, or null if the internal connection is shared.
+	 * @throws SQLException if connection cannot be borrowed.
+	 */
+	private PooledConnection borrow() throws SQLException {
+		if (pool == null)
+			return null;
 		
+		PooledConnection pc = pool.borrow();
+		if (pc == null)
+			throw new SQLException("Cannot borrow pooled connection");
+		else
+			return pc;
+	}
+	
+	
+	/**
+	 * Getting JDBC connection of specified pooled connection.
+	 * @param pc specified pooled connection, which is null if the internal connection is shared.
+	 * @return JDBC connection of specified pooled connection, or the internal connection if the specified pooled connection is null.
+	 */
+	private Connection connectionOf(PooledConnection pc) {
+		return pc != null ? pc.getConnection() : conn;
+	}
+	
+	
+	/**
+	 * Preparing SQL statement by specified pooled connection or the internal connection.
+	 * @param pc specified pooled connection, which is null if the internal connection is shared.
+	 * @param sql SQL statement.
+	 * @param resultSetType type of result set.
+	 * @return prepared statement.
+	 * @throws SQLException if any error raises.
+	 */
+	private PreparedStatement prepare(PooledConnection pc, String sql, int resultSetType) throws SQLException {
+		if (pc != null)
+			return pc.prepare(sql, resultSetType);
+		else
+			return conn.prepareStatement(sql, resultSetType, ResultSet.CONCUR_READ_ONLY);
+	}
+	
+	
+	/**
+	 * Closing specified statement unless it is cached by specified pooled connection.
+	 * @param pc specified pooled connection, which is null if the internal connection is shared.
+	 * @param stm specified statement.
+	 */
+	private static void closeStatement(PooledConnection pc, Statement stm) {
+		if (stm == null || (pc != null && pc.isCached(stm)))
+			return;
+		
+		try {
+			stm.close();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+	}
+	
+	
+	/**
+	 * Setting parameters of specified prepared statement by values of specified profile.
+	 * @param stm specified prepared statement.
+	 * @param paramSql SQL statement with indexes of parameters.
+	 * @param profile specified profile.
+	 * @throws SQLException if any error raises.
+	 */
+	private static void setParameters(PreparedStatement stm, ParamSql paramSql, Profile profile) throws SQLException {
+		if (profile == null)
+			return;
+		
+		AttributeList attList = profile.getAttRef();
+		List<Integer> indexes = paramSql.getIndexes();
+		for (int i = 0; i < indexes.size(); i++) {
+			
+			int index = indexes.get(i);
+			Attribute att = attList.get(index);
+			Type type = att.getType();
+			
+			if (profile.isMissing(index)) {
+				stm.setNull(i + 1, toSqlType(type));
+				continue;
+			}
+			
+			switch (type) {
+			case bit:
+				stm.setByte(i + 1, (byte)profile.getValueAsInt(index));
+				break;
+			case nominal:
+				stm.setInt(i + 1, profile.getValueAsInt(index));
+				break;
+			case integer:
+				stm.setInt(i + 1, profile.getValueAsInt(index));
+				break;
+			case real:
+				stm.setDouble(i + 1, profile.getValueAsReal(index));
+				break;
+			case string:
+				stm.setString(i + 1, profile.getValueAsString(index));
+				break;
+			case date:
+				Date date =  (Date)profile.getValue(index);
+				stm.setDate(i + 1, new java.sql.Date(date.getTime()));
+				break;
+			case object:
+				stm.setObject(i + 1, profile.getValue(index));
+				break;
+			default:
+				stm.setObject(i + 1, profile.getValue(index));
+			}
+		}
 	}
 	
 
@@ -2628,6 +2950,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	
 	@Override
 	public void close() throws Exception {
+		if (pool != null)
+			pool.close();
+		pool = null;
+		
 		if (conn != null) {
 			try {
 				conn.close();
@@ -2645,9 +2971,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 	/**
 	 * Create connection from configuration.
 	 * 
+	 * @param config configuration.
 	 * @return {@link Connection} created.
 	 */
-	private static Connection createConnection(DataConfig config) {
+	static Connection createConnection(DataConfig config) {
 		String username = config.getStoreAccount();
 		HiddenText password = config.getStorePassword();
 		
@@ -2656,6 +2983,8 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 			String url = config.getStoreUri().toString();
 			Properties properties = new Properties();
 			properties.setProperty("useSSL", "false");
+			if (config.getDbFetchSize() > 0)
+				properties.setProperty("useCursorFetch", "true"); // MySQL streams result sets by fetch size only with cursor fetch.
 			if (username != null && password != null) {
 				properties.setProperty("user", username);
 				properties.setProperty("password", password.getText());
@@ -2680,10 +3009,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 		
 		try {
 			Statement stm = rs.getStatement();
-			if (stm != null && !stm.isClosed())
-				stm.close();
-			
 			rs.close();
+			
+			if (!DbConnectionPool.release(stm) && stm != null && !stm.isClosed())
+				stm.close();
 		} 
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -2693,11 +3022,14 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 
 	/**
 	 * This class is fetcher of database table.
+	 * If the result set is forward-only, see {@link DataConfig#getDbFetchSize()}, this fetcher is reset by executing its query again by {@link #executeAgain()},
+	 * and its size is counted by {@link #countRows()} when its meta-data is retrieved at the first time.
+	 * This fetcher is block fetcher so that its remote version {@link RmiDbFetcher} serves blocks of rows in one remote call.
 	 * @param <E> type of elements.
 	 * @author Loc Nguyen
 	 * @version 10.0
 	 */
-	static abstract class DbFetcher<E /*extends Serializable*/> implements Fetcher<E> {
+	static abstract class DbFetcher<E /*extends Serializable*/> implements BlockFetcher<E> {
 		
 		/**
 		 * Default serial version UID.
@@ -2714,6 +3046,11 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 		 */
 		protected FetcherMetadata metadata = null;
 		
+		/**
+		 * Flag to indicate whether the size in meta-data is known.
+		 */
+		protected boolean sized = false;
+		
 		/**
 		 * Constructor with specified result set.
 		 * @param rs specified result set.
@@ -2723,9 +3060,10 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 			this.metadata = new FetcherMetadata();
 			
 			try {
-				if (rs.last()) {
-					this.metadata.setSize(rs.getRow());
+				if (rs.getType() != ResultSet.TYPE_FORWARD_ONLY) {
+					if (rs.last()) this.metadata.setSize(rs.getRow());
 					rs.beforeFirst();
+					sized = true;
 				}
 			} 
 			catch (Throwable e) {
@@ -2750,20 +3088,68 @@ class DbProviderAssoc extends ProviderAssocAbstract {
 			return create(rs);
 		}
 
+		@Override
+		public List<E> nextBlock(int blockSize) throws RemoteException {
+			List<E> block = Util.newList();
+			while (block.size() < blockSize && next())
+				block.add(pick());
+			
+			return block;
+		}
+
+		/**
+		 * Forward-only result set is closed and then its query is executed again.
+		 * @throws RemoteException if the result set is forward-only and its query cannot be executed again.
+		 */
 		@Override
 		public void reset() throws RemoteException {
+			if (rs == null) return;
+			
 			try {
-				rs.beforeFirst();
+				if (rs.getType() != ResultSet.TYPE_FORWARD_ONLY) {
+					rs.beforeFirst();
+					return;
+				}
 			} 
 			catch (Throwable e) {
 				LogUtil.trace(e);
+				return;
 			}
+			
+			//Pooled connection is given back before the query is executed again.
+			closeResultSet(rs);
+			rs = executeAgain();
+			if (rs == null)
+				throw new RemoteException("Database fetcher cannot be reset because its query cannot be executed again");
 		}
 
 		@Override
 		public FetcherMetadata getMetadata() throws RemoteException {
+			if (!sized && metadata != null) {
+				metadata.setSize(countRows());
+				sized = true;
+			}
+			
 			return metadata;
 		}
+		
+		/**
+		 * Executing the query of this fetcher again, which is used to reset forward-only result set.
+		 * Fetchers whose query can be executed again should override this method.
+		 * @return new result set of the query, or null if the query cannot be executed again.
+		 */
+		protected ResultSet executeAgain() {
+			return null;
+		}
+		
+		/**
+		 * Counting rows of the query of this fetcher, which is used for the size of forward-only result set.
+		 * Fetchers whose query can be executed again should override this method.
+		 * @return number of rows of the query, or 0 if they cannot be counted.
+		 */
+		protected int countRows() {
+			return 0;
+		}
 
 		@Override
 		public void close() throws RemoteException {
@@ -0,0 +1,88 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.factory;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import net.hudup.core.Constants;
+import net.hudup.core.data.ProviderAssoc.CsvReader;
+import net.hudup.core.logistic.LogUtil;
+
+/**
+ * This is default reader for reading CSV file.
+ * 
+ * @author Loc Nguyen
+ * @version 12.0
+ *
+ */
+class DefaultCsvReader implements CsvReader {
+
+	
+	/**
+	 * Internal reader
+	 */
+	protected com.csvreader.CsvReader csvReader = null;
+	
+	
+	/**
+	 * Constructor with reader.
+	 * @param reader specified reader.
+	 */
+	public DefaultCsvReader(Reader reader) {
+		csvReader = new com.csvreader.CsvReader(reader);
+	}
+	
+	
+	@Override
+	public boolean readHeader() throws IOException {
+		return csvReader.readHeaders();
+	}
+	
+	
+	@Override
+	public String[] getHeader() throws IOException {
+		return csvReader.getHeaders();
+	}
+
+	
+	@Override
+	public boolean readRecord() throws IOException {
+		return csvReader.readRecord();
+	}
+	
+	
+	@Override
+	public String[] getRecord() throws IOException {
+		return csvReader.getValues();
+	}
+	
+	
+	@Override
+	public void close() {
+		if (csvReader == null) return;
+		
+		try {
+			csvReader.close();
+		} catch (Throwable e) {LogUtil.trace(e);}
+		csvReader = null;
+	}
+
+
+	@Override
+	protected void finalize() throws Throwable {
+//		super.finalize();
+		
+		try {
+			if (!Constants.CALL_FINALIZE) return;
+			close();
+		} catch (Throwable e) {LogUtil.errorNoLog("Finalize error: " + e.getMessage());}
+	}
+
+
+}
@@ -10,7 +10,6 @@ package net.hudup.core.factory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.Reader;
 import java.io.Writer;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
@@ -90,6 +89,7 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 		
 		try {
 			xURI unitURI = getUnitUri(unit);
+			FlatUnitLog.discard(unitURI);
 			if (adapter.exists(unitURI))
 				adapter.delete(unitURI, null);
 			adapter.create(unitURI, false);
@@ -129,6 +129,8 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 					continue;
 				
 				String unitName = u.getLastName();
+				if (FlatUnitLog.isSidecar(unitName))
+					continue;
 				Unit unit = new Unit(unitName);
 				if (!defaultUnitList.contains(unitName))
 					unit.setExtra(true);
@@ -167,7 +169,9 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 		xURI unitURI = getUnitUri(unitName);
 		if (unitURI == null)
 			return true;
-		else if (adapter.exists(unitURI))
+		
+		FlatUnitLog.discard(unitURI);
+		if (adapter.exists(unitURI))
 			return adapter.delete(unitURI, null);
 		else
 			return true;
@@ -276,6 +280,9 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 
 	@Override
 	public boolean containsProfile(String profileUnit, Profile profile) {
+		FlatUnitLog log = getLog(profileUnit);
+		if (log != null && log.isKeyCondition(profile))
+			return log.get(profile) != null;
 		
 		CsvReader reader = getReader(profileUnit);
 		boolean found = false;
@@ -316,6 +323,12 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 	public Profile getProfile(String profileUnit, Profile condition) {
 		
 		AttributeList attributes = getAttributes(profileUnit);
+		FlatUnitLog log = getLog(profileUnit);
+		if (log != null && log.isKeyCondition(condition)) {
+			String[] record = log.get(condition);
+			return record != null ? getProfile(record, attributes) : null;
+		}
+		
 		Profile returnProfile = null;
 		CsvReader reader = null;
 		try {
@@ -503,6 +516,10 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 		if (profile == null || profile.getAttCount() == 0)
 			return false;
 		
+		FlatUnitLog log = getLog(profileUnit);
+		if (log != null)
+			return log.upsert(toStringArray(profile));
+		
 		boolean result = true;
 		CsvWriter writer = getWriter(profileUnit, true);
 		try {
@@ -527,12 +544,61 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 	}
 	
 	
+	/**
+	 * Appending all profiles to the specified unit by one writer, or to the log of the unit in flat log mode.
+	 */
+	@Override
+	public boolean insertProfiles(String profileUnit, Collection<Profile> profiles) {
+		if (profiles == null || profiles.size() == 0)
+			return true;
+		
+		List<String[]> records = Util.newList(profiles.size());
+		boolean result = true;
+		for (Profile profile : profiles) {
+			if (profile == null || profile.getAttCount() == 0)
+				result = false;
+			else
+				records.add(toStringArray(profile));
+		}
+		
+		FlatUnitLog log = getLog(profileUnit);
+		if (log != null)
+			return log.upsert(records) && result;
+		
+		CsvWriter writer = getWriter(profileUnit, true);
+		if (writer == null)
+			return false;
+		try {
+			for (String[] record : records)
+				writer.writeRecord(record);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			result = false;
+		}
+		finally {
+			try {
+				writer.close();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+		}
+		
+		return result;
+	}
+	
+	
 	@NextUpdate
 	@Override
 	public boolean updateProfile(String profileUnit, Profile profile) {
 		if (profile == null || profile.getAttCount() == 0)
 			return false;
 		
+		FlatUnitLog log = getLog(profileUnit);
+		if (log != null)
+			return log.upsert(toStringArray(profile));
+		
 		CsvReader reader = null;
 		CsvWriter writer = null;
 		boolean result = true;
@@ -599,6 +665,10 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 		if (condition == null || condition.getAttCount() == 0)
 			return false;
 		
+		FlatUnitLog log = getLog(profileUnit);
+		if (log != null)
+			return log.delete(condition);
+		
 		CsvReader reader = null;
 		CsvWriter writer = null;
 		boolean result = true;
@@ -689,6 +759,30 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 	}
 	
 	
+	/**
+	 * Getting append-only log of specified unit when flat log mode is enabled, see {@link DataConfig#isFlatLogMode()}.
+	 * If flat log mode is disabled, pending changes logged before are compacted into the unit so that the unit is read and written directly.
+	 * @param unit specified unit.
+	 * @return {@link FlatUnitLog} of specified unit, or null if flat log mode is disabled, the unit is Excel file, or the unit has no key attribute.
+	 */
+	private FlatUnitLog getLog(String unit) {
+		if (unit == null || unit.isEmpty())
+			return null;
+		xURI unitURI = getUnitUri(unit);
+		if (unitURI == null)
+			return null;
+		
+		String ext = unitURI.getLastNameExtension();
+		if (ext != null && ext.toLowerCase().equals("xls"))
+			return null;
+		else if (config.isFlatLogMode())
+			return FlatUnitLog.get(unitURI);
+		
+		FlatUnitLog.release(unitURI);
+		return null;
+	}
+	
+	
 	/**
 	 * Comparing the specified record and the specified profile.
 	 * @param header specified header.
@@ -876,6 +970,10 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 		if (unitURI == null || !adapter.exists(unitURI))
 			return null;
 		
+		FlatUnitLog log = getLog(unit);
+		if (log != null)
+			return log.getReader();
+		
 		String ext = unitURI.getLastNameExtension();
 		if (ext == null || ext.isEmpty())
 			return new DefaultCsvReader(adapter.getReader(unitURI));
@@ -907,6 +1005,12 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 		if (unitURI == null || !adapter.exists(unitURI))
 			return null;
 		
+		FlatUnitLog log = getLog(unit);
+		if (log != null && append)
+			return log.getWriter();
+		else if (log != null)
+			FlatUnitLog.discard(unitURI);
+		
 		String ext = unitURI.getLastNameExtension();
 		if (ext == null || ext.isEmpty())
 			return new DefaultCsvWriter(adapter.getWriter(unitURI, append));
@@ -933,81 +1037,6 @@ class FlatProviderAssoc extends ProviderAssocAbstract {
 
 
 
-/**
- * This is default reader for reading CSV file.
- * 
- * @author Loc Nguyen
- * @version 12.0
- *
- */
-class DefaultCsvReader implements CsvReader {
-
-	
-	/**
-	 * Internal reader
-	 */
-	protected com.csvreader.CsvReader csvReader = null;
-	
-	
-	/**
-	 * Constructor with reader.
-	 * @param reader specified reader.
-	 */
-	public DefaultCsvReader(Reader reader) {
-		csvReader = new com.csvreader.CsvReader(reader);
-	}
-	
-	
-	@Override
-	public boolean readHeader() throws IOException {
-		return csvReader.readHeaders();
-	}
-	
-	
-	@Override
-	public String[] getHeader() throws IOException {
-		return csvReader.getHeaders();
-	}
-
-	
-	@Override
-	public boolean readRecord() throws IOException {
-		return csvReader.readRecord();
-	}
-	
-	
-	@Override
-	public String[] getRecord() throws IOException {
-		return csvReader.getValues();
-	}
-	
-	
-	@Override
-	public void close() {
-		if (csvReader == null) return;
-		
-		try {
-			csvReader.close();
-		} catch (Throwable e) {LogUtil.trace(e);}
-		csvReader = null;
-	}
-
-
-	@Override
-	protected void finalize() throws Throwable {
-//		super.finalize();
-		
-		try {
-			if (!Constants.CALL_FINALIZE) return;
-			close();
-		} catch (Throwable e) {LogUtil.errorNoLog("Finalize error: " + e.getMessage());}
-	}
-
-
-}
-
-
-
 /**
  * This is default writer for writing CSV file.
  * 
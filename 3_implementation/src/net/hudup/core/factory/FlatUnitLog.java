@@ -0,0 +1,952 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.factory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+import net.hudup.core.data.Attribute;
+import net.hudup.core.data.Profile;
+import net.hudup.core.data.ProviderAssoc.CsvReader;
+import net.hudup.core.data.ProviderAssoc.CsvWriter;
+import net.hudup.core.logistic.LogUtil;
+import net.hudup.core.logistic.UriAdapter;
+import net.hudup.core.logistic.xURI;
+
+/**
+ * This class keeps a flat (CSV) unit having key attributes in memory, indexed by key values, and records changes of such unit in an append-only log file beside the unit.
+ * Inserting, updating, and deleting records only append to the log instead of rewriting the unit. When the log is long enough or its oldest change waited for {@link #COMPACT_INTERVAL}, it is compacted into the unit in background:
+ * the log is rotated, the unit is rewritten from memory into a temporary file which then replaces the unit, and the rotated log is deleted.
+ * When the unit is loaded, the unit is read and then the rotated log and the log are replayed, so changes survive crashes at any step of compaction.
+ * There is only one instance per unit in a Java virtual machine so that all flat provider associators share the same records.
+ * Pending changes are compacted and the instance is released when the unit is accessed with flat log mode disabled, so that the unit is read directly.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+class FlatUnitLog {
+
+
+	/**
+	 * Suffix of log file.
+	 */
+	public final static String LOG_SUFFIX = "~log";
+
+
+	/**
+	 * Suffix of rotated log file which is being compacted.
+	 */
+	public final static String ROTATED_LOG_SUFFIX = "~log0";
+
+
+	/**
+	 * Suffix of temporary unit file written by compaction.
+	 */
+	public final static String TEMP_SUFFIX = "~tmp";
+
+
+	/**
+	 * Minimum number of logged changes before compaction. Compaction starts when the number of logged changes reaches the number of records in the unit or this minimum number.
+	 */
+	public final static int COMPACT_MIN_CHANGES = 10000;
+
+
+	/**
+	 * Maximum number of logged changes before compaction, so that logs of large units are not too long to be replayed when units are loaded.
+	 */
+	public final static int COMPACT_MAX_CHANGES = 100000;
+
+
+	/**
+	 * Maximum time in miliseconds that logged changes wait for compaction, so that readers outside this Java virtual machine see changes soon.
+	 */
+	public final static long COMPACT_INTERVAL = 60000;
+
+
+	/**
+	 * Operation of inserting or updating a record.
+	 */
+	private final static String UPSERT = "U";
+
+
+	/**
+	 * Operation of deleting records matching a condition.
+	 */
+	private final static String DELETE = "D";
+
+
+	/**
+	 * Logs of units keyed by unit URIs.
+	 */
+	private final static Map<String, FlatUnitLog> logs = Util.newMap();
+
+
+	/**
+	 * Timer which compacts logs whose oldest change waited for {@link #COMPACT_INTERVAL}. It is created when the first log is loaded.
+	 */
+	private static Timer timer = null;
+
+
+	/**
+	 * URI adapter of this log, which is not shared with flat provider associators because this log outlives them.
+	 */
+	protected UriAdapter adapter = null;
+
+
+	/**
+	 * URI of unit.
+	 */
+	protected xURI unitUri = null;
+
+
+	/**
+	 * URI of log.
+	 */
+	protected xURI logUri = null;
+
+
+	/**
+	 * URI of rotated log.
+	 */
+	protected xURI rotatedLogUri = null;
+
+
+	/**
+	 * URI of temporary unit.
+	 */
+	protected xURI tempUri = null;
+
+
+	/**
+	 * Header of unit.
+	 */
+	protected String[] header = null;
+
+
+	/**
+	 * Attributes parsed from header.
+	 */
+	protected Attribute[] attributes = null;
+
+
+	/**
+	 * Indices of key attributes.
+	 */
+	protected int[] keyIndices = null;
+
+
+	/**
+	 * Records of unit in order, keyed by key values.
+	 */
+	protected Map<String, String[]> records = new LinkedHashMap<String, String[]>();
+
+
+	/**
+	 * Number of changes in the log.
+	 */
+	protected int logCount = 0;
+
+
+	/**
+	 * Time in miliseconds of the oldest change in the log, which is 0 if the log has no change.
+	 */
+	protected long firstChangeTime = 0;
+
+
+	/**
+	 * Number of records in the unit when it was loaded or compacted last time.
+	 */
+	protected int unitCount = 0;
+
+
+	/**
+	 * Writer of the log, which is opened lazily.
+	 */
+	protected com.csvreader.CsvWriter logWriter = null;
+
+
+	/**
+	 * Flag to indicate whether compaction is running.
+	 */
+	protected boolean compacting = false;
+
+
+	/**
+	 * Flag to indicate whether this log was discarded because the unit was created again or dropped.
+	 */
+	protected boolean discarded = false;
+
+
+	/**
+	 * Constructor with specified unit URI.
+	 * @param unitUri specified unit URI.
+	 */
+	private FlatUnitLog(xURI unitUri) {
+		this.adapter = new UriAdapter(unitUri);
+		this.unitUri = unitUri;
+		this.logUri = sidecar(unitUri, LOG_SUFFIX);
+		this.rotatedLogUri = sidecar(unitUri, ROTATED_LOG_SUFFIX);
+		this.tempUri = sidecar(unitUri, TEMP_SUFFIX);
+	}
+
+
+	/**
+	 * Getting the log of the specified unit, which is loaded at the first time.
+	 * @param unitUri specified unit URI.
+	 * @return the log of the specified unit, or null if the unit does not exist or has no key attribute.
+	 */
+	public static FlatUnitLog get(xURI unitUri) {
+		if (unitUri == null) return null;
+
+		synchronized (logs) {
+			String key = unitUri.toString();
+			if (logs.containsKey(key))
+				return logs.get(key);
+
+			FlatUnitLog log = new FlatUnitLog(unitUri);
+			if (log.load()) {
+				logs.put(key, log);
+				if (timer == null) {
+					timer = new Timer("Flat unit compaction timer", true);
+					timer.schedule(new TimerTask() {
+						
+						@Override
+						public void run() {
+							compactStaleLogs();
+						}
+					}, COMPACT_INTERVAL, COMPACT_INTERVAL);
+				}
+				return log;
+			}
+
+			//Unit without key attribute is remembered so that it is not loaded again.
+			if (log.header != null) logs.put(key, null);
+			log.adapter.close();
+			return null;
+		}
+	}
+
+
+	/**
+	 * Discarding the log of the specified unit and deleting log files. This method is called when the unit is created again or dropped.
+	 * @param unitUri specified unit URI.
+	 */
+	public static void discard(xURI unitUri) {
+		if (unitUri == null) return;
+
+		FlatUnitLog log = null;
+		synchronized (logs) {
+			log = logs.remove(unitUri.toString());
+		}
+
+		if (log != null) {
+			synchronized (log) {
+				log.discarded = true;
+				log.closeLogWriter();
+			}
+		}
+
+		UriAdapter adapter = new UriAdapter(unitUri);
+		try {
+			xURI[] sidecars = {sidecar(unitUri, LOG_SUFFIX), sidecar(unitUri, ROTATED_LOG_SUFFIX), sidecar(unitUri, TEMP_SUFFIX)};
+			for (xURI uri : sidecars) {
+				if (adapter.exists(uri)) adapter.delete(uri, null);
+			}
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		finally {
+			adapter.close();
+		}
+	}
+
+
+	/**
+	 * Compacting pending changes of the specified unit into the unit and then releasing its log from memory.
+	 * This method is called when the unit is accessed with flat log mode disabled so that the unit is read and written directly.
+	 * @param unitUri specified unit URI.
+	 */
+	public static void release(xURI unitUri) {
+		if (unitUri == null) return;
+
+		String key = unitUri.toString();
+		FlatUnitLog log = null;
+		synchronized (logs) {
+			log = logs.get(key);
+		}
+
+		if (log == null) {
+			UriAdapter adapter = new UriAdapter(unitUri);
+			try {
+				if (!adapter.exists(sidecar(unitUri, LOG_SUFFIX)) && !adapter.exists(sidecar(unitUri, ROTATED_LOG_SUFFIX)))
+					return;
+			}
+			finally {
+				adapter.close();
+			}
+
+			log = get(unitUri); //Loading replays logs.
+			if (log == null) return;
+		}
+
+		synchronized (log) {
+			while (log.compacting) {
+				try {
+					log.wait();
+				}
+				catch (Throwable e) {
+					LogUtil.trace(e);
+				}
+			}
+			log.compacting = true;
+		}
+		log.compact();
+
+		synchronized (logs) {
+			if (logs.get(key) == log) logs.remove(key);
+		}
+	}
+
+
+	/**
+	 * Compacting logs whose oldest change waited for {@link #COMPACT_INTERVAL}, which is called by timer.
+	 */
+	private static void compactStaleLogs() {
+		List<FlatUnitLog> loadedLogs = Util.newList();
+		synchronized (logs) {
+			for (FlatUnitLog log : logs.values()) {
+				if (log != null) loadedLogs.add(log);
+			}
+		}
+
+		long now = System.currentTimeMillis();
+		for (FlatUnitLog log : loadedLogs) {
+			synchronized (log) {
+				if (log.compacting || log.logCount == 0 || now - log.firstChangeTime < COMPACT_INTERVAL)
+					continue;
+				log.compacting = true;
+			}
+			log.compact();
+		}
+	}
+
+
+	/**
+	 * Testing whether the specified unit name is the name of a log file or a temporary file.
+	 * @param unitName specified unit name.
+	 * @return whether the specified unit name is the name of a log file or a temporary file.
+	 */
+	public static boolean isSidecar(String unitName) {
+		return unitName != null &&
+			(unitName.endsWith(LOG_SUFFIX) || unitName.endsWith(ROTATED_LOG_SUFFIX) || unitName.endsWith(TEMP_SUFFIX));
+	}
+
+
+	/**
+	 * Getting URI of the file beside the specified unit with the specified suffix.
+	 * @param unitUri specified unit URI.
+	 * @param suffix specified suffix.
+	 * @return URI of the file beside the specified unit.
+	 */
+	private static xURI sidecar(xURI unitUri, String suffix) {
+		return unitUri.getParent().concat(unitUri.getLastName() + suffix);
+	}
+
+
+	/**
+	 * Loading the unit and replaying logs.
+	 * @return whether the unit is loaded, which is false if the unit does not exist or has no key attribute.
+	 */
+	private boolean load() {
+		if (!adapter.exists(unitUri) && adapter.exists(tempUri))
+			adapter.rename(tempUri, unitUri);
+		if (!adapter.exists(unitUri))
+			return false;
+
+		CsvReader reader = null;
+		try {
+			reader = new DefaultCsvReader(adapter.getReader(unitUri));
+			if (!reader.readHeader()) return false;
+			header = reader.getHeader();
+
+			attributes = new Attribute[header.length];
+			List<Integer> keys = Util.newList();
+			for (int i = 0; i < header.length; i++) {
+				attributes[i] = new Attribute();
+				attributes[i].parseText(header[i]);
+				if (attributes[i].isKey()) keys.add(i);
+			}
+			if (keys.size() == 0) return false;
+
+			keyIndices = new int[keys.size()];
+			for (int i = 0; i < keyIndices.length; i++) keyIndices[i] = keys.get(i);
+
+			while (reader.readRecord()) {
+				String[] record = reader.getRecord();
+				if (record.length == 0)
+					continue;
+
+				records.put(keyOf(record), record);
+			}
+			reader.close();
+			reader = null;
+			unitCount = records.size();
+
+			boolean rotated = adapter.exists(rotatedLogUri);
+			if (rotated) replay(rotatedLogUri);
+			if (adapter.exists(logUri)) logCount = replay(logUri);
+
+			//Compaction was interrupted, so it is done again now.
+			if (rotated) compact();
+
+			return true;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Flat unit log fails to load unit " + unitUri + ", caused by " + e.getMessage());
+		}
+		finally {
+			if (reader != null) reader.close();
+		}
+
+		return false;
+	}
+
+
+	/**
+	 * Replaying the specified log.
+	 * @param uri URI of the specified log.
+	 * @return the number of replayed changes.
+	 * @throws IOException if any error raises.
+	 */
+	private int replay(xURI uri) throws IOException {
+		int count = 0;
+		com.csvreader.CsvReader reader = new com.csvreader.CsvReader(adapter.getReader(uri), FlatProviderAssoc.DELIMITER);
+		try {
+			while (reader.readRecord()) {
+				String[] values = reader.getValues();
+				if (values.length < 2)
+					continue;
+
+				String[] data = new String[values.length - 1];
+				System.arraycopy(values, 1, data, 0, data.length);
+				if (values[0].equals(UPSERT))
+					records.put(keyOf(data), data);
+				else if (values[0].equals(DELETE))
+					remove(data);
+				else
+					continue;
+
+				count++;
+			}
+		}
+		finally {
+			reader.close();
+		}
+
+		return count;
+	}
+
+
+	/**
+	 * Getting the header of the unit.
+	 * @return the header of the unit.
+	 */
+	public String[] getHeader() {
+		return header;
+	}
+
+
+	/**
+	 * Creating a reader of current records of the unit. Later changes do not affect the reader.
+	 * @return reader of current records of the unit.
+	 */
+	public synchronized CsvReader getReader() {
+		List<String[]> snapshot = Util.newList(records.size());
+		snapshot.addAll(records.values());
+		return new MemCsvReader(header, snapshot);
+	}
+
+
+	/**
+	 * Creating a writer which inserts or updates records through this log.
+	 * @return writer which inserts or updates records through this log.
+	 */
+	public CsvWriter getWriter() {
+		return new CsvWriter() {
+
+			@Override
+			public boolean writeRecord(String[] record) throws IOException {
+				if (!upsert(record))
+					throw new IOException("Fail to append record to log " + logUri);
+				return true;
+			}
+
+			@Override
+			public void close() {
+
+			}
+		};
+	}
+
+
+	/**
+	 * Testing whether the specified condition specifies all key values so that records can be looked up by index.
+	 * @param condition specified condition.
+	 * @return whether the specified condition specifies all key values.
+	 */
+	public boolean isKeyCondition(Profile condition) {
+		return condition != null && keyOfPairs(toPairs(condition)) != null;
+	}
+
+
+	/**
+	 * Looking up the record matching the specified condition by index. The condition must specify all key values.
+	 * @param condition specified condition which specifies all key values.
+	 * @return the record matching the specified condition, or null if not found.
+	 */
+	public synchronized String[] get(Profile condition) {
+		String[] pairs = toPairs(condition);
+		String key = keyOfPairs(pairs);
+		String[] record = key != null ? records.get(key) : null;
+		if (record == null) return null;
+
+		return matches(record, pairs) ? record : null;
+	}
+
+
+	/**
+	 * Inserting or updating the specified record, which is appended to the log.
+	 * @param record specified record whose values are in order of the header.
+	 * @return whether insert or update successfully.
+	 */
+	public synchronized boolean upsert(String[] record) {
+		if (discarded || record == null || record.length == 0) return false;
+
+		if (!append(UPSERT, record, true)) return false;
+		records.put(keyOf(record), record);
+		return true;
+	}
+
+
+	/**
+	 * Inserting or updating many records, which are appended to the log and flushed once.
+	 * @param records specified records whose values are in order of the header.
+	 * @return whether insert or update successfully.
+	 */
+	public synchronized boolean upsert(Collection<String[]> records) {
+		if (discarded || records == null) return false;
+
+		boolean result = true;
+		for (String[] record : records) {
+			if (record == null || record.length == 0 || !append(UPSERT, record, false))
+				result = false;
+			else
+				this.records.put(keyOf(record), record);
+		}
+
+		try {
+			if (logWriter != null) logWriter.flush();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			result = false;
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Deleting records matching the specified condition, which is appended to the log.
+	 * @param condition specified condition.
+	 * @return whether delete successfully.
+	 */
+	public synchronized boolean delete(Profile condition) {
+		if (discarded || condition == null) return false;
+
+		String[] pairs = toPairs(condition);
+		if (!append(DELETE, pairs, true)) return false;
+		remove(pairs);
+		return true;
+	}
+
+
+	/**
+	 * Removing records matching the specified pairs of attribute names and values.
+	 * @param pairs specified pairs of attribute names and values.
+	 */
+	private void remove(String[] pairs) {
+		String key = keyOfPairs(pairs);
+		if (key != null) {
+			String[] record = records.get(key);
+			if (record != null && matches(record, pairs)) records.remove(key);
+			return;
+		}
+
+		Iterator<String[]> it = records.values().iterator();
+		while (it.hasNext()) {
+			if (matches(it.next(), pairs)) it.remove();
+		}
+	}
+
+
+	/**
+	 * Appending the specified change to the log. Compaction is started in background if the log is long enough.
+	 * @param op specified operation.
+	 * @param data specified data of the change.
+	 * @param flush whether to flush the log.
+	 * @return whether append successfully.
+	 */
+	private boolean append(String op, String[] data, boolean flush) {
+		try {
+			if (logWriter == null) {
+				Writer writer = adapter.getWriter(logUri, true);
+				if (writer == null) return false;
+				logWriter = new com.csvreader.CsvWriter(writer, FlatProviderAssoc.DELIMITER);
+			}
+
+			String[] values = new String[data.length + 1];
+			values[0] = op;
+			System.arraycopy(data, 0, values, 1, data.length);
+			logWriter.writeRecord(values);
+			if (flush) logWriter.flush();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Flat unit log fails to append change to " + logUri + ", caused by " + e.getMessage());
+			closeLogWriter();
+			return false;
+		}
+
+		if (logCount == 0) firstChangeTime = System.currentTimeMillis();
+		logCount++;
+		boolean longLog = logCount >= Math.min(COMPACT_MAX_CHANGES, Math.max(COMPACT_MIN_CHANGES, unitCount));
+		if (!compacting && (longLog || System.currentTimeMillis() - firstChangeTime >= COMPACT_INTERVAL)) {
+			compacting = true;
+			Thread thread = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					compact();
+				}
+			}, "Flat unit compaction");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * Closing the writer of the log.
+	 */
+	private void closeLogWriter() {
+		if (logWriter == null) return;
+
+		try {
+			logWriter.close();
+		} catch (Throwable e) {LogUtil.trace(e);}
+		logWriter = null;
+	}
+
+
+	/**
+	 * Compacting the log into the unit. Writers are blocked only while the log is rotated and while the temporary unit replaces the unit.
+	 */
+	private void compact() {
+		List<String[]> snapshot = null;
+		synchronized (this) {
+			compacting = true;
+			if (discarded) {
+				compacting = false;
+				notifyAll();
+				return;
+			}
+
+			closeLogWriter();
+			if (adapter.exists(logUri)) {
+				if (adapter.exists(rotatedLogUri)) {
+					//Appending the log to the rotated log which was not compacted yet.
+					if (!appendLog(logUri, rotatedLogUri) || !adapter.delete(logUri, null)) {
+						compacting = false;
+						notifyAll();
+						return;
+					}
+				}
+				else if (!adapter.rename(logUri, rotatedLogUri)) {
+					compacting = false;
+					notifyAll();
+					return;
+				}
+			}
+
+			snapshot = Util.newList(records.size());
+			snapshot.addAll(records.values());
+			unitCount = snapshot.size();
+			logCount = 0;
+			firstChangeTime = 0;
+		}
+
+		boolean written = false;
+		com.csvreader.CsvWriter writer = null;
+		try {
+			writer = new com.csvreader.CsvWriter(adapter.getWriter(tempUri, false), FlatProviderAssoc.DELIMITER);
+			writer.writeRecord(header);
+			for (String[] record : snapshot) writer.writeRecord(record);
+			writer.close();
+			writer = null;
+			written = true;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Flat unit log fails to compact unit " + unitUri + ", caused by " + e.getMessage());
+		}
+		finally {
+			if (writer != null) writer.close();
+		}
+
+		synchronized (this) {
+			if (written && !discarded && adapter.rename(tempUri, unitUri))
+				adapter.delete(rotatedLogUri, null);
+			else if (adapter.exists(tempUri))
+				adapter.delete(tempUri, null);
+
+			compacting = false;
+			notifyAll();
+		}
+	}
+
+
+	/**
+	 * Appending content of the source log to the destination log.
+	 * @param src source log.
+	 * @param dst destination log.
+	 * @return whether append successfully.
+	 */
+	private boolean appendLog(xURI src, xURI dst) {
+		StringBuffer content = adapter.readText(src);
+		return content != null && adapter.saveText(dst, content.toString(), true);
+	}
+
+
+	/**
+	 * Getting key of the specified record.
+	 * @param record specified record whose values are in order of the header.
+	 * @return key of the specified record.
+	 */
+	private String keyOf(String[] record) {
+		StringBuffer key = new StringBuffer();
+		for (int index : keyIndices) {
+			if (key.length() > 0) key.append(DELIMITER_KEY);
+			key.append(normalize(attributes[index], index < record.length ? record[index] : null));
+		}
+
+		return key.toString();
+	}
+
+
+	/**
+	 * Getting key of the specified pairs of attribute names and values.
+	 * @param pairs specified pairs of attribute names and values.
+	 * @return key of the specified pairs, or null if the pairs do not specify all key values.
+	 */
+	private String keyOfPairs(String[] pairs) {
+		StringBuffer key = new StringBuffer();
+		for (int index : keyIndices) {
+			String value = null;
+			for (int i = 0; i + 1 < pairs.length; i += 2) {
+				if (pairs[i].equals(attributes[index].getName())) {
+					value = pairs[i + 1];
+					break;
+				}
+			}
+			if (value == null) return null;
+
+			if (key.length() > 0) key.append(DELIMITER_KEY);
+			key.append(normalize(attributes[index], value));
+		}
+
+		return key.toString();
+	}
+
+
+	/**
+	 * Delimiter of key values in key.
+	 */
+	private final static char DELIMITER_KEY = '\u0000';
+
+
+	/**
+	 * Converting the specified condition into pairs of attribute names and values, which skip null values.
+	 * @param condition specified condition.
+	 * @return pairs of attribute names and values.
+	 */
+	private static String[] toPairs(Profile condition) {
+		List<String> pairs = Util.newList();
+		int n = condition.getAttCount();
+		for (int i = 0; i < n; i++) {
+			Object value = condition.getValue(i);
+			if (value == null) continue;
+
+			pairs.add(condition.getAtt(i).getName());
+			pairs.add(toText(value));
+		}
+
+		return pairs.toArray(new String[] { });
+	}
+
+
+	/**
+	 * Testing whether the specified record matches the specified pairs of attribute names and values.
+	 * Like flat provider associator, attribute which is not in the header does not match any record.
+	 * @param record specified record.
+	 * @param pairs specified pairs of attribute names and values.
+	 * @return whether the specified record matches the specified pairs.
+	 */
+	private boolean matches(String[] record, String[] pairs) {
+		for (int i = 0; i + 1 < pairs.length; i += 2) {
+			int index = indexOf(pairs[i]);
+			if (index < 0 || index >= record.length) return false;
+
+			if (!normalize(attributes[index], record[index]).equals(normalize(attributes[index], pairs[i + 1])))
+				return false;
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * Getting index of the specified attribute in the header.
+	 * @param attName specified attribute name.
+	 * @return index of the specified attribute in the header, or -1 if not found.
+	 */
+	private int indexOf(String attName) {
+		for (int i = 0; i < attributes.length; i++) {
+			if (attributes[i].getName().equals(attName)) return i;
+		}
+
+		return -1;
+	}
+
+
+	/**
+	 * Normalizing the specified text with regard to the specified attribute, so that equal values have equal texts.
+	 * @param attribute specified attribute.
+	 * @param text specified text.
+	 * @return normalized text.
+	 */
+	private static String normalize(Attribute attribute, String text) {
+		if (text == null) return "";
+
+		try {
+			Object value = Profile.createValue(attribute, text);
+			return value != null ? value.toString() : "";
+		}
+		catch (Throwable e) {
+			return text;
+		}
+	}
+
+
+	/**
+	 * Converting the specified value into text like flat provider associator does.
+	 * @param value specified value.
+	 * @return text of the specified value.
+	 */
+	private static String toText(Object value) {
+		if (value == null)
+			return "";
+		else if (value instanceof Date)
+			return new SimpleDateFormat(Constants.DATE_FORMAT).format(value);
+		else
+			return value.toString();
+	}
+
+
+	/**
+	 * This is reader of records in memory.
+	 *
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 *
+	 */
+	private static class MemCsvReader implements CsvReader {
+
+		/**
+		 * Header.
+		 */
+		protected String[] header = null;
+
+		/**
+		 * Records.
+		 */
+		protected List<String[]> records = null;
+
+		/**
+		 * Index of current record.
+		 */
+		protected int current = -1;
+
+		/**
+		 * Constructor with header and records.
+		 * @param header specified header.
+		 * @param records specified records.
+		 */
+		public MemCsvReader(String[] header, List<String[]> records) {
+			this.header = header;
+			this.records = records;
+		}
+
+		@Override
+		public boolean readHeader() throws IOException {
+			current = -1;
+			return header != null;
+		}
+
+		@Override
+		public String[] getHeader() throws IOException {
+			return header;
+		}
+
+		@Override
+		public boolean readRecord() throws IOException {
+			if (records == null || current + 1 >= records.size()) return false;
+			current++;
+			return true;
+		}
+
+		@Override
+		public String[] getRecord() throws IOException {
+			return records != null && current >= 0 && current < records.size() ? records.get(current) : null;
+		}
+
+		@Override
+		public void close() {
+			records = null;
+		}
+
+	}
+
+
+}
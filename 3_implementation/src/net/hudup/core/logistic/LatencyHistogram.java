@@ -0,0 +1,247 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.logistic;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * This class is a histogram of latencies in nanoseconds whose buckets are laid out in log-linear form like HDR histogram.
+ * Latencies less than {@link #SUB_BUCKET_COUNT} nanoseconds are counted exactly. Every greater power-of-two range of latencies is divided into
+ * {@link #SUB_BUCKET_COUNT}/2 linear buckets, so that relative error of reported latencies is less than 2/{@link #SUB_BUCKET_COUNT}.
+ * Counts are stored in a fixed primitive array and so recording a latency costs constant time without allocating memory.
+ * Minimum, maximum, and sum of latencies are kept exactly.
+ * This class is not thread-safe.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class LatencyHistogram implements Serializable {
+
+
+	/**
+	 * Serial version UID for serializable class.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/**
+	 * Number of bits of sub-buckets.
+	 */
+	private static final int SUB_BUCKET_BITS = 7;
+
+
+	/**
+	 * Number of exact buckets, which is also twice the number of linear buckets of every power-of-two range.
+	 */
+	public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+
+	/**
+	 * Number of linear buckets of every power-of-two range.
+	 */
+	private static final int HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+
+	/**
+	 * Total number of buckets which covers all non-negative long values.
+	 */
+	private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * HALF_COUNT;
+
+
+	/**
+	 * Counts of buckets.
+	 */
+	protected long[] counts = new long[BUCKET_COUNT];
+
+
+	/**
+	 * Total count of recorded latencies.
+	 */
+	protected long totalCount = 0;
+
+
+	/**
+	 * Minimum latency.
+	 */
+	protected long min = Long.MAX_VALUE;
+
+
+	/**
+	 * Maximum latency.
+	 */
+	protected long max = 0;
+
+
+	/**
+	 * Sum of latencies.
+	 */
+	protected double sum = 0;
+
+
+	/**
+	 * Default constructor.
+	 */
+	public LatencyHistogram() {
+
+	}
+
+
+	/**
+	 * Copy constructor.
+	 * @param other other histogram.
+	 */
+	public LatencyHistogram(LatencyHistogram other) {
+		this.counts = Arrays.copyOf(other.counts, other.counts.length);
+		this.totalCount = other.totalCount;
+		this.min = other.min;
+		this.max = other.max;
+		this.sum = other.sum;
+	}
+
+
+	/**
+	 * Getting bucket index of the specified latency.
+	 * @param nanos specified latency in nanoseconds which is non-negative.
+	 * @return bucket index of the specified latency.
+	 */
+	private static int indexOf(long nanos) {
+		if (nanos < SUB_BUCKET_COUNT) return (int)nanos;
+
+		int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+		int shift = magnitude - SUB_BUCKET_BITS + 1;
+		int sub = (int)(nanos >>> shift) - HALF_COUNT;
+		return SUB_BUCKET_COUNT + (magnitude - SUB_BUCKET_BITS) * HALF_COUNT + sub;
+	}
+
+
+	/**
+	 * Getting the highest latency of the specified bucket.
+	 * @param index specified bucket index.
+	 * @return the highest latency of the specified bucket in nanoseconds.
+	 */
+	private static long highestOf(int index) {
+		if (index < SUB_BUCKET_COUNT) return index;
+
+		int range = (index - SUB_BUCKET_COUNT) / HALF_COUNT;
+		int sub = (index - SUB_BUCKET_COUNT) % HALF_COUNT + HALF_COUNT;
+		int shift = range + 1;
+		long lowest = (long)sub << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+
+	/**
+	 * Recording the specified latency.
+	 * @param nanos specified latency in nanoseconds. Negative latency is recorded as 0.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) nanos = 0;
+
+		counts[indexOf(nanos)]++;
+		totalCount++;
+		if (nanos < min) min = nanos;
+		if (nanos > max) max = nanos;
+		sum += nanos;
+	}
+
+
+	/**
+	 * Adding all latencies of the other histogram to this histogram.
+	 * @param other other histogram.
+	 */
+	public void add(LatencyHistogram other) {
+		if (other == null || other.totalCount == 0) return;
+
+		for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+		totalCount += other.totalCount;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		sum += other.sum;
+	}
+
+
+	/**
+	 * Getting the latency at the specified percentile.
+	 * @param percentile specified percentile from 0 to 100.
+	 * @return the latency in nanoseconds at the specified percentile, which is the highest latency of the bucket containing the percentile and is not greater than maximum latency.
+	 * Return 0 if there is no recorded latency.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0) return 0;
+		if (percentile >= 100) return max;
+
+		long target = (long)Math.ceil(Math.max(0, percentile) / 100.0 * totalCount);
+		target = Math.max(1, target);
+		long cumulative = 0;
+		for (int i = 0; i < counts.length; i++) {
+			cumulative += counts[i];
+			if (cumulative >= target) return Math.min(highestOf(i), max);
+		}
+
+		return max;
+	}
+
+
+	/**
+	 * Getting the number of recorded latencies.
+	 * @return the number of recorded latencies.
+	 */
+	public long getCount() {
+		return totalCount;
+	}
+
+
+	/**
+	 * Getting minimum latency.
+	 * @return minimum latency in nanoseconds, which is 0 if there is no recorded latency.
+	 */
+	public long getMin() {
+		return totalCount > 0 ? min : 0;
+	}
+
+
+	/**
+	 * Getting maximum latency.
+	 * @return maximum latency in nanoseconds, which is 0 if there is no recorded latency.
+	 */
+	public long getMax() {
+		return max;
+	}
+
+
+	/**
+	 * Getting mean latency.
+	 * @return mean latency in nanoseconds, which is 0 if there is no recorded latency.
+	 */
+	public double getMean() {
+		return totalCount > 0 ? sum / totalCount : 0;
+	}
+
+
+	/**
+	 * Resetting this histogram.
+	 */
+	public void reset() {
+		Arrays.fill(counts, 0);
+		totalCount = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+		sum = 0;
+	}
+
+
+	@Override
+	public String toString() {
+		return "count=" + totalCount + ", p50=" + getValueAtPercentile(50) + "ns, p95=" + getValueAtPercentile(95) +
+			"ns, p99=" + getValueAtPercentile(99) + "ns, max=" + max + "ns";
+	}
+
+
+}
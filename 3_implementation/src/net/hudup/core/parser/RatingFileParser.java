@@ -0,0 +1,640 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.core.parser;
+
+import java.io.BufferedReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.hudup.core.Constants;
+import net.hudup.core.Util;
+import net.hudup.core.data.AttributeList;
+import net.hudup.core.data.DataConfig;
+import net.hudup.core.data.ItemRating;
+import net.hudup.core.data.Rating;
+import net.hudup.core.data.RatingVector;
+import net.hudup.core.data.UserRating;
+import net.hudup.core.logistic.LogUtil;
+import net.hudup.core.logistic.xURI;
+
+/**
+ * This class parses rating file in which each line contains user identifier, item identifier, rating value, and optional rating date into user rating vectors and item rating vectors.
+ * The file is read in chunks of bytes which are split at line boundaries and parsed in parallel. Fields are parsed directly from bytes without regular expression or intermediate strings.
+ * Then rating vectors are built in parallel, each thread builds vectors whose identifiers belong to its partition by visiting chunks in order so that the result is the same as parsing the file line by line.
+ * Note that quoted fields containing separators are not supported, which is not a problem with rating files because their fields are numbers and dates.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class RatingFileParser {
+
+
+	/**
+	 * Default separators which are the same to separators of {@link TextParserUtil#DEFAULT_SEP}.
+	 */
+	public final static String DEFAULT_SEPARATORS = " \t\r\f\u000B:|,;";
+
+
+	/**
+	 * Size of chunk in bytes.
+	 */
+	public final static int CHUNK_SIZE = 16 * 1024 * 1024;
+
+
+	/**
+	 * Powers of ten which are exactly represented by double numbers.
+	 */
+	private final static double[] POW10 = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+
+	/**
+	 * Flags of separator bytes.
+	 */
+	protected boolean[] separators = new boolean[256];
+
+
+	/**
+	 * If true, consecutive separators are considered as one separator as in {@link TextParserUtil#split(String, String, String)}.
+	 * Otherwise, each separator delimits a field as in CSV file.
+	 */
+	protected boolean skipEmpty = true;
+
+
+	/**
+	 * Whether the first line is header.
+	 */
+	protected boolean header = false;
+
+
+	/**
+	 * Index of user identifier field.
+	 */
+	protected int userIndex = 0;
+
+
+	/**
+	 * Index of item identifier field.
+	 */
+	protected int itemIndex = 1;
+
+
+	/**
+	 * Index of rating value field.
+	 */
+	protected int ratingIndex = 2;
+
+
+	/**
+	 * Index of rating date field, which is -1 if rating date is not parsed.
+	 */
+	protected int dateIndex = -1;
+
+
+	/**
+	 * Default constructor with default separators. Each line has user identifier, item identifier, and rating value in that order.
+	 */
+	public RatingFileParser() {
+		this(DEFAULT_SEPARATORS, true, false, 0, 1, 2, -1);
+	}
+
+
+	/**
+	 * Constructor with specified separators, header flag, and indices of fields.
+	 * @param separators characters separating fields.
+	 * @param skipEmpty if true, consecutive separators are considered as one separator. Otherwise, each separator delimits a field as in CSV file.
+	 * @param header whether the first line is header.
+	 * @param userIndex index of user identifier field.
+	 * @param itemIndex index of item identifier field.
+	 * @param ratingIndex index of rating value field.
+	 * @param dateIndex index of rating date field, which is -1 if rating date is not parsed.
+	 */
+	public RatingFileParser(String separators, boolean skipEmpty, boolean header, int userIndex, int itemIndex, int ratingIndex, int dateIndex) {
+		for (int i = 0; i < separators.length(); i++)
+			this.separators[separators.charAt(i) & 0xFF] = true;
+		this.separators['\n'] = true;
+		this.skipEmpty = skipEmpty;
+		this.header = header;
+		this.userIndex = userIndex;
+		this.itemIndex = itemIndex;
+		this.ratingIndex = ratingIndex;
+		this.dateIndex = dateIndex;
+	}
+
+
+	/**
+	 * Parsing the specified rating file into user rating vectors and item rating vectors.
+	 * @param file specified rating file.
+	 * @param outUserMap output map of user rating vectors.
+	 * @param outItemMap output map of item rating vectors.
+	 * @return whether parse successfully.
+	 */
+	public boolean parse(Path file, Map<Integer, RatingVector> outUserMap, Map<Integer, RatingVector> outItemMap) {
+		FileChannel channel = null;
+		ExecutorService executor = null;
+		try {
+			channel = FileChannel.open(file, StandardOpenOption.READ);
+			long[] bounds = split(channel);
+			int nChunks = bounds.length - 1;
+			int nThreads = Math.min(Runtime.getRuntime().availableProcessors(), nChunks);
+			if (nThreads > 1)
+				executor = Executors.newFixedThreadPool(nThreads);
+
+			//Parsing chunks
+			List<Callable<Chunk>> parseTasks = Util.newList(nChunks);
+			for (int i = 0; i < nChunks; i++) {
+				final FileChannel ch = channel;
+				final long start = bounds[i];
+				final long end = bounds[i + 1];
+				final boolean skipHeader = header && i == 0;
+				parseTasks.add(new Callable<Chunk>() {
+
+					@Override
+					public Chunk call() throws Exception {
+						return parseChunk(ch, start, end, skipHeader);
+					}
+				});
+			}
+			final List<Chunk> chunks = invoke(executor, parseTasks);
+			channel.close();
+			channel = null;
+
+			int skipped = 0;
+			for (Chunk chunk : chunks) skipped += chunk.skipped;
+			if (skipped > 0)
+				LogUtil.error("Rating file " + file + " has " + skipped + " invalid lines");
+
+			//Building rating vectors
+			if (executor == null) {
+				build(chunks, true, 1, 0, outUserMap);
+				build(chunks, false, 1, 0, outItemMap);
+				return true;
+			}
+
+			List<Callable<Map<Integer, RatingVector>>> buildTasks = Util.newList(2 * nThreads);
+			for (int i = 0; i < 2 * nThreads; i++) {
+				final boolean user = i < nThreads;
+				final int nPartitions = nThreads;
+				final int partition = i % nThreads;
+				buildTasks.add(new Callable<Map<Integer, RatingVector>>() {
+
+					@Override
+					public Map<Integer, RatingVector> call() throws Exception {
+						Map<Integer, RatingVector> vectors = Util.newMap();
+						build(chunks, user, nPartitions, partition, vectors);
+						return vectors;
+					}
+				});
+			}
+			List<Map<Integer, RatingVector>> vectorsList = invoke(executor, buildTasks);
+			for (int i = 0; i < vectorsList.size(); i++) {
+				if (i < nThreads)
+					outUserMap.putAll(vectorsList.get(i));
+				else
+					outItemMap.putAll(vectorsList.get(i));
+			}
+
+			return true;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Parsing rating file " + file + " causes error " + e.getMessage());
+		}
+		finally {
+			if (executor != null)
+				executor.shutdownNow();
+			try {
+				if (channel != null)
+					channel.close();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+		}
+
+		return false;
+	}
+
+
+	/**
+	 * Running the specified tasks by the specified executor.
+	 * @param <T> type of results.
+	 * @param executor specified executor. If it is null, tasks are run by the caller thread.
+	 * @param tasks specified tasks.
+	 * @return results of tasks in order.
+	 * @throws Exception if any error raises.
+	 */
+	private static <T> List<T> invoke(ExecutorService executor, List<Callable<T>> tasks) throws Exception {
+		List<T> results = Util.newList(tasks.size());
+		if (executor == null) {
+			for (Callable<T> task : tasks) results.add(task.call());
+		}
+		else {
+			List<Future<T>> futures = executor.invokeAll(tasks);
+			for (Future<T> future : futures) results.add(future.get());
+		}
+
+		return results;
+	}
+
+
+	/**
+	 * Building rating vectors from parsed chunks in order.
+	 * @param chunks parsed chunks.
+	 * @param user if true, user rating vectors are built. Otherwise, item rating vectors are built.
+	 * @param nPartitions number of partitions of identifiers.
+	 * @param partition partition of identifiers whose rating vectors are built.
+	 * @param outVectors output map of rating vectors.
+	 */
+	private static void build(List<Chunk> chunks, boolean user, int nPartitions, int partition, Map<Integer, RatingVector> outVectors) {
+		for (Chunk chunk : chunks) {
+			int[] ids = user ? chunk.userIds : chunk.itemIds;
+			int[] fieldIds = user ? chunk.itemIds : chunk.userIds;
+			for (int i = 0; i < chunk.size; i++) {
+				int id = ids[i];
+				if (nPartitions > 1 && id % nPartitions != partition)
+					continue;
+
+				RatingVector vector = outVectors.get(id);
+				if (vector == null) {
+					vector = user ? new UserRating(id) : new ItemRating(id);
+					outVectors.put(id, vector);
+				}
+				vector.put(fieldIds[i], chunk.ratings[i]);
+			}
+		}
+	}
+
+
+	/**
+	 * Splitting file into chunks at line boundaries.
+	 * @param channel file channel.
+	 * @return array of chunk bounds in which the i-th chunk starts at index i and ends at index i+1.
+	 * @throws Exception if any error raises.
+	 */
+	private long[] split(FileChannel channel) throws Exception {
+		long size = channel.size();
+		int nChunks = (int) Math.max(1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+		long[] bounds = new long[nChunks + 1];
+		bounds[0] = 0;
+		bounds[nChunks] = size;
+
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		for (int i = 1; i < nChunks; i++) {
+			long pos = Math.max((long)i * CHUNK_SIZE, bounds[i - 1]);
+			long bound = size;
+			while (pos < size && bound == size) {
+				buffer.clear();
+				int n = channel.read(buffer, pos);
+				if (n <= 0) break;
+				for (int j = 0; j < n; j++) {
+					if (buffer.get(j) == '\n') {
+						bound = pos + j + 1;
+						break;
+					}
+				}
+				pos += n;
+			}
+			bounds[i] = bound;
+		}
+
+		return bounds;
+	}
+
+
+	/**
+	 * Parsing the specified chunk of file.
+	 * @param channel file channel.
+	 * @param start start position of chunk.
+	 * @param end end position of chunk.
+	 * @param skipHeader whether to skip the first line.
+	 * @return rating vectors of the chunk.
+	 * @throws Exception if any error raises.
+	 */
+	private Chunk parseChunk(FileChannel channel, long start, long end, boolean skipHeader) throws Exception {
+		int length = (int) (end - start);
+		Chunk chunk = new Chunk(Math.max(16, length / 16));
+		if (length <= 0) return chunk;
+
+		byte[] bytes = new byte[length];
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, start + buffer.position()) < 0)
+				break;
+		}
+		length = buffer.position();
+
+		SimpleDateFormat df = dateIndex >= 0 ? new SimpleDateFormat(Constants.DATE_FORMAT) : null;
+		int maxIndex = Math.max(Math.max(userIndex, itemIndex), Math.max(ratingIndex, dateIndex));
+		int pos = 0;
+		if (skipHeader) {
+			while (pos < length && bytes[pos] != '\n') pos++;
+			pos++;
+		}
+
+		while (pos < length) {
+			int lineEnd = pos;
+			while (lineEnd < length && bytes[lineEnd] != '\n') lineEnd++;
+
+			int a = pos, b = lineEnd;
+			pos = lineEnd + 1;
+			while (a < b && bytes[a] <= ' ') a++;
+			while (b > a && bytes[b - 1] <= ' ') b--;
+			if (a == b) continue; //Blank line
+
+			long userId = Long.MIN_VALUE;
+			long itemId = Long.MIN_VALUE;
+			double value = Constants.UNUSED;
+			long ratedDate = 0;
+			int field = 0;
+			int i = a;
+			while (i <= b && field <= maxIndex) {
+				if (skipEmpty) {
+					while (i < b && separators[bytes[i] & 0xFF]) i++;
+					if (i >= b) break;
+				}
+
+				int fieldStart = i;
+				while (i < b && !separators[bytes[i] & 0xFF]) i++;
+				int fieldEnd = i;
+				while (fieldStart < fieldEnd && bytes[fieldStart] <= ' ') fieldStart++;
+				while (fieldEnd > fieldStart && bytes[fieldEnd - 1] <= ' ') fieldEnd--;
+				if (fieldEnd - fieldStart >= 2 && bytes[fieldStart] == '"' && bytes[fieldEnd - 1] == '"') {
+					fieldStart++;
+					fieldEnd--;
+				}
+
+				if (field == userIndex)
+					userId = parseLong(bytes, fieldStart, fieldEnd);
+				else if (field == itemIndex)
+					itemId = parseLong(bytes, fieldStart, fieldEnd);
+				else if (field == ratingIndex)
+					value = parseDouble(bytes, fieldStart, fieldEnd);
+				else if (field == dateIndex)
+					ratedDate = parseTime(bytes, fieldStart, fieldEnd, df);
+
+				field++;
+				i++;
+			}
+
+			if (userId < 0 || userId > Integer.MAX_VALUE || itemId < 0 || itemId > Integer.MAX_VALUE || !Util.isUsed(value)) {
+				chunk.skipped++;
+				continue;
+			}
+
+			Rating rating = new Rating(value);
+			if (dateIndex >= 0)
+				rating.ratedDate = ratedDate;
+			chunk.add((int)userId, (int)itemId, rating);
+		}
+
+		return chunk;
+	}
+
+
+	/**
+	 * Parsing long number from bytes.
+	 * @param bytes specified bytes.
+	 * @param start start index.
+	 * @param end end index (exclusive).
+	 * @return long number, or {@link Long#MIN_VALUE} if the bytes are not long number.
+	 */
+	private static long parseLong(byte[] bytes, int start, int end) {
+		if (start >= end) return Long.MIN_VALUE;
+
+		boolean negative = bytes[start] == '-';
+		if (negative || bytes[start] == '+') start++;
+		if (start >= end || end - start > 18) return Long.MIN_VALUE;
+
+		long number = 0;
+		for (int i = start; i < end; i++) {
+			int digit = bytes[i] - '0';
+			if (digit < 0 || digit > 9) return Long.MIN_VALUE;
+			number = number * 10 + digit;
+		}
+
+		return negative ? -number : number;
+	}
+
+
+	/**
+	 * Parsing real number from bytes. Simple decimal numbers are parsed directly and other forms are parsed by {@link Double#parseDouble(String)}.
+	 * @param bytes specified bytes.
+	 * @param start start index.
+	 * @param end end index (exclusive).
+	 * @return real number, or {@link Constants#UNUSED} if the bytes are not real number.
+	 */
+	private static double parseDouble(byte[] bytes, int start, int end) {
+		if (start >= end) return Constants.UNUSED;
+
+		int i = start;
+		boolean negative = bytes[i] == '-';
+		if (negative || bytes[i] == '+') i++;
+
+		long mantissa = 0;
+		int digits = 0;
+		int fraction = -1;
+		for (; i < end; i++) {
+			byte b = bytes[i];
+			if (b >= '0' && b <= '9') {
+				mantissa = mantissa * 10 + (b - '0');
+				digits++;
+				if (fraction >= 0) fraction++;
+			}
+			else if (b == '.' && fraction < 0)
+				fraction = 0;
+			else
+				break;
+		}
+
+		//Mantissa and power of ten are exact so that the quotient is correctly rounded as Double.parseDouble.
+		if (i == end && digits > 0 && digits <= 15 && fraction < POW10.length) {
+			double value = fraction > 0 ? mantissa / POW10[fraction] : mantissa;
+			return negative ? -value : value;
+		}
+
+		try {
+			return Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+		}
+		catch (NumberFormatException e) {
+			return Constants.UNUSED;
+		}
+	}
+
+
+	/**
+	 * Parsing time in milliseconds from bytes, which is either long number or date text in format {@link Constants#DATE_FORMAT}.
+	 * @param bytes specified bytes.
+	 * @param start start index.
+	 * @param end end index (exclusive).
+	 * @param df date format.
+	 * @return time in milliseconds, or -1 if the bytes are missing or invalid.
+	 */
+	private static long parseTime(byte[] bytes, int start, int end, SimpleDateFormat df) {
+		long time = parseLong(bytes, start, end);
+		if (time != Long.MIN_VALUE) return time;
+		if (start >= end || df == null) return -1;
+
+		try {
+			return df.parse(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1)).getTime();
+		}
+		catch (Throwable e) {
+			return -1;
+		}
+	}
+
+
+	/**
+	 * Parsing rating unit of flat store (file directory) specified by configuration into user rating vectors and item rating vectors.
+	 * This method is only applied to unit which is local text file whose header specifies attributes, when flat log mode is disabled.
+	 * @param config configuration of flat store.
+	 * @param unit rating unit.
+	 * @param outUserMap output map of user rating vectors.
+	 * @param outItemMap output map of item rating vectors.
+	 * @return whether parse successfully. If false, the output maps are not changed or cleared and the unit should be read by usual reader.
+	 */
+	public static boolean parseUnit(DataConfig config, String unit, Map<Integer, RatingVector> outUserMap, Map<Integer, RatingVector> outItemMap) {
+		if (config == null || unit == null || unit.isEmpty() || config.isFlatLogMode())
+			return false;
+		xURI store = config.getStoreUri();
+		if (store == null || !"file".equalsIgnoreCase(store.getScheme()))
+			return false;
+
+		xURI unitUri = store.concat(unit);
+		String ext = unitUri.getLastNameExtension();
+		if (ext != null && ext.toLowerCase().equals("xls"))
+			return false;
+
+		try {
+			Path path = unitUri.toPath();
+			if (!Files.isRegularFile(path))
+				return false;
+
+			String headerLine = null;
+			BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.ISO_8859_1);
+			try {
+				headerLine = reader.readLine();
+			}
+			finally {
+				reader.close();
+			}
+			if (headerLine == null)
+				return false;
+
+			String[] fields = headerLine.split(",");
+			for (int i = 0; i < fields.length; i++) {
+				String field = fields[i].trim();
+				if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\""))
+					field = field.substring(1, field.length() - 1);
+				fields[i] = field;
+			}
+			AttributeList attributes = new AttributeList();
+			attributes.parseText(Arrays.asList(fields));
+
+			int userIndex = attributes.indexOf(DataConfig.USERID_FIELD);
+			int itemIndex = attributes.indexOf(DataConfig.ITEMID_FIELD);
+			int ratingIndex = attributes.indexOf(DataConfig.RATING_FIELD);
+			if (userIndex < 0 || itemIndex < 0 || ratingIndex < 0)
+				return false;
+
+			RatingFileParser parser = new RatingFileParser(",", false, true,
+					userIndex, itemIndex, ratingIndex, attributes.indexOf(DataConfig.RATING_DATE_FIELD));
+			if (parser.parse(path, outUserMap, outItemMap))
+				return true;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+
+		outUserMap.clear();
+		outItemMap.clear();
+		return false;
+	}
+
+
+	/**
+	 * This class contains ratings parsed from a chunk of file in order of lines.
+	 *
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 *
+	 */
+	private static class Chunk {
+
+		/**
+		 * User identifiers.
+		 */
+		private int[] userIds = null;
+
+		/**
+		 * Item identifiers.
+		 */
+		private int[] itemIds = null;
+
+		/**
+		 * Ratings.
+		 */
+		private Rating[] ratings = null;
+
+		/**
+		 * Number of ratings.
+		 */
+		private int size = 0;
+
+		/**
+		 * Number of invalid lines.
+		 */
+		private int skipped = 0;
+
+		/**
+		 * Constructor with initial capacity.
+		 * @param capacity initial capacity.
+		 */
+		private Chunk(int capacity) {
+			userIds = new int[capacity];
+			itemIds = new int[capacity];
+			ratings = new Rating[capacity];
+		}
+
+		/**
+		 * Adding rating.
+		 * @param userId user identifier.
+		 * @param itemId item identifier.
+		 * @param rating rating.
+		 */
+		private void add(int userId, int itemId, Rating rating) {
+			if (size == ratings.length) {
+				int capacity = size + (size >> 1) + 1;
+				userIds = Arrays.copyOf(userIds, capacity);
+				itemIds = Arrays.copyOf(itemIds, capacity);
+				ratings = Arrays.copyOf(ratings, capacity);
+			}
+			userIds[size] = userId;
+			itemIds[size] = itemId;
+			ratings[size] = rating;
+			size++;
+		}
+
+	}
+
+
+}
@@ -10,11 +10,10 @@ package net.hudup.evaluate;
 import java.rmi.RemoteException;
 import java.util.Set;
 
-import net.hudup.core.Util;
+import net.hudup.core.alg.Alg;
 import net.hudup.core.alg.RecommendParam;
 import net.hudup.core.alg.Recommender;
 import net.hudup.core.alg.SetupAlgEvent;
-import net.hudup.core.data.DataConfig;
 import net.hudup.core.data.Dataset;
 import net.hudup.core.data.DatasetPair;
 import net.hudup.core.data.DatasetUtil;
@@ -22,10 +21,13 @@ import net.hudup.core.data.Fetcher;
 import net.hudup.core.data.RatingVector;
 import net.hudup.core.evaluate.EvaluateEvent;
 import net.hudup.core.evaluate.EvaluateEvent.Type;
-import net.hudup.core.evaluate.EvaluateProgressEvent;
 import net.hudup.core.evaluate.ExactRecallMetric;
 import net.hudup.core.evaluate.FractionMetricValue;
 import net.hudup.core.evaluate.HudupRecallMetric;
+import net.hudup.core.evaluate.LatencyMaxMetric;
+import net.hudup.core.evaluate.LatencyP50Metric;
+import net.hudup.core.evaluate.LatencyP95Metric;
+import net.hudup.core.evaluate.LatencyP99Metric;
 import net.hudup.core.evaluate.Metrics;
 import net.hudup.core.evaluate.NoneWrapperMetricList;
 import net.hudup.core.evaluate.SetupTimeMetric;
@@ -60,222 +62,165 @@ public class EstimateEvaluator extends RecommendEvaluator {
 
 	
 	@Override
-	protected void run0() {
-		otherResult.progressStep = 0;
-		otherResult.progressTotal = evPool.getTotalTestingUserNumber() * evAlgList.size();
-		otherResult.startDate = System.currentTimeMillis();
-		result = new Metrics();
-		
-		Thread current = Thread.currentThread();
-		for (int i = 0; current == thread && evAlgList != null && i < evAlgList.size(); i++) {
-			Recommender recommender = (Recommender)evAlgList.get(i);
-			evAlg = recommender;
-			otherResult.algName = recommender.getName();
+	protected void evaluateCell(Alg alg, int datasetIndex, Thread current) {
+		final Recommender recommender = (Recommender)alg;
+		Fetcher<RatingVector> testingUsers = null;
+		try {
+			DatasetPair dsPair = evPool.get(datasetIndex);
+			Dataset     training = dsPair.getTraining();
+			Dataset     sharedTesting = dsPair.getTesting();
+			final int   datasetId = datasetIndex + 1;
+			xURI        datasetUri = sharedTesting.getConfig() != null ? sharedTesting.getConfig().getUriId() : null;
 			
-			for (int j = 0; current == thread && evPool != null && j < evPool.size(); j++) {
-				
-				Fetcher<RatingVector> testingUsers = null;
-				try {
-					DatasetPair dsPair = evPool.get(j);
-					Dataset     training = dsPair.getTraining();
-					Dataset     testing = dsPair.getTesting();
-					int         datasetId = j + 1;
-					xURI        datasetUri = testing.getConfig() != null ? testing.getConfig().getUriId() : null;
-					
-					otherResult.datasetId = datasetId;
-					DatasetUtil.setDatasetId(training, datasetId);
-					DatasetUtil.setDatasetId(testing, datasetId);
-					
-					// Adding default metrics to metric result
-					result.add( recommender.getName(), datasetId, datasetUri, ((NoneWrapperMetricList)evMetricList.clone()).sort().list() );
-					
-					otherResult.inAlgSetup = true;
-					recommender.addSetupListener(this);
-					SetupAlgEvent setupEvt = new SetupAlgEvent(recommender, SetupAlgEvent.Type.doing, recommender.getName(), datasetId, "fired");
-					otherResult.statuses = extractSetupInfo(setupEvt);
-					fireSetupAlgEvent(setupEvt);
-					
-					long beginSetupTime = System.currentTimeMillis();
-					//
-					setupAlg(recommender, training);
-					//
-					long endSetupTime = System.currentTimeMillis();
-					long setupElapsed = endSetupTime - beginSetupTime;
-					Metrics setupMetrics = result.recalc(
-							recommender, 
-							datasetId, 
-							SetupTimeMetric.class, 
-							new Object[] { setupElapsed / 1000.0 }
-						); // calculating setup time metric
-					//Fire doing event with setup time metric.
-					fireEvaluateEvent(new EvaluateEvent(this, Type.doing, setupMetrics)); // firing setup time metric
+			DatasetUtil.setDatasetId(training, datasetId);
+			DatasetUtil.setDatasetId(sharedTesting, datasetId);
+			
+			// Adding default metrics to metric result
+			result.add( recommender.getName(), datasetId, datasetUri, ((NoneWrapperMetricList)evMetricList.clone()).sort().list() );
+			
+			beginSetupAlg(recommender, datasetId);
+			recommender.addSetupListener(this);
+			SetupAlgEvent setupEvt = new SetupAlgEvent(recommender, SetupAlgEvent.Type.doing, recommender.getName(), datasetId, "fired");
+			updateSetupInfo(setupEvt);
+			fireSetupAlgEvent(setupEvt);
+			
+			long beginSetupTime = System.nanoTime();
+			//
+			setupAlg(recommender, training);
+			//
+			long endSetupTime = System.nanoTime();
+			long setupElapsed = endSetupTime - beginSetupTime;
+			Metrics setupMetrics = result.recalc(
+					recommender, 
+					datasetId, 
+					SetupTimeMetric.class, 
+					new Object[] { setupElapsed / 1000000000.0 }
+				); // calculating setup time metric
+			//Fire doing event with setup time metric.
+			fireEvaluateEvent(new EvaluateEvent(this, Type.doing, setupMetrics)); // firing setup time metric
 
-					setupEvt = new SetupAlgEvent(recommender, SetupAlgEvent.Type.done, recommender.getName(), datasetId, "fired");
-					otherResult.statuses = extractSetupInfo(setupEvt);
-					fireSetupAlgEvent(setupEvt);
-					recommender.removeSetupListener(this);
-					otherResult.inAlgSetup = false;
+			setupEvt = new SetupAlgEvent(recommender, SetupAlgEvent.Type.done, recommender.getName(), datasetId, "fired");
+			updateSetupInfo(setupEvt);
+			fireSetupAlgEvent(setupEvt);
+			recommender.removeSetupListener(this);
+			endSetupAlg(recommender);
 
-					//Auto enhancement after setting up algorithm.
-					SystemUtil.enhanceAuto();
+			//Auto enhancement after setting up algorithm.
+			SystemUtil.enhanceAuto();
 
-					//Adjusting configurations.
-					double testingMinRating = testing.getConfig().getMinRating();
-					double testingMaxRating = testing.getConfig().getMaxRating();
-					double algMinRating = recommender.getConfig().getMinRating();
-					double algMaxRating = recommender.getConfig().getMaxRating();
-					if (Util.isUsed(algMinRating) && testingMinRating != algMinRating) {
-						testing.getConfig().put(DataConfig.MIN_RATING_FIELD, algMinRating);
-					}
-					if (Util.isUsed(algMaxRating) && testingMaxRating != algMaxRating) {
-						testing.getConfig().put(DataConfig.MAX_RATING_FIELD, algMaxRating);
-					}
-					
+			//Adjusting configurations without changing the shared testing dataset.
+			final Dataset testing = adjustTesting(recommender, sharedTesting);
+			
 
-					testingUsers = testing.fetchUserRatings();
-					otherResult.vCurrentTotal = testingUsers.getMetadata().getSize();
-					otherResult.vCurrentCount = 0; //Vector count for Hudup recall metric.
-					int vEstimatedCount = 0; //Estimated vector count for Hudup recall metric.
-					//
-					int vExactCurrentTotal = 0; //Exact total (query IDs) count for exact recall metric.
-					int vExactEstimatedCount = 0; //Exact estimated (query IDs) count for exact recall metric.
-					while (current == thread && testingUsers.next()) {
-						
-						otherResult.progressStep++;
-						otherResult.vCurrentCount++;
-						EvaluateProgressEvent progressEvt = new EvaluateProgressEvent(this, otherResult.progressTotal, otherResult.progressStep);
-						progressEvt.setAlgName(recommender.getName());
-						progressEvt.setDatasetId(datasetId);
-						progressEvt.setCurrentCount(otherResult.vCurrentCount);
-						progressEvt.setCurrentTotal(otherResult.vCurrentTotal);
-						progressEvt.setElapsedTime(otherResult.elapsedTime);
-						otherResult.statuses = extractEvaluateProgressInfo(progressEvt);
-						//Fire progress event.
-						fireEvaluateProgressEvent(progressEvt);
-						
-						RatingVector testingUser = testingUsers.pick();
-						if (testingUser == null || testingUser.size() == 0)
-							continue;
-						
-						RatingVector vQuery = (RatingVector) testingUser.clone();
-						Set<Integer> queryIds = setupQueryIds(vQuery);
-						if (queryIds.size() == 0)
-							continue;
-						
-						RecommendParam param = new RecommendParam(vQuery, testing.getUserProfile(testingUser.id()));
-						vExactCurrentTotal += queryIds.size(); //Increase exact total (query IDs) count.
-						
-						//
-						long beginRecommendTime = System.currentTimeMillis();
-						RatingVector estimated = recommender.estimate(param, queryIds);
-						long endRecommendTime = System.currentTimeMillis();
-						//
-						
-						param.clear();
-						long recommendElapsed = endRecommendTime - beginRecommendTime;
-						Metrics speedMetrics = result.recalc(
-								recommender.getName(), 
-								datasetId, 
-								SpeedMetric.class, 
-								new Object[] { recommendElapsed / 1000.0 }
-							); // calculating time speed metric
-						
-						//Fire doing event with speed metric.
-						fireEvaluateEvent(new EvaluateEvent(
-								this, 
-								Type.doing, 
-								speedMetrics,
-								estimated, 
-								testingUser)); // firing time speed metric
-						
-						
-						if (estimated != null && estimated.size() > 0) { // successful recommendation
-							
-							Metrics recommendedMetrics = result.recalc(
-									recommender.getName(), 
-									datasetId,
-									new Object[] { estimated, testingUser, testing }
-								); // calculating recommendation metric
-							
-							vEstimatedCount++;
-							vExactEstimatedCount += estimated.size(); //Increase exact estimated (query IDs) count.
-							
-							//Fire doing event with most of accuracy metrics.
-							fireEvaluateEvent(new EvaluateEvent(
-									this, 
-									Type.doing, 
-									recommendedMetrics, 
-									estimated, 
-									testingUser)); // firing recommendation metric
-						}
-						
-						
-						synchronized (this) {
-							while (paused) {
-								notifyAll();
-								wait();
-							}
-						}
-						
-					} // User id iterate
-					
-					//Fire Hudup recall metric.
-					Metrics hudupRecallMetrics = result.recalc(
-							recommender.getName(), 
-							datasetId, 
-							HudupRecallMetric.class, 
-							new Object[] { new FractionMetricValue(vEstimatedCount, otherResult.vCurrentTotal) }
-						);
-					fireEvaluateEvent(new EvaluateEvent(this, Type.doing, hudupRecallMetrics));
+			testingUsers = testing.fetchUserRatings();
+			int vCurrentTotal = testingUsers.getMetadata().getSize();
+			int vCurrentCount = 0; //Vector count for Hudup recall metric.
+			int vEstimatedCount = 0; //Estimated vector count for Hudup recall metric.
+			//
+			int vExactCurrentTotal = 0; //Exact total (query IDs) count for exact recall metric.
+			int vExactEstimatedCount = 0; //Exact estimated (query IDs) count for exact recall metric.
+			while (current == thread && testingUsers.next()) {
+				
+				//Fire progress event.
+				fireProgress(recommender.getName(), datasetId, ++vCurrentCount, vCurrentTotal);
+				
+				RatingVector testingUser = testingUsers.pick();
+				if (testingUser == null || testingUser.size() == 0) continue;
+				
+				RatingVector vQuery = (RatingVector) testingUser.clone();
+				Set<Integer> queryIds = setupQueryIds(vQuery);
+				if (queryIds.size() == 0) continue;
+				
+				vExactCurrentTotal += queryIds.size(); //Increase exact total (query IDs) count.
+				RecommendParam param = new RecommendParam(vQuery, testing.getUserProfile(testingUser.id()));
+				
+				//
+				long beginRecommendTime = System.nanoTime();
+				RatingVector estimated = recommender.estimate(param, queryIds);
+				long endRecommendTime = System.nanoTime();
+				//
+				
+				param.clear();
+				long recommendElapsed = endRecommendTime - beginRecommendTime;
+				Metrics speedMetrics = result.recalc(
+						recommender.getName(), 
+						datasetId, 
+						SpeedMetric.class,
+						true,
+						new Object[] { recommendElapsed / 1000000000.0 }
+					); // calculating time speed metric and latency metrics
+				
+				//Fire doing event with speed metric.
+				fireEvaluateEvent(new EvaluateEvent(
+						this, 
+						Type.doing, 
+						speedMetrics,
+						estimated, 
+						testingUser)); // firing time speed metric
+				
+				
+				if (estimated != null && estimated.size() > 0) { // successful recommendation
 					
-					//Fire exact recall metric.
-					Metrics exactRecallMetrics = result.recalc(
+					Metrics recommendedMetrics = result.recalc(
 							recommender.getName(), 
-							datasetId, 
-							ExactRecallMetric.class, 
-							new Object[] { new FractionMetricValue(vExactEstimatedCount, vExactCurrentTotal) }
-						);
-					fireEvaluateEvent(new EvaluateEvent(this, Type.doing, exactRecallMetrics));
-
-					//Fire done-one event (1 algorithm is finished with 1 dataset).
-					Metrics doneOneMetrics = result.gets(recommender.getName(), datasetId);
-					fireEvaluateEvent(new EvaluateEvent(this, Type.done_one, doneOneMetrics));
+							datasetId,
+							new Object[] { estimated, testingUser, testing }
+						); // calculating recommendation metric
 					
-				} // end try
-				catch (Throwable e) {
-					LogUtil.trace(e);
-				}
-				finally {
-					try {
-						if (testingUsers != null)
-							testingUsers.close();
-						testingUsers = null;
-					} catch (Throwable e) {LogUtil.trace(e);}
+					vEstimatedCount++;
+					vExactEstimatedCount += estimated.size(); //Increase exact estimated (query IDs) count.
 					
-					try {
-						unsetupAlgSupportDelay(recommender);
-					} catch (Throwable e) {LogUtil.trace(e);}
+					//Fire doing event with most of accuracy metrics.
+					fireEvaluateEvent(new EvaluateEvent(
+							this, 
+							Type.doing, 
+							recommendedMetrics, 
+							estimated, 
+							testingUser)); // firing recommendation metric
 				}
 				
-				SystemUtil.enhanceAuto();
+				waitIfPaused();
 				
-			} // dataset iterate
-			
-		} // algorithm iterate
-		
-		otherResult.endDate = System.currentTimeMillis();
-		
-		
-		synchronized (this) {
-			thread = null;
-			paused = false;
+			} // User id iterate
 			
-			//Fire evaluation finished event (done event).
-			fireEvaluateEvent(new EvaluateEvent(this, Type.done, result));
+			//Fire Hudup recall metric.
+			Metrics hudupRecallMetrics = result.recalc(
+					recommender.getName(), 
+					datasetId, 
+					HudupRecallMetric.class, 
+					new Object[] { new FractionMetricValue(vEstimatedCount, vCurrentTotal) }
+				);
+			fireEvaluateEvent(new EvaluateEvent(this, Type.doing, hudupRecallMetrics));
 			
-			clear();
+			//Fire exact recall metric.
+			Metrics exactRecallMetrics = result.recalc(
+					recommender.getName(), 
+					datasetId, 
+					ExactRecallMetric.class, 
+					new Object[] { new FractionMetricValue(vExactEstimatedCount, vExactCurrentTotal) }
+				);
+			fireEvaluateEvent(new EvaluateEvent(this, Type.doing, exactRecallMetrics));
 
-			notifyAll();
+			//Fire done-one event (1 algorithm is finished with 1 dataset).
+			Metrics doneOneMetrics = result.gets(recommender.getName(), datasetId);
+			fireEvaluateEvent(new EvaluateEvent(this, Type.done_one, doneOneMetrics));
+			
+		} // end try
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		finally {
+			endSetupAlg(recommender);
+			
+			try {
+				if (testingUsers != null)
+					testingUsers.close();
+				testingUsers = null;
+			} catch (Throwable e) {LogUtil.trace(e);}
+			
+			try {
+				unsetupAlgSupportDelay(recommender);
+			} catch (Throwable e) {LogUtil.trace(e);}
 		}
 	}
 
@@ -319,6 +264,11 @@ public class EstimateEvaluator extends RecommendEvaluator {
 		SpeedMetric speed = new SpeedMetric();
 		metricList.add(speed);
 		
+		metricList.add(new LatencyP50Metric());
+		metricList.add(new LatencyP95Metric());
+		metricList.add(new LatencyP99Metric());
+		metricList.add(new LatencyMaxMetric());
+		
 		HudupRecallMetric hudupRecall = new HudupRecallMetric();
 		metricList.add(hudupRecall);
 		
@@ -17,7 +17,6 @@ import net.hudup.core.alg.AlgDesc2;
 import net.hudup.core.alg.RecommendParam;
 import net.hudup.core.alg.Recommender;
 import net.hudup.core.alg.SetupAlgEvent;
-import net.hudup.core.data.DataConfig;
 import net.hudup.core.data.Dataset;
 import net.hudup.core.data.DatasetPair;
 import net.hudup.core.data.DatasetUtil;
@@ -26,12 +25,15 @@ import net.hudup.core.data.Profile;
 import net.hudup.core.data.RatingVector;
 import net.hudup.core.evaluate.EvaluateEvent;
 import net.hudup.core.evaluate.EvaluateEvent.Type;
-import net.hudup.core.evaluate.EvaluateProgressEvent;
 import net.hudup.core.evaluate.EvaluatorAbstract;
 import net.hudup.core.evaluate.ExactRecallMetric;
 import net.hudup.core.evaluate.ExactRecallMetric2;
 import net.hudup.core.evaluate.FractionMetricValue;
 import net.hudup.core.evaluate.HudupRecallMetric;
+import net.hudup.core.evaluate.LatencyMaxMetric;
+import net.hudup.core.evaluate.LatencyP50Metric;
+import net.hudup.core.evaluate.LatencyP95Metric;
+import net.hudup.core.evaluate.LatencyP99Metric;
 import net.hudup.core.evaluate.Metrics;
 import net.hudup.core.evaluate.NoneWrapperMetricList;
 import net.hudup.core.evaluate.SetupTimeMetric;
@@ -131,250 +133,7 @@ public class RecommendEvaluator extends EvaluatorAbstract {
 		otherResult.startDate = System.currentTimeMillis();
 		result = new Metrics();
 		
-		Thread current = Thread.currentThread();
-		
-		for (int i = 0; current == thread && evAlgList != null && i < evAlgList.size(); i++) {
-			Recommender recommender = (Recommender)evAlgList.get(i);
-			evAlg = recommender;
-			otherResult.algName = recommender.getName();
-			
-			for (int j = 0; current == thread && evPool != null && j < evPool.size(); j++) {
-				
-				Fetcher<RatingVector> testingUsers = null;
-				try {
-					DatasetPair dsPair = evPool.get(j);
-					Dataset     training = dsPair.getTraining();
-					Dataset     testing = dsPair.getTesting();
-					int         datasetId = j + 1;
-					xURI        datasetUri = testing.getConfig() != null ? testing.getConfig().getUriId() : null;
-					
-					otherResult.datasetId = datasetId;
-					DatasetUtil.setDatasetId(training, datasetId);
-					DatasetUtil.setDatasetId(testing, datasetId);
-					
-					// Adding default metrics to metric result
-					result.add( recommender.getName(), datasetId, datasetUri, ((NoneWrapperMetricList)evMetricList.clone()).sort().list() );
-					
-					otherResult.inAlgSetup = true;
-					recommender.addSetupListener(this);
-					SetupAlgEvent setupEvt = new SetupAlgEvent(recommender, SetupAlgEvent.Type.doing, recommender.getName(), datasetId, "fired");
-					otherResult.statuses = extractSetupInfo(setupEvt);
-					fireSetupAlgEvent(setupEvt);
-					
-					long beginSetupTime = System.currentTimeMillis();
-					//
-					setupAlg(recommender, training);
-					//
-					long endSetupTime = System.currentTimeMillis();
-					long setupElapsed = endSetupTime - beginSetupTime;
-					Metrics setupMetrics = result.recalc(
-							recommender, 
-							datasetId, 
-							SetupTimeMetric.class, 
-							new Object[] { setupElapsed / 1000.0 }
-						); // calculating setup time metric
-					//Fire doing event with setup time metric.
-					fireEvaluateEvent(new EvaluateEvent(this, Type.doing, setupMetrics)); // firing setup time metric
-					
-					setupEvt = new SetupAlgEvent(recommender, SetupAlgEvent.Type.done, recommender.getName(), datasetId, "fired");
-					otherResult.statuses = extractSetupInfo(setupEvt);
-					fireSetupAlgEvent(setupEvt);
-					recommender.removeSetupListener(this);
-					otherResult.inAlgSetup = false;
-					
-					//Auto enhancement after setting up algorithm.
-					SystemUtil.enhanceAuto();
-
-					//Adjusting configurations.
-					double testingMinRating = testing.getConfig().getMinRating();
-					double testingMaxRating = testing.getConfig().getMaxRating();
-					double algMinRating = recommender.getConfig().getMinRating();
-					double algMaxRating = recommender.getConfig().getMaxRating();
-					if (Util.isUsed(algMinRating) && testingMinRating != algMinRating) {
-						testing.getConfig().put(DataConfig.MIN_RATING_FIELD, algMinRating);
-					}
-					if (Util.isUsed(algMaxRating) && testingMaxRating != algMaxRating) {
-						testing.getConfig().put(DataConfig.MAX_RATING_FIELD, algMaxRating);
-					}
-					
-					//Initializing parameters for setting up maximum recommendation number by binomial distribution. Added date: 2019.08.23 by Loc Nguyen.
-					double relevantRatio = 0;
-					int totalRatedItemCount = 0;
-					Dataset trainingData = recommender.getDataset(); //It is not pointer. Please pay attention that it is not always the same to dsPair.getTraining().
-					boolean heuristicRecommend = false;
-					if (config.isHeuristicRecommend()) {
-						trainingData = trainingData != null ? trainingData : testing; //This is work-around solution, using testing for estimating recommendation number.
-						boolean isUsedMinMax = Util.isUsed(trainingData.getConfig().getMinRating())
-								&& Util.isUsed(trainingData.getConfig().getMaxRating());
-						
-						if (isUsedMinMax) {
-							heuristicRecommend = true;
-							relevantRatio = calcRelevantRatio(trainingData);
-							totalRatedItemCount = countRatedItems(trainingData);
-						}
-						else
-							heuristicRecommend = false;
-					}
-					
-					
-					testingUsers = testing.fetchUserRatings();
-					otherResult.vCurrentTotal = testingUsers.getMetadata().getSize();
-					otherResult.vCurrentCount = 0; //Vector count for Hudup recall metric.
-					int vRecommendedCount = 0; //Recommended vector count for Hudup recall metric.
-					//
-					int vExactCurrentTotal = 0; //Exact total vector count for exact recall metric.
-					int vExactRecommendedCount = 0; //Exact recommended vector count for exact recall metric.
-					//
-					int vItemsRecommendRequiredTotal = 0; //Items recommend required total for exact recall metric 2.
-					int vItemsRecommendDoneCount = 0; //Items recommend done count for exact recall metric 2.
-					while (current == thread && testingUsers.next()) {
-						
-						otherResult.progressStep++;
-						otherResult.vCurrentCount++;
-						EvaluateProgressEvent progressEvt = new EvaluateProgressEvent(this, otherResult.progressTotal, otherResult.progressStep);
-						progressEvt.setAlgName(recommender.getName());
-						progressEvt.setDatasetId(datasetId);
-						progressEvt.setCurrentCount(otherResult.vCurrentCount);
-						progressEvt.setCurrentTotal(otherResult.vCurrentTotal);
-						progressEvt.setElapsedTime(otherResult.elapsedTime);
-						otherResult.statuses = extractEvaluateProgressInfo(progressEvt);
-						//Fire progress event.
-						fireEvaluateProgressEvent(progressEvt);
-						
-						RatingVector testingUser = testingUsers.pick();
-						if (testingUser == null) continue;
-						int relevantCount = Accuracy.countForRelevant(testingUser, true, testing);
-						if (relevantCount == 0) continue;
-						
-						RecommendParam param = new RecommendParam(testingUser.id());
-						//Setting up maximum recommendation number by binomial distribution. Added date: 2019.08.23 by Loc Nguyen.
-						int maxRecommend = 0;
-						int ratedItemCount = 0;
-						if (heuristicRecommend && trainingData != null) {
-							RatingVector trainingUser = trainingData.getUserRating(testingUser.id());
-							if (trainingUser != null) ratedItemCount = trainingUser.count(true); 
-							maxRecommend = (int)(relevantRatio*(totalRatedItemCount-ratedItemCount)+0.5);
-							maxRecommend = maxRecommend >= 0 ? maxRecommend : 0;
-							trainingData = null;
-						}
-						else if (config.getMaxRecommend() > 0) {
-							maxRecommend = config.getMaxRecommend();
-						}
-						vExactCurrentTotal++; //Increase exact total vector count.
-						if (maxRecommend > 0)
-							vItemsRecommendRequiredTotal += maxRecommend;
-						else {
-							vItemsRecommendRequiredTotal += totalRatedItemCount - ratedItemCount;
-							vItemsRecommendRequiredTotal = vItemsRecommendRequiredTotal >= 0 ? vItemsRecommendRequiredTotal : 0;
-						}
-						
-						//
-						long beginRecommendTime = System.currentTimeMillis();
-						RatingVector recommended = recommender.recommend(param, maxRecommend);
-						long endRecommendTime = System.currentTimeMillis();
-						//
-						
-						param.clear();
-						long recommendElapsed = endRecommendTime - beginRecommendTime;
-						Metrics speedMetrics = result.recalc(
-								recommender.getName(), 
-								datasetId, 
-								SpeedMetric.class, 
-								new Object[] { recommendElapsed / 1000.0 }
-							); // calculating time speed metric
-						
-						//Fire doing event with speed metric.
-						fireEvaluateEvent(new EvaluateEvent(
-								this, 
-								Type.doing, 
-								speedMetrics,
-								recommended, 
-								testingUser)); // firing time speed metric
-						
-						
-						if (recommended != null && recommended.size() > 0) { // successful recommendation
-							
-							Metrics recommendedMetrics = result.recalc(
-									recommender.getName(), 
-									datasetId,
-									new Object[] { recommended, testing }
-								); // calculating recommendation metric
-							
-							vRecommendedCount++;
-							vExactRecommendedCount++; //Increase exact recommended count.
-							vItemsRecommendDoneCount += recommended.size();
-							
-							//Fire doing event with most of accuracy metrics.
-							fireEvaluateEvent(new EvaluateEvent(
-									this, 
-									Type.doing, 
-									recommendedMetrics, 
-									recommended, 
-									testingUser)); // firing recommendation metric
-						}
-						
-						
-						synchronized (this) {
-							while (paused) {
-								notifyAll();
-								wait();
-							}
-						}
-						
-					} // User id iterate
-					
-					//Fire Hudup recall.
-					Metrics hudupRecallMetrics = result.recalc(
-							recommender.getName(), 
-							datasetId, 
-							HudupRecallMetric.class, 
-							new Object[] { new FractionMetricValue(vRecommendedCount, otherResult.vCurrentTotal) }
-						);
-					fireEvaluateEvent(new EvaluateEvent(this, Type.doing, hudupRecallMetrics));
-					
-					//Fire exact recall.
-					Metrics exactRecallMetrics = result.recalc(
-							recommender.getName(), 
-							datasetId, 
-							ExactRecallMetric.class, 
-							new Object[] { new FractionMetricValue(vExactRecommendedCount, vExactCurrentTotal) }
-						);
-					fireEvaluateEvent(new EvaluateEvent(this, Type.doing, exactRecallMetrics));
-
-					//Fire exact recall2.
-					Metrics exactRecallMetrics2 = result.recalc(
-							recommender.getName(), 
-							datasetId, 
-							ExactRecallMetric2.class, 
-							new Object[] { new FractionMetricValue(vItemsRecommendDoneCount, vItemsRecommendRequiredTotal) }
-						);
-					fireEvaluateEvent(new EvaluateEvent(this, Type.doing, exactRecallMetrics2));
-
-					//Fire done-one event (1 algorithm is finished with 1 dataset).
-					Metrics doneOneMetrics = result.gets(recommender.getName(), datasetId);
-					fireEvaluateEvent(new EvaluateEvent(this, Type.done_one, doneOneMetrics));
-					
-				} // end try
-				catch (Throwable e) {
-					LogUtil.trace(e);
-				}
-				finally {
-					try {
-						if (testingUsers != null)
-							testingUsers.close();
-						testingUsers = null;
-					} catch (Throwable e) {LogUtil.trace(e);}
-					
-					try {
-						unsetupAlgSupportDelay(recommender);
-					} catch (Throwable e) {LogUtil.trace(e);}
-				}
-				
-				SystemUtil.enhanceAuto();
-
-			} // dataset iterate
-			
-		} // algorithm iterate
+		runCells(Thread.currentThread());
 		
 		otherResult.endDate = System.currentTimeMillis();
 		
@@ -394,6 +153,218 @@ public class RecommendEvaluator extends EvaluatorAbstract {
 	}
 
 
+	@Override
+	protected void evaluateCell(Alg alg, int datasetIndex, Thread current) {
+		final Recommender recommender = (Recommender)alg;
+		Fetcher<RatingVector> testingUsers = null;
+		try {
+			DatasetPair dsPair = evPool.get(datasetIndex);
+			Dataset     training = dsPair.getTraining();
+			Dataset     sharedTesting = dsPair.getTesting();
+			final int   datasetId = datasetIndex + 1;
+			xURI        datasetUri = sharedTesting.getConfig() != null ? sharedTesting.getConfig().getUriId() : null;
+			
+			DatasetUtil.setDatasetId(training, datasetId);
+			DatasetUtil.setDatasetId(sharedTesting, datasetId);
+			
+			// Adding default metrics to metric result
+			result.add( recommender.getName(), datasetId, datasetUri, ((NoneWrapperMetricList)evMetricList.clone()).sort().list() );
+			
+			beginSetupAlg(recommender, datasetId);
+			recommender.addSetupListener(this);
+			SetupAlgEvent setupEvt = new SetupAlgEvent(recommender, SetupAlgEvent.Type.doing, recommender.getName(), datasetId, "fired");
+			updateSetupInfo(setupEvt);
+			fireSetupAlgEvent(setupEvt);
+			
+			long beginSetupTime = System.nanoTime();
+			//
+			setupAlg(recommender, training);
+			//
+			long endSetupTime = System.nanoTime();
+			long setupElapsed = endSetupTime - beginSetupTime;
+			Metrics setupMetrics = result.recalc(
+					recommender, 
+					datasetId, 
+					SetupTimeMetric.class, 
+					new Object[] { setupElapsed / 1000000000.0 }
+				); // calculating setup time metric
+			//Fire doing event with setup time metric.
+			fireEvaluateEvent(new EvaluateEvent(this, Type.doing, setupMetrics)); // firing setup time metric
+			
+			setupEvt = new SetupAlgEvent(recommender, SetupAlgEvent.Type.done, recommender.getName(), datasetId, "fired");
+			updateSetupInfo(setupEvt);
+			fireSetupAlgEvent(setupEvt);
+			recommender.removeSetupListener(this);
+			endSetupAlg(recommender);
+			
+			//Auto enhancement after setting up algorithm.
+			SystemUtil.enhanceAuto();
+
+			//Adjusting configurations without changing the shared testing dataset.
+			final Dataset testing = adjustTesting(recommender, sharedTesting);
+			
+			//Initializing parameters for setting up maximum recommendation number by binomial distribution. Added date: 2019.08.23 by Loc Nguyen.
+			double relevantRatio = 0;
+			int totalRatedItemCount = 0;
+			Dataset trainingData = recommender.getDataset(); //It is not pointer. Please pay attention that it is not always the same to dsPair.getTraining().
+			boolean heuristicRecommend = false;
+			if (config.isHeuristicRecommend()) {
+				trainingData = trainingData != null ? trainingData : testing; //This is work-around solution, using testing for estimating recommendation number.
+				boolean isUsedMinMax = Util.isUsed(trainingData.getConfig().getMinRating())
+						&& Util.isUsed(trainingData.getConfig().getMaxRating());
+				
+				if (isUsedMinMax) {
+					heuristicRecommend = true;
+					relevantRatio = calcRelevantRatio(trainingData);
+					totalRatedItemCount = countRatedItems(trainingData);
+				}
+				else
+					heuristicRecommend = false;
+			}
+			
+			testingUsers = testing.fetchUserRatings();
+			int vCurrentTotal = testingUsers.getMetadata().getSize();
+			int vCurrentCount = 0; //Vector count for Hudup recall metric.
+			int vRecommendedCount = 0; //Recommended vector count for Hudup recall metric.
+			//
+			int vExactCurrentTotal = 0; //Exact total vector count for exact recall metric.
+			int vExactRecommendedCount = 0; //Exact recommended vector count for exact recall metric.
+			//
+			int vItemsRecommendRequiredTotal = 0; //Items recommend required total for exact recall metric 2.
+			int vItemsRecommendDoneCount = 0; //Items recommend done count for exact recall metric 2.
+			while (current == thread && testingUsers.next()) {
+				
+				//Fire progress event.
+				fireProgress(recommender.getName(), datasetId, ++vCurrentCount, vCurrentTotal);
+				
+				RatingVector testingUser = testingUsers.pick();
+				if (testingUser == null) continue;
+				int relevantCount = Accuracy.countForRelevant(testingUser, true, testing);
+				if (relevantCount == 0) continue;
+				
+				RecommendParam param = new RecommendParam(testingUser.id());
+				//Setting up maximum recommendation number by binomial distribution. Added date: 2019.08.23 by Loc Nguyen.
+				int maxRecommend = 0;
+				int ratedItemCount = 0;
+				if (heuristicRecommend && trainingData != null) {
+					RatingVector trainingUser = trainingData.getUserRating(testingUser.id());
+					if (trainingUser != null) ratedItemCount = trainingUser.count(true); 
+					maxRecommend = (int)(relevantRatio*(totalRatedItemCount-ratedItemCount)+0.5);
+					maxRecommend = maxRecommend >= 0 ? maxRecommend : 0;
+					trainingData = null;
+				}
+				else if (config.getMaxRecommend() > 0) {
+					maxRecommend = config.getMaxRecommend();
+				}
+				vExactCurrentTotal++; //Increase exact total vector count.
+				if (maxRecommend > 0)
+					vItemsRecommendRequiredTotal += maxRecommend;
+				else {
+					vItemsRecommendRequiredTotal += totalRatedItemCount - ratedItemCount;
+					vItemsRecommendRequiredTotal = vItemsRecommendRequiredTotal >= 0 ? vItemsRecommendRequiredTotal : 0;
+				}
+				
+				//
+				long beginRecommendTime = System.nanoTime();
+				RatingVector recommended = recommender.recommend(param, maxRecommend);
+				long endRecommendTime = System.nanoTime();
+				//
+				
+				param.clear();
+				long recommendElapsed = endRecommendTime - beginRecommendTime;
+				Metrics speedMetrics = result.recalc(
+						recommender.getName(), 
+						datasetId, 
+						SpeedMetric.class,
+						true,
+						new Object[] { recommendElapsed / 1000000000.0 }
+					); // calculating time speed metric and latency metrics
+				
+				//Fire doing event with speed metric.
+				fireEvaluateEvent(new EvaluateEvent(
+						this, 
+						Type.doing, 
+						speedMetrics,
+						recommended, 
+						testingUser)); // firing time speed metric
+				
+				
+				if (recommended != null && recommended.size() > 0) { // successful recommendation
+					
+					Metrics recommendedMetrics = result.recalc(
+							recommender.getName(), 
+							datasetId,
+							new Object[] { recommended, testing }
+						); // calculating recommendation metric
+					
+					vRecommendedCount++;
+					vExactRecommendedCount++; //Increase exact recommended count.
+					vItemsRecommendDoneCount += recommended.size();
+					
+					//Fire doing event with most of accuracy metrics.
+					fireEvaluateEvent(new EvaluateEvent(
+							this, 
+							Type.doing, 
+							recommendedMetrics, 
+							recommended, 
+							testingUser)); // firing recommendation metric
+				}
+				
+				waitIfPaused();
+				
+			} // User id iterate
+			
+			//Fire Hudup recall.
+			Metrics hudupRecallMetrics = result.recalc(
+					recommender.getName(), 
+					datasetId, 
+					HudupRecallMetric.class, 
+					new Object[] { new FractionMetricValue(vRecommendedCount, vCurrentTotal) }
+				);
+			fireEvaluateEvent(new EvaluateEvent(this, Type.doing, hudupRecallMetrics));
+			
+			//Fire exact recall.
+			Metrics exactRecallMetrics = result.recalc(
+					recommender.getName(), 
+					datasetId, 
+					ExactRecallMetric.class, 
+					new Object[] { new FractionMetricValue(vExactRecommendedCount, vExactCurrentTotal) }
+				);
+			fireEvaluateEvent(new EvaluateEvent(this, Type.doing, exactRecallMetrics));
+
+			//Fire exact recall2.
+			Metrics exactRecallMetrics2 = result.recalc(
+					recommender.getName(), 
+					datasetId, 
+					ExactRecallMetric2.class, 
+					new Object[] { new FractionMetricValue(vItemsRecommendDoneCount, vItemsRecommendRequiredTotal) }
+				);
+			fireEvaluateEvent(new EvaluateEvent(this, Type.doing, exactRecallMetrics2));
+
+			//Fire done-one event (1 algorithm is finished with 1 dataset).
+			Metrics doneOneMetrics = result.gets(recommender.getName(), datasetId);
+			fireEvaluateEvent(new EvaluateEvent(this, Type.done_one, doneOneMetrics));
+			
+		} // end try
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		finally {
+			endSetupAlg(recommender);
+			
+			try {
+				if (testingUsers != null)
+					testingUsers.close();
+				testingUsers = null;
+			} catch (Throwable e) {LogUtil.trace(e);}
+			
+			try {
+				unsetupAlgSupportDelay(recommender);
+			} catch (Throwable e) {LogUtil.trace(e);}
+		}
+	}
+
+
 	/**
 	 * Calculating relevant ratio in specified dataset.
 	 * @param dataset specified dataset.
@@ -517,6 +488,11 @@ public class RecommendEvaluator extends EvaluatorAbstract {
 		SpeedMetric speed = new SpeedMetric();
 		metricList.add(speed);
 		
+		metricList.add(new LatencyP50Metric());
+		metricList.add(new LatencyP95Metric());
+		metricList.add(new LatencyP99Metric());
+		metricList.add(new LatencyMaxMetric());
+		
 		HudupRecallMetric hudupRecall = new HudupRecallMetric();
 		metricList.add(hudupRecall);
 		
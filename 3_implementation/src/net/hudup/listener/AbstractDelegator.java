@@ -7,14 +7,17 @@
  */
 package net.hudup.listener;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.DataOutputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.Socket;
 import java.util.Map;
 
+import net.hudup.core.client.BinaryCodec;
 import net.hudup.core.client.Protocol;
 import net.hudup.core.client.ProtocolImpl;
+import net.hudup.core.client.ProtocolParam;
 import net.hudup.core.client.Request;
 import net.hudup.core.client.Response;
 import net.hudup.core.data.DataConfig;
@@ -66,6 +69,19 @@ public abstract class AbstractDelegator extends ProtocolImpl implements Runner,
 	protected SocketServer socketServer = null;
 	
 	
+	/**
+	 * Flags of binary frame of the request being processed, which is -1 if such request was sent as JSON text line.
+	 * Requests of the same client are processed one by one and so this variable is not shared between requests.
+	 */
+	private volatile int requestFrameFlags = -1;
+	
+	
+	/**
+	 * Flag variable indicates whether binary codec was negotiated after the account of client was validated. Binary frames are not accepted before that.
+	 */
+	private volatile boolean codecNegotiated = false;
+	
+	
 	/**
 	 * Default constructor with specified socket.
 	 * The specified socket is assigned to the internal variable {@link #socket}.
@@ -82,15 +98,16 @@ public abstract class AbstractDelegator extends ProtocolImpl implements Runner,
 	public void run() {
 		// TODO Auto-generated method stub
 		
+		connected();
+		
 		DataOutputStream out = null;
-		BufferedReader in = null;
+		InputStream in = null;
 		synchronized (this) {
 			try {
 				started = true;
 				out = new DataOutputStream(socket.getOutputStream());
 				
-				in = new BufferedReader(
-						new InputStreamReader(socket.getInputStream()));
+				in = new BufferedInputStream(socket.getInputStream());
 			}
 			catch (Throwable e) {
 				LogUtil.trace(e);
@@ -102,28 +119,17 @@ public abstract class AbstractDelegator extends ProtocolImpl implements Runner,
 		
 		
 		userSession.clear();
-		String requestText = null;
+		codecNegotiated = false;
+		Object message = null;
 		while (socket != null && !socket.isClosed()) {
 			try {
-				requestText = in.readLine(); //Wait here.
-				if (requestText == null) break;
+				message = BinaryCodec.read(in, codecNegotiated ? BinaryCodec.MAX_FRAME_LENGTH : 0, BinaryCodec.MAX_LINE_LENGTH); //Wait here.
+				if (message == null) break;
 
-				Request request = parseRequest(requestText);
-				if (request == null || request.isQuitRequest()) {
-					Response empty = request == null? Response.createEmpty(Protocol.HDP_PROTOCOL) : Response.createEmpty(request.protocol);
-					out.write( (empty.toJson() + "\n").getBytes());
-				}
-				else if (!initUserSession(this, userSession, request)) { //Also handle validate account action.
-					Response empty = Response.createEmpty(request.protocol);
-					out.write( (empty.toJson() + "\n").getBytes());
-				}
-				else {
-					boolean handled = handleRequest(request, out);
-					if (!handled) {
-						Response empty = Response.createEmpty(request.protocol);
-						out.write( (empty.toJson() + "\n").getBytes());
-					}
-				}
+				if (message instanceof byte[])
+					processRequestFrame((byte[])message, out);
+				else
+					processRequestText((String)message, out);
 			}
 			catch (Throwable e) {
 				LogUtil.trace(e);
@@ -193,6 +199,147 @@ public abstract class AbstractDelegator extends ProtocolImpl implements Runner,
 			notifyAll();
 		}
 		
+		disconnected();
+	}
+	
+	
+	/**
+	 * Processing the specified request text and writing the response to the specified output stream.
+	 * It is called by {@link #run()} method for every request line, and by {@link SocketSelector} in selector mode where this delegator does not run its own thread.
+	 * @param requestText specified request text.
+	 * @param out output stream for writing the response to client.
+	 * @throws IOException if any error raises in writing the response.
+	 */
+	protected void processRequestText(String requestText, DataOutputStream out) throws IOException {
+		requestFrameFlags = -1;
+		respond(parseRequest(requestText), out);
+	}
+	
+	
+	/**
+	 * Processing the specified binary frame of request specified by {@link BinaryCodec} and writing the response to the specified output stream.
+	 * The response is written as binary frame too, which is compressed if the client accepts compressed frames.
+	 * It is called by {@link #run()} method for every binary frame, and by {@link SocketSelector} in selector mode.
+	 * @param frame specified binary frame of request.
+	 * @param out output stream for writing the response to client.
+	 * @throws IOException if binary codec was not negotiated, which causes the connection to be closed, or if any error raises in writing the response.
+	 */
+	protected void processRequestFrame(byte[] frame, DataOutputStream out) throws IOException {
+		if (!codecNegotiated)
+			throw new IOException("Binary frame is sent before binary codec is negotiated");
+		
+		Request request = null;
+		try {
+			ProtocolParam param = BinaryCodec.parseFrame(frame);
+			if (param instanceof Request) request = (Request)param;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Delegator fail to parse binary request, causes error " + e.getMessage());
+		}
+		
+		requestFrameFlags = BinaryCodec.getFlags(frame);
+		try {
+			respond(request, out);
+		}
+		finally {
+			requestFrameFlags = -1;
+		}
+	}
+	
+	
+	/**
+	 * Responding the specified request which was parsed from either JSON text line or binary frame.
+	 * @param request specified request, which can be null if it cannot be parsed.
+	 * @param out output stream for writing the response to client.
+	 * @throws IOException if any error raises in writing the response.
+	 */
+	private void respond(Request request, DataOutputStream out) throws IOException {
+		if (request == null || request.isQuitRequest()) {
+			Response empty = request == null? Response.createEmpty(Protocol.HDP_PROTOCOL) : Response.createEmpty(request.protocol);
+			writeResponse(request, empty, out);
+		}
+		else if (request.protocol == Protocol.HDP_PROTOCOL && Protocol.NEGOTIATE_CODEC.equals(request.action)) { //Accepted only after account is validated.
+			if (userSession.size() > 0) codecNegotiated = true;
+			writeResponse(request, Response.create(codecNegotiated), out);
+		}
+		else if (!initUserSession(this, userSession, request)) { //Also handle validate account action.
+			Response empty = Response.createEmpty(request.protocol);
+			writeResponse(request, empty, out);
+		}
+		else {
+			boolean handled = handleRequest(request, out);
+			if (!handled) {
+				Response empty = Response.createEmpty(request.protocol);
+				writeResponse(request, empty, out);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Writing the specified response of the specified request to the specified output stream.
+	 * If the request was sent as binary frame, the response is written as binary frame. If the response cannot be encoded as binary frame,
+	 * it is written as JSON text line, which client can read too.
+	 * If the request was sent as JSON text line, the response is written by Java serialization when the flag {@link Request#notJsonParsing} is true, otherwise it is written as JSON text line.
+	 * The response echoes the identifier of the request so that client can match responses of pipelined requests.
+	 * @param request specified request, which can be null.
+	 * @param response specified response.
+	 * @param out output stream for writing the response to client.
+	 * @throws IOException if any error raises in writing the response.
+	 */
+	protected void writeResponse(Request request, Response response, DataOutputStream out) throws IOException {
+		if (request != null && response != null)
+			response.requestId = request.requestId;
+		
+		int flags = requestFrameFlags;
+		if (flags >= 0) {
+			byte[] frame = null;
+			try {
+				boolean compress = (flags & BinaryCodec.ACCEPT_COMPRESSED) != 0;
+				frame = BinaryCodec.toFrame(response, compress, compress);
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+				LogUtil.error("Delegator fail to encode binary response, JSON is used instead");
+			}
+			
+			if (frame != null) {
+				out.write(frame);
+				return;
+			}
+		}
+		else if (request != null && request.notJsonParsing) {
+			response.toObject(out);
+			return;
+		}
+		
+		out.write( (response.toJson() + "\n").getBytes());
+	}
+	
+	
+	/**
+	 * Testing whether binary codec was negotiated after the account of client was validated.
+	 * @return whether binary codec was negotiated.
+	 */
+	protected boolean isCodecNegotiated() {
+		return codecNegotiated;
+	}
+	
+	
+	/**
+	 * This method is called when this delegator begins to serve its client, before any request is processed.
+	 */
+	protected void connected() {
+		
+	}
+	
+	
+	/**
+	 * This method is called when this delegator finishes serving its client, after the connection is closed.
+	 */
+	protected void disconnected() {
+		
 	}
 	
 	
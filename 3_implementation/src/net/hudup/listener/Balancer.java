@@ -13,9 +13,13 @@ import java.awt.SystemTray;
 import java.awt.TrayIcon;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.net.Socket;
 import java.rmi.RemoteException;
+import java.util.Timer;
+import java.util.TimerTask;
 
 import net.hudup.core.client.PowerServer;
+import net.hudup.core.client.Request;
 import net.hudup.core.client.ServerTrayIcon;
 import net.hudup.core.logistic.I18nUtil;
 import net.hudup.core.logistic.LogUtil;
@@ -36,6 +40,8 @@ import net.hudup.listener.ui.BalancerCP;
  * {@link Balancer} derives from {@link Listener} and overrides the {@link Listener#rebind()} method in order to support balancing function while it inherits all other functions of {@link Listener}.
  * {@link Balancer} selects least busy binded server to which user requests are dispatched.
  * Therefore, {@link Balancer} improves system performance more than {@link Listener} does. In general, {@link Listener} and {@link Balancer} are main components of interface layer.
+ * Active measures of binded servers are refreshed periodically by an internal timer so that selecting binded server does not call binded servers remotely.
+ * Outstanding requests, latencies, and failures of binded servers are tracked by delegators so that slow binded servers receive less requests and failed binded servers are ejected for a while.
  * Note, binded server is represented by {@link BindServer} class.
  * <br>
  * Note, the sub-architecture of recommendation server (recommender) is inspired from the architecture of Oracle database management system (Oracle DBMS);
@@ -55,6 +61,12 @@ public class Balancer extends Listener {
 	private static final long serialVersionUID = 1L;
 	
 	
+	/**
+	 * Internal timer which refreshes active measures of binded servers periodically.
+	 */
+	protected transient Timer measureTimer = null;
+	
+	
 	/**
 	 * Constructor with specified configuration of balancer.
 	 * @param config specified configuration of balancer.
@@ -69,9 +81,14 @@ public class Balancer extends Listener {
 		synchronized (bindServerList) {
 			
 			try {
+				BalancerConfig balancerConfig = (BalancerConfig)config;
+				bindServerList.setBalancing(
+						balancerConfig.getBalanceStrategy(),
+						balancerConfig.getEjectFailures(),
+						balancerConfig.getEjectPeriod());
+				
 				bindServerList.prune();
-				bindServerList.bind(
-						((BalancerConfig)config).getRemoteInfoList(), this);
+				bindServerList.bind(balancerConfig.getRemoteInfoList(), this);
 				
 				if (bindServerList.size() > 0)
 					LogUtil.info("Listener/Balancer (socket server) bound list of remote servers successfully");
@@ -88,14 +105,100 @@ public class Balancer extends Listener {
 
 	
 	@Override
-	protected PowerServer getBindServer() {
-		synchronized (bindServerList) {
-			BindServer bindServer = bindServerList.getIdleServer();
-			if (bindServer != null)
-				return bindServer.getServer();
-			else
-				return null;
+	public synchronized boolean start() {
+		if (!super.start()) return false;
+		
+		createMeasureTimer();
+		return true;
+	}
+
+
+	@Override
+	public synchronized boolean stop() {
+		if (!isStarted()) return false;
+		
+		destroyMeasureTimer();
+		return super.stop();
+	}
+
+
+	/**
+	 * Creating the internal timer {@link #measureTimer} which refreshes active measures of binded servers periodically.
+	 */
+	private void createMeasureTimer() {
+		destroyMeasureTimer();
+		
+		try {
+			final int period = ((BalancerConfig)config).getMeasureRefreshPeriod();
+			measureTimer = new Timer("Balancer measure timer", true);
+			measureTimer.schedule(
+				new TimerTask() {
+					
+					@Override
+					public void run() {
+						try {
+							bindServerList.refreshMeasures(period);
+						}
+						catch (Throwable e) {
+							LogUtil.trace(e);
+						}
+					}
+				},
+				0,
+				period);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Balancer failed to create measure timer, caused by " + e.getMessage());
+		}
+	}
+	
+	
+	/**
+	 * Destroying the internal timer {@link #measureTimer}.
+	 */
+	private void destroyMeasureTimer() {
+		if (measureTimer == null) return;
+		
+		try {
+			measureTimer.cancel();
 		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		measureTimer = null;
+	}
+	
+	
+	@Override
+	protected AbstractDelegator delegate(Socket socket) {
+		final BindServer bindServer = bindServerList.getIdleServer();
+		PowerServer server = bindServer != null ? bindServer.getServer() : null;
+		
+		return new Delegator(server, socket, this) {
+			
+			@Override
+			protected void requestProcessing(Request request) {
+				if (bindServer != null) bindServer.beginRequest();
+			}
+			
+			@Override
+			protected void requestProcessed(Request request, long elapsed, boolean failed) {
+				if (bindServer != null) bindServer.endRequest();
+				bindServerList.record(bindServer, elapsed, failed);
+			}
+			
+		};
+	}
+
+
+	@Override
+	protected PowerServer getBindServer() {
+		BindServer bindServer = bindServerList.getIdleServer();
+		if (bindServer != null)
+			return bindServer.getServer();
+		else
+			return null;
 	}
 
 
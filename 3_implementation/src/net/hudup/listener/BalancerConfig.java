@@ -68,6 +68,66 @@ public class BalancerConfig extends ListenerConfig {
 	public final static String REMOTE_INFO_LIST = changeCase("remote_info_list");
 
 	
+	/**
+	 * Name of the entry that contains strategy of selecting bound server. It is &quot;balance_strategy&quot; by default.
+	 */
+	public final static String BALANCE_STRATEGY_FIELD = changeCase("balance_strategy");
+
+	
+	/**
+	 * Strategy which selects the less loaded one of two randomly chosen bound servers, which avoids that all delegators rush to the same bound server between two refreshings of load.
+	 */
+	public final static String BALANCE_STRATEGY_TWO_CHOICES = "two_choices";
+
+	
+	/**
+	 * Strategy which selects the least loaded bound server among all bound servers.
+	 */
+	public final static String BALANCE_STRATEGY_LEAST_LOADED = "least_loaded";
+
+	
+	/**
+	 * Default strategy of selecting bound server.
+	 */
+	public final static String BALANCE_STRATEGY_DEFAULT = BALANCE_STRATEGY_TWO_CHOICES;
+
+	
+	/**
+	 * Name of the entry that contains period in miliseconds of refreshing active measures of bound servers. It is &quot;measure_refresh_period&quot; by default.
+	 */
+	public final static String MEASURE_REFRESH_PERIOD_FIELD = changeCase("measure_refresh_period");
+
+	
+	/**
+	 * Default period in miliseconds of refreshing active measures of bound servers.
+	 */
+	public final static int MEASURE_REFRESH_PERIOD_DEFAULT = 1000;
+
+	
+	/**
+	 * Name of the entry that contains the number of consecutive failures after which bound server is ejected from selection. It is &quot;eject_failures&quot; by default.
+	 */
+	public final static String EJECT_FAILURES_FIELD = changeCase("eject_failures");
+
+	
+	/**
+	 * Default number of consecutive failures after which bound server is ejected from selection.
+	 */
+	public final static int EJECT_FAILURES_DEFAULT = 3;
+
+	
+	/**
+	 * Name of the entry that contains period in miliseconds of ejecting failed bound server from selection. It is &quot;eject_period&quot; by default.
+	 */
+	public final static String EJECT_PERIOD_FIELD = changeCase("eject_period");
+
+	
+	/**
+	 * Default period in miliseconds of ejecting failed bound server from selection.
+	 */
+	public final static int EJECT_PERIOD_DEFAULT = 30000;
+
+	
 	/**
 	 * Default constructor.
 	 */
@@ -104,6 +164,10 @@ public class BalancerConfig extends ListenerConfig {
 		addRemoteInfo(rInfo);
 		
 		setExportPort(Constants.DEFAULT_BALANCER_EXPORT_PORT);
+		setBalanceStrategy(BALANCE_STRATEGY_DEFAULT);
+		setMeasureRefreshPeriod(MEASURE_REFRESH_PERIOD_DEFAULT);
+		setEjectFailures(EJECT_FAILURES_DEFAULT);
+		setEjectPeriod(EJECT_PERIOD_DEFAULT);
 
 	}
 
@@ -217,6 +281,82 @@ public class BalancerConfig extends ListenerConfig {
 	}
 
 
+	/**
+	 * Setting strategy of selecting bound server.
+	 * @param strategy strategy of selecting bound server such as {@link #BALANCE_STRATEGY_TWO_CHOICES} and {@link #BALANCE_STRATEGY_LEAST_LOADED}.
+	 */
+	public void setBalanceStrategy(String strategy) {
+		put(BALANCE_STRATEGY_FIELD, strategy);
+	}
+	
+	
+	/**
+	 * Getting strategy of selecting bound server.
+	 * @return strategy of selecting bound server, which is {@link #BALANCE_STRATEGY_DEFAULT} if not set.
+	 */
+	public String getBalanceStrategy() {
+		String strategy = getAsString(BALANCE_STRATEGY_FIELD);
+		return strategy != null ? strategy : BALANCE_STRATEGY_DEFAULT;
+	}
+	
+	
+	/**
+	 * Setting period in miliseconds of refreshing active measures of bound servers.
+	 * @param period period in miliseconds of refreshing active measures.
+	 */
+	public void setMeasureRefreshPeriod(int period) {
+		put(MEASURE_REFRESH_PERIOD_FIELD, period);
+	}
+	
+	
+	/**
+	 * Getting period in miliseconds of refreshing active measures of bound servers.
+	 * @return period in miliseconds of refreshing active measures, which is {@link #MEASURE_REFRESH_PERIOD_DEFAULT} if not set.
+	 */
+	public int getMeasureRefreshPeriod() {
+		int period = getAsInt(MEASURE_REFRESH_PERIOD_FIELD);
+		return period > 0 ? period : MEASURE_REFRESH_PERIOD_DEFAULT;
+	}
+	
+	
+	/**
+	 * Setting the number of consecutive failures after which bound server is ejected from selection.
+	 * @param failures the number of consecutive failures.
+	 */
+	public void setEjectFailures(int failures) {
+		put(EJECT_FAILURES_FIELD, failures);
+	}
+	
+	
+	/**
+	 * Getting the number of consecutive failures after which bound server is ejected from selection.
+	 * @return the number of consecutive failures, which is {@link #EJECT_FAILURES_DEFAULT} if not set.
+	 */
+	public int getEjectFailures() {
+		int failures = getAsInt(EJECT_FAILURES_FIELD);
+		return failures > 0 ? failures : EJECT_FAILURES_DEFAULT;
+	}
+	
+	
+	/**
+	 * Setting period in miliseconds of ejecting failed bound server from selection.
+	 * @param period period in miliseconds of ejection.
+	 */
+	public void setEjectPeriod(int period) {
+		put(EJECT_PERIOD_FIELD, period);
+	}
+	
+	
+	/**
+	 * Getting period in miliseconds of ejecting failed bound server from selection.
+	 * @return period in miliseconds of ejection, which is {@link #EJECT_PERIOD_DEFAULT} if not set.
+	 */
+	public int getEjectPeriod() {
+		int period = getAsInt(EJECT_PERIOD_FIELD);
+		return period > 0 ? period : EJECT_PERIOD_DEFAULT;
+	}
+	
+	
 	@Override
 	public Serializable userEdit(Component comp, String key, Serializable defaultValue) {
 		if (!key.equals(REMOTE_INFO_LIST))
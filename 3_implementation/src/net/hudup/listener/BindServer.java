@@ -7,6 +7,9 @@
  */
 package net.hudup.listener;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.hudup.core.client.ActiveMeasure;
 import net.hudup.core.client.ClientUtil;
 import net.hudup.core.client.PowerServer;
 import net.hudup.core.client.Server;
@@ -21,6 +24,10 @@ import net.hudup.core.logistic.LogUtil;
  * Listener or balancer dispatches incoming requests to the bound server and receives responses from the bound server.
  * The variable {@link #server} is such bound server and the variable {@link #rInfo} contains remote information relevant to the bound server.
  * Listener or balancer stores a list of bound servers; such list is represented by {@link BindServerList}.
+ * <br>
+ * This class also keeps load statistics of the bound server which are used by balancer to select bound server without calling the bound server remotely,
+ * including the active measure cached at the last refreshing, the number of outstanding requests dispatched by this balancer, the exponentially weighted moving average (EWMA) of latencies,
+ * and health information which ejects the bound server from selection for a period after consecutive failures.
  * 
  * @author Loc Nguyen
  * @version 10.0
@@ -48,6 +55,48 @@ public class BindServer {
 	protected ServerStatusListener bind = null;
 	
 	
+	/**
+	 * Smoothing factor of the exponentially weighted moving average of latencies.
+	 */
+	public final static double LATENCY_SMOOTHING = 0.2;
+	
+	
+	/**
+	 * Active degree of the bound server cached at the last refreshing by {@link #refreshMeasure()}, which is negative if it was not retrieved yet.
+	 */
+	protected volatile double measure = -1;
+	
+	
+	/**
+	 * Time point in miliseconds of the last refreshing of active measure.
+	 */
+	protected volatile long measureTime = 0;
+	
+	
+	/**
+	 * Number of outstanding requests dispatched to the bound server by this balancer.
+	 */
+	protected final AtomicInteger outstanding = new AtomicInteger(0);
+	
+	
+	/**
+	 * Exponentially weighted moving average of latencies in nanoseconds, which is negative if there is no latency yet.
+	 */
+	protected volatile double latency = -1;
+	
+	
+	/**
+	 * Number of consecutive failures.
+	 */
+	protected final AtomicInteger failures = new AtomicInteger(0);
+	
+	
+	/**
+	 * Time point in miliseconds until which the bound server is ejected from selection.
+	 */
+	protected volatile long ejectedUntil = 0;
+	
+	
 	/**
 	 * Default constructor. There is no binding.
 	 * Because this is private constructor, it is cannot be used to create a {@link BindServer}.
@@ -122,6 +171,130 @@ public class BindServer {
 	}
 	
 	
+	/**
+	 * Refreshing the cached active degree of the bound server by calling {@link PowerServer#getActiveMeasure()} remotely.
+	 * @return whether refreshing successfully.
+	 */
+	public boolean refreshMeasure() {
+		PowerServer server = this.server;
+		if (server == null) return false;
+		
+		try {
+			ActiveMeasure activeMeasure = server.getActiveMeasure();
+			if (activeMeasure == null) return false;
+			
+			measure = activeMeasure.compute();
+			measureTime = System.currentTimeMillis();
+			return true;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+		
+		return false;
+	}
+	
+	
+	/**
+	 * Getting the time point in miliseconds of the last refreshing of active measure.
+	 * @return time point of the last refreshing of active measure.
+	 */
+	public long getMeasureTime() {
+		return measureTime;
+	}
+	
+	
+	/**
+	 * Increasing the number of outstanding requests by 1 when a request is dispatched to the bound server.
+	 */
+	public void beginRequest() {
+		outstanding.incrementAndGet();
+	}
+	
+	
+	/**
+	 * Decreasing the number of outstanding requests by 1 when the bound server finished serving a request.
+	 */
+	public void endRequest() {
+		if (outstanding.decrementAndGet() < 0) outstanding.set(0);
+	}
+	
+	
+	/**
+	 * Getting the number of outstanding requests dispatched to the bound server by this balancer.
+	 * @return the number of outstanding requests.
+	 */
+	public int getOutstanding() {
+		return outstanding.get();
+	}
+	
+	
+	/**
+	 * Recording the specified latency into the exponentially weighted moving average of latencies.
+	 * Concurrent recordings may lose some latencies, which is acceptable for an average.
+	 * @param nanos specified latency in nanoseconds.
+	 */
+	public void recordLatency(long nanos) {
+		double latency = this.latency;
+		this.latency = latency < 0 ? nanos : latency + LATENCY_SMOOTHING * (nanos - latency);
+	}
+	
+	
+	/**
+	 * Getting the exponentially weighted moving average of latencies.
+	 * @return the exponentially weighted moving average of latencies in nanoseconds, which is negative if there is no latency yet.
+	 */
+	public double getLatency() {
+		return latency;
+	}
+	
+	
+	/**
+	 * Getting the load of the bound server, which is the product of the number of requests and the average latency. The number of requests is the greater one between
+	 * the cached active degree, which covers requests from other balancers, and the number of outstanding requests, which is up-to-date.
+	 * Bound server without latency yet is considered as fast so that it is tried soon.
+	 * @return the load of the bound server. The lower load is, the more idle the bound server is.
+	 */
+	public double getLoad() {
+		double requests = Math.max(measure, outstanding.get()) + 1;
+		double latency = this.latency;
+		return latency > 0 ? requests * latency : requests;
+	}
+	
+	
+	/**
+	 * Recording a success of the bound server, which resets the number of consecutive failures.
+	 */
+	public void succeed() {
+		failures.set(0);
+	}
+	
+	
+	/**
+	 * Recording a failure of the bound server. The bound server is ejected from selection in the specified period if the number of consecutive failures reaches the specified maximum number.
+	 * @param maxFailures specified maximum number of consecutive failures.
+	 * @param ejectPeriod specified period in miliseconds of ejection.
+	 * @return whether the bound server is ejected by this failure.
+	 */
+	public boolean fail(int maxFailures, long ejectPeriod) {
+		if (failures.incrementAndGet() < maxFailures) return false;
+		
+		failures.set(0);
+		ejectedUntil = System.currentTimeMillis() + ejectPeriod;
+		return true;
+	}
+	
+	
+	/**
+	 * Testing whether the bound server is ejected from selection at the specified time point.
+	 * @param now specified time point in miliseconds.
+	 * @return whether the bound server is ejected from selection at the specified time point.
+	 */
+	public boolean isEjected(long now) {
+		return now < ejectedUntil;
+	}
+	
+	
 	/**
 	 * This static method creates a {@link BindServer} object that binds a remote server via
 	 * specified host, port, access account, and access password. The {@link ServerStatusListener} interface, which often refers to listener or balancer, is also specified by the input parameter {@code bind}.
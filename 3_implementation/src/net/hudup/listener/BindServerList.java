@@ -8,6 +8,7 @@
 package net.hudup.listener;
 
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 import net.hudup.core.Constants;
 import net.hudup.core.Util;
@@ -22,6 +23,8 @@ import net.hudup.core.logistic.LogUtil;
  * {@link BindServer} can be identified with bound server because it actually is a wrapper of bound server.
  * This class provides utility methods to retrieve and to bind remote servers.
  * This class also supports synchronization mechanism among many threads.
+ * Selecting idle server by {@link #getIdleServer()} does not lock this list and does not call bound servers remotely because it reads an array snapshot of bound servers
+ * and load statistics cached in {@link BindServer}, which are refreshed periodically by {@link #refreshMeasures(long)}.
  * 
  * @author Loc Nguyen
  * @version 10.0
@@ -36,6 +39,30 @@ public class BindServerList {
 	protected List<BindServer> bindServers = Util.newList();
 
 	
+	/**
+	 * Array snapshot of bound servers which is replaced whenever the internal list {@link #bindServers} is changed, so that it is read without locking.
+	 */
+	protected volatile BindServer[] snapshot = new BindServer[0];
+	
+	
+	/**
+	 * Strategy of selecting idle server.
+	 */
+	protected volatile String strategy = BalancerConfig.BALANCE_STRATEGY_DEFAULT;
+	
+	
+	/**
+	 * Number of consecutive failures after which bound server is ejected from selection.
+	 */
+	protected volatile int ejectFailures = BalancerConfig.EJECT_FAILURES_DEFAULT;
+	
+	
+	/**
+	 * Period in miliseconds of ejecting failed bound server from selection.
+	 */
+	protected volatile long ejectPeriod = BalancerConfig.EJECT_PERIOD_DEFAULT;
+	
+	
 	/**
 	 * Default constructor.
 	 */
@@ -77,34 +104,124 @@ public class BindServerList {
 	
 	/**
 	 * Getting idle remote (bound) server in this list.
-	 * Note, each bound power server own an internal counter represented by active measure {@link ActiveMeasure} interface.
-	 * {@link ActiveMeasure} specifies how to measure the active degree of bound server.
-	 * The higher active degree is, the more busy the bound server is.
-	 * So this method returns the less busy bound server in this list.
+	 * Note, each bound server owns load statistics which combine its active measure {@link ActiveMeasure} cached at the last refreshing, the number of outstanding requests, and the average latency.
+	 * The higher load is, the more busy the bound server is. Bound servers ejected after consecutive failures are not selected unless all bound servers are ejected.
+	 * With the strategy {@link BalancerConfig#BALANCE_STRATEGY_TWO_CHOICES}, this method returns the less busy one of two randomly chosen bound servers.
+	 * Otherwise, this method returns the less busy bound server in this list.
+	 * This method neither locks this list nor calls bound servers remotely.
 	 * @return idle {@link BindServer} in this list.
 	 */
-	public synchronized BindServer getIdleServer() {
+	public BindServer getIdleServer() {
+		BindServer[] servers = snapshot;
+		if (servers.length == 0)
+			return null;
+		else if (servers.length == 1)
+			return servers[0];
+		
+		long now = System.currentTimeMillis();
+		List<BindServer> candidates = Util.newList(servers.length);
+		for (BindServer bindServer : servers) {
+			if (bindServer.isBound() && !bindServer.isEjected(now))
+				candidates.add(bindServer);
+		}
+		if (candidates.size() == 0) {
+			for (BindServer bindServer : servers) candidates.add(bindServer);
+		}
+		
+		int n = candidates.size();
+		if (n > 2 && BalancerConfig.BALANCE_STRATEGY_TWO_CHOICES.equals(strategy)) {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int i = random.nextInt(n);
+			int j = random.nextInt(n - 1);
+			if (j >= i) j++;
+			
+			BindServer first = candidates.get(i), second = candidates.get(j);
+			return second.getLoad() < first.getLoad() ? second : first;
+		}
+		
 		BindServer idle = null;
-		for (BindServer bindServer : bindServers) {
-			try {
-				if (idle == null)
-					idle = bindServer;
-				else {
-					ActiveMeasure m = bindServer.getServer().getActiveMeasure();
-					ActiveMeasure mIdle = idle.getServer().getActiveMeasure();
-					if (m.compareTo(mIdle) < 0)
-						idle = bindServer;
-				}
-			} 
-			catch (Throwable e) {
-				// TODO Auto-generated catch block
-				LogUtil.trace(e);
+		double idleLoad = 0;
+		for (BindServer bindServer : candidates) {
+			double load = bindServer.getLoad();
+			if (idle == null || load < idleLoad) {
+				idle = bindServer;
+				idleLoad = load;
 			}
-			
 		}
 		
 		return idle;
+	}
+
+	
+	/**
+	 * Setting the strategy of selecting idle server and the health policy of bound servers.
+	 * @param strategy strategy of selecting idle server such as {@link BalancerConfig#BALANCE_STRATEGY_TWO_CHOICES} and {@link BalancerConfig#BALANCE_STRATEGY_LEAST_LOADED}.
+	 * @param ejectFailures number of consecutive failures after which bound server is ejected from selection.
+	 * @param ejectPeriod period in miliseconds of ejecting failed bound server from selection.
+	 */
+	public void setBalancing(String strategy, int ejectFailures, long ejectPeriod) {
+		this.strategy = strategy;
+		this.ejectFailures = ejectFailures;
+		this.ejectPeriod = ejectPeriod;
+	}
+	
+	
+	/**
+	 * Refreshing cached active measures of bound servers whose measures are older than the specified age.
+	 * Bound servers are called remotely without locking this list. Bound server which fails to be refreshed is counted as a failure and so it can be ejected from selection.
+	 * @param maxAge specified age in miliseconds.
+	 */
+	public void refreshMeasures(long maxAge) {
+		BindServer[] servers = snapshot;
+		long now = System.currentTimeMillis();
+		for (BindServer bindServer : servers) {
+			if (!bindServer.isBound() || now - bindServer.getMeasureTime() < maxAge)
+				continue;
+			
+			if (bindServer.refreshMeasure())
+				bindServer.succeed();
+			else
+				fail(bindServer);
+		}
+	}
+	
+	
+	/**
+	 * Recording a request served by the specified bound server.
+	 * @param bindServer specified bound server.
+	 * @param elapsed elapsed time in nanoseconds of serving the request.
+	 * @param failed whether the request failed.
+	 */
+	public void record(BindServer bindServer, long elapsed, boolean failed) {
+		if (bindServer == null) return;
 		
+		if (failed)
+			fail(bindServer);
+		else {
+			bindServer.recordLatency(elapsed);
+			bindServer.succeed();
+		}
+	}
+	
+	
+	/**
+	 * Recording a failure of the specified bound server, which ejects such bound server if failures are too many.
+	 * @param bindServer specified bound server.
+	 */
+	private void fail(BindServer bindServer) {
+		if (!bindServer.fail(ejectFailures, ejectPeriod)) return;
+		
+		RemoteInfo rInfo = bindServer.getRemoteInfo();
+		if (rInfo != null)
+			LogUtil.warn("Bound server " + rInfo.host + ":" + rInfo.port + " is ejected in " + ejectPeriod + " miliseconds because of consecutive failures");
+	}
+	
+	
+	/**
+	 * Replacing the array snapshot {@link #snapshot} by the current bound servers. This method must be called whenever the internal list {@link #bindServers} is changed.
+	 */
+	private void updateSnapshot() {
+		snapshot = bindServers.toArray(new BindServer[bindServers.size()]);
 	}
 
 	
@@ -126,6 +243,7 @@ public class BindServerList {
 			BindServer bindServer = bindServers.get(index);
 			bindServer.unbind();
 			bindServers.remove(index);
+			updateSnapshot();
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -147,6 +265,7 @@ public class BindServerList {
 		}
 		
 		bindServers.clear();
+		updateSnapshot();
 	}
 	
 	
@@ -203,12 +322,14 @@ public class BindServerList {
 			
 			if (!validate) {
 				this.bindServers.remove(bindServer);
+				updateSnapshot();
 				bindServer = BindServer.bind(host, port, account, password, bind);
 				
 				if (bindServer == null)
 					return false;
 				else {
 					bindServers.add(bindServer);
+					updateSnapshot();
 					return true;
 				}
 			}
@@ -222,6 +343,7 @@ public class BindServerList {
 				return false;
 			else {
 				bindServers.add(bindServer);
+				updateSnapshot();
 				return true;
 			}
 		}
@@ -334,6 +456,7 @@ public class BindServerList {
 			if (!alive)
 				this.bindServers.remove(bindServer);
 		}
+		updateSnapshot();
 	}
 	
 	
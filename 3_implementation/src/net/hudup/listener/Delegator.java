@@ -92,7 +92,7 @@ public class Delegator extends AbstractDelegator {
 	
 	
 	@Override
-	public void run() {
+	protected void connected() {
 		try {
 			remoteServer.incRequest();
 		} 
@@ -100,9 +100,11 @@ public class Delegator extends AbstractDelegator {
 			LogUtil.trace(e);
 			LogUtil.error("Delegator fail to increase server request, causes error " + e.getMessage());
 		}
-		
-		super.run();
-		
+	}
+	
+	
+	@Override
+	protected void disconnected() {
 		try {
 			remoteServer.decRequest();
 		} 
@@ -130,10 +132,7 @@ public class Delegator extends AbstractDelegator {
 		try {
 			if (protocol == HDP_PROTOCOL) {
 				Response response = processRequest(request);
-				if (request.notJsonParsing)
-					response.toObject(out);
-				else
-					out.write( (response.toJson() + "\n").getBytes() );
+				writeResponse(request, response, out);
 			}
 			else if (protocol == HTTP_PROTOCOL) {
 				String action = request.action;
@@ -201,6 +200,9 @@ public class Delegator extends AbstractDelegator {
 	@SuppressWarnings("deprecation")
 	private Response processRequest(Request request) {
 		
+		requestProcessing(request);
+		long start = System.nanoTime();
+		boolean failed = false;
 		try {
 			String action = request.action;
 			
@@ -213,6 +215,12 @@ public class Delegator extends AbstractDelegator {
 			else if (action.equals(RECOMMEND_USER))
 				return Response.create(remoteService.recommend(request.userid, request.max_recommend));
 			
+			else if (action.equals(RECOMMEND_USERS))
+				return Response.createRatingVectorMap(remoteService.recommendUsers(request.userids, request.max_recommend));
+			
+			else if (action.equals(ESTIMATE_USERS))
+				return Response.createRatingVectorMap(remoteService.estimateUsers(request.user_queryids));
+			
 			else if (action.equals(RECOMMENDLET))
 				return Response.create(remoteService.recommend(request.host, request.port, request.reg_name, 
 						request.external_userid, request.external_itemid, request.max_recommend, request.rating));
@@ -347,14 +355,40 @@ public class Delegator extends AbstractDelegator {
 				return Response.create(remoteService.getAlgDescs());
 		}
 		catch (Throwable e) {
+			failed = true;
 			LogUtil.trace(e);
 			LogUtil.error("Delegator fail to process request, error is " + e.getMessage());
 		}
+		finally {
+			requestProcessed(request, System.nanoTime() - start, failed);
+		}
 		
 		return null;
 	}
 
 	
+	/**
+	 * This method is called before the remote service processes the specified request. By default, this method does nothing.
+	 * Balancer overrides this method to count outstanding requests of bound servers.
+	 * @param request specified request.
+	 */
+	protected void requestProcessing(Request request) {
+		
+	}
+	
+	
+	/**
+	 * This method is called after the remote service processed the specified request. By default, this method does nothing.
+	 * Balancer overrides this method to track latencies and failures of bound servers.
+	 * @param request specified request.
+	 * @param elapsed elapsed time in nanoseconds of processing the request.
+	 * @param failed whether the remote service failed to process the request.
+	 */
+	protected void requestProcessed(Request request, long elapsed, boolean failed) {
+		
+	}
+
+	
 	@Override
 	public boolean validateAccount(String account, String password, int privileges) {
 		
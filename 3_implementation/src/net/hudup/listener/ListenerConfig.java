@@ -66,6 +66,43 @@ public class ListenerConfig extends ServerConfig {
 	public final static String EXPORT_PORT_FIELD = changeCase("export_port");
 
 	
+	/**
+	 * Flag field to indicate selector mode. In this mode, connections are multiplexed onto one selector thread and requests are processed by a bounded pool of worker threads
+	 * instead of one delegator thread per connection.
+	 */
+	public final static String SELECTOR_MODE_FIELD = changeCase("selector_mode");
+
+	
+	/**
+	 * By default, selector mode is disabled.
+	 */
+	public final static boolean SELECTOR_MODE_DEFAULT = false;
+
+	
+	/**
+	 * Field of the number of worker threads in selector mode.
+	 */
+	public final static String WORKER_THREADS_FIELD = changeCase("worker_threads");
+
+	
+	/**
+	 * Default number of worker threads in selector mode.
+	 */
+	public final static int WORKER_THREADS_DEFAULT = 16;
+
+	
+	/**
+	 * Field of the maximum number of requests waiting for worker threads in selector mode. When the queue is full, the selector stops reading requests from clients until the queue has room.
+	 */
+	public final static String WORKER_QUEUE_SIZE_FIELD = changeCase("worker_queue_size");
+
+	
+	/**
+	 * Default maximum number of requests waiting for worker threads in selector mode.
+	 */
+	public final static int WORKER_QUEUE_SIZE_DEFAULT = 1024;
+
+	
 	/**
 	 * Default constructor.
 	 */
@@ -105,6 +142,9 @@ public class ListenerConfig extends ServerConfig {
 			remove(REMOTE_PASSWORD_FIELD);
 		}
 		setExportPort(Constants.DEFAULT_LISTENER_EXPORT_PORT);
+		setSelectorMode(SELECTOR_MODE_DEFAULT);
+		setWorkerThreads(WORKER_THREADS_DEFAULT);
+		setWorkerQueueSize(WORKER_QUEUE_SIZE_DEFAULT);
 	}
 	
 
@@ -125,6 +165,60 @@ public class ListenerConfig extends ServerConfig {
 		return getAsInt(EXPORT_PORT_FIELD);
 	}
 
+
+	/**
+	 * Setting flag to indicate selector mode.
+	 * @param flag flag to indicate selector mode.
+	 */
+	public void setSelectorMode(boolean flag) {
+		put(SELECTOR_MODE_FIELD, flag);
+	}
+	
+	
+	/**
+	 * Getting flag to indicate selector mode.
+	 * @return flag to indicate selector mode.
+	 */
+	public boolean isSelectorMode() {
+		return getAsBoolean(SELECTOR_MODE_FIELD);
+	}
+
+	
+	/**
+	 * Setting the number of worker threads in selector mode.
+	 * @param threads the number of worker threads.
+	 */
+	public void setWorkerThreads(int threads) {
+		put(WORKER_THREADS_FIELD, threads);
+	}
+	
+	
+	/**
+	 * Getting the number of worker threads in selector mode.
+	 * @return the number of worker threads.
+	 */
+	public int getWorkerThreads() {
+		return getAsInt(WORKER_THREADS_FIELD);
+	}
+
+	
+	/**
+	 * Setting the maximum number of requests waiting for worker threads in selector mode.
+	 * @param size the maximum number of waiting requests.
+	 */
+	public void setWorkerQueueSize(int size) {
+		put(WORKER_QUEUE_SIZE_FIELD, size);
+	}
+	
+	
+	/**
+	 * Getting the maximum number of requests waiting for worker threads in selector mode.
+	 * @return the maximum number of waiting requests.
+	 */
+	public int getWorkerQueueSize() {
+		return getAsInt(WORKER_QUEUE_SIZE_FIELD);
+	}
+
 	
 	/**
 	 * Setting remote host (server).
@@ -0,0 +1,751 @@
+/**
+ * HUDUP: A FRAMEWORK OF E-COMMERCIAL RECOMMENDATION ALGORITHMS
+ * (C) Copyright by Loc Nguyen's Academic Network
+ * Project homepage: hudup.locnguyen.net
+ * Email: ng_phloc@yahoo.com
+ * Phone: +84-975250362
+ */
+package net.hudup.listener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.hudup.core.Util;
+import net.hudup.core.client.BinaryCodec;
+import net.hudup.core.logistic.LogUtil;
+
+/**
+ * This class is the selector mode of {@link SocketServer}. It multiplexes many client connections onto one selector thread, which is the thread of socket server,
+ * and dispatches requests, which are JSON text lines or binary frames specified by {@link BinaryCodec}, to a bounded pool of worker threads. Every connection is served by a delegator created by {@link SocketServer#delegate(java.net.Socket)}
+ * but such delegator does not run its own thread. Requests of the same connection are processed one by one in order, so that responses are written in the order of requests.
+ * When the queue of worker threads is full, the selector stops reading from connections whose requests are waiting until the queue has room,
+ * which pushes back to clients through TCP flow control instead of creating more threads.
+ *
+ * @author Loc Nguyen
+ * @version 13.0
+ *
+ */
+public class SocketSelector {
+
+
+	/**
+	 * Size of read buffer.
+	 */
+	private static final int READ_BUFFER_SIZE = 8192;
+
+
+	/**
+	 * Maximum number of requests of a connection waiting to be processed. The selector stops reading a connection which has so many waiting requests
+	 * and reads it again after its requests are processed, so that a client which pipelines requests cannot make the selector buffer them without bound.
+	 */
+	private static final int MAX_PENDING_REQUESTS = 16;
+
+
+	/**
+	 * Selecting timeout in miliseconds when there are requests waiting for room in the queue of worker threads.
+	 */
+	private static final long RETRY_TIMEOUT = 10;
+
+
+	/**
+	 * Socket server which creates delegators.
+	 */
+	protected SocketServer socketServer = null;
+
+
+	/**
+	 * Server socket channel.
+	 */
+	protected ServerSocketChannel serverChannel = null;
+
+
+	/**
+	 * Selector of channels.
+	 */
+	protected Selector selector = null;
+
+
+	/**
+	 * Bounded pool of worker threads.
+	 */
+	protected ThreadPoolExecutor workers = null;
+
+
+	/**
+	 * Idle timeout of connections in miliseconds. If it is not positive, connections are not closed when idle.
+	 */
+	protected long idleTimeout = 0;
+
+
+	/**
+	 * Connections whose requests are processed completely by worker threads, which are handled by selector thread later.
+	 */
+	private final Queue<Connection> completed = new ConcurrentLinkedQueue<Connection>();
+
+
+	/**
+	 * Connections whose requests are waiting for room in the queue of worker threads.
+	 */
+	private final List<Connection> blocked = Util.newList();
+
+
+	/**
+	 * Read buffer of selector thread.
+	 */
+	private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+
+	/**
+	 * Last time in miliseconds that idle connections were checked.
+	 */
+	private long lastIdleCheck = 0;
+
+
+	/**
+	 * Number of open connections.
+	 */
+	private final AtomicInteger connectionCount = new AtomicInteger(0);
+
+
+	/**
+	 * Number of processed requests.
+	 */
+	private final AtomicLong requestCount = new AtomicLong(0);
+
+
+	/**
+	 * Number of requests which were rejected at least once because the queue of worker threads is full.
+	 */
+	private final AtomicLong rejectedCount = new AtomicLong(0);
+
+
+	/**
+	 * Maximum length of the queue of worker threads observed.
+	 */
+	private volatile int maxQueueLength = 0;
+
+
+	/**
+	 * Constructor with socket server, port, number of worker threads, size of worker queue, and idle timeout.
+	 * @param socketServer socket server which creates delegators.
+	 * @param port server port.
+	 * @param workerThreads number of worker threads.
+	 * @param queueSize maximum number of requests waiting for worker threads.
+	 * @param idleTimeout idle timeout of connections in miliseconds. If it is not positive, connections are not closed when idle.
+	 * @throws IOException if any error raises in opening server channel.
+	 */
+	public SocketSelector(SocketServer socketServer, int port, int workerThreads, int queueSize, long idleTimeout) throws IOException {
+		this.socketServer = socketServer;
+		this.idleTimeout = idleTimeout;
+
+		workerThreads = Math.max(1, workerThreads);
+		queueSize = Math.max(1, queueSize);
+		final AtomicInteger threadNumber = new AtomicInteger(0);
+		this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+			new ArrayBlockingQueue<Runnable>(queueSize),
+			new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "socket-worker-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		this.workers.allowCoreThreadTimeOut(true);
+
+		try {
+			this.selector = Selector.open();
+			this.serverChannel = ServerSocketChannel.open();
+			this.serverChannel.socket().setReuseAddress(true);
+			this.serverChannel.bind(new InetSocketAddress(port));
+			this.serverChannel.configureBlocking(false);
+			this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		}
+		catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+
+	/**
+	 * Running one iteration of selector: accepting connections, reading requests, dispatching requests to worker threads, and writing responses.
+	 * This method is called repeatedly by the thread of socket server.
+	 * @param timeout maximum time in miliseconds to wait for events. If it is not positive, this method waits until an event occurs or the selector is woken up.
+	 */
+	public void select(long timeout) {
+		if (selector == null || !selector.isOpen()) return;
+
+		try {
+			if (blocked.size() > 0)
+				timeout = timeout > 0 ? Math.min(timeout, RETRY_TIMEOUT) : RETRY_TIMEOUT;
+			selector.select(Math.max(0, timeout));
+
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				if (!key.isValid()) continue;
+
+				if (key.isAcceptable())
+					accept();
+				else {
+					Connection connection = (Connection)key.attachment();
+					if (key.isReadable()) read(connection);
+					if (key.isValid() && key.isWritable()) write(connection);
+				}
+			}
+
+			Connection connection = null;
+			while ((connection = completed.poll()) != null) {
+				connection.busy = false;
+				if (connection.closed) {
+					release(connection);
+					continue;
+				}
+				write(connection);
+				dispatch(connection);
+			}
+
+			if (blocked.size() > 0) {
+				List<Connection> retries = Util.newList(blocked.size());
+				retries.addAll(blocked);
+				blocked.clear();
+				for (Connection retry : retries) {
+					retry.waiting = false;
+					dispatch(retry);
+				}
+			}
+
+			closeIdleConnections();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Socket selector failed to select, caused by " + e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Accepting a new connection.
+	 */
+	private void accept() {
+		SocketChannel channel = null;
+		try {
+			channel = serverChannel.accept();
+			if (channel == null) return;
+			channel.configureBlocking(false);
+
+			AbstractDelegator delegator = socketServer.delegate(channel.socket());
+			if (delegator == null) {
+				channel.close();
+				LogUtil.error("Socket selector failed to create delegator (null delegator)");
+				return;
+			}
+
+			Connection connection = new Connection(channel, delegator);
+			connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+			connectionCount.incrementAndGet();
+			delegator.started = true;
+			delegator.connected();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Socket selector failed to accept connection, caused by " + e.getMessage());
+			try {
+				if (channel != null) channel.close();
+			}
+			catch (Throwable e1) {LogUtil.trace(e1);}
+		}
+	}
+
+
+	/**
+	 * Reading available bytes of the specified connection and splitting them into request lines and binary frames.
+	 * Reading stops when the connection has {@link #MAX_PENDING_REQUESTS} waiting requests, leaving remaining bytes in the socket.
+	 * @param connection specified connection.
+	 */
+	private void read(Connection connection) {
+		try {
+			while (connection.requests.size() < MAX_PENDING_REQUESTS) {
+				readBuffer.clear();
+				int n = connection.channel.read(readBuffer);
+				if (n < 0) {
+					connection.eof = true;
+					connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+					break;
+				}
+				if (n == 0) break;
+
+				connection.lastActive = System.currentTimeMillis();
+				connection.append(readBuffer.array(), n);
+			}
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			close(connection);
+			return;
+		}
+
+		dispatch(connection);
+	}
+
+
+	/**
+	 * Dispatching the next request line of the specified connection to worker threads if the connection is not busy.
+	 * If the queue of worker threads is full, the connection stops reading until the request is dispatched.
+	 * @param connection specified connection.
+	 */
+	private void dispatch(final Connection connection) {
+		if (!connection.key.isValid()) return;
+
+		if (!connection.busy && connection.requests.size() > 0) {
+			final Object request = connection.requests.peek();
+			try {
+				connection.busy = true;
+				workers.execute(new Runnable() {
+
+					@Override
+					public void run() {
+						process(connection, request);
+					}
+				});
+				connection.requests.poll();
+				connection.rejected = false;
+				maxQueueLength = Math.max(maxQueueLength, workers.getQueue().size());
+			}
+			catch (RejectedExecutionException e) {
+				connection.busy = false;
+				if (!connection.rejected) rejectedCount.incrementAndGet();
+				connection.rejected = true;
+				if (!connection.waiting) {
+					connection.waiting = true;
+					blocked.add(connection);
+				}
+			}
+		}
+
+		if (!connection.key.isValid()) return;
+		if (connection.eof && !connection.busy && connection.requests.size() == 0 && connection.output.isEmpty()) {
+			close(connection);
+			return;
+		}
+
+		//Backpressure: the connection is not read while it has waiting requests.
+		int ops = connection.key.interestOps();
+		if (connection.requests.size() > 0 || connection.eof)
+			ops &= ~SelectionKey.OP_READ;
+		else
+			ops |= SelectionKey.OP_READ;
+		connection.key.interestOps(ops);
+	}
+
+
+	/**
+	 * Processing the specified request of the specified connection, which is called by worker thread.
+	 * @param connection specified connection.
+	 * @param request specified request which is either request text or binary frame.
+	 */
+	private void process(Connection connection, Object request) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(buffer);
+		try {
+			if (request instanceof byte[])
+				connection.delegator.processRequestFrame((byte[])request, out);
+			else
+				connection.delegator.processRequestText((String)request, out);
+			out.flush();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Socket selector failed to process request, caused by " + e.getMessage());
+			connection.eof = true;
+		}
+
+		requestCount.incrementAndGet();
+		if (buffer.size() > 0) connection.output.add(ByteBuffer.wrap(buffer.toByteArray()));
+		completed.add(connection);
+		wakeup();
+	}
+
+
+	/**
+	 * Writing pending responses of the specified connection as much as possible without blocking.
+	 * @param connection specified connection.
+	 */
+	private void write(Connection connection) {
+		if (!connection.key.isValid()) return;
+
+		try {
+			ByteBuffer buffer = null;
+			while ((buffer = connection.output.peek()) != null) {
+				connection.channel.write(buffer);
+				if (buffer.hasRemaining()) break;
+				connection.output.poll();
+			}
+
+			connection.lastActive = System.currentTimeMillis();
+			int ops = connection.key.interestOps();
+			connection.key.interestOps(connection.output.isEmpty() ? ops & ~SelectionKey.OP_WRITE : ops | SelectionKey.OP_WRITE);
+			if (connection.output.isEmpty() && connection.eof && !connection.busy && connection.requests.size() == 0)
+				close(connection);
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			close(connection);
+		}
+	}
+
+
+	/**
+	 * Closing connections which are idle longer than idle timeout. This check is done at most once per second.
+	 */
+	private void closeIdleConnections() {
+		if (idleTimeout <= 0) return;
+		long now = System.currentTimeMillis();
+		if (now - lastIdleCheck < 1000) return;
+		lastIdleCheck = now;
+
+		for (SelectionKey key : selector.keys()) {
+			Object attachment = key.attachment();
+			if (!(attachment instanceof Connection)) continue;
+			Connection connection = (Connection)attachment;
+			if (!connection.busy && connection.requests.size() == 0 && now - connection.lastActive > idleTimeout)
+				close(connection);
+		}
+	}
+
+
+	/**
+	 * Closing the specified connection. If a request of the connection is being processed, its delegator is released after the request is processed.
+	 * @param connection specified connection.
+	 */
+	private void close(Connection connection) {
+		if (connection.closed) return;
+		connection.closed = true;
+		if (connection.waiting) {
+			connection.waiting = false;
+			blocked.remove(connection);
+		}
+
+		try {
+			if (connection.key != null) connection.key.cancel();
+			connection.channel.close();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+		}
+
+		connectionCount.decrementAndGet();
+		if (!connection.busy) release(connection);
+	}
+
+
+	/**
+	 * Releasing the delegator of the specified closed connection.
+	 * @param connection specified closed connection.
+	 */
+	private void release(Connection connection) {
+		if (connection.released) return;
+		connection.released = true;
+
+		AbstractDelegator delegator = connection.delegator;
+		delegator.userSession.clear();
+		delegator.started = false;
+		delegator.socketServer = null;
+		delegator.disconnected();
+	}
+
+
+	/**
+	 * Waking up the selector thread if it is waiting for events.
+	 */
+	public void wakeup() {
+		Selector selector = this.selector;
+		if (selector != null) selector.wakeup();
+	}
+
+
+	/**
+	 * Closing this selector, all connections, and worker threads.
+	 */
+	public void close() {
+		if (selector != null) {
+			try {
+				for (SelectionKey key : selector.keys()) {
+					Object attachment = key.attachment();
+					if (!(attachment instanceof Connection)) continue;
+					close((Connection)attachment);
+					release((Connection)attachment);
+				}
+				selector.close();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+			selector = null;
+		}
+
+		if (serverChannel != null) {
+			try {
+				serverChannel.close();
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+			}
+			serverChannel = null;
+		}
+
+		if (workers != null) {
+			workers.shutdownNow();
+			workers = null;
+		}
+
+		blocked.clear();
+		completed.clear();
+	}
+
+
+	/**
+	 * Testing whether this selector is open.
+	 * @return whether this selector is open.
+	 */
+	public boolean isOpen() {
+		return selector != null && selector.isOpen() && serverChannel != null && serverChannel.isOpen();
+	}
+
+
+	/**
+	 * Getting the number of open connections.
+	 * @return the number of open connections.
+	 */
+	public int getConnectionCount() {
+		return connectionCount.get();
+	}
+
+
+	/**
+	 * Getting the current length of the queue of worker threads.
+	 * @return the current length of the queue of worker threads.
+	 */
+	public int getQueueLength() {
+		ThreadPoolExecutor workers = this.workers;
+		return workers != null ? workers.getQueue().size() : 0;
+	}
+
+
+	/**
+	 * Getting the maximum length of the queue of worker threads observed.
+	 * @return the maximum length of the queue of worker threads observed.
+	 */
+	public int getMaxQueueLength() {
+		return maxQueueLength;
+	}
+
+
+	/**
+	 * Getting the number of worker threads which are processing requests.
+	 * @return the number of active worker threads.
+	 */
+	public int getActiveWorkerCount() {
+		ThreadPoolExecutor workers = this.workers;
+		return workers != null ? workers.getActiveCount() : 0;
+	}
+
+
+	/**
+	 * Getting the number of processed requests.
+	 * @return the number of processed requests.
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+
+	/**
+	 * Getting the number of requests which were rejected at least once because the queue of worker threads is full.
+	 * Rejected requests are not lost, they are dispatched again later.
+	 * @return the number of rejected requests.
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+
+	@Override
+	public String toString() {
+		return "connections=" + getConnectionCount() + ", active workers=" + getActiveWorkerCount() +
+			", queue length=" + getQueueLength() + ", max queue length=" + getMaxQueueLength() +
+			", requests=" + getRequestCount() + ", rejected=" + getRejectedCount();
+	}
+
+
+	/**
+	 * This class represents a client connection in selector mode.
+	 * Fields are accessed by selector thread except that worker thread adds response to output queue and sets end-of-stream flag when processing fails.
+	 *
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 *
+	 */
+	private static class Connection {
+
+		/**
+		 * Socket channel.
+		 */
+		protected SocketChannel channel = null;
+
+		/**
+		 * Selection key.
+		 */
+		protected SelectionKey key = null;
+
+		/**
+		 * Delegator serving this connection.
+		 */
+		protected AbstractDelegator delegator = null;
+
+		/**
+		 * Bytes of the incomplete request line or binary frame.
+		 */
+		protected byte[] data = new byte[READ_BUFFER_SIZE];
+
+		/**
+		 * Number of bytes of the incomplete request line or binary frame.
+		 */
+		protected int count = 0;
+
+		/**
+		 * Number of bytes of the incomplete request line which were scanned without line terminator.
+		 */
+		protected int scanned = 0;
+
+		/**
+		 * Requests waiting to be processed, which are request texts or binary frames.
+		 */
+		protected Queue<Object> requests = new ArrayDeque<Object>();
+
+		/**
+		 * Responses waiting to be written.
+		 */
+		protected Queue<ByteBuffer> output = new ConcurrentLinkedQueue<ByteBuffer>();
+
+		/**
+		 * Flag to indicate that a request of this connection is being processed by worker thread.
+		 */
+		protected volatile boolean busy = false;
+
+		/**
+		 * Flag to indicate that client closed its output or processing failed, so that the connection is closed after pending responses are written.
+		 */
+		protected volatile boolean eof = false;
+
+		/**
+		 * Flag to indicate that the next request of this connection was rejected because the queue of worker threads is full.
+		 */
+		protected boolean rejected = false;
+
+		/**
+		 * Flag to indicate that this connection is in the list of connections whose requests are waiting for room in the queue of worker threads.
+		 */
+		protected boolean waiting = false;
+
+		/**
+		 * Flag to indicate that this connection was closed.
+		 */
+		protected boolean closed = false;
+
+		/**
+		 * Flag to indicate that the delegator of this connection was released.
+		 */
+		protected boolean released = false;
+
+		/**
+		 * Last active time in miliseconds.
+		 */
+		protected long lastActive = System.currentTimeMillis();
+
+		/**
+		 * Constructor with socket channel and delegator.
+		 * @param channel socket channel.
+		 * @param delegator delegator serving this connection.
+		 */
+		public Connection(SocketChannel channel, AbstractDelegator delegator) {
+			this.channel = channel;
+			this.delegator = delegator;
+		}
+
+		/**
+		 * Appending the specified bytes and taking complete request lines and binary frames.
+		 * Carriage return at the end of request line is removed like {@link java.io.BufferedReader#readLine()}.
+		 * Binary frames are accepted only after the delegator negotiated binary codec, and frames and lines are limited by {@link BinaryCodec#MAX_FRAME_LENGTH} and {@link BinaryCodec#MAX_LINE_LENGTH}.
+		 * @param array specified bytes.
+		 * @param n number of the specified bytes.
+		 * @throws IOException if binary frame is invalid or not accepted, or if binary frame or request line is too long.
+		 */
+		protected void append(byte[] array, int n) throws IOException {
+			if (count + n > data.length)
+				data = Arrays.copyOf(data, Math.max(count + n, data.length * 2));
+			System.arraycopy(array, 0, data, count, n);
+			count += n;
+
+			int start = 0;
+			while (start < count) {
+				if (scanned == 0 && (data[start] & 0xFF) == BinaryCodec.MAGIC) {
+					if (!delegator.isCodecNegotiated())
+						throw new IOException("Binary frame is not accepted");
+					int length = BinaryCodec.frameLength(data, start, count - start);
+					if (length > BinaryCodec.MAX_FRAME_LENGTH)
+						throw new IOException("Binary frame is too long");
+					if (length < 0 || count - start < length) break;
+					requests.add(Arrays.copyOfRange(data, start, start + length));
+					start += length;
+					continue;
+				}
+
+				int end = start + scanned;
+				while (end < count && data[end] != '\n') end++;
+				if (end == count) {
+					scanned = end - start;
+					if (scanned > BinaryCodec.MAX_LINE_LENGTH)
+						throw new IOException("Request line is too long");
+					break;
+				}
+
+				int length = end > start && data[end - 1] == '\r' ? end - start - 1 : end - start;
+				requests.add(new String(data, start, length));
+				start = end + 1;
+				scanned = 0;
+			}
+
+			if (start > 0) {
+				System.arraycopy(data, start, data, 0, count - start);
+				count -= start;
+			}
+		}
+
+	}
+
+
+}
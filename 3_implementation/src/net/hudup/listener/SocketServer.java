@@ -63,6 +63,12 @@ public abstract class SocketServer extends AbstractRunner implements Server, Acc
 	protected ServerSocket serverSocket = null;
 
 	
+	/**
+	 * Socket selector which replaces {@link #serverSocket} in selector mode ({@link ListenerConfig#isSelectorMode()}).
+	 */
+	protected SocketSelector socketSelector = null;
+
+	
 	/**
 	 * Control socket for control commands such as start, stop, pause and resume.
 	 */
@@ -147,6 +153,10 @@ public abstract class SocketServer extends AbstractRunner implements Server, Acc
 	
 	@Override
 	protected void task() {
+		if (socketSelector != null) {
+			if (!paused) socketSelector.select(config.getServerTimeout()*1000);
+			return;
+		}
 		if (serverSocket == null || paused)
 			return;
 		
@@ -336,8 +346,7 @@ public abstract class SocketServer extends AbstractRunner implements Server, Acc
 		pauseDelegators();
 
 		destroyTimer();
-		new SocketWrapper("localhost", 
-				config.getServerPort()).sendQuitRequest();
+		wakeup();
 		super.pause();
 		
 		fireStatusEvent(new ServerStatusEvent(this, Status.paused));
@@ -375,7 +384,7 @@ public abstract class SocketServer extends AbstractRunner implements Server, Acc
 
 		destroyTimer();
 		if (!paused)
-			new SocketWrapper("localhost", config.getServerPort()).sendQuitRequest(); //This code line is redundant.
+			wakeup(); //This code line is redundant.
 		super.stop();
 		
 		fireStatusEvent(new ServerStatusEvent(this, Status.stopped));
@@ -425,6 +434,35 @@ public abstract class SocketServer extends AbstractRunner implements Server, Acc
 	}
 
 	
+	/**
+	 * Waking up the thread of this server if it is waiting for incoming connection, by sending quit request to the server socket or by waking up the socket selector in selector mode.
+	 */
+	private void wakeup() {
+		if (socketSelector != null)
+			socketSelector.wakeup();
+		else
+			new SocketWrapper("localhost", config.getServerPort()).sendQuitRequest();
+	}
+	
+	
+	/**
+	 * Testing whether this server runs in selector mode, in which connections are multiplexed by {@link SocketSelector} instead of one delegator thread per connection.
+	 * @return whether this server runs in selector mode.
+	 */
+	protected boolean isSelectorMode() {
+		return config instanceof ListenerConfig && ((ListenerConfig)config).isSelectorMode();
+	}
+	
+	
+	/**
+	 * Getting the socket selector in selector mode.
+	 * @return the socket selector, or null if this server does not run in selector mode.
+	 */
+	public SocketSelector getSocketSelector() {
+		return socketSelector;
+	}
+	
+	
 	/**
 	 * When socket server receive incoming request, it dispatches such request to a delegator represented by {@link AbstractDelegator} so that such delegator handles and processes the request.
 	 * This method is responsible for creating the delegator with specified network socket at first.
@@ -480,6 +518,8 @@ public abstract class SocketServer extends AbstractRunner implements Server, Acc
 		try {
 			serverTasks();
 			LogUtil.info("Socket server finished server tasks");
+			if (socketSelector != null)
+				LogUtil.info("Socket server selector: " + socketSelector);
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -522,6 +562,11 @@ public abstract class SocketServer extends AbstractRunner implements Server, Acc
 	 * Destroying the internal socket {@link #serverSocket}.
 	 */
 	private void destroyServerSocket() {
+		if (socketSelector != null) {
+			socketSelector.close();
+			socketSelector = null;
+		}
+		
 		if (serverSocket != null && !serverSocket.isClosed()) {
 			try {
 				serverSocket.close();
@@ -560,7 +605,27 @@ public abstract class SocketServer extends AbstractRunner implements Server, Acc
 	 * Setting up (initializing) the internal socket {@link #serverSocket}.
 	 */
 	private void setupServerSocket() {
-		if (serverSocket == null || serverSocket.isClosed()) {
+		if (isSelectorMode()) {
+			if (socketSelector != null && socketSelector.isOpen())
+				return;
+			
+			try {
+				int port = NetUtil.getPort(config.getServerPort(), Constants.TRY_RANDOM_PORT);
+				if (port < 0)
+					throw new Exception("Invalid port number");
+				config.setServerPort(port);
+
+				ListenerConfig listenerConfig = (ListenerConfig)config;
+				socketSelector = new SocketSelector(this, port,
+						listenerConfig.getWorkerThreads(), listenerConfig.getWorkerQueueSize(), config.getServerTimeout()*1000L);
+			}
+			catch (Throwable e) {
+				LogUtil.trace(e);
+				LogUtil.error("Socket server failed to create socket selector, caused by " + e.getMessage());
+				destroyServerSocket();
+			}
+		}
+		else if (serverSocket == null || serverSocket.isClosed()) {
 		
 			try {
 				int port = NetUtil.getPort(config.getServerPort(), Constants.TRY_RANDOM_PORT);
@@ -636,7 +701,10 @@ public abstract class SocketServer extends AbstractRunner implements Server, Acc
 	 * @return whether test socket successfully
 	 */
 	private boolean testServerSocket() {
-		return serverSocket != null && !serverSocket.isClosed();
+		if (socketSelector != null)
+			return socketSelector.isOpen();
+		else
+			return serverSocket != null && !serverSocket.isClosed();
 	}
 
 
@@ -10,6 +10,7 @@ package net.hudup.parser;
 import java.awt.Component;
 import java.io.BufferedReader;
 import java.io.Serializable;
+import java.nio.file.Files;
 import java.rmi.RemoteException;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
@@ -44,6 +45,7 @@ import net.hudup.core.logistic.LineProcessor;
 import net.hudup.core.logistic.LogUtil;
 import net.hudup.core.logistic.UriAdapter;
 import net.hudup.core.logistic.xURI;
+import net.hudup.core.parser.RatingFileParser;
 import net.hudup.core.parser.SnapshotParser;
 import net.hudup.core.parser.TextParserUtil;
 
@@ -210,6 +212,14 @@ public class MovielensParser extends SnapshotParser {
 			String ratingsUnit = config.getRatingUnit();
 			xURI ruUri = store.concat(ratingsUnit);
 			
+			//Local rating file is parsed in parallel without splitting lines by regular expression.
+			if ("file".equalsIgnoreCase(ruUri.getScheme()) && Files.isRegularFile(ruUri.toPath())) {
+				if (new RatingFileParser().parse(ruUri.toPath(), outUserMap, outItemMap))
+					return;
+				outUserMap.clear();
+				outItemMap.clear();
+			}
+			
 			reader = new BufferedReader(adapter.getReader(ruUri));
 			DSUtil.lineProcess(reader, new LineProcessor() {
 				
@@ -170,7 +170,13 @@ public class DefaultServer extends PowerServerImpl {
 	protected void serverTasks() {
 		
 		// Task 1: Period learning.
-		if (config.isPeriodLearn() && !config.isDatasetEmpty()) { //These methods are used to prevent time consuming from learning internal recommender.
+		if (config.isSnapshotIsolation() || config.isIncrementalLearn()) { //Rating changes are published as next version which learns them, so that period learning from scratch is not needed.
+			try {
+				if (service.publishVersion())
+					LogUtil.info("Server timer internal tasks: Publishing rating changes is successful");
+			} catch (Throwable e) {LogUtil.trace(e);}
+		}
+		else if (config.isPeriodLearn() && !config.isDatasetEmpty()) { //These methods are used to prevent time consuming from learning internal recommender.
 			try {
 //				DefaultService newService = createService();
 //				newService.open(config); //This statement is important, which takes much time.
@@ -14,6 +14,8 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.hudup.core.Constants;
 import net.hudup.core.PluginChangedEvent;
@@ -24,6 +26,8 @@ import net.hudup.core.alg.Alg;
 import net.hudup.core.alg.AlgDesc2;
 import net.hudup.core.alg.AlgDesc2List;
 import net.hudup.core.alg.AlgRemote;
+import net.hudup.core.alg.IncrementalAlg;
+import net.hudup.core.alg.ModelBasedAlg;
 import net.hudup.core.alg.RecommendParam;
 import net.hudup.core.alg.Recommender;
 import net.hudup.core.client.ServerInfo;
@@ -44,6 +48,7 @@ import net.hudup.core.data.Profile;
 import net.hudup.core.data.Provider;
 import net.hudup.core.data.ProviderImpl;
 import net.hudup.core.data.Rating;
+import net.hudup.core.data.RatingDelta;
 import net.hudup.core.data.RatingVector;
 import net.hudup.core.data.Scanner;
 import net.hudup.core.data.Snapshot;
@@ -56,6 +61,11 @@ import net.hudup.core.logistic.NextUpdate;
 
 /**
  * {@link DefaultService} class is default implementation of {@link Service} interface. {@link DefaultService} uses {@link Recommender} and {@link Provider} for processing recommendation request and update request, respectively.
+ * By default, read requests and update requests are isolated by read-lock and write-lock of the internal transaction.
+ * In snapshot isolation mode ({@link PowerServerConfig#isSnapshotIsolation()}), read requests do not lock the transaction but pin the published version of recommender and its dataset,
+ * whereas rating changes are saved by provider and recorded in a delta which is applied to the next version by the method {@link #publishVersion()}.
+ * In incremental learning mode ({@link PowerServerConfig#isIncrementalLearn()}), recommender algorithm implementing {@link IncrementalAlg} learns the next version from the delta
+ * instead of being set up again from scratch.
  * Developers are suggested to build up their own services.
  * 
  * @author Loc Nguyen
@@ -84,9 +94,52 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	
 	
 	/**
-	 * Recommender algorithm.
+	 * Recommender algorithm. It is published together with {@link #version} by the method {@link #publish(Recommender, Version)}.
 	 */
-	protected Recommender recommender = null;
+	protected volatile Recommender recommender = null;
+	
+	
+	/**
+	 * Published version of recommender algorithm.
+	 */
+	protected volatile Version version = null;
+	
+	
+	/**
+	 * Flag to indicate snapshot isolation mode, which is taken from server configuration when service is opened.
+	 */
+	protected volatile boolean snapshotIsolation = false;
+	
+	
+	/**
+	 * Flag to indicate incremental learning mode, which is taken from server configuration when service is opened.
+	 */
+	protected volatile boolean incrementalLearn = false;
+	
+	
+	/**
+	 * Flag to indicate that the recommender of published version learned incrementally and so its knowledge base is not saved yet, which is saved when service is closed.
+	 */
+	protected volatile boolean unsavedKBase = false;
+	
+	
+	/**
+	 * Rating changes which are not applied to published version yet in snapshot isolation mode or incremental learning mode.
+	 */
+	protected RatingDelta delta = new RatingDelta();
+	
+	
+	/**
+	 * Read pins of threads.
+	 */
+	private final ThreadLocal<Pin> pins = new ThreadLocal<Pin>() {
+
+		@Override
+		protected Pin initialValue() {
+			return new Pin();
+		}
+		
+	};
 	
 	
 	/**
@@ -98,7 +151,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	/**
 	 * Provider. Do not retrieve directly this variable. Using method {@link #getProvider()} instead.
 	 */
-	private Provider provider = null;
+	private volatile Provider provider = null;
 	
 	
 	/**
@@ -130,6 +183,9 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 					return;
 				}
 				
+				//Pending rating changes were saved by provider and so they are learned by the new recommender.
+				if (snapshotIsolation || incrementalLearn) takeDelta();
+				
 				Recommender recommender0 = null;
 				try {
 					recommender0 = createRecommender(serverConfig);
@@ -140,11 +196,9 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 						trans.lockWrite();
 						
 						try {
-							if (recommender != null) recommender.unsetup();
+							publish(recommender0, null);
 						} catch (Throwable e) {LogUtil.trace(e);}
 						
-						recommender = recommender0;
-						
 						trans.unlockWrite();
 						
 						LogUtil.info("Service creates successfully recommender");
@@ -178,6 +232,8 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		boolean opened = true;
 		this.serverConfig = serverConfig;
+		this.snapshotIsolation = serverConfig.isSnapshotIsolation();
+		this.incrementalLearn = serverConfig.isIncrementalLearn();
 		try {
 			updateRecommender(params);
 		}
@@ -221,6 +277,12 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			else {
 				dataset = serverConfig.getParser().parse((DataConfig)serverConfig.clone());
 			}
+			if ((serverConfig.isSnapshotIsolation() || serverConfig.isIncrementalLearn()) && !(dataset instanceof Snapshot)) {
+				//Versions are derived from in-memory snapshot so that readers are not affected by changes in store.
+				Dataset snapshot = dataset.catchup();
+				dataset.clear();
+				dataset = snapshot;
+			}
 			dataset.setExclusive(true);
 	
 			Recommender recommender = (Recommender) serverConfig.getRecommender().newInstance();
@@ -255,13 +317,12 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		}
 		catch (Throwable e) {LogUtil.trace(e);}
 		
-		if (recommender != null) {
-			try {
-				recommender.unsetup();
-			}
-			catch (Throwable e) {LogUtil.trace(e);}
+		saveKBase();
+		try {
+			publish(null, null);
 		}
-		recommender = null;
+		catch (Throwable e) {LogUtil.trace(e);}
+		takeDelta();
 		
 		if (provider != null) {
 			try {
@@ -273,6 +334,24 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	}
 
 
+	/**
+	 * Saving knowledge base of the recommender of published version if the recommender learned incrementally after its knowledge base was saved.
+	 */
+	protected void saveKBase() {
+		Recommender recommender = this.recommender;
+		if (!unsavedKBase || !(recommender instanceof ModelBasedAlg)) return;
+		
+		try {
+			((ModelBasedAlg)recommender).getKBase().save();
+			unsavedKBase = false;
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Service fail to save knowledge base, caused by " + e.getMessage());
+		}
+	}
+	
+	
 	/**
 	 * Transfer to target service.
 	 * @param target target service.
@@ -286,12 +365,13 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		trans.lockWrite();
 		try {
 			if (this.recommender != null) {
-				try {
-					if (target.recommender != null) target.recommender.unsetup();
-				} catch (Throwable e) {LogUtil.trace(e);}
-				target.recommender = this.recommender;
+				target.publish(this.recommender, null);
 				
-				this.recommender = null;
+				synchronized (this) {
+					//The recommender is not unset up because it is owned by target service now.
+					this.version = null;
+					this.recommender = null;
+				}
 				this.close();
 			}
 			else
@@ -311,12 +391,188 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	}
 	
 	
+	/**
+	 * Publishing the specified recommender as the new version. The old version is retired and its recommender is unset up when there is no reader pinning it.
+	 * @param newRecommender specified recommender. If it is null, the service has no recommender.
+	 * @param expected expected current version. If it is not null and the current version is not the expected version, the specified recommender is not published.
+	 * @return whether the specified recommender is published.
+	 */
+	protected synchronized boolean publish(Recommender newRecommender, Version expected) {
+		if (expected != null && version != expected) return false;
+		
+		Version old = version;
+		long number = old != null ? old.number + 1 : 1;
+		version = newRecommender != null ? new Version(newRecommender, number) : null;
+		recommender = newRecommender;
+		unsavedKBase = false;
+		
+		if (old != null) old.retire();
+		return true;
+	}
+	
+	
+	/**
+	 * Taking pending rating changes, which are cleared later.
+	 * @return pending rating changes.
+	 */
+	protected synchronized RatingDelta takeDelta() {
+		RatingDelta changes = delta;
+		delta = new RatingDelta();
+		return changes;
+	}
+	
+	
+	/**
+	 * Restoring the specified pending rating changes which were taken but not published. Rating changes recorded after taking them are kept after them.
+	 * @param changes specified pending rating changes.
+	 */
+	protected synchronized void restoreDelta(RatingDelta changes) {
+		if (changes == null || changes.isEmpty()) return;
+		
+		changes.append(delta);
+		delta = changes;
+	}
+	
+	
+	/**
+	 * Publishing the next version in snapshot isolation mode or incremental learning mode by applying pending rating changes to the dataset of the current version.
+	 * The next dataset is derived by {@link RatingDelta#apply(net.hudup.core.data.SnapshotImpl)} which does not modify the current dataset
+	 * and so readers of the current version are not affected while the recommender of the next version is set up.
+	 * If the current recommender implements {@link IncrementalAlg}, the next recommender learns incrementally from the current recommender and pending rating changes.
+	 * If the next version is not published because of error or because another version was published meanwhile, pending rating changes are restored for the next time.
+	 * @return whether the next version is published.
+	 */
+	public boolean publishVersion() {
+		if (!snapshotIsolation && !incrementalLearn) return false;
+		
+		Version current = acquireVersion();
+		if (current == null) return false;
+		
+		boolean published = false;
+		RatingDelta changes = null;
+		try {
+			changes = takeDelta();
+			if (changes.isEmpty()) return false;
+			
+			Dataset dataset = current.recommender.getDataset();
+			if (!(dataset instanceof SnapshotImpl)) {
+				changes = null; //Pending rating changes were saved by provider and so they are learned by the re-created recommender.
+				updateRecommender();
+				return false;
+			}
+			
+			Snapshot snapshot = changes.apply((SnapshotImpl)dataset);
+			//Current dataset shares its structures with the next dataset and so it is not cleared when the current recommender is unset up.
+			dataset.setExclusive(false);
+			
+			Recommender next = null;
+			boolean incremental = false;
+			if (current.recommender instanceof IncrementalAlg) {
+				next = (Recommender) ((IncrementalAlg)current.recommender).learnIncrementally(snapshot, changes);
+				incremental = next != null;
+			}
+			if (next == null) {
+				next = (Recommender) current.recommender.newInstance();
+				next.getConfig().putAll(current.recommender.getConfig());
+				next.setup(snapshot);
+			}
+			
+			if (snapshotIsolation)
+				published = publish(next, current);
+			else {
+				//Without snapshot isolation, readers lock the transaction and so the next version is published under write-lock.
+				trans.lockWrite();
+				try {
+					published = publish(next, current);
+				}
+				finally {
+					trans.unlockWrite();
+				}
+			}
+			if (published) {
+				unsavedKBase = incremental;
+				LogUtil.info("Service published version " + (current.number + 1) + " with " + changes.size() + " rating change (s)");
+			}
+			else
+				next.unsetup();
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Service fail to publish version, caused by " + e.getMessage());
+		}
+		finally {
+			if (!published) restoreDelta(changes);
+			current.release();
+		}
+		
+		return published;
+	}
+	
+	
+	/**
+	 * Acquiring the published version so that its recommender is not unset up until the version is released.
+	 * @return the published version, or null if there is no published version.
+	 */
+	private Version acquireVersion() {
+		while (true) {
+			Version v = version;
+			if (v == null || v.acquire()) return v;
+		}
+	}
+	
+	
+	/**
+	 * Locking for reading. In snapshot isolation mode, the published version is pinned instead of locking the transaction. This method is reentrant.
+	 */
+	protected void lockRead() {
+		Pin pin = pins.get();
+		if (pin.count++ > 0) return;
+		
+		if (snapshotIsolation)
+			pin.version = acquireVersion();
+		else {
+			trans.lockRead();
+			pin.transLocked = true;
+		}
+	}
+	
+	
+	/**
+	 * Unlocking for reading, which is called after {@link #lockRead()}.
+	 */
+	protected void unlockRead() {
+		Pin pin = pins.get();
+		if (pin.count == 0 || --pin.count > 0) return;
+		
+		if (pin.transLocked) {
+			pin.transLocked = false;
+			trans.unlockRead();
+		}
+		if (pin.version != null) {
+			Version v = pin.version;
+			pin.version = null;
+			v.release();
+		}
+	}
+	
+	
+	/**
+	 * Getting recommender. If current thread is reading in snapshot isolation mode, the recommender of the pinned version is returned.
+	 * @return recommender.
+	 */
+	protected Recommender getRecommender() {
+		Version v = pins.get().version;
+		return v != null ? v.recommender : recommender;
+	}
+	
+	
 	/**
 	 * Getting dataset (scanner).
 	 * @return scanner inside recommender algorithm.
 	 */
 	protected Dataset getDataset() {
-		if (isOpened()) {
+		Recommender recommender = getRecommender();
+		if (recommender != null) {
 			try {
 				return recommender.getDataset();
 			}
@@ -336,35 +592,41 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	 */
 	protected Provider getProvider() {
 		Dataset dataset = getDataset();
-		if (dataset == null) {
-			if (provider != null) {
+		Provider provider = this.provider;
+		if (provider != null && dataset != null && !(dataset instanceof Scanner))
+			return provider; //Provider is created once, so that reading it does not lock the service.
+		
+		synchronized (this) {
+			if (dataset == null) {
+				if (this.provider != null) {
+					try {
+						this.provider.close();
+					}
+					catch (Exception e) {
+						LogUtil.trace(e);
+					}
+					this.provider = null;
+				}
+				return null;
+			}
+			else if (dataset instanceof Scanner) {
 				try {
-					provider.close();
+					if (this.provider != null) this.provider.close();
 				}
 				catch (Exception e) {
 					LogUtil.trace(e);
 				}
-				provider = null;
-			}
-			return null;
-		}
-		else if (dataset instanceof Scanner) {
-			try {
-				if (provider != null) provider.close();
-			}
-			catch (Exception e) {
-				LogUtil.trace(e);
+				this.provider = null;
+				
+				return ((Scanner)dataset).getProvider(); //Only scanner owns provider.
 			}
-			provider = null;
-			
-			return ((Scanner)dataset).getProvider(); //Only scanner owns provider.
-		}
-		else {
-			if (provider == null) {
-				DataConfig config = (DataConfig)dataset.getConfig().clone();
-				provider = new ProviderImpl(config);
+			else {
+				if (this.provider == null) {
+					DataConfig config = (DataConfig)dataset.getConfig().clone();
+					this.provider = new ProviderImpl(config);
+				}
+				return this.provider;
 			}
-			return provider;
 		}
 	}
 
@@ -392,9 +654,9 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		RatingVector result = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
-			result = recommender.estimate(param, queryIds);
+			result = getRecommender().estimate(param, queryIds);
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -403,7 +665,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to estimate, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return result;
@@ -415,9 +677,9 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		RatingVector result = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
-			result = recommender.recommend(param, maxRecommend);
+			result = getRecommender().recommend(param, maxRecommend);
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -426,7 +688,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to recommend, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return result;
@@ -438,10 +700,10 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			throws RemoteException {
 		RatingVector result = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			RecommendParam param = new RecommendParam(userId);
-			result = recommender.recommend(param, maxRecommend);
+			result = getRecommender().recommend(param, maxRecommend);
 			param.clear();
 		}
 		catch (Throwable e) {
@@ -451,16 +713,16 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to recommend first time, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		if (result == null) {
 			
-			trans.lockRead();
+			lockRead();
 			try {
 				RecommendParam param = getProvider().getRecommendParam(userId);
 				if (param != null) {
-					result = recommender.recommend(param, maxRecommend);
+					result = getRecommender().recommend(param, maxRecommend);
 					param.clear();
 				}
 			}
@@ -471,7 +733,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 				LogUtil.error("Service fail to recommend second time, caused by " + e.getMessage());
 			}
 			finally {
-				trans.unlockRead();
+				unlockRead();
 			}
 		}
 		
@@ -479,6 +741,79 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	}
 
 
+	@Override
+	public Map<Integer, RatingVector> recommendUsers(Set<Integer> userIds, int maxRecommend)
+			throws RemoteException {
+		Map<Integer, RatingVector> results = Util.newMap();
+		if (userIds == null) return results;
+		
+		lockRead(); //Reentrant lock is acquired once so that all users are served by the same recommender.
+		try {
+			for (int userId : userIds) {
+				RatingVector result = recommend(userId, maxRecommend);
+				if (result != null) results.put(userId, result);
+			}
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Service fail to recommend for many users, caused by " + e.getMessage());
+		}
+		finally {
+			unlockRead();
+		}
+		
+		return results;
+	}
+
+
+	@Override
+	public Map<Integer, RatingVector> estimateUsers(Map<Integer, Set<Integer>> userQueryIds)
+			throws RemoteException {
+		Map<Integer, RatingVector> results = Util.newMap();
+		if (userQueryIds == null) return results;
+		
+		lockRead(); //Reentrant lock is acquired once so that all users are served by the same recommender.
+		try {
+			Recommender recommender = getRecommender();
+			for (int userId : userQueryIds.keySet()) {
+				Set<Integer> queryIds = userQueryIds.get(userId);
+				RatingVector result = null;
+				try {
+					RecommendParam param = new RecommendParam(userId);
+					result = recommender.estimate(param, queryIds);
+					param.clear();
+					
+					//Like recommending for user, the second time uses ratings and profile of user retrieved from provider.
+					if (result == null) {
+						param = getProvider().getRecommendParam(userId);
+						if (param != null) {
+							result = recommender.estimate(param, queryIds);
+							param.clear();
+						}
+					}
+				}
+				catch (Throwable e) {
+					LogUtil.trace(e);
+					result = null;
+					
+					LogUtil.error("Service fail to estimate for user " + userId + ", caused by " + e.getMessage());
+				}
+				
+				if (result != null) results.put(userId, result);
+			}
+		}
+		catch (Throwable e) {
+			LogUtil.trace(e);
+			LogUtil.error("Service fail to estimate for many users, caused by " + e.getMessage());
+		}
+		finally {
+			unlockRead();
+		}
+		
+		return results;
+	}
+
+
 	@Override
 	@Deprecated
 	public net.hudup.core.client.Recommendlet recommend(
@@ -496,8 +831,9 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 				int userId = getDataset().getUserId(externalUserId);
 				int itemId = getDataset().getItemId(externalItemId);
 				
-				if (userId >= 0 && itemId >= 0)
-					getProvider().updateRating(userId, itemId, rating);
+				if (userId >= 0 && itemId >= 0 && getProvider().updateRating(userId, itemId, rating) && (snapshotIsolation || incrementalLearn)) {
+					synchronized (this) {delta.update(userId, itemId, rating);}
+				}
 			}
 			catch (Throwable e) {
 				LogUtil.trace(e);
@@ -511,7 +847,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		net.hudup.core.client.Recommendlet result = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			DataConfig cfg = getDataset().getConfig();
 			
@@ -546,7 +882,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to recommend net.hudup.core.client.Recommendlet, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return result;
@@ -560,6 +896,9 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		trans.lockWrite();
 		try {
 			result = getProvider().updateRating(vRating);
+			if (result && (snapshotIsolation || incrementalLearn)) {
+				synchronized (this) {delta.update(vRating);}
+			}
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -583,6 +922,9 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		trans.lockWrite();
 		try {
 			result = getProvider().updateRating(userId, itemId, rating);
+			if (result && (snapshotIsolation || incrementalLearn)) {
+				synchronized (this) {delta.update(userId, itemId, rating);}
+			}
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -605,6 +947,9 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		trans.lockWrite();
 		try {
 			result = getProvider().deleteRating(vRating);
+			if (result && (snapshotIsolation || incrementalLearn)) {
+				synchronized (this) {delta.delete(vRating);}
+			}
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -624,7 +969,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public Fetcher<Integer> getUserIds() throws RemoteException {
 		Fetcher<Integer> fetcher = MemFetcher.createEmpty();
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			
 			fetcher = getDataset().fetchUserIds();
@@ -636,7 +981,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get user id (s), caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return fetcher;
@@ -647,7 +992,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public RatingVector getUserRating(int userId) throws RemoteException {
 		RatingVector result = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			result = getDataset().getUserRating(userId);
 		}
@@ -658,7 +1003,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get user rating, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return result;
@@ -669,7 +1014,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public Fetcher<RatingVector> getUserRatings() throws RemoteException {
 		Fetcher<RatingVector> fetcher = MemFetcher.createEmpty();
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			fetcher = getDataset().fetchUserRatings();
 			
@@ -681,7 +1026,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get user rating (s), caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return fetcher;
@@ -695,6 +1040,9 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		trans.lockWrite();
 		try {
 			result = getProvider().deleteUserRating(userId);
+			if (result && (snapshotIsolation || incrementalLearn)) {
+				synchronized (this) {delta.deleteUser(userId);}
+			}
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -715,7 +1063,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		Profile user = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			user = getDataset().getUserProfile(userId);
 		}
@@ -726,7 +1074,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get user profile, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return user;
@@ -739,7 +1087,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 
 		Profile user = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			int userId = getDataset().getUserId(externalUserId);
 			if (userId >= 0)
@@ -752,7 +1100,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get user profile by external, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return user;
@@ -763,7 +1111,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public Fetcher<Profile> getUserProfiles() throws RemoteException {
 		Fetcher<Profile> fetcher = MemFetcher.createEmpty();
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			fetcher = getDataset().fetchUserProfiles();
 		}
@@ -774,7 +1122,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get user profiles, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return fetcher;
@@ -833,7 +1181,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		AttributeList attributeList = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			attributeList = getDataset().getUserAttributes();
 		}
@@ -844,7 +1192,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get user attribute list, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return attributeList;
@@ -857,7 +1205,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		ExternalRecord externalRecord = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			externalRecord = getDataset().getUserExternalRecord(userId);
 		}
@@ -868,7 +1216,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get user external record, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return externalRecord;
@@ -879,7 +1227,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public Fetcher<Integer> getItemIds() throws RemoteException {
 		Fetcher<Integer> fetcher = MemFetcher.createEmpty();
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			fetcher = getDataset().fetchItemIds();
 		}
@@ -890,7 +1238,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get item id (s), caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return fetcher;
@@ -901,7 +1249,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public RatingVector getItemRating(int itemId) throws RemoteException {
 		RatingVector result = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			result = getDataset().getItemRating(itemId);
 		}
@@ -912,7 +1260,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get item rating, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return result;
@@ -925,7 +1273,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		Fetcher<RatingVector> fetcher = MemFetcher.createEmpty();
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			fetcher = getDataset().fetchItemRatings();
 			
@@ -937,7 +1285,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get item rating (s), caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return fetcher;
@@ -951,6 +1299,9 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		trans.lockWrite();
 		try {
 			result = getProvider().deleteItemRating(itemId);
+			if (result && (snapshotIsolation || incrementalLearn)) {
+				synchronized (this) {delta.deleteItem(itemId);}
+			}
 		}
 		catch (Throwable e) {
 			LogUtil.trace(e);
@@ -971,7 +1322,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		Profile item = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			item = getDataset().getItemProfile(itemId);
 		}
@@ -982,7 +1333,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get item profile, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return item;
@@ -995,7 +1346,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 
 		Profile item = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			int itemId = getDataset().getItemId(externalItemId);
 			if (itemId >= 0)
@@ -1008,7 +1359,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get item profile by external, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return item;
@@ -1019,7 +1370,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public Fetcher<Profile> getItemProfiles() throws RemoteException {
 		Fetcher<Profile> fetcher = MemFetcher.createEmpty();
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			fetcher = getDataset().fetchItemProfiles();
 		}
@@ -1030,7 +1381,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get item profiles, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return fetcher;
@@ -1090,7 +1441,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		AttributeList attributeList = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			attributeList = getDataset().getItemAttributes(); 
 		}
@@ -1101,7 +1452,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get item attribute list, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return attributeList;
@@ -1114,7 +1465,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		ExternalRecord externalRecord = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			externalRecord = getDataset().getItemExternalRecord(itemId);
 		}
@@ -1125,7 +1476,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to item external record, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return externalRecord;
@@ -1136,7 +1487,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public NominalList getNominal(String unitName, String attribute) {
 		NominalList nominalList = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			nominalList = getProvider().getNominalList(unitName, attribute);
 		}
@@ -1147,7 +1498,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get nominal, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return nominalList;
@@ -1205,7 +1556,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		ExternalRecord externalRecord = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			InterchangeAttributeMap attributeMap = getProvider().getAttributeMap(internalRecord);
 			if (attributeMap != null && attributeMap.isValid())
@@ -1218,7 +1569,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get external record, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return externalRecord;
@@ -1296,7 +1647,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public Profile getSampleProfile(Profile condition) throws RemoteException {
 		Profile profile = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			profile = getProvider().getProfile(getDataset().getConfig().getSampleUnit(), condition);
 		}
@@ -1307,7 +1658,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get profile, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return profile;
@@ -1320,7 +1671,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		AttributeList attributeList = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			attributeList = getProvider().getProfileAttributes(getDataset().getConfig().getSampleUnit());
 		}
@@ -1331,7 +1682,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get profile attribute list, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return attributeList;
@@ -1393,7 +1744,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		if (profileUnit.equals(getDataset().getConfig().getAccountUnit()))
 			return profile;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			profile = getProvider().getProfile(profileUnit, condition);
 		}
@@ -1404,7 +1755,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get profile, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return profile;
@@ -1417,7 +1768,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		AttributeList attributeList = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			attributeList = getProvider().getProfileAttributes(unitName);
 		}
@@ -1428,7 +1779,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get profile attribute list, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return attributeList;
@@ -1493,7 +1844,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 		
 		DataConfig serverConfig = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			serverConfig = new DataConfig();
 			serverConfig.setMetadata(getDataset().getConfig().getMetadata());
@@ -1505,7 +1856,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get server configuration, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return serverConfig;
@@ -1516,7 +1867,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public Snapshot getSnapshot() throws RemoteException {
 		Snapshot snapshot = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			DataConfig config = new DataConfig();
 			Snapshot temp = (Snapshot) getDataset().catchup();
@@ -1533,7 +1884,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get snapshot, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return snapshot;
@@ -1557,7 +1908,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	 */
 	public Evaluator getEvaluator(String evaluatorName) throws RemoteException {
 		Evaluator evaluator = null;
-		trans.lockRead();
+		lockRead();
 		try {
 			List<Evaluator> evList = Util.getPluginManager().loadInstances(Evaluator.class);
 			for (Evaluator ev : evList) {
@@ -1591,7 +1942,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get evaluator, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return evaluator;
@@ -1602,7 +1953,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public String[] getEvaluatorNames() throws RemoteException {
 		List<String> evaluatorNames = Util.newList();
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			List<Evaluator> evList = Util.getPluginManager().loadInstances(Evaluator.class);
 			for (Evaluator ev : evList) {
@@ -1614,7 +1965,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get evaluator, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		Collections.sort(evaluatorNames, new Comparator<String>() {
@@ -1638,7 +1989,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public Alg getAlg(String algName) throws RemoteException {
 		Alg alg = null;
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			alg = PluginStorage.getNormalAlgReg().query(algName);
 			if (alg instanceof AlgRemote) {
@@ -1664,7 +2015,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fails to get algorithm, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		return alg;
@@ -1679,7 +2030,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public String[] getAlgNames() throws RemoteException {
 		List<String> algNames = Util.newList();
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			algNames = PluginStorage.getNormalAlgReg().getAlgNames();
 		}
@@ -1688,7 +2039,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get algorithm names, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		Collections.sort(algNames);
@@ -1704,7 +2055,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	public AlgDesc2List getAlgDescs() throws RemoteException {
 		AlgDesc2List algDescs = new AlgDesc2List();
 		
-		trans.lockRead();
+		lockRead();
 		try {
 			algDescs.addAll2(PluginStorage.getNormalAlgReg().getAlgList());
 		}
@@ -1713,7 +2064,7 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 			LogUtil.error("Service fail to get list of extended algorithm descriptions, caused by " + e.getMessage());
 		}
 		finally {
-			trans.unlockRead();
+			unlockRead();
 		}
 		
 		algDescs.sort(new Comparator<AlgDesc2>() {
@@ -1745,6 +2096,116 @@ public class DefaultService implements Service, PluginChangedListener, AutoClose
 	}
 
 
+	/**
+	 * This class represents a published version of recommender. Readers acquire the version before reading and release it after reading.
+	 * When the version is retired, its recommender is unset up as soon as there is no reader acquiring it.
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 */
+	protected static class Version {
+		
+		/**
+		 * Recommender of this version.
+		 */
+		public final Recommender recommender;
+		
+		/**
+		 * Version number.
+		 */
+		public final long number;
+		
+		/**
+		 * Number of readers.
+		 */
+		private final AtomicInteger readers = new AtomicInteger(0);
+		
+		/**
+		 * Flag to indicate whether this version is retired.
+		 */
+		private volatile boolean retired = false;
+		
+		/**
+		 * Flag to indicate whether the recommender was unset up.
+		 */
+		private final AtomicBoolean unsetup = new AtomicBoolean(false);
+		
+		/**
+		 * Constructor with recommender and version number.
+		 * @param recommender recommender.
+		 * @param number version number.
+		 */
+		public Version(Recommender recommender, long number) {
+			this.recommender = recommender;
+			this.number = number;
+		}
+		
+		/**
+		 * Acquiring this version.
+		 * @return true if acquiring successfully, false if this version was retired.
+		 */
+		boolean acquire() {
+			readers.incrementAndGet();
+			if (!retired) return true;
+			
+			release();
+			return false;
+		}
+		
+		/**
+		 * Releasing this version.
+		 */
+		void release() {
+			if (readers.decrementAndGet() == 0 && retired) unsetup();
+		}
+		
+		/**
+		 * Retiring this version.
+		 */
+		void retire() {
+			retired = true;
+			if (readers.get() == 0) unsetup();
+		}
+		
+		/**
+		 * Unsetting up the recommender once.
+		 */
+		private void unsetup() {
+			if (!unsetup.compareAndSet(false, true)) return;
+			
+			try {
+				recommender.unsetup();
+			}
+			catch (Throwable e) {LogUtil.trace(e);}
+		}
+		
+	}
+	
+	
+	/**
+	 * This class represents read pin of a thread.
+	 * @author Loc Nguyen
+	 * @version 13.0
+	 */
+	private static class Pin {
+		
+		/**
+		 * Number of nested reads.
+		 */
+		int count = 0;
+		
+		/**
+		 * Flag to indicate whether the transaction is read-locked.
+		 */
+		boolean transLocked = false;
+		
+		/**
+		 * Pinned version in snapshot isolation mode.
+		 */
+		Version version = null;
+		
+	}
+	
+	
 	@Override
 	protected void finalize() throws Throwable {
 //		super.finalize();
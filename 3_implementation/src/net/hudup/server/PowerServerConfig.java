@@ -95,6 +95,32 @@ public class PowerServerConfig extends ServerConfig {
 	public final static boolean DATASET_EMPTY_DEFAULT = false;
 
 	
+	/**
+	 * Flag field to indicate snapshot isolation mode. In this mode, readers of service read the published version of dataset and recommender without locking
+	 * whereas rating changes are applied to the next version which is published atomically.
+	 */
+	public final static String SNAPSHOT_ISOLATION_FIELD = changeCase("snapshot_isolation");
+
+	
+	/**
+	 * By default, snapshot isolation mode is disabled.
+	 */
+	public final static boolean SNAPSHOT_ISOLATION_DEFAULT = false;
+
+	
+	/**
+	 * Flag field to indicate incremental learning mode. In this mode, rating changes are learned incrementally by recommender algorithm which supports incremental learning
+	 * instead of setting up recommender algorithm again from scratch in period learning.
+	 */
+	public final static String INCREMENTAL_LEARN_FIELD = changeCase("incremental_learn");
+
+	
+	/**
+	 * By default, incremental learning mode is disabled.
+	 */
+	public final static boolean INCREMENTAL_LEARN_DEFAULT = false;
+
+	
 	/**
 	 * Default constructor.
 	 */
@@ -129,6 +155,8 @@ public class PowerServerConfig extends ServerConfig {
 		}
 		setPeriodLearn(PERIOD_LEARN_DEFAULT);
 		setDatasetEmpty(DATASET_EMPTY_DEFAULT);
+		setSnapshotIsolation(SNAPSHOT_ISOLATION_DEFAULT);
+		setIncrementalLearn(INCREMENTAL_LEARN_DEFAULT);
 	}
 
 	
@@ -187,6 +215,42 @@ public class PowerServerConfig extends ServerConfig {
 	}
 
 	
+	/**
+	 * Setting flag to indicate snapshot isolation mode.
+	 * @param flag flag to indicate snapshot isolation mode.
+	 */
+	public void setSnapshotIsolation(boolean flag) {
+		put(SNAPSHOT_ISOLATION_FIELD, flag);
+	}
+	
+	
+	/**
+	 * Getting flag to indicate snapshot isolation mode.
+	 * @return flag to indicate snapshot isolation mode.
+	 */
+	public boolean isSnapshotIsolation() {
+		return getAsBoolean(SNAPSHOT_ISOLATION_FIELD);
+	}
+
+	
+	/**
+	 * Setting flag to indicate incremental learning mode.
+	 * @param flag flag to indicate incremental learning mode.
+	 */
+	public void setIncrementalLearn(boolean flag) {
+		put(INCREMENTAL_LEARN_FIELD, flag);
+	}
+	
+	
+	/**
+	 * Getting flag to indicate incremental learning mode.
+	 * @return flag to indicate incremental learning mode.
+	 */
+	public boolean isIncrementalLearn() {
+		return getAsBoolean(INCREMENTAL_LEARN_FIELD);
+	}
+
+	
 	@Override
 	protected String encrypt(HiddenText hidden) {
 		return Util.getCipher().encrypt(hidden.getText());